@@ -19,6 +19,7 @@
 #include <nlohmann/json.hpp>
 #include <set>
 #include <unordered_set>
+#include <utility>
 #include <vector>
 
 namespace SWA {
@@ -277,6 +278,15 @@ namespace SWA {
             return *this;
         }
 
+        Bag &operator+=(T &&rhs) {
+            if (!NullCheck<T>::isNull(rhs)) {
+                unique = false;
+                sorted = false;
+                data.push_back(std::move(rhs));
+            }
+            return *this;
+        }
+
         template <class T2>
         Bag &operator+=(const ObjectPtr<T2> &rhs) {
             if (rhs) {
@@ -379,6 +389,17 @@ namespace SWA {
             return SWA::find_one(data.begin(), data.end(), predicate);
         }
 
+        // Count and existence checks, without building the find result
+        template <class Predicate>
+        size_type count_if(Predicate predicate) const {
+            return std::count_if(data.begin(), data.end(), predicate);
+        }
+
+        template <class Predicate>
+        bool any_of(Predicate predicate) const {
+            return std::any_of(data.begin(), data.end(), predicate);
+        }
+
         T find_one() const {
             return SWA::find_one(data.begin(), data.end());
         }
@@ -0,0 +1,133 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_EventPool_HH
+#define SWA_EventPool_HH
+
+#include <cstddef>
+#include <new>
+
+namespace SWA {
+
+    // An allocator for use with std::allocate_shared, so that generated events
+    // are created as
+    //
+    //   std::allocate_shared<EventType>(EventPoolAllocator<EventType>(), args...)
+    //
+    // allocate_shared places the event and its reference count in a single
+    // block, and rebinds the allocator to the type of that block. Single blocks
+    // of each type are kept on a free list when released and handed out again
+    // for the next event of the same type, so that steady event traffic needs
+    // no calls to the global allocator. The result is an ordinary
+    // std::shared_ptr, so the event queue is unaffected.
+    //
+    // The free list for each block type is held per thread, so needs no
+    // locking. A block released on a different thread from the one that
+    // allocated it simply joins the free list of the releasing thread. At most
+    // MaxFree blocks of each type are retained per thread; any more are
+    // returned to the global allocator, as is every block once the thread's
+    // free list has been destroyed, for example for an event still held by a
+    // static or queued when the thread exits.
+    template <class T>
+    class EventPoolAllocator {
+      public:
+        typedef T value_type;
+
+        static const std::size_t MaxFree = 1024;
+
+        EventPoolAllocator() noexcept {}
+
+        template <class U>
+        EventPoolAllocator(const EventPoolAllocator<U> &) noexcept {}
+
+        T *allocate(std::size_t n) {
+            if (n != 1) {
+                return static_cast<T *>(::operator new(n * sizeof(T)));
+            }
+            FreeList *free = freeList();
+            if (free && free->head) {
+                Block *block = free->head;
+                free->head = block->next;
+                --free->size;
+                return reinterpret_cast<T *>(block);
+            }
+            return reinterpret_cast<T *>(::operator new(sizeof(Block)));
+        }
+
+        void deallocate(T *p, std::size_t n) noexcept {
+            FreeList *free = n == 1 ? freeList() : nullptr;
+            if (!free || free->size >= MaxFree) {
+                ::operator delete(p);
+                return;
+            }
+            Block *block = reinterpret_cast<Block *>(p);
+            block->next = free->head;
+            free->head = block;
+            ++free->size;
+        }
+
+        template <class U>
+        bool operator==(const EventPoolAllocator<U> &) const noexcept {
+            return true;
+        }
+
+        template <class U>
+        bool operator!=(const EventPoolAllocator<U> &) const noexcept {
+            return false;
+        }
+
+      private:
+        // Each block is big enough for a T, or for the link to the next free
+        // block while it is on the free list.
+        union Block {
+            Block *next;
+            alignas(T) unsigned char storage[sizeof(T)];
+        };
+
+        enum ListState { Unused, Alive, Destroyed };
+
+        // Trivially destructible, so still readable while the thread's other
+        // thread_local objects, including the free list, are being destroyed.
+        static ListState &listState() {
+            static thread_local ListState state = Unused;
+            return state;
+        }
+
+        struct FreeList {
+            Block *head = nullptr;
+            std::size_t size = 0;
+
+            FreeList() {
+                listState() = Alive;
+            }
+
+            ~FreeList() {
+                while (head) {
+                    Block *block = head;
+                    head = block->next;
+                    ::operator delete(block);
+                }
+                listState() = Destroyed;
+            }
+        };
+
+        // The free list for this thread, or null once it has been destroyed.
+        static FreeList *freeList() {
+            if (listState() == Destroyed) {
+                return nullptr;
+            }
+            static thread_local FreeList free;
+            return &free;
+        }
+    };
+
+} // namespace SWA
+
+#endif
@@ -0,0 +1,42 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_FlatHashContainers_HH
+#define SWA_FlatHashContainers_HH
+
+#include <boost/unordered/unordered_flat_map.hpp>
+#include <boost/unordered/unordered_flat_set.hpp>
+#include <boost/unordered_map.hpp>
+
+#include <map>
+
+// One of the container policies described in container_policy.hh
+namespace SWA {
+
+    // Open addressing hash containers, holding entries in a single array
+    // without an allocation per entry, so that finds touch less memory. There
+    // is no open addressing multimap, so indexes stay node based.
+    struct FlatHashContainers {
+        template <class Key, class Value>
+        using map = boost::unordered_flat_map<Key, Value>;
+
+        template <class Key, class Value>
+        using multimap = boost::unordered_multimap<Key, Value>;
+
+        template <class Key, class Value>
+        using ordered_multimap = std::multimap<Key, Value>;
+
+        template <class Key>
+        using set = boost::unordered_flat_set<Key>;
+    };
+
+} // namespace SWA
+
+#endif
@@ -0,0 +1,41 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_HashContainers_HH
+#define SWA_HashContainers_HH
+
+#include <map>
+#include <unordered_map>
+#include <unordered_set>
+
+// One of the container policies described in container_policy.hh
+namespace SWA {
+
+    // Node based hash containers. Insertion and removal never move existing
+    // entries, and cost the same for any size, at the price of an allocation
+    // per entry. This is the default, and is what the runtime templates used
+    // before policies could be chosen.
+    struct HashContainers {
+        template <class Key, class Value>
+        using map = std::unordered_map<Key, Value>;
+
+        template <class Key, class Value>
+        using multimap = std::unordered_multimap<Key, Value>;
+
+        template <class Key, class Value>
+        using ordered_multimap = std::multimap<Key, Value>;
+
+        template <class Key>
+        using set = std::unordered_set<Key>;
+    };
+
+} // namespace SWA
+
+#endif
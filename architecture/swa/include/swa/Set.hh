@@ -20,6 +20,7 @@
 #include <numeric>
 #include <set>
 #include <unordered_set>
+#include <utility>
 #include <vector>
 
 namespace SWA {
@@ -302,6 +303,15 @@ namespace SWA {
             return *this;
         }
 
+        Set &operator+=(T &&rhs) {
+            if (!NullCheck<T>::isNull(rhs)) {
+                unique = false;
+                sorted = false;
+                data.push_back(std::move(rhs));
+            }
+            return *this;
+        }
+
         template <class T2>
         Set &operator+=(const ObjectPtr<T2> &rhs) {
             if (rhs) {
@@ -413,6 +423,18 @@ namespace SWA {
             return SWA::find_one(data.begin(), data.end(), predicate);
         }
 
+        // Count and existence checks, without building the find result
+        template <class Predicate>
+        size_type count_if(Predicate predicate) const {
+            rationalise();
+            return std::count_if(data.begin(), data.end(), predicate);
+        }
+
+        template <class Predicate>
+        bool any_of(Predicate predicate) const {
+            return std::any_of(data.begin(), data.end(), predicate);
+        }
+
         T find_one() const {
             return SWA::find_one(data.begin(), data.end());
         }
@@ -0,0 +1,49 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_SmallVectorContainers_HH
+#define SWA_SmallVectorContainers_HH
+
+#include <boost/container/flat_map.hpp>
+#include <boost/container/flat_set.hpp>
+#include <boost/container/small_vector.hpp>
+
+#include <cstddef>
+#include <functional>
+#include <utility>
+
+// One of the container policies described in container_policy.hh
+namespace SWA {
+
+    // Sorted vectors holding up to InlineSize entries within the container
+    // itself, only allocating once that is exceeded. These suit objects whose
+    // instances are each related to only a few others, as the relationship
+    // then needs no allocation at all.
+    struct SmallVectorContainers {
+        static const std::size_t InlineSize = 4;
+
+        template <class Key, class Value>
+        using map = boost::container::
+            flat_map<Key, Value, std::less<Key>, boost::container::small_vector<std::pair<Key, Value>, InlineSize>>;
+
+        template <class Key, class Value>
+        using multimap = boost::container::
+            flat_multimap<Key, Value, std::less<Key>, boost::container::small_vector<std::pair<Key, Value>, InlineSize>>;
+
+        template <class Key, class Value>
+        using ordered_multimap = multimap<Key, Value>;
+
+        template <class Key>
+        using set = boost::container::flat_set<Key, std::less<Key>, boost::container::small_vector<Key, InlineSize>>;
+    };
+
+} // namespace SWA
+
+#endif
@@ -0,0 +1,39 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_SortedVectorContainers_HH
+#define SWA_SortedVectorContainers_HH
+
+#include <boost/container/flat_map.hpp>
+#include <boost/container/flat_set.hpp>
+
+// One of the container policies described in container_policy.hh
+namespace SWA {
+
+    // Sorted vectors, searched by binary search. These are the most compact
+    // and fastest to iterate, but insertion and removal move every later
+    // entry, so suit populations which are mostly read once loaded.
+    struct SortedVectorContainers {
+        template <class Key, class Value>
+        using map = boost::container::flat_map<Key, Value>;
+
+        template <class Key, class Value>
+        using multimap = boost::container::flat_multimap<Key, Value>;
+
+        template <class Key, class Value>
+        using ordered_multimap = boost::container::flat_multimap<Key, Value>;
+
+        template <class Key>
+        using set = boost::container::flat_set<Key>;
+    };
+
+} // namespace SWA
+
+#endif
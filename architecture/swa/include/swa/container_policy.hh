@@ -0,0 +1,42 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_container_policy_HH
+#define SWA_container_policy_HH
+
+#include "FlatHashContainers.hh"
+#include "HashContainers.hh"
+#include "SmallVectorContainers.hh"
+#include "SortedVectorContainers.hh"
+
+// Container policies, choosing the containers used for an object's instance
+// population, its identifier lookups and indexes, the instances related to
+// each of its instances, and for sql its primary key cache. The policy is
+// chosen by a container_policy pragma on the object or its domain, naming one
+// of hash, flat_hash, sorted_vector or small_vector. Each policy provides
+//
+//   map<Key,Value>              unique keys, as for the population and
+//                               identifier lookups
+//   multimap<Key,Value>         non-unique keys, as for index pragmas
+//   ordered_multimap<Key,Value> non-unique keys sorted for range scans, as for
+//                               ordered_index pragmas
+//   set<Key>                    as for to-many relationships and primary key
+//                               caches
+//
+// The containers of every policy support the subset of the standard container
+// interface used by the generated code and index.hh. Sorted containers also
+// need Key to be less than comparable, which holds for all attribute types,
+// tuples of them and instance pointers.
+//
+// Each policy is declared in a header of its own, named after the policy
+// class, so that code using one policy does not pay for parsing the
+// containers of the others. This header includes them all.
+
+#endif
@@ -0,0 +1,221 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_index_HH
+#define SWA_index_HH
+
+#include "ProgramError.hh"
+#include "Sequence.hh"
+#include "Set.hh"
+
+#include <cstddef>
+
+// Lookups on a secondary index, held as a multimap from a tuple of attribute
+// values, or for an ordered index a single attribute value, to each instance
+// having those values. An instance appears at most once under any key.
+namespace SWA {
+
+    // A predicate accepting every instance, for lookups where the key is the
+    // whole of the find condition.
+    struct any_instance {
+        template <class T>
+        bool operator()(const T &) const {
+            return true;
+        }
+    };
+
+    // All instances stored under the key for which the predicate holds.
+    template <class Index, class Predicate = any_instance>
+    Set<typename Index::mapped_type> find_indexed(const Index &index,
+                                                  const typename Index::key_type &key,
+                                                  Predicate predicate = Predicate()) {
+        Set<typename Index::mapped_type> result;
+        const auto range = index.equal_range(key);
+        for (auto it = range.first; it != range.second; ++it) {
+            if (predicate(it->second)) {
+                result += it->second;
+            }
+        }
+        result.forceUnique();
+        return result;
+    }
+
+    // Any one instance stored under the key for which the predicate holds.
+    template <class Index, class Predicate = any_instance>
+    typename Index::mapped_type find_one_indexed(const Index &index,
+                                                 const typename Index::key_type &key,
+                                                 Predicate predicate = Predicate()) {
+        const auto range = index.equal_range(key);
+        for (auto it = range.first; it != range.second; ++it) {
+            if (predicate(it->second)) {
+                return it->second;
+            }
+        }
+        return typename Index::mapped_type();
+    }
+
+    // The only instance stored under the key for which the predicate holds, as
+    // for find_only.
+    template <class Index, class Predicate = any_instance>
+    typename Index::mapped_type find_only_indexed(const Index &index,
+                                                  const typename Index::key_type &key,
+                                                  Predicate predicate = Predicate()) {
+        typename Index::mapped_type result;
+        const auto range = index.equal_range(key);
+        for (auto it = range.first; it != range.second; ++it) {
+            if (predicate(it->second)) {
+                if (result) {
+                    throw SWA::ProgramError("Multiple occurences in find_only");
+                }
+                result = it->second;
+            }
+        }
+        return result;
+    }
+
+    template <class Index, class Predicate>
+    std::size_t count_indexed(const Index &index, const typename Index::key_type &key, Predicate predicate) {
+        std::size_t result = 0;
+        const auto range = index.equal_range(key);
+        for (auto it = range.first; it != range.second; ++it) {
+            if (predicate(it->second)) {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    // The instance found by a unique lookup if the predicate holds for it, or
+    // null otherwise.
+    template <class Ptr, class Predicate>
+    Ptr filter_instance(const Ptr &instance, Predicate predicate) {
+        return instance && predicate(instance) ? instance : Ptr();
+    }
+
+    template <class Ptr, class Predicate>
+    std::size_t count_instance(const Ptr &instance, Predicate predicate) {
+        return instance && predicate(instance) ? 1 : 0;
+    }
+
+    // Removes the entry for the instance stored under the key, leaving any
+    // other instances with the same key in place.
+    template <class Index>
+    void erase_indexed(Index &index,
+                       const typename Index::key_type &key,
+                       const typename Index::mapped_type &instance) {
+        const auto range = index.equal_range(key);
+        for (auto it = range.first; it != range.second; ++it) {
+            if (it->second == instance) {
+                index.erase(it);
+                return;
+            }
+        }
+    }
+
+    // Range scans on an ordered index. A range runs from first up to but not
+    // including last, both bounds taken from the index, and is empty if last
+    // comes before first, as for contradictory conditions such as x > 5 and
+    // x < 3. Only instances for which the predicate holds are included.
+    template <class Index>
+    bool empty_range(const Index &index,
+                     typename Index::const_iterator first,
+                     typename Index::const_iterator last) {
+        return first == last || first == index.end() ||
+               (last != index.end() && index.key_comp()(last->first, first->first));
+    }
+
+    template <class Index, class Predicate = any_instance>
+    Set<typename Index::mapped_type> find_range(const Index &index,
+                                                typename Index::const_iterator first,
+                                                typename Index::const_iterator last,
+                                                Predicate predicate = Predicate()) {
+        Set<typename Index::mapped_type> result;
+        if (!empty_range(index, first, last)) {
+            for (; first != last; ++first) {
+                if (predicate(first->second)) {
+                    result += first->second;
+                }
+            }
+        }
+        result.forceUnique();
+        return result;
+    }
+
+    // As find_range, but in key order, so that ordering by the key need not
+    // sort.
+    template <class Index, class Predicate = any_instance>
+    Sequence<typename Index::mapped_type> find_range_ordered(const Index &index,
+                                                             typename Index::const_iterator first,
+                                                             typename Index::const_iterator last,
+                                                             Predicate predicate = Predicate()) {
+        Sequence<typename Index::mapped_type> result;
+        if (!empty_range(index, first, last)) {
+            for (; first != last; ++first) {
+                if (predicate(first->second)) {
+                    result += first->second;
+                }
+            }
+        }
+        return result;
+    }
+
+    template <class Index, class Predicate = any_instance>
+    typename Index::mapped_type find_one_range(const Index &index,
+                                               typename Index::const_iterator first,
+                                               typename Index::const_iterator last,
+                                               Predicate predicate = Predicate()) {
+        if (!empty_range(index, first, last)) {
+            for (; first != last; ++first) {
+                if (predicate(first->second)) {
+                    return first->second;
+                }
+            }
+        }
+        return typename Index::mapped_type();
+    }
+
+    template <class Index, class Predicate = any_instance>
+    typename Index::mapped_type find_only_range(const Index &index,
+                                                typename Index::const_iterator first,
+                                                typename Index::const_iterator last,
+                                                Predicate predicate = Predicate()) {
+        typename Index::mapped_type result;
+        if (!empty_range(index, first, last)) {
+            for (; first != last; ++first) {
+                if (predicate(first->second)) {
+                    if (result) {
+                        throw SWA::ProgramError("Multiple occurences in find_only");
+                    }
+                    result = first->second;
+                }
+            }
+        }
+        return result;
+    }
+
+    template <class Index, class Predicate = any_instance>
+    std::size_t count_range(const Index &index,
+                            typename Index::const_iterator first,
+                            typename Index::const_iterator last,
+                            Predicate predicate = Predicate()) {
+        std::size_t result = 0;
+        if (!empty_range(index, first, last)) {
+            for (; first != last; ++first) {
+                if (predicate(first->second)) {
+                    ++result;
+                }
+            }
+        }
+        return result;
+    }
+
+} // namespace SWA
+
+#endif
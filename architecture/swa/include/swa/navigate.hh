@@ -83,6 +83,18 @@ namespace SWA {
         });
     }
 
+    // Counts the instances related to src using the relationship's own count,
+    // without building the set of related instances
+    template <class SrcObj, class Counter>
+    std::size_t count_related(const SrcObj *src, Counter counter) {
+        return src ? std::invoke(counter, src) : 0;
+    }
+
+    template <class SrcObj, class Counter>
+    std::size_t count_related(const ObjectPtr<SrcObj> &src, Counter counter) {
+        return src ? std::invoke(counter, src.get()) : 0;
+    }
+
 } // namespace SWA
 
 #endif
@@ -0,0 +1,170 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_pipeline_HH
+#define SWA_pipeline_HH
+
+#include "ObjectPtr.hh"
+#include "ProgramError.hh"
+#include "Set.hh"
+
+#include <functional>
+#include <unordered_set>
+
+// A pipeline runs a chain of navigations and find conditions over the
+// instances reachable from a source, passing each instance that reaches the
+// end to a consumer without building a set at each step. The consumer may
+// stop the walk early, as for find_one or any. Each navigation passes an
+// instance on only the first time it reaches it, so an instance reached by
+// more than one route is only navigated from, and consumed, once.
+namespace SWA {
+    namespace pipeline {
+
+        template <class Navigator>
+        struct Navigate {
+            Navigator navigator;
+        };
+
+        template <class Predicate>
+        struct Filter {
+            Predicate predicate;
+        };
+
+        // Navigates from each instance, given as a const pointer.
+        template <class Navigator>
+        Navigate<Navigator> navigate(Navigator navigator) {
+            return {navigator};
+        }
+
+        // Keeps only those instances for which the predicate holds.
+        template <class Predicate>
+        Filter<Predicate> filter(Predicate predicate) {
+            return {predicate};
+        }
+
+        // Passes each non-null instance to sink until it returns false.
+        // Returns false if the walk was stopped.
+        template <class Obj, class Sink>
+        bool each(const ObjectPtr<Obj> &src, Sink &sink) {
+            return !src || sink(src);
+        }
+
+        template <class Coll, class Sink>
+        bool each(const Coll &src, Sink &sink) {
+            for (const auto &instance : src) {
+                if (instance && !sink(instance)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Navigates from each instance it is given, passing each instance
+        // reached to the next stage unless it has been reached before.
+        template <class Next, class Navigator>
+        struct NavigateSink {
+            Next next;
+            const Navigator &navigator;
+            std::unordered_set<const void *> seen;
+
+            template <class Ptr>
+            bool operator()(const Ptr &instance) {
+                auto unseen = [this](const auto &reached) {
+                    return !seen.insert(reached.get()).second || next(reached);
+                };
+                return each(std::invoke(navigator, instance.get()), unseen);
+            }
+        };
+
+        // Passes each instance it is given for which the predicate holds to
+        // the next stage.
+        template <class Next, class Predicate>
+        struct FilterSink {
+            Next next;
+            const Predicate &predicate;
+
+            template <class Ptr>
+            bool operator()(const Ptr &instance) {
+                return !std::invoke(predicate, instance) || next(instance);
+            }
+        };
+
+        // Builds the sink for the first stage, which feeds the sinks for the
+        // later stages in turn and finally the consumer. Each sink lives for
+        // the whole walk, so that duplicates are found across all routes.
+        template <class Sink>
+        Sink chain(const Sink &sink) {
+            return sink;
+        }
+
+        template <class Sink, class Navigator, class... Stages>
+        auto chain(const Sink &sink, const Navigate<Navigator> &stage, const Stages &...stages) {
+            using Next = decltype(chain(sink, stages...));
+            return NavigateSink<Next, Navigator>{chain(sink, stages...), stage.navigator, {}};
+        }
+
+        template <class Sink, class Predicate, class... Stages>
+        auto chain(const Sink &sink, const Filter<Predicate> &stage, const Stages &...stages) {
+            using Next = decltype(chain(sink, stages...));
+            return FilterSink<Next, Predicate>{chain(sink, stages...), stage.predicate};
+        }
+
+        template <class Src, class Sink, class... Stages>
+        bool walk(const Src &src, const Sink &sink, const Stages &...stages) {
+            auto head = chain(sink, stages...);
+            return each(src, head);
+        }
+
+        // All instances reaching the end of the pipeline.
+        template <class DestObj, class Src, class... Stages>
+        Set<ObjectPtr<DestObj>> collect(const Src &src, const Stages &...stages) {
+            Set<ObjectPtr<DestObj>> result;
+            auto sink = [&](const ObjectPtr<DestObj> &instance) {
+                result += instance;
+                return true;
+            };
+            walk(src, sink, stages...);
+            // Only needed when no stage navigates
+            result.forceUnique();
+            return result;
+        }
+
+        // The first instance reaching the end of the pipeline, as for find_one
+        // and any. Stops as soon as one is found.
+        template <class DestObj, class Src, class... Stages>
+        ObjectPtr<DestObj> first(const Src &src, const Stages &...stages) {
+            ObjectPtr<DestObj> result;
+            auto sink = [&](const ObjectPtr<DestObj> &instance) {
+                result = instance;
+                return false;
+            };
+            walk(src, sink, stages...);
+            return result;
+        }
+
+        // The only instance reaching the end of the pipeline, as for find_only.
+        template <class DestObj, class Src, class... Stages>
+        ObjectPtr<DestObj> only(const Src &src, const Stages &...stages) {
+            ObjectPtr<DestObj> result;
+            auto sink = [&](const ObjectPtr<DestObj> &instance) {
+                if (result && result != instance) {
+                    throw SWA::ProgramError("Multiple occurences in find_only");
+                }
+                result = instance;
+                return true;
+            };
+            walk(src, sink, stages...);
+            return result;
+        }
+
+    } // namespace pipeline
+} // namespace SWA
+
+#endif
@@ -0,0 +1,27 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+#ifndef SWA_transition_HH
+#define SWA_transition_HH
+
+namespace SWA {
+
+    // An entry in a dense transition table, which holds for each state of an
+    // object the action to take when a particular event arrives in that state.
+    // The action performs the transition, or does nothing if the event is
+    // ignored, and is null if the event cannot happen in that state. The
+    // arguments are the instance receiving the event followed by the event
+    // parameters.
+    template <class Object, class... Args>
+    using TransitionAction = void (*)(Object &, Args...);
+
+} // namespace SWA
+
+#endif
@@ -0,0 +1,18 @@
+from conan import ConanFile
+from conan.tools.cmake import CMake, cmake_layout
+
+
+class BenchmarkConan(ConanFile):
+    settings = "os", "compiler", "build_type", "arch"
+    generators = "CMakeDeps", "CMakeToolchain"
+
+    def requirements(self):
+        self.requires("xtuml_transient/[>=1 <2]@xtuml")
+
+    def build(self):
+        cmake = CMake(self)
+        cmake.configure()
+        cmake.build()
+
+    def layout(self):
+        cmake_layout(self)
@@ -0,0 +1,157 @@
+/*
+ * ----------------------------------------------------------------------------
+ * (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ * The copyright of this Software is vested in the Crown
+ * and the Software is the property of the Crown.
+ * ----------------------------------------------------------------------------
+ * SPDX-License-Identifier: Apache-2.0
+ * ----------------------------------------------------------------------------
+ */
+
+// Compares the container policies of swa/container_policy.hh on the
+// operations generated code performs on them: creating instances in a
+// population, finding them by architecture id, linking them into to-many
+// relationships, navigating those relationships, and unlinking and deleting
+// them again. Run as
+//
+//   container_policy [instances [related]]
+//
+// where instances is the size of the population and related the number of
+// instances on the many side of each relationship. Times are per operation.
+
+#include "swa/ObjectPtr.hh"
+#include "swa/Set.hh"
+#include "swa/collection.hh"
+#include "swa/container_policy.hh"
+#include "transient/ToManyRelationship.hh"
+
+#include <algorithm>
+#include <chrono>
+#include <cstdlib>
+#include <iomanip>
+#include <iostream>
+#include <numeric>
+#include <random>
+#include <string>
+#include <vector>
+
+namespace {
+
+    class Instance {
+      public:
+        Instance(SWA::IdType id)
+            : id(id) {}
+
+        SWA::IdType getArchitectureId() const {
+            return id;
+        }
+
+      private:
+        SWA::IdType id;
+    };
+
+    typedef SWA::ObjectPtr<Instance> InstancePtr;
+
+    class Timer {
+      public:
+        Timer(const std::string &policy, const std::string &operation, std::size_t count)
+            : policy(policy),
+              operation(operation),
+              count(count),
+              start(std::chrono::steady_clock::now()) {}
+
+        ~Timer() {
+            const std::chrono::duration<double, std::nano> elapsed = std::chrono::steady_clock::now() - start;
+            std::cout << std::left << std::setw(16) << policy << std::setw(12) << operation << std::right
+                      << std::setw(12) << std::fixed << std::setprecision(1) << elapsed.count() / count << " ns"
+                      << std::endl;
+        }
+
+      private:
+        std::string policy;
+        std::string operation;
+        std::size_t count;
+        std::chrono::steady_clock::time_point start;
+    };
+
+    template <class Containers>
+    void run(const std::string &name,
+             const std::vector<Instance *> &instances,
+             const std::vector<SWA::IdType> &order,
+             std::size_t related) {
+        typedef typename Containers::template map<SWA::IdType, InstancePtr> Population;
+        typedef transient::ToManyRelationship<Instance, Containers> Relationship;
+
+        Population population;
+        std::vector<Relationship> relationships(instances.size() / related + 1);
+        std::size_t found = 0;
+
+        {
+            Timer timer(name, "create", instances.size());
+            for (Instance *instance : instances) {
+                population.insert(typename Population::value_type(instance->getArchitectureId(), InstancePtr(instance)));
+            }
+        }
+        {
+            Timer timer(name, "find", order.size());
+            for (SWA::IdType id : order) {
+                found += population.find(id) != population.end();
+            }
+        }
+        {
+            Timer timer(name, "link", instances.size());
+            for (std::size_t i = 0; i < instances.size(); ++i) {
+                relationships[i / related].link(InstancePtr(instances[i]));
+            }
+        }
+        {
+            Timer timer(name, "navigate", relationships.size());
+            for (const Relationship &relationship : relationships) {
+                found += relationship.navigate().size();
+            }
+        }
+        {
+            Timer timer(name, "unlink", order.size());
+            for (SWA::IdType id : order) {
+                relationships[(id - 1) / related].unlink(InstancePtr(instances[id - 1]));
+            }
+        }
+        {
+            Timer timer(name, "delete", order.size());
+            for (SWA::IdType id : order) {
+                population.erase(id);
+            }
+        }
+
+        if (found != order.size() + instances.size() || !population.empty()) {
+            throw SWA::ProgramError("Inconsistent results for " + name);
+        }
+    }
+
+} // namespace
+
+int main(int argc, char **argv) {
+    const std::size_t count = argc > 1 ? std::strtoul(argv[1], 0, 10) : 100000;
+    const std::size_t related = std::max<std::size_t>(argc > 2 ? std::strtoul(argv[2], 0, 10) : 4, 1);
+
+    std::vector<Instance *> instances;
+    for (std::size_t i = 1; i <= count; ++i) {
+        instances.push_back(new Instance(i));
+    }
+
+    // Finds, unlinks and deletes visit the instances in random order, as
+    // sorted containers would otherwise only ever remove from the front.
+    std::vector<SWA::IdType> order(count);
+    std::iota(order.begin(), order.end(), 1);
+    std::shuffle(order.begin(), order.end(), std::mt19937(count));
+
+    std::cout << count << " instances, " << related << " related per instance" << std::endl;
+    run<SWA::HashContainers>("hash", instances, order, related);
+    run<SWA::FlatHashContainers>("flat_hash", instances, order, related);
+    run<SWA::SortedVectorContainers>("sorted_vector", instances, order, related);
+    run<SWA::SmallVectorContainers>("small_vector", instances, order, related);
+
+    for (Instance *instance : instances) {
+        delete instance;
+    }
+}
@@ -12,14 +12,14 @@
 #include "PairSecondIterator.hh"
 #include "ThreadListener.hh"
 #include <swa/collection.hh>
-#include <unordered_map>
+#include <swa/HashContainers.hh>
 
 namespace transient {
-    template <class Object, class MainPopulation>
+    template <class Object, class MainPopulation, class Containers = ::SWA::HashContainers>
     class TransientPopulation : public MainPopulation {
       private:
         typedef SWA::ObjectPtr<Object> ObjectPtr;
-        typedef std::unordered_map<::SWA::IdType, ObjectPtr> PopType;
+        typedef typename Containers::template map<::SWA::IdType, ObjectPtr> PopType;
 
       public:
         TransientPopulation()
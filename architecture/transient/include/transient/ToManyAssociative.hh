@@ -12,16 +12,16 @@
 #include "PairFirstIterator.hh"
 #include "PairSecondIterator.hh"
 #include <swa/ProgramError.hh>
-#include <unordered_map>
+#include <swa/HashContainers.hh>
 
 namespace transient {
 
-    template <class Related, class Associative>
+    template <class Related, class Associative, class Containers = SWA::HashContainers>
     class ToManyAssociative {
       private:
         typedef SWA::ObjectPtr<Related> RelatedPtr;
         typedef SWA::ObjectPtr<Associative> AssociativePtr;
-        typedef std::unordered_map<RelatedPtr, AssociativePtr> Container;
+        typedef typename Containers::template map<RelatedPtr, AssociativePtr> Container;
 
       public:
         void link(RelatedPtr rhs, AssociativePtr assoc);
@@ -82,15 +82,15 @@ namespace transient {
         };
     };
 
-    template <class Related, class Associative>
-    void ToManyAssociative<Related, Associative>::link(RelatedPtr rhs, AssociativePtr assoc) {
+    template <class Related, class Associative, class Containers>
+    void ToManyAssociative<Related, Associative, Containers>::link(RelatedPtr rhs, AssociativePtr assoc) {
         if (!related.insert(typename Container::value_type(rhs, assoc)).second) {
             throw SWA::ProgramError("Objects already linked");
         }
     }
 
-    template <class Related, class Associative>
-    void ToManyAssociative<Related, Associative>::unlink(RelatedPtr rhs, AssociativePtr assoc) {
+    template <class Related, class Associative, class Containers>
+    void ToManyAssociative<Related, Associative, Containers>::unlink(RelatedPtr rhs, AssociativePtr assoc) {
         // Find the main object
         typename Container::iterator pos = related.find(rhs);
         if (pos == related.end() || pos->second != assoc)
@@ -100,9 +100,9 @@ namespace transient {
         related.erase(pos);
     }
 
-    template <class Related, class Associative>
-    typename ToManyAssociative<Related, Associative>::AssociativePtr
-    ToManyAssociative<Related, Associative>::correlate(RelatedPtr rhs) const {
+    template <class Related, class Associative, class Containers>
+    typename ToManyAssociative<Related, Associative, Containers>::AssociativePtr
+    ToManyAssociative<Related, Associative, Containers>::correlate(RelatedPtr rhs) const {
         typename Container::const_iterator it = related.find(rhs);
         return (it == related.end()) ? AssociativePtr() : it->second;
     }
@@ -11,15 +11,15 @@
 #pragma once
 
 #include <swa/ProgramError.hh>
-#include <unordered_set>
+#include <swa/HashContainers.hh>
 
 namespace transient {
 
-    template <class Related>
+    template <class Related, class Containers = SWA::HashContainers>
     class ToManyRelationship {
       private:
         typedef SWA::ObjectPtr<Related> RelatedPtr;
-        typedef std::unordered_set<RelatedPtr> Container;
+        typedef typename Containers::template set<RelatedPtr> Container;
 
       public:
         void link(RelatedPtr rhs) {
@@ -32,7 +32,7 @@ namespace transient {
         }
 
         SWA::Set<RelatedPtr> navigate() const {
-            return SWA::Set<RelatedPtr>(related);
+            return SWA::Set<RelatedPtr>(related.begin(), related.end(), true);
         }
 
         template <class Predicate>
@@ -14,6 +14,7 @@ import org.xtuml.masl.metamodel.domain.Domain;
 import org.xtuml.masl.metamodel.project.Project;
 import org.xtuml.masl.translate.*;
 import org.xtuml.masl.translate.building.BuildSet;
+import org.xtuml.masl.translate.main.Reachability;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -501,6 +502,9 @@ public class Main {
 
         final Masl masl = new Masl(CommandLine.INSTANCE.getDomainPaths());
         final Project project = masl.parseProject(prjFile);
+        if (project.getPragmas().hasPragma(Reachability.DEAD_CODE_PRAGMA)) {
+            masl.parseActions(project);
+        }
 
         if (masl.warningCount() > 0) {
             System.err.println("***" + masl.warningCount() + " Warnings");
@@ -185,6 +185,24 @@ public class Masl {
         return project;
     }
 
+    /**
+     * Parses the actions of every domain in a project, which are not otherwise
+     * needed to translate the project itself.
+     */
+    public void parseActions(final org.xtuml.masl.metamodel.project.Project project) throws
+                                                                                     RecognitionException,
+                                                                                     IOException {
+        final File projectDir = sourceDir;
+        for (final org.xtuml.masl.metamodel.project.ProjectDomain domain : project.getDomains()) {
+            final File modelFile = getModelFile(domain.getName());
+            if (modelFile != null) {
+                sourceDir = modelFile.getParentFile();
+                parseActions((Domain) domain.getDomain());
+            }
+        }
+        sourceDir = projectDir;
+    }
+
     private void parseTerminators(final Project project) throws RecognitionException, IOException {
         for (final ProjectDomain domain : project.getDomains()) {
             for (final ProjectTerminator term : domain.getTerminators()) {
@@ -31,6 +31,11 @@ public final class Class extends Type {
      */
     private class ClassDeclaration extends Declaration {
 
+        @Override
+        String getDeclaredName() {
+            return getQualifiedName();
+        }
+
         @Override
         public boolean equals(final Object rhs) {
             if (this == rhs) {
@@ -267,6 +272,30 @@ public final class Class extends Type {
 
     }
 
+    /**
+     * Allows a class declared in an external include file to be forward declared
+     * where the complete class is not needed, rather than including the file
+     * containing its declaration. This must only be used for plain, non-template
+     * classes, as a forward declaration of a typedef or template will not
+     * compile.
+     */
+    public void allowForwardDeclaration() {
+        noForwardDec = false;
+    }
+
+    /**
+     * Sets an external include file that forward declares this class, which is
+     * included in place of the full declaration where the complete class is not
+     * needed. Used for library classes, such as the standard streams, that
+     * cannot be forward declared by hand.
+     * <p>
+     * <p>
+     * the forward declaring include file
+     */
+    public void setForwardDeclaredIn(final CodeFile forwardDeclaredIn) {
+        declaration.setForwardDeclaredIn(forwardDeclaredIn);
+    }
+
     /**
      * Adds an enumeration definition to the class
      * <p>
@@ -906,7 +935,7 @@ public final class Class extends Type {
                     result.addAll(spec.getIndirectUsageIncludes());
                 }
                 result.addAll(super.getIndirectUsageIncludes());
-                result.addAll(declaration.getUsageIncludes());
+                result.addAll(declaration.getForwardUsageIncludes());
             }
         } else {
             result.addAll(declaration.getParentClass().getDirectUsageIncludes());
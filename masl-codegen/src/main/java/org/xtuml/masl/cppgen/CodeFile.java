@@ -103,6 +103,28 @@ public final class CodeFile extends ReferencedFile implements Comparable<CodeFil
         function.getDefinition().setDefinedIn(this);
     }
 
+    /**
+     * Adds an <code>extern template</code> declaration for a template
+     * specialisation to the file, so that files including it do not instantiate
+     * the specialisation themselves.
+     * <p>
+     * <p>
+     * The instantiation to declare
+     */
+    public void addExternTemplateDeclaration(final TemplateInstantiation instantiation) {
+        addDeclaration(instantiation.getDeclaration());
+    }
+
+    /**
+     * Adds the explicit instantiation of a template specialisation to the file.
+     * Definitions are output into the file after any declarations, and in the
+     * order that they are added.
+     */
+    public void addTemplateInstantiation(final TemplateInstantiation instantiation) {
+        definitions.add(instantiation.getDefinition());
+        instantiation.getDefinition().setDefinedIn(this);
+    }
+
     /**
      * Adds the specified file to the set of include files required by this file.
      * These files are in addition to the set of includes needed by the declarations
@@ -394,7 +416,7 @@ public final class CodeFile extends ReferencedFile implements Comparable<CodeFil
      *
      * @return a set of {@link org.xtuml.masl.cppgen.CodeFile}s
      */
-    List<CodeFile> getIncludes() {
+    public List<CodeFile> getIncludes() {
         final Set<CodeFile> includeSet = new TreeSet<>(includes);
 
         for (final Declaration dec : declarations) {
@@ -428,6 +450,168 @@ public final class CodeFile extends ReferencedFile implements Comparable<CodeFil
         return result;
     }
 
+    /**
+     * Determines whether this file relies on a particular include order, having
+     * had files forced to the top of its include list. Such files should not have
+     * anything, such as a precompiled header, included before them.
+     *
+     * @return <code>true</code> if the include order matters
+     */
+    public boolean hasOrderedIncludes() {
+        return !topIncludes.isEmpty();
+    }
+
+    /**
+     * Gets the names that this file would clash on if it were compiled in the same
+     * translation unit as another file, for example by including both in a unity
+     * build source. These are the names of everything declared in a body file, and
+     * of any definitions with internal linkage.
+     *
+     * @return the names private to this file's translation unit
+     */
+    public Set<String> getTranslationUnitNames() {
+        final Set<String> result = new LinkedHashSet<>();
+        if (isBodyFile()) {
+            for (final Declaration dec : declarations) {
+                final String name = dec.getDeclaredName();
+                if (name != null) {
+                    result.add(name);
+                }
+            }
+        }
+        for (final Definition def : definitions) {
+            final String name = def.getInternalName();
+            if (name != null) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the size of the code declared and defined in this file, excluding
+     * anything pulled in by includes. This is used as a rough measure of how much
+     * work the compiler has to do on the file itself.
+     *
+     * @return the number of characters of code in the file
+     */
+    public int getCodeSize() {
+        int size = 0;
+        for (final Declaration dec : declarations) {
+            size += dec.toString().length();
+        }
+        for (final Definition def : definitions) {
+            size += def.toString().length();
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of functions defined in this file.
+     *
+     * @return the number of function definitions
+     */
+    public int getFunctionDefinitionCount() {
+        int count = 0;
+        for (final Definition def : definitions) {
+            if (def.isFunctionDefinition()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Records that this body file holds code split out of another, so that it can
+     * be treated as part of the original when deciding what the files of a
+     * library have in common.
+     *
+     * @param original the file the code would otherwise have been in
+     */
+    public void setSplitFrom(final CodeFile original) {
+        splitFrom = original;
+    }
+
+    /**
+     * Gets the file that this file's code would have been in had nothing been
+     * split out of it.
+     *
+     * @return the original file, or this file if it was not split from another
+     */
+    public CodeFile getOriginal() {
+        return splitFrom == null ? this : splitFrom.getOriginal();
+    }
+
+    /**
+     * Determines whether the function definitions in this body file can be split
+     * across several files. This is only possible if the file declares nothing
+     * itself, does not force its include order, and everything defined in it can
+     * be seen from other files.
+     *
+     * @return <code>true</code> if the file can be split
+     */
+    public boolean isShardable() {
+        if (!isBodyFile() || !topIncludes.isEmpty() || !declarations.isEmpty()) {
+            return false;
+        }
+        for (final Definition def : definitions) {
+            if (!def.isMovable()) {
+                return false;
+            }
+        }
+        return getFunctionDefinitionCount() > 1;
+    }
+
+    /**
+     * Splits the function definitions in this body file into a number of shards
+     * of roughly equal code size, keeping definitions in their original order.
+     * The first shard stays in this file, along with any variable definitions so
+     * that their order of initialisation is unchanged, and the rest are moved to
+     * new body files in the same library, named after this one.
+     *
+     * @param shards the number of shards required
+     * @return the new body files created
+     */
+    public List<CodeFile> shard(final int shards) {
+        final List<Definition> functions = new ArrayList<>();
+        int totalSize = 0;
+        for (final Definition def : definitions) {
+            if (def.isFunctionDefinition()) {
+                functions.add(def);
+                totalSize += def.toString().length();
+            }
+        }
+
+        final List<CodeFile> result = new ArrayList<>();
+        if (!isShardable() || shards < 2) {
+            return result;
+        }
+
+        final Library library = (Library) getParent();
+        final String name = getFile().getName();
+        final String baseName = name.substring(0, name.length() - library.getBodyExtension().length());
+        final int shardSize = (totalSize + shards - 1) / shards;
+
+        CodeFile current = this;
+        int currentSize = 0;
+        for (final Definition def : functions) {
+            final int size = def.toString().length();
+            if (currentSize > 0 && currentSize + size > shardSize && result.size() < shards - 1) {
+                current = library.createBodyFile(getFile().getParentFile(), baseName + "_shard" + (result.size() + 1));
+                current.setSplitFrom(this);
+                result.add(current);
+                currentSize = 0;
+            }
+            if (current != this) {
+                definitions.remove(def);
+                current.definitions.add(def);
+                def.setDefinedIn(current);
+            }
+            currentSize += size;
+        }
+        return result;
+    }
+
     /**
      * Gets a list of include files that must be included before this one.
      *
@@ -516,12 +700,18 @@ public final class CodeFile extends ReferencedFile implements Comparable<CodeFil
      */
     private final List<CodeFile> topIncludes = new ArrayList<>();
 
+    /**
+     * The file this file's code was split out of, if any
+     */
+    private CodeFile splitFrom = null;
+
     @Override
     public Set<FileGroup> getDependencies() {
         final Set<FileGroup>
                 dynamicDeps =
                 getIncludes().stream().map(f -> f.getParent()).filter(g -> g !=
-                                                                           getParent()).collect(Collectors.toSet());
+                                                                           getParent()).collect(Collectors.toCollection(
+                        LinkedHashSet::new));
 
         return Sets.union(dependencies, dynamicDeps);
     }
@@ -72,6 +72,18 @@ abstract class Declaration {
         return new LinkedHashSet<>();
     }
 
+    /**
+     * Returns the fully qualified name of the entity declared, if writing the
+     * declaration twice in the same translation unit would be an error, for
+     * example a class or variable. Returns null for declarations that may be
+     * repeated, such as function prototypes.
+     *
+     * @return the declared name, or null
+     */
+    String getDeclaredName() {
+        return null;
+    }
+
     /**
      * If this declaration is a member of a class, then returns that class.
      * Otherwise returns null.
@@ -108,6 +120,35 @@ abstract class Declaration {
         return new LinkedHashSet<>(usageIncludes);
     }
 
+    /**
+     * Sets a file that forward declares this declaration, such as
+     * <code>&lt;iosfwd&gt;</code> for the standard streams. Uses that do not need
+     * the complete declaration may include this file instead of the one
+     * containing the full declaration.
+     * <p>
+     * <p>
+     * the forward declaring include file
+     */
+    void setForwardDeclaredIn(final CodeFile forwardDeclaredIn) {
+        this.forwardDeclaredIn = forwardDeclaredIn;
+    }
+
+    /**
+     * Calculates the set of include files needed to refer to this declaration
+     * where the complete declaration is not required. If no forward declaring
+     * file has been set, then this is the same as the usage includes.
+     *
+     * @return the include files needed
+     */
+    Set<CodeFile> getForwardUsageIncludes() {
+        if (parentClass == null && forwardDeclaredIn != null) {
+            final Set<CodeFile> result = new LinkedHashSet<>();
+            result.add(forwardDeclaredIn);
+            return result;
+        }
+        return getUsageIncludes();
+    }
+
     /**
      * Returns the visibility of the declaration. Only relevant to member
      * declarations.
@@ -194,6 +235,12 @@ abstract class Declaration {
      */
     private final Set<CodeFile> usageIncludes = new LinkedHashSet<>();
 
+    /**
+     * An include file containing a forward declaration of this declaration, if
+     * there is one.
+     */
+    private CodeFile forwardDeclaredIn = null;
+
     /**
      * The visibility of this declaration. Only relevant if it is a member class.
      */
@@ -82,6 +82,54 @@ abstract class Definition {
         return result;
     }
 
+    /**
+     * Returns the fully qualified name of the entity defined, if it has internal
+     * linkage, that is it is in an anonymous namespace or is a static non-member.
+     * These names are only unique within the translation unit they are defined
+     * in. Returns null for definitions with external linkage.
+     *
+     * @return the defined name, or null
+     */
+    String getInternalName() {
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> if this is the definition of a function
+     */
+    boolean isFunctionDefinition() {
+        return false;
+    }
+
+    /**
+     * Determines whether this definition could be moved to a different body file
+     * without breaking anything else in its current one. This is only the case if
+     * it has external linkage and is declared in a header, so that anything else
+     * in the file that refers to it can still see the declaration.
+     *
+     * @return <code>true</code> if the definition can be moved
+     */
+    boolean isMovable() {
+        return getInternalName() == null && declaration.getUsageIncludes().size() > 0;
+    }
+
+    /**
+     * Determines whether this definition is contained, directly or indirectly, in
+     * an anonymous namespace.
+     *
+     * @return <code>true</code> if inside an anonymous namespace
+     */
+    boolean isInAnonymousNamespace() {
+        Namespace namespace = getParentNamespace();
+        while (namespace != null) {
+            if (namespace.getName().length() == 0) {
+                return true;
+            }
+            namespace = namespace.getParentNamespace();
+        }
+        return false;
+    }
+
     /**
      * Calculates the namsespace containing this definition. If the definition is
      * contained within a class, then returns the namespace that contains that
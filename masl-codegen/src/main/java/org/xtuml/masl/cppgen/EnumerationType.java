@@ -128,6 +128,11 @@ public class EnumerationType extends Type {
      */
     class EnumerationDeclaration extends Declaration {
 
+        @Override
+        String getDeclaredName() {
+            return EnumerationType.this.getQualifiedName();
+        }
+
         @Override
         public boolean equals(final Object rhs) {
             if (this == rhs) {
@@ -9,7 +9,6 @@
  */
 package org.xtuml.masl.cppgen;
 
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -18,7 +17,7 @@ import java.util.Set;
  */
 public abstract class Expression {
 
-    private final Set<CodeFile> dependentHeaders = new HashSet<>();
+    private final Set<CodeFile> dependentHeaders = new LinkedHashSet<>();
 
     /**
      * Calculates the precedence of the expression. The precedence is used when
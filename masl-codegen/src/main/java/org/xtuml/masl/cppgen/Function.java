@@ -35,6 +35,9 @@ public class Function {
 
             for (final Variable arg : parameters) {
                 result.addAll(arg.getType().getIndirectUsageForwardDeclarations());
+                if (arg.getInitialValue() != null) {
+                    result.addAll(arg.getInitialValue().getForwardDeclarations());
+                }
             }
 
             if (code != null && isDeclaredInClass) {
@@ -51,8 +54,16 @@ public class Function {
                 result.addAll(returnType.getIndirectUsageIncludes());
             }
 
+            // Return and parameter types only need to be complete where the function
+            // is defined or called, apart from parameters with a default argument,
+            // which is evaluated wherever the declaration is used.
             for (final Variable arg : parameters) {
-                result.addAll(arg.getType().getIndirectUsageIncludes());
+                if (arg.getInitialValue() == null) {
+                    result.addAll(arg.getType().getIndirectUsageIncludes());
+                } else {
+                    result.addAll(arg.getType().getNoRefDirectUsageIncludes());
+                    result.addAll(arg.getInitialValue().getIncludes());
+                }
             }
 
             if (specialisationFrom != null) {
@@ -224,6 +235,30 @@ public class Function {
             super(declaration);
         }
 
+        @Override
+        String getInternalName() {
+            if (isInAnonymousNamespace() || (isStatic && getDeclaration().getParentClass() == null)) {
+                return getQualifiedName();
+            }
+            return null;
+        }
+
+        @Override
+        boolean isFunctionDefinition() {
+            return true;
+        }
+
+        @Override
+        boolean isMovable() {
+            // Inline and template definitions have to be visible wherever they are
+            // used, so must stay with the rest of the file
+            final Class parentClass = getDeclaration().getParentClass();
+            return super.isMovable() &&
+                   !isInline &&
+                   templateParameters.isEmpty() &&
+                   (parentClass == null || !parentClass.isTemplateType());
+        }
+
         @Override
         public void writeDefinition(final Writer writer, final String indent, final Namespace currentNamespace) throws
                                                                                                                 IOException {
@@ -1196,15 +1231,15 @@ public class Function {
     private boolean isCast = false;
     private boolean isExternC = false;
 
-    private final Map<Label, String> labelNameLookup = new HashMap<>();
+    private final Map<Label, String> labelNameLookup = new LinkedHashMap<>();
 
     private int labelNo = 0;
 
-    private final Map<Variable, Expression> memberValues = new HashMap<>();
+    private final Map<Variable, Expression> memberValues = new LinkedHashMap<>();
     private final String name;
     private List<Variable> parameters = new ArrayList<>();
     private TypeUsage returnType = TypeUsage.VOID;
-    private final Map<Class, List<Expression>> superclassArgs = new HashMap<>();
+    private final Map<Class, List<Expression>> superclassArgs = new LinkedHashMap<>();
 
     private CodeFile specialisationFrom = null;
 
@@ -22,6 +22,11 @@ public class FunctionPtrType extends Type {
 
     class FunctionPtrDeclaration extends Declaration {
 
+        @Override
+        String getDeclaredName() {
+            return getQualifiedName();
+        }
+
         @Override
         public boolean equals(final Object rhs) {
             if (this == rhs) {
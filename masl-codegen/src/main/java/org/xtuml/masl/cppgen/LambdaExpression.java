@@ -0,0 +1,145 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.cppgen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes code for a C++ lambda expression whose body returns a single
+ * expression, eg <code>[&amp;, arg0 = f()]( const T&amp; x ) { return x.g(arg0); }</code>
+ * <p>
+ * Names from the enclosing code used in the result are captured by reference.
+ * Values that should only be evaluated once when the lambda is created rather
+ * than each time it is called may be given an init-capture, which holds a copy.
+ */
+public class LambdaExpression extends Expression {
+
+    /**
+     * Creates a lambda which captures any names it uses from the enclosing code
+     * by reference.
+     */
+    public LambdaExpression() {
+        this(true);
+    }
+
+    /**
+     * Creates a lambda, which may capture nothing by default so that it can be
+     * used outside a function body, such as in the initialiser of a static.
+     *
+     * @param captureByReference whether names used from the enclosing code are
+     *                           captured by reference
+     */
+    public LambdaExpression(final boolean captureByReference) {
+        this.captureByReference = captureByReference;
+    }
+
+    /**
+     * Adds a parameter to the lambda. Parameters appear in the order they are
+     * added.
+     *
+     * @param type the type of the parameter
+     * @param name the name of the parameter
+     * @return the parameter, for use in the result expression
+     */
+    public Variable createParameter(final TypeUsage type, final String name) {
+        final Variable param = new Variable(type, name);
+        parameters.add(param);
+        return param;
+    }
+
+    /**
+     * Adds an init-capture, evaluating the value once when the lambda is created.
+     *
+     * @param name  the name of the captured copy
+     * @param value the value to capture
+     * @return the captured copy, for use in the result expression
+     */
+    public Expression addCapture(final String name, final Expression value) {
+        captures.put(name, value);
+        return new Variable(name).asExpression();
+    }
+
+    /**
+     * Sets the expression returned by the lambda.
+     *
+     * @param result the result expression
+     */
+    public void setResult(final Expression result) {
+        this.result = result;
+    }
+
+    @Override
+    String getCode(final Namespace currentNamespace, final String alignment) {
+        final List<String> captureCode = new ArrayList<>();
+        if (captureByReference) {
+            captureCode.add("&");
+        }
+        for (final Map.Entry<String, Expression> capture : captures.entrySet()) {
+            captureCode.add(capture.getKey() + " = " + capture.getValue().getCode(currentNamespace, alignment));
+        }
+
+        final List<String> paramCode = new ArrayList<>();
+        for (final Variable param : parameters) {
+            paramCode.add(param.getType().getQualifiedName(currentNamespace) + " " + param.getName());
+        }
+
+        return "[" +
+               String.join(", ", captureCode) +
+               "]" +
+               (paramCode.isEmpty() ? "()" : "( " + String.join(", ", paramCode) + " )") +
+               " { return " +
+               result.getCode(currentNamespace, alignment) +
+               "; }";
+    }
+
+    @Override
+    Set<Declaration> getForwardDeclarations() {
+        final Set<Declaration> result = super.getForwardDeclarations();
+        for (final Expression capture : captures.values()) {
+            result.addAll(capture.getForwardDeclarations());
+        }
+        for (final Variable param : parameters) {
+            result.addAll(param.getType().getDirectUsageForwardDeclarations());
+        }
+        result.addAll(this.result.getForwardDeclarations());
+        return result;
+    }
+
+    @Override
+    Set<CodeFile> getIncludes() {
+        final Set<CodeFile> result = super.getIncludes();
+        for (final Expression capture : captures.values()) {
+            result.addAll(capture.getIncludes());
+        }
+        for (final Variable param : parameters) {
+            result.addAll(param.getType().getDirectUsageIncludes());
+        }
+        result.addAll(this.result.getIncludes());
+        return result;
+    }
+
+    @Override
+    int getPrecedence() {
+        return 0;
+    }
+
+    private final boolean captureByReference;
+
+    private final Map<String, Expression> captures = new LinkedHashMap<>();
+
+    private final List<Variable> parameters = new ArrayList<>();
+
+    private Expression result;
+
+}
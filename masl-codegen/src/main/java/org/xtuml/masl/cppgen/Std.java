@@ -20,7 +20,9 @@ public class Std {
     private final static Library system = new ImportedLibrary(null);
 
     private final static CodeFile iostreamInc = system.createSystemHeader("iostream");
+    private final static CodeFile iosfwdInc = system.createSystemHeader("iosfwd");
     private final static CodeFile stringInc = system.createSystemHeader("string");
+    private final static CodeFile stringViewInc = system.createSystemHeader("string_view");
     private final static CodeFile exceptionInc = system.createSystemHeader("exception");
     private final static CodeFile stdExceptInc = system.createSystemHeader("stdexcept");
     private final static CodeFile cmath = system.createSystemHeader("cmath");
@@ -50,6 +52,13 @@ public class Std {
     public final static Class ostream = new Class("ostream", std, iostreamInc);
     public final static Class istream = new Class("istream", std, iostreamInc);
 
+    // Stream parameters are nearly always passed by reference, so there is no
+    // need to pull the whole of iostream into a header just to declare them.
+    static {
+        ostream.setForwardDeclaredIn(iosfwdInc);
+        istream.setForwardDeclaredIn(iosfwdInc);
+    }
+
     public final static Class ostringstream = new Class("ostringstream", std, sstreamInc);
     public final static Class istringstream = new Class("istringstream", std, sstreamInc);
 
@@ -58,6 +67,11 @@ public class Std {
      */
     public final static Class string = new Class("string", std, stringInc);
 
+    /**
+     * The <code>::std::string_view</code> class
+     */
+    public final static Class string_view = new Class("string_view", std, stringViewInc);
+
     public final static Class basicString(final TypeUsage of) {
         final Class ret = new Class("basic_string", std, stringInc);
         ret.addTemplateSpecialisation(of);
@@ -111,6 +125,16 @@ public class Std {
         return ret;
     }
 
+    /**
+     * Creates <code>{@literal ::std::allocate_shared<type>}</code>, to be called
+     * with an allocator followed by the constructor arguments
+     */
+    public final static Function allocate_shared(final TypeUsage type) {
+        final Function ret = new Function("allocate_shared", std, memoryInc);
+        ret.addTemplateSpecialisation(type);
+        return ret;
+    }
+
     public final static Class unique_ptr (final TypeUsage type) {
         final Class ret = new Class("unique_ptr", std, memoryInc);
         ret.addTemplateSpecialisation(type);
@@ -266,6 +290,11 @@ public class Std {
     public final static Class OutOfRangeError = new Class("out_of_range", std, stdExceptInc);
     public final static Class RuntimeError = new Class("runtime_error", std, stdExceptInc);
 
+    /**
+     * The <code>::std::count_if</code> function
+     */
+    public final static Function count_if = new Function("count_if", std, algorithmInc);
+
     /**
      * The <code>::std::pow</code> function
      */
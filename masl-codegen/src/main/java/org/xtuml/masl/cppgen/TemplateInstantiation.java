@@ -0,0 +1,122 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.cppgen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An explicit instantiation of a class template specialisation. Adding the
+ * declaration to a header writes an <code>extern template</code> declaration,
+ * which stops every file including the header from instantiating the members
+ * of the specialisation itself. Adding the definition to a body file writes the
+ * single explicit instantiation that the rest of the program then links
+ * against. The definition includes every header the declaration has been added
+ * to, so that the declaration is always seen before the definition.
+ */
+public class TemplateInstantiation {
+
+    private class ExternDeclaration extends Declaration {
+
+        @Override
+        Set<Declaration> getForwardDeclarations() {
+            final Set<Declaration> result = super.getForwardDeclarations();
+            result.addAll(specialisation.getDirectUsageForwardDeclarations());
+            return result;
+        }
+
+        @Override
+        Set<CodeFile> getIncludes() {
+            final Set<CodeFile> result = super.getIncludes();
+            result.addAll(specialisation.getDirectUsageIncludes());
+            return result;
+        }
+
+        @Override
+        void writeDeclaration(final Writer writer, final String indent, final Namespace currentNamespace) throws
+                                                                                                          IOException {
+            writer.write(indent + "extern template class " + specialisation.getQualifiedName(currentNamespace) + ";\n");
+        }
+
+        @Override
+        void writeForwardDeclaration(final Writer writer, final String indent, final Namespace currentNamespace) throws
+                                                                                                                 IOException {
+            writeDeclaration(writer, indent, currentNamespace);
+        }
+    }
+
+    private class InstantiationDefinition extends Definition {
+
+        InstantiationDefinition() {
+            super(declaration);
+        }
+
+        @Override
+        Set<CodeFile> getIncludes() {
+            final Set<CodeFile> result = new LinkedHashSet<>(declaration.getIncludes());
+            result.addAll(super.getIncludes());
+            result.addAll(specialisation.getNoRefDirectUsageIncludes());
+            result.addAll(instantiationIncludes);
+            return result;
+        }
+
+        @Override
+        void writeDefinition(final Writer writer, final String indent, final Namespace currentNamespace) throws
+                                                                                                         IOException {
+            writer.write(indent + "template class " + specialisation.getQualifiedName(currentNamespace) + ";");
+        }
+    }
+
+    /**
+     * Creates an explicit instantiation of a class template specialisation
+     * <p>
+     * <p>
+     * the specialisation to instantiate
+     */
+    public TemplateInstantiation(final TypeUsage specialisation) {
+        this.specialisation = specialisation;
+    }
+
+    /**
+     * Adds a file needed to instantiate every member of the template, over and
+     * above those needed to use it. Explicit instantiation compiles members that
+     * are never called in normal use, which may need declarations that the
+     * template's own header does not include.
+     * <p>
+     * <p>
+     * the include file to add
+     */
+    public void addInstantiationInclude(final CodeFile include) {
+        instantiationIncludes.add(include);
+    }
+
+    public TypeUsage getSpecialisation() {
+        return specialisation;
+    }
+
+    Declaration getDeclaration() {
+        return declaration;
+    }
+
+    Definition getDefinition() {
+        return definition;
+    }
+
+    private final TypeUsage specialisation;
+
+    private final Set<CodeFile> instantiationIncludes = new LinkedHashSet<>();
+
+    private final Declaration declaration = new ExternDeclaration();
+
+    private final Definition definition = new InstantiationDefinition();
+
+}
@@ -75,8 +75,19 @@ public final class TypeUsage {
 
     }
 
+    /**
+     * Determines whether this usage needs the complete type to be declared, or
+     * whether a forward declaration is enough. References, pointers and template
+     * parameters that are only referred to never need the complete type.
+     *
+     * @return <code>true</code> if the complete type is required
+     */
+    public boolean needsCompleteType() {
+        return !(isReference || pointerConsts != null || templateRefOnly);
+    }
+
     public Set<Declaration> getDirectUsageForwardDeclarations() {
-        if ((isReference || pointerConsts != null || templateRefOnly)) {
+        if (!needsCompleteType()) {
             return type.getIndirectUsageForwardDeclarations();
         } else {
             return type.getDirectUsageForwardDeclarations();
@@ -85,7 +96,7 @@ public final class TypeUsage {
     }
 
     public Set<CodeFile> getDirectUsageIncludes() {
-        if ((isReference || pointerConsts != null || templateRefOnly)) {
+        if (!needsCompleteType()) {
             return type.getIndirectUsageIncludes();
         } else {
             return type.getDirectUsageIncludes();
@@ -182,7 +193,11 @@ public final class TypeUsage {
         }
     }
 
-    boolean preferPassByReference() {
+    /**
+     * @return true if values of this type are expensive enough to copy that they
+     * should be passed by reference, or moved, rather than copied
+     */
+    public boolean preferPassByReference() {
         return !isReference && type.preferPassByReference() && pointerConsts == null;
 
     }
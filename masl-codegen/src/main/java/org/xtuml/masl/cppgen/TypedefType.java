@@ -19,6 +19,11 @@ public class TypedefType extends Type {
 
     class TypedefDeclaration extends Declaration {
 
+        @Override
+        String getDeclaredName() {
+            return getQualifiedName();
+        }
+
         @Override
         public Set<Declaration> getForwardDeclarations() {
             final Set<Declaration> result = super.getForwardDeclarations();
@@ -23,6 +23,11 @@ public class Variable {
 
     private class VariableDeclaration extends Declaration {
 
+        @Override
+        String getDeclaredName() {
+            return getQualifiedName();
+        }
+
         @Override
         Set<Declaration> getForwardDeclarations() {
             final Set<Declaration> result = super.getForwardDeclarations();
@@ -78,6 +83,14 @@ public class Variable {
             super(declaration);
         }
 
+        @Override
+        String getInternalName() {
+            if (isInAnonymousNamespace() || (isStatic && !isMember)) {
+                return getQualifiedName();
+            }
+            return null;
+        }
+
         public void writeCodeDefinition(final Writer writer,
                                         final String indent,
                                         final Namespace currentNamespace) throws IOException {
@@ -367,6 +380,10 @@ public class Variable {
 
     }
 
+    Expression getInitialValue() {
+        return initialValue;
+    }
+
     public TypeUsage getType() {
         return type;
     }
@@ -11,7 +11,7 @@ package org.xtuml.masl.javagen.ast.expr;
 
 import org.xtuml.masl.javagen.ast.def.TypeBody;
 
-public interface This {
+public interface This extends Expression {
 
     TypeQualifier getQualifier();
 
@@ -50,7 +50,7 @@ public class FieldAccessImpl extends ExpressionImpl implements FieldAccess {
 
     @Override
     public ExpressionImpl getInstance() {
-        if (getEnclosingScope().requiresQualifier(this)) {
+        if (qualifier.get() == null && instance.get() == null && getEnclosingScope().requiresQualifier(this)) {
             forceQualifier();
         }
         return instance.get();
@@ -58,7 +58,7 @@ public class FieldAccessImpl extends ExpressionImpl implements FieldAccess {
 
     @Override
     public TypeQualifierImpl getQualifier() {
-        if (getEnclosingScope().requiresQualifier(this)) {
+        if (qualifier.get() == null && instance.get() == null && getEnclosingScope().requiresQualifier(this)) {
             forceQualifier();
         }
 
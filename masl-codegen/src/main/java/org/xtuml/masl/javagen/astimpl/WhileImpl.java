@@ -18,6 +18,7 @@ public class WhileImpl extends StatementImpl implements While {
 
     public WhileImpl(final ASTImpl ast, final ExpressionImpl condition) {
         super(ast);
+        setCondition(condition);
         statement.set(ast.createCodeBlock());
     }
 
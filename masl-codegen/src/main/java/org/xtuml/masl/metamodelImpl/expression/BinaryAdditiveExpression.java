@@ -90,34 +90,56 @@ public class BinaryAdditiveExpression extends BinaryExpression {
     }
 
     @Override
-    public NumericLiteral evaluate() {
+    public LiteralExpression evaluate() {
         final LiteralExpression lhsVal = getLhs().evaluate();
         final LiteralExpression rhsVal = getRhs().evaluate();
 
+        if (lhsVal instanceof DurationLiteral && rhsVal instanceof DurationLiteral) {
+            final long lhsNanos = ((DurationLiteral) lhsVal).getNanos();
+            final long rhsNanos = ((DurationLiteral) rhsVal).getNanos();
+            try {
+                return new DurationLiteral(getOperator() == Operator.PLUS ?
+                                           Math.addExact(lhsNanos, rhsNanos) :
+                                           Math.subtractExact(lhsNanos, rhsNanos));
+            } catch (final ArithmeticException e) {
+                return null;
+            }
+        }
+
         if (lhsVal instanceof NumericLiteral && rhsVal instanceof NumericLiteral) {
             if (lhsVal instanceof RealLiteral || rhsVal instanceof RealLiteral) {
                 final double lhsNum = ((NumericLiteral) lhsVal).getValue().doubleValue();
                 final double rhsNum = ((NumericLiteral) rhsVal).getValue().doubleValue();
 
+                final double result;
                 switch (getOperator()) {
                     case PLUS:
-                        return new RealLiteral(lhsNum + rhsNum);
+                        result = lhsNum + rhsNum;
+                        break;
                     case MINUS:
-                        return new RealLiteral(lhsNum - rhsNum);
+                        result = lhsNum - rhsNum;
+                        break;
                     default:
                         assert false : "Invalid additive operator " + getOperator();
+                        return null;
                 }
+                return Double.isFinite(result) ? new RealLiteral(result) : null;
             } else {
                 final long lhsNum = ((NumericLiteral) lhsVal).getValue().longValue();
                 final long rhsNum = ((NumericLiteral) rhsVal).getValue().longValue();
 
-                switch (getOperator()) {
-                    case PLUS:
-                        return new IntegerLiteral(lhsNum + rhsNum);
-                    case MINUS:
-                        return new IntegerLiteral(lhsNum - rhsNum);
-                    default:
-                        assert false : "Invalid additive operator " + getOperator();
+                // Leave anything that overflows to be evaluated at run time
+                try {
+                    switch (getOperator()) {
+                        case PLUS:
+                            return new IntegerLiteral(Math.addExact(lhsNum, rhsNum));
+                        case MINUS:
+                            return new IntegerLiteral(Math.subtractExact(lhsNum, rhsNum));
+                        default:
+                            assert false : "Invalid additive operator " + getOperator();
+                    }
+                } catch (final ArithmeticException e) {
+                    return null;
                 }
             }
         }
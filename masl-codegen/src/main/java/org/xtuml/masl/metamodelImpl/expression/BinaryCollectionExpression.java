@@ -125,9 +125,26 @@ public class BinaryCollectionExpression extends BinaryExpression {
 
     @Override
     public LiteralExpression evaluate() {
+        if (getOperator() == Operator.CONCATENATE) {
+            final String lhsVal = getStringValue(getLhs().evaluate());
+            final String rhsVal = getStringValue(getRhs().evaluate());
+            if (lhsVal != null && rhsVal != null) {
+                return new StringLiteral(lhsVal, rhsVal);
+            }
+        }
         return null;
     }
 
+    private static String getStringValue(final LiteralExpression literal) {
+        if (literal instanceof StringLiteral) {
+            return ((StringLiteral) literal).getValue();
+        } else if (literal instanceof CharacterLiteral) {
+            return String.valueOf(((CharacterLiteral) literal).getValue());
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public BasicType getType() {
         return resultType;
@@ -83,37 +83,63 @@ public class BinaryMultiplicativeExpression extends BinaryExpression {
         final LiteralExpression lhsVal = getLhs().evaluate();
         final LiteralExpression rhsVal = getRhs().evaluate();
 
+        // Anything that would overflow, divide by zero, or that the run time
+        // library might calculate differently is left to be evaluated at run time
         if (lhsVal instanceof NumericLiteral && rhsVal instanceof NumericLiteral) {
             if (lhsVal instanceof RealLiteral || rhsVal instanceof RealLiteral) {
                 final double lhsNum = ((NumericLiteral) lhsVal).getValue().doubleValue();
                 final double rhsNum = ((NumericLiteral) rhsVal).getValue().doubleValue();
 
+                final double result;
                 switch (getOperator()) {
                     case TIMES:
-                        return new RealLiteral(lhsNum * rhsNum);
+                        result = lhsNum * rhsNum;
+                        break;
                     case DIVIDE:
-                        return new RealLiteral(lhsNum / rhsNum);
+                        result = lhsNum / rhsNum;
+                        break;
                     case REM:
-                        return new RealLiteral(Math.IEEEremainder(lhsNum, rhsNum));
                     case MOD: {
-                        final double rem = Math.IEEEremainder(lhsNum, rhsNum);
-
-                        return new RealLiteral(rem +
-                                               (rem != 0 &&
-                                                (((lhsNum < 0) && (rhsNum > 0)) || ((lhsNum > 0) && (rhsNum < 0))) ?
-                                                rhsNum :
-                                                0));
+                        // The remainder takes the type of the lhs, so an integer lhs
+                        // would truncate the rhs first
+                        if (!(lhsVal instanceof RealLiteral)) {
+                            return null;
+                        }
+                        final double rem = lhsNum % rhsNum;
+                        if (getOperator() == Operator.REM) {
+                            result = rem;
+                        } else {
+                            result =
+                                    rem +
+                                    (rem != 0 && (((lhsNum < 0) && (rhsNum > 0)) || ((lhsNum > 0) && (rhsNum < 0))) ?
+                                     rhsNum :
+                                     0);
+                        }
+                        break;
                     }
+                    case POWER:
+                        return null;
                     default:
                         assert false : "Invalid multiplicative operator " + getOperator();
+                        return null;
                 }
+                return Double.isFinite(result) ? new RealLiteral(result) : null;
             } else {
                 final long lhsNum = ((NumericLiteral) lhsVal).getValue().longValue();
                 final long rhsNum = ((NumericLiteral) rhsVal).getValue().longValue();
 
+                if (getOperator() != Operator.TIMES &&
+                    (rhsNum == 0 || (lhsNum == Long.MIN_VALUE && rhsNum == -1))) {
+                    return null;
+                }
+
                 switch (getOperator()) {
                     case TIMES:
-                        return new IntegerLiteral(lhsNum * rhsNum);
+                        try {
+                            return new IntegerLiteral(Math.multiplyExact(lhsNum, rhsNum));
+                        } catch (final ArithmeticException e) {
+                            return null;
+                        }
                     case DIVIDE:
                         return new IntegerLiteral(lhsNum / rhsNum);
                     case REM:
@@ -126,6 +152,8 @@ public class BinaryMultiplicativeExpression extends BinaryExpression {
                                                    rhsNum :
                                                    0));
                     }
+                    case POWER:
+                        return null;
                     default:
                         assert false : "Invalid multiplicative operator " + getOperator();
                 }
@@ -494,6 +494,21 @@ public class CharacteristicExpression extends Expression
         return typeDecoder.getType();
     }
 
+    @Override
+    public LiteralExpression evaluate() {
+        if (characteristic == Type.IMAGE) {
+            final LiteralExpression lhsVal = lhs.evaluate();
+            if (lhsVal instanceof StringLiteral) {
+                return lhsVal;
+            } else if (lhsVal instanceof IntegerLiteral) {
+                return new StringLiteral(String.valueOf(((IntegerLiteral) lhsVal).getValue()), "");
+            } else if (lhsVal instanceof EnumerateLiteral) {
+                return new StringLiteral(((EnumerateLiteral) lhsVal).getValue().getName(), "");
+            }
+        }
+        return null;
+    }
+
     @Override
     public int hashCode() {
         return characteristic.hashCode();
@@ -20,6 +20,7 @@ import org.xtuml.masl.metamodelImpl.type.RealType;
 import org.xtuml.masl.utils.HashCode;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,19 @@ public class CreateDurationExpression extends Expression
         fieldLookup.put("nanoseconds", Field.Nanos);
     }
 
+    private final static Map<Field, Long> nanosPer = new EnumMap<>(Field.class);
+
+    static {
+        nanosPer.put(Field.Weeks, DurationLiteral.W);
+        nanosPer.put(Field.Days, DurationLiteral.D);
+        nanosPer.put(Field.Hours, DurationLiteral.H);
+        nanosPer.put(Field.Minutes, DurationLiteral.M);
+        nanosPer.put(Field.Seconds, DurationLiteral.S);
+        nanosPer.put(Field.Millis, 1000000L);
+        nanosPer.put(Field.Micros, 1000L);
+        nanosPer.put(Field.Nanos, 1L);
+    }
+
     CreateDurationExpression(final Position position,
                              final Expression lhs,
                              final String characteristic,
@@ -97,6 +111,22 @@ public class CreateDurationExpression extends Expression
         return field;
     }
 
+    @Override
+    public LiteralExpression evaluate() {
+        // A real argument is rounded at run time, so is left to be evaluated there,
+        // as is anything that the run time would report as overflowing
+        final LiteralExpression argVal = argument.evaluate();
+        if (argVal instanceof IntegerLiteral) {
+            try {
+                return new DurationLiteral(Math.multiplyExact(((IntegerLiteral) argVal).getValue(),
+                                                              nanosPer.get(field)));
+            } catch (final ArithmeticException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     @Override
     public int getFindAttributeCount() {
         return argument.getFindAttributeCount();
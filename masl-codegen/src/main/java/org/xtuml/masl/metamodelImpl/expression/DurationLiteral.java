@@ -68,6 +68,13 @@ public class DurationLiteral extends LiteralExpression implements org.xtuml.masl
         nanos = literal.getValue().longValue();
     }
 
+    DurationLiteral(final long nanos) {
+        // The result of evaluating a constant duration expression
+        super(null);
+        original = "@PT" + BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString() + "S@";
+        this.nanos = nanos;
+    }
+
     private DurationLiteral(final Position position, final String literal) throws SemanticError {
         super(position);
         original = literal;
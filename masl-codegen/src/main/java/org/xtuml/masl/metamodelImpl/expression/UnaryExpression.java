@@ -49,7 +49,8 @@ public class UnaryExpression extends Expression implements org.xtuml.masl.metamo
             @Override
             LiteralExpression evaluate(final Expression rhs) {
                 if (rhs instanceof IntegerLiteral) {
-                    return new IntegerLiteral(-((IntegerLiteral) rhs).getValue());
+                    final long value = ((IntegerLiteral) rhs).getValue();
+                    return value == Long.MIN_VALUE ? null : new IntegerLiteral(-value);
                 } else if (rhs instanceof RealLiteral) {
                     return new RealLiteral(-((RealLiteral) rhs).getValue());
                 } else {
@@ -80,7 +81,8 @@ public class UnaryExpression extends Expression implements org.xtuml.masl.metamo
             @Override
             LiteralExpression evaluate(final Expression rhs) {
                 if (rhs instanceof IntegerLiteral) {
-                    return new IntegerLiteral(Math.abs(((IntegerLiteral) rhs).getValue()));
+                    final long value = ((IntegerLiteral) rhs).getValue();
+                    return value == Long.MIN_VALUE ? null : new IntegerLiteral(Math.abs(value));
                 } else if (rhs instanceof RealLiteral) {
                     return new RealLiteral(Math.abs(((RealLiteral) rhs).getValue()));
                 } else {
@@ -240,7 +242,8 @@ public class UnaryExpression extends Expression implements org.xtuml.masl.metamo
 
     @Override
     public LiteralExpression evaluate() {
-        return operator.evaluate(rhs);
+        final LiteralExpression rhsVal = rhs.evaluate();
+        return rhsVal == null ? null : operator.evaluate(rhsVal);
     }
 
     @Override
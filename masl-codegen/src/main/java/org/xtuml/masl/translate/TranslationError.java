@@ -0,0 +1,85 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate;
+
+import org.xtuml.masl.error.ErrorCode;
+import org.xtuml.masl.error.ErrorType;
+import org.xtuml.masl.error.MaslError;
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodelImpl.common.Position;
+import org.xtuml.masl.metamodelImpl.common.Positioned;
+
+import java.text.MessageFormat;
+
+/**
+ * A problem found by a translator while generating code for a model that the
+ * parser accepted. Reported errors are counted with those of the parser, so
+ * fail the translation.
+ */
+public class TranslationError extends MaslError {
+
+    public enum Code implements ErrorCode {
+        UnknownPragmaValue(ErrorType.Warning, "unknown value ''{0}'' for pragma {1}, expected one of {2}"),
+        BindingNotCalled(ErrorType.Error,
+                         "{0} is called directly by its domain, as it has pragma {1}, so cannot be bound by a project"),
+        UnsupportedConstruct(ErrorType.Error, "{0} cannot be simulated"),
+        NoImplementation(ErrorType.Error, "{0} has no implementation to simulate"),
+        UnimplementedTerminatorService(ErrorType.Warning, "{0} has no implementation, so does nothing when simulated");
+
+        Code(final ErrorType errorType, final String messageFormat) {
+            this.errorType = errorType;
+            this.messageFormat = messageFormat;
+        }
+
+        @Override
+        public ErrorType getErrorType() {
+            return errorType;
+        }
+
+        private final ErrorType errorType;
+        private final String messageFormat;
+    }
+
+    /**
+     * @param code    the problem found
+     * @param node    the model element the problem was found in, used for its
+     *                position if it has one
+     * @param context a description of where the problem was found, used when
+     *                the node has no position
+     * @param args    the arguments to the message of the code
+     */
+    public TranslationError(final Code code, final ASTNode node, final String context, final Object... args) {
+        this(code, MessageFormat.format(code.messageFormat, args), node, context);
+    }
+
+    /**
+     * For translators that report problems with codes of their own.
+     *
+     * @param message the message, already formatted
+     */
+    protected TranslationError(final ErrorCode code, final String message, final ASTNode node, final String context) {
+        super(code);
+        this.position = node instanceof Positioned positioned ? positioned.getPosition() : null;
+        this.context = context;
+        this.message = message;
+    }
+
+    @Override
+    public String getMessage() {
+        final String posString = position == null ? context : position.getText();
+        final String sourceContext = position == null ? "" : "\n" + position.getContext();
+        return posString + ": " + getErrorCode().getErrorType() + ": " + message + sourceContext;
+    }
+
+    private final Position position;
+    private final String context;
+    private final String message;
+
+}
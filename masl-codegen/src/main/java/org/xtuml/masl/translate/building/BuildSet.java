@@ -21,8 +21,8 @@ import java.util.*;
 
 public class BuildSet {
 
-    static private final Map<Domain, BuildSet> domainBuildSets = new HashMap<>();
-    static private final Map<Project, BuildSet> projectBuildSets = new HashMap<>();
+    static private final Map<Domain, BuildSet> domainBuildSets = new LinkedHashMap<>();
+    static private final Map<Project, BuildSet> projectBuildSets = new LinkedHashMap<>();
 
     private final static int MAX_CONCURRENT_THREADS = 50;
     private final static boolean FLUSH_ALL_THREADS = true;
@@ -166,7 +166,7 @@ public class BuildSet {
     private final String name;
     private final String pkg;
 
-    private final Set<WriteableFile> writeableFiles = new HashSet<>();
+    private final Set<WriteableFile> writeableFiles = new LinkedHashSet<>();
 
     private final Set<SubdirFileGroup> publishedEtc = new LinkedHashSet<>();
     private final Set<SubdirFileGroup> publishedShare = new LinkedHashSet<>();
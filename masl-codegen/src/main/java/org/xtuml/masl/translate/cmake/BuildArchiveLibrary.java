@@ -24,9 +24,13 @@ import java.util.List;
 public class BuildArchiveLibrary implements CMakeListsItem {
 
     public BuildArchiveLibrary(final ArchiveLibrary library, final File sourcePath) {
+        this(library, sourcePath, BuildOptions.NONE);
+    }
+
+    public BuildArchiveLibrary(final ArchiveLibrary library, final File sourcePath, final BuildOptions options) {
         var name = new SingleArgument(library.getName());
 
-        commands.add(new AddLibrary(name, AddLibrary.Type.STATIC, Utils.getSourcePathArgs(library.getBodyFiles())));
+        commands.addAll(options.addTarget(library, sources -> new AddLibrary(name, AddLibrary.Type.STATIC, sources)));
         commands.add(new TargetLinkLibraries(name, TargetLinkLibraries.Scope.PUBLIC, Utils.getNameArgs(library.getDependencies())));
         commands.add(Utils.addHeaderPath(library) );
         commands.add(new Command("set_property", "TARGET", library.getName(), "PROPERTY", "ARCHIVE_OUTPUT_DIRECTORY", "${CMAKE_BINARY_DIR}/lib"));
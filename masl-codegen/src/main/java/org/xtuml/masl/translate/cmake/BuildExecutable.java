@@ -24,9 +24,13 @@ import java.util.List;
 public class BuildExecutable implements CMakeListsItem {
 
     public BuildExecutable(final Executable exe, final File sourcePath) {
+        this(exe, sourcePath, BuildOptions.NONE);
+    }
+
+    public BuildExecutable(final Executable exe, final File sourcePath, final BuildOptions options) {
         var name = new SingleArgument(exe.getName());
 
-        commands.add(new AddExecutable(name, Utils.getSourcePathArgs(exe.getBodyFiles())));
+        commands.addAll(options.addTarget(exe, sources -> new AddExecutable(name, sources)));
         commands.add(new TargetLinkLibraries(name, TargetLinkLibraries.Scope.PUBLIC, Utils.getNameArgs(exe.getDependencies())));
         commands.add(Utils.addHeaderPath(exe) );
         commands.add(new Command("set_property", "TARGET", exe.getName(), "PROPERTY", "RUNTIME_OUTPUT_DIRECTORY",  "${CMAKE_BINARY_DIR}/bin"));
@@ -0,0 +1,181 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.translate.TranslationError;
+import org.xtuml.masl.translate.building.ReferencedFile;
+import org.xtuml.masl.translate.cmake.language.arguments.SingleArgument;
+import org.xtuml.masl.translate.cmake.language.commands.Command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The optional compile time optimisations selected for a build set, applied to
+ * each target written to its CMakeLists.txt.
+ */
+public class BuildOptions {
+
+    public static final BuildOptions NONE = new BuildOptions(null, null, null);
+
+    public static BuildOptions create(final PragmaList pragmas, final String buildSetName) {
+        return new BuildOptions(UnityBuild.create(pragmas, buildSetName),
+                                PrecompiledHeaders.create(pragmas, buildSetName),
+                                CompileCost.create(pragmas, buildSetName));
+    }
+
+    /**
+     * Reads a pragma that enables an option, optionally giving a number to tune
+     * it. A value that is neither a number nor <code>true</code> or
+     * <code>false</code> is reported, and the default used instead.
+     *
+     * @param pragmas      the domain or project pragmas
+     * @param pragma       the name of the pragma
+     * @param meaning      what the number means, for the report
+     * @param defaultValue the number to use if none is given
+     * @param buildSetName the name of the build set
+     * @return the number to use, or null if the option is not enabled
+     */
+    static Integer getOptionValue(final PragmaList pragmas,
+                                  final String pragma,
+                                  final String meaning,
+                                  final int defaultValue,
+                                  final String buildSetName) {
+        if (pragmas == null || !pragmas.hasPragma(pragma)) {
+            return null;
+        }
+        final String value = pragmas.getValue(pragma);
+        if ("false".equals(value)) {
+            return null;
+        }
+        if (value.length() > 0 && !"true".equals(value)) {
+            try {
+                return Integer.parseInt(value);
+            } catch (final NumberFormatException e) {
+                new TranslationError(TranslationError.Code.UnknownPragmaValue,
+                                     pragmas,
+                                     buildSetName,
+                                     value,
+                                     pragma,
+                                     "true, false, " + meaning).report();
+            }
+        }
+        return defaultValue;
+    }
+
+    public BuildOptions(final UnityBuild unityBuild,
+                        final PrecompiledHeaders precompiledHeaders,
+                        final CompileCost compileCost) {
+        this.unityBuild = unityBuild;
+        this.precompiledHeaders = precompiledHeaders;
+        this.compileCost = compileCost;
+    }
+
+    public UnityBuild getUnityBuild() {
+        return unityBuild;
+    }
+
+    public PrecompiledHeaders getPrecompiledHeaders() {
+        return precompiledHeaders;
+    }
+
+    public CompileCost getCompileCost() {
+        return compileCost;
+    }
+
+    /**
+     * @return the commands needed once in the project setup
+     */
+    public List<Command> getSetupCommands() {
+        final List<Command> result = new ArrayList<>();
+        if (unityBuild != null) {
+            result.add(unityBuild.getOption());
+        }
+        return result;
+    }
+
+    /**
+     * Creates the commands to add a target for a library along with its sources,
+     * taking into account the selected options.
+     *
+     * @param library the library to add
+     * @param target  creates the command adding a target given its sources
+     * @return the commands to add to the CMakeLists.txt
+     */
+    public List<Command> addTarget(final Library library, final Function<List<SingleArgument>, Command> target) {
+        final List<Command> result = new ArrayList<>();
+
+        // The header is chosen before any files are sharded, so that sharding
+        // does not change what it contains
+        final CodeFile pch = precompiledHeaders == null ? null : precompiledHeaders.createHeader(library);
+
+        if (compileCost != null) {
+            compileCost.estimateLibrary(library);
+        }
+
+        List<ReferencedFile> unitySources = null;
+        if (unityBuild == null) {
+            result.add(target.apply(Utils.getSourcePathArgs(order(library.getBodyFiles()))));
+        } else {
+            unitySources =
+                    unityBuild.createSources(library,
+                                             compileCost == null ? Set.of() : compileCost.getShardedFiles());
+            result.addAll(unityBuild.addSources(order(library.getBodyFiles()), order(unitySources), target));
+        }
+
+        if (pch != null) {
+            result.add(new Command("target_precompile_headers",
+                                   new SingleArgument(library.getName()),
+                                   new SingleArgument("PRIVATE"),
+                                   Utils.getSourcePathArg(pch)));
+
+            final List<ReferencedFile> skipped = new ArrayList<>();
+            for (final CodeFile file : library.getBodyFiles()) {
+                if (precompiledHeaders.isExcluded(file)) {
+                    skipped.add(file);
+                }
+            }
+            if (unitySources != null) {
+                for (final ReferencedFile source : unitySources) {
+                    if (source instanceof UnitySourceFile unitySource &&
+                        unitySource.getBodyFiles().stream().anyMatch(precompiledHeaders::isExcluded)) {
+                        skipped.add(source);
+                    }
+                }
+            }
+            if (!skipped.isEmpty()) {
+                final List<SingleArgument> args = new ArrayList<>(Utils.getSourcePathArgs(skipped));
+                args.add(new SingleArgument("PROPERTIES"));
+                args.add(new SingleArgument("SKIP_PRECOMPILE_HEADERS"));
+                args.add(new SingleArgument("ON"));
+                result.add(new Command("set_source_files_properties", args));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists sources most expensive first if compile costs are being estimated,
+     * otherwise leaves them in the order given.
+     */
+    private <F extends ReferencedFile> Iterable<F> order(final Iterable<F> sources) {
+        return compileCost == null ? sources : compileCost.order(sources);
+    }
+
+    private final UnityBuild unityBuild;
+    private final PrecompiledHeaders precompiledHeaders;
+    private final CompileCost compileCost;
+
+}
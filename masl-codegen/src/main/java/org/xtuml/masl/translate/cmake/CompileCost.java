@@ -0,0 +1,236 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import com.google.common.collect.Lists;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.translate.building.ReferencedFile;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Estimates the cost of compiling each generated body file, from the size of
+ * its code, the number of functions it defines, the number of distinct template
+ * specialisations it names and the number of files it ends up including. Body
+ * files estimated to cost more than a threshold are split into shards where
+ * their contents allow it, and the sources of each target are listed most
+ * expensive first so that build tools which start jobs in the order given do
+ * not leave the slowest file until last.
+ * <p>
+ * Compile cost estimation is enabled for a build set by the
+ * <code>compile_cost</code> pragma on the domain or project, optionally giving
+ * the threshold above which files are split. The estimates are written to
+ * <code>&lt;build set&gt;_compile_costs.txt</code>.
+ * <p>
+ * If unity builds are also enabled, the files that have been split are left
+ * out of the unity batches, as batching them would undo the split.
+ */
+public class CompileCost {
+
+    public static final String COMPILE_COST_PRAGMA = "compile_cost";
+
+    /**
+     * Default cost above which a body file is split
+     */
+    public static final int DEFAULT_THRESHOLD = 400000;
+
+    /**
+     * Estimated cost of each function definition, over and above its code size
+     */
+    public static final int FUNCTION_COST = 1000;
+
+    /**
+     * Estimated cost of each distinct template specialisation named in the file
+     */
+    public static final int TEMPLATE_COST = 500;
+
+    /**
+     * Matches the innermost template specialisations in generated code
+     */
+    private static final Pattern TEMPLATE_ID = Pattern.compile("[A-Za-z_]\\w*\\s*<[^<>;{}()]*>");
+
+    /**
+     * The estimated compile cost of a single body file
+     */
+    public record Estimate(CodeFile file, int codeSize, int functions, int templates, int includes) {
+
+        public int getIncludeCost() {
+            return includes * UnityBuild.INCLUDE_COST;
+        }
+
+        public int getTotal() {
+            return codeSize + functions * FUNCTION_COST + templates * TEMPLATE_COST + getIncludeCost();
+        }
+    }
+
+    /**
+     * Creates the compile cost settings for a build set from its pragmas.
+     *
+     * @param pragmas      the domain or project pragmas
+     * @param buildSetName the name of the build set
+     * @return the compile cost settings, or null if not required
+     */
+    public static CompileCost create(final PragmaList pragmas, final String buildSetName) {
+        final Integer
+                threshold =
+                BuildOptions.getOptionValue(pragmas,
+                                            COMPILE_COST_PRAGMA,
+                                            "a cost threshold",
+                                            DEFAULT_THRESHOLD,
+                                            buildSetName);
+        return threshold == null ? null : new CompileCost(threshold);
+    }
+
+    public CompileCost(final int threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return the estimates made so far, by file
+     */
+    public Map<CodeFile, Estimate> getEstimates() {
+        return Collections.unmodifiableMap(estimates);
+    }
+
+    /**
+     * @return the files created by splitting oversized body files, by the file
+     * they were split from
+     */
+    public Map<CodeFile, List<CodeFile>> getShards() {
+        return Collections.unmodifiableMap(shards);
+    }
+
+    /**
+     * @return the files split because they were over the threshold, along with
+     * the shards split from them
+     */
+    public Set<CodeFile> getShardedFiles() {
+        final Set<CodeFile> result = new HashSet<>();
+        for (final Map.Entry<CodeFile, List<CodeFile>> entry : shards.entrySet()) {
+            result.add(entry.getKey());
+            result.addAll(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the cost of every body file in a library, splitting any that are
+     * over the threshold.
+     *
+     * @param library the library to estimate
+     */
+    public void estimateLibrary(final Library library) {
+        for (final CodeFile file : Lists.newArrayList(library.getBodyFiles())) {
+            final Estimate estimate = estimate(file);
+            if (estimate.getTotal() > threshold && file.isShardable()) {
+                // Every shard pays for its includes again, so only the rest of the cost
+                // is shared out.
+                final int capacity = Math.max(threshold - estimate.getIncludeCost(), threshold / 2);
+                final int count = Math.min((estimate.getTotal() - estimate.getIncludeCost() + capacity - 1) / capacity,
+                                           estimate.functions());
+                final List<CodeFile> newFiles = file.shard(count);
+                if (!newFiles.isEmpty()) {
+                    shards.put(file, newFiles);
+                    estimate(file);
+                    for (final CodeFile shard : newFiles) {
+                        estimate(shard);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the estimated cost of a source file. The cost of a unity source is the
+     * total of the files it includes.
+     *
+     * @param source the source file
+     * @return the estimated cost, or zero if it has not been estimated
+     */
+    public int getCost(final ReferencedFile source) {
+        if (source instanceof UnitySourceFile unitySource) {
+            int total = 0;
+            for (final CodeFile file : unitySource.getBodyFiles()) {
+                total += getCost(file);
+            }
+            return total;
+        }
+        final Estimate estimate = estimates.get(source);
+        return estimate == null ? 0 : estimate.getTotal();
+    }
+
+    /**
+     * Orders a list of sources most expensive first, keeping path order between
+     * files of equal cost.
+     *
+     * @param sources the sources to order
+     * @return the ordered sources
+     */
+    public <F extends ReferencedFile> List<F> order(final Iterable<F> sources) {
+        final List<F> result = Lists.newArrayList(sources);
+        result.sort(Comparator.comparing((F f) -> -getCost(f)).thenComparing(ReferencedFile::getFile));
+        return result;
+    }
+
+    private Estimate estimate(final CodeFile file) {
+        final Estimate
+                result =
+                new Estimate(file,
+                             file.getCodeSize(),
+                             file.getFunctionDefinitionCount(),
+                             countTemplates(file),
+                             getIncludeClosure(file).size());
+        estimates.put(file, result);
+        return result;
+    }
+
+    private static int countTemplates(final CodeFile file) {
+        final StringWriter code = new StringWriter();
+        try {
+            file.writeCode(code);
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+        final Set<String> templates = new HashSet<>();
+        final Matcher matcher = TEMPLATE_ID.matcher(code.toString());
+        while (matcher.find()) {
+            templates.add(matcher.group().replaceAll("\\s", ""));
+        }
+        return templates.size();
+    }
+
+    private Set<CodeFile> getIncludeClosure(final CodeFile file) {
+        final Set<CodeFile> result = new LinkedHashSet<>();
+        final Deque<CodeFile> pending = new ArrayDeque<>(file.getIncludes());
+        while (!pending.isEmpty()) {
+            final CodeFile include = pending.pop();
+            if (result.add(include)) {
+                pending.addAll(includes.computeIfAbsent(include, CodeFile::getIncludes));
+            }
+        }
+        return result;
+    }
+
+    private final int threshold;
+    private final Map<CodeFile, Estimate> estimates = new LinkedHashMap<>();
+    private final Map<CodeFile, List<CodeFile>> shards = new LinkedHashMap<>();
+    private final Map<CodeFile, List<CodeFile>> includes = new HashMap<>();
+
+}
@@ -0,0 +1,82 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.translate.building.BuildSet;
+import org.xtuml.masl.translate.building.ReferencedFile;
+import org.xtuml.masl.translate.building.WriteableFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the estimated compile cost of every body file in a build set, most
+ * expensive first, along with the parts that make up each estimate and any
+ * files that were split to bring them under the threshold.
+ */
+public class CompileCostReport extends ReferencedFile implements WriteableFile {
+
+    public CompileCostReport(final BuildSet buildSet, final CompileCost compileCost) {
+        super(null, buildSet.getName() + "_compile_costs.txt");
+        this.buildSet = buildSet;
+        this.compileCost = compileCost;
+    }
+
+    @Override
+    public void writeCode(final Writer writer) throws IOException {
+        final List<CompileCost.Estimate> estimates = new ArrayList<>(compileCost.getEstimates().values());
+        estimates.sort(Comparator.comparing((CompileCost.Estimate e) -> -e.getTotal()).thenComparing(e -> e.file()));
+
+        long total = 0;
+        for (final CompileCost.Estimate estimate : estimates) {
+            total += estimate.getTotal();
+        }
+
+        writer.write("Estimated compile costs for " + buildSet.getName() + "\n\n");
+        writer.write(String.format("Body files    : %10d\n", estimates.size()));
+        writer.write(String.format("Shard limit   : %10d\n", compileCost.getThreshold()));
+        writer.write(String.format("Total cost    : %10d\n\n", total));
+        writer.write(String.format("%10s %10s %9s %9s %9s  %s\n",
+                                   "Total",
+                                   "Code",
+                                   "Functions",
+                                   "Templates",
+                                   "Includes",
+                                   "File"));
+        for (final CompileCost.Estimate estimate : estimates) {
+            writer.write(String.format("%10d %10d %9d %9d %9d  %s\n",
+                                       estimate.getTotal(),
+                                       estimate.codeSize(),
+                                       estimate.functions(),
+                                       estimate.templates(),
+                                       estimate.includes(),
+                                       estimate.file().getFile().getPath()));
+        }
+
+        if (!compileCost.getShards().isEmpty()) {
+            writer.write("\nSplit files\n\n");
+            for (final Map.Entry<CodeFile, List<CodeFile>> entry : compileCost.getShards().entrySet()) {
+                writer.write(entry.getKey().getFile().getPath() + "\n");
+                for (final CodeFile shard : entry.getValue()) {
+                    writer.write("    " + shard.getFile().getPath() + "\n");
+                }
+            }
+        }
+    }
+
+    private final BuildSet buildSet;
+    private final CompileCost compileCost;
+
+}
@@ -0,0 +1,129 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import com.google.common.collect.Iterables;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.translate.building.BuildSet;
+import org.xtuml.masl.translate.building.ReferencedFile;
+import org.xtuml.masl.translate.building.WriteableFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Reports the fan-in of every header included by the generated code in a build
+ * set, that is the number of generated files that include it directly, and the
+ * number that end up including it once the includes of the generated headers
+ * are followed. Headers at the top of the list are the ones whose changes cause
+ * the most recompilation, and the totals give a measure of how much of the
+ * include graph each translation unit has to parse.
+ * <p>
+ * The report is written for a build set when the <code>include_report</code>
+ * pragma is present on the domain or project.
+ */
+public class IncludeReport extends ReferencedFile implements WriteableFile {
+
+    public static final String INCLUDE_REPORT_PRAGMA = "include_report";
+
+    /**
+     * Creates the include report for a build set from its pragmas.
+     *
+     * @param pragmas  the domain or project pragmas
+     * @param buildSet the build set to report on
+     * @return the report, or null if not required
+     */
+    public static IncludeReport create(final PragmaList pragmas, final BuildSet buildSet) {
+        if (pragmas == null ||
+            !pragmas.hasPragma(INCLUDE_REPORT_PRAGMA) ||
+            "false".equals(pragmas.getValue(INCLUDE_REPORT_PRAGMA))) {
+            return null;
+        }
+        return new IncludeReport(buildSet);
+    }
+
+    public IncludeReport(final BuildSet buildSet) {
+        super(null, buildSet.getName() + "_include_fanin.txt");
+        this.buildSet = buildSet;
+    }
+
+    @Override
+    public void writeCode(final Writer writer) throws IOException {
+        final Set<CodeFile> generated = new TreeSet<>();
+        for (final Library library : Iterables.filter(buildSet.getFileGroups(), Library.class)) {
+            Iterables.addAll(generated, Iterables.filter(library.getFiles(), CodeFile.class));
+        }
+
+        final Map<CodeFile, Integer> direct = new TreeMap<>();
+        final Map<CodeFile, Integer> transitive = new TreeMap<>();
+        final Map<CodeFile, List<CodeFile>> includes = new HashMap<>();
+        int directEdges = 0;
+        int transitiveEdges = 0;
+        int bodyFiles = 0;
+
+        for (final CodeFile file : generated) {
+            if (file.isBodyFile()) {
+                ++bodyFiles;
+            }
+            for (final CodeFile include : getIncludes(file, includes)) {
+                direct.merge(include, 1, Integer::sum);
+                ++directEdges;
+            }
+            for (final CodeFile include : getClosure(file, generated, includes)) {
+                transitive.merge(include, 1, Integer::sum);
+                ++transitiveEdges;
+            }
+        }
+
+        final List<CodeFile> headers = new ArrayList<>(transitive.keySet());
+        headers.sort(Comparator.comparing((CodeFile h) -> -transitive.get(h)).thenComparing(h -> h));
+
+        writer.write("Include fan-in for " + buildSet.getName() + "\n\n");
+        writer.write(String.format("Generated files         : %6d (%d body files)\n", generated.size(), bodyFiles));
+        writer.write(String.format("Direct include edges    : %6d\n", directEdges));
+        writer.write(String.format("Transitive include edges: %6d\n\n", transitiveEdges));
+        writer.write(String.format("%10s %10s  %s\n", "Transitive", "Direct", "Header"));
+        for (final CodeFile header : headers) {
+            writer.write(String.format("%10d %10d  %s\n",
+                                       transitive.get(header),
+                                       direct.getOrDefault(header, 0),
+                                       header.getFile().getPath()));
+        }
+    }
+
+    /**
+     * Works out every file included by a file, following the includes of any
+     * generated headers. Headers from outside the build set are not followed, as
+     * their includes are not known.
+     */
+    private static Set<CodeFile> getClosure(final CodeFile file,
+                                            final Set<CodeFile> generated,
+                                            final Map<CodeFile, List<CodeFile>> includes) {
+        final Set<CodeFile> result = new LinkedHashSet<>();
+        final Deque<CodeFile> pending = new ArrayDeque<>(getIncludes(file, includes));
+        while (!pending.isEmpty()) {
+            final CodeFile include = pending.pop();
+            if (result.add(include) && generated.contains(include)) {
+                pending.addAll(getIncludes(include, includes));
+            }
+        }
+        return result;
+    }
+
+    private static List<CodeFile> getIncludes(final CodeFile file, final Map<CodeFile, List<CodeFile>> includes) {
+        return includes.computeIfAbsent(file, CodeFile::getIncludes);
+    }
+
+    private final BuildSet buildSet;
+
+}
@@ -0,0 +1,153 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.metamodel.common.PragmaList;
+
+import java.util.*;
+
+/**
+ * Works out the headers included by most of the body files in a library and
+ * writes them to a generated header for the library, which is then used as the
+ * precompiled header for its target. Headers private to the library itself are
+ * left out, as they change far more often than the architecture and third party
+ * headers that make up most of the common prefix.
+ * <p>
+ * Precompiled headers are enabled for a build set by the
+ * <code>precompiled_headers</code> pragma on the domain or project, optionally
+ * giving the percentage of body files that must include a header for it to be
+ * precompiled. Body files that force their own include order, and any named in
+ * the <code>no_precompiled_headers</code> pragma, are compiled without it.
+ */
+public class PrecompiledHeaders {
+
+    public static final String PRECOMPILED_HEADERS_PRAGMA = "precompiled_headers";
+    public static final String NO_PRECOMPILED_HEADERS_PRAGMA = "no_precompiled_headers";
+
+    /**
+     * Default percentage of body files that must include a header
+     */
+    public static final int DEFAULT_THRESHOLD = 50;
+
+    /**
+     * Minimum number of body files in a library before a precompiled header is
+     * worth generating
+     */
+    public static final int MIN_BODY_FILES = 2;
+
+    /**
+     * Creates the precompiled header settings for a build set from its pragmas.
+     *
+     * @param pragmas      the domain or project pragmas
+     * @param buildSetName the name of the build set
+     * @return the precompiled header settings, or null if not required
+     */
+    public static PrecompiledHeaders create(final PragmaList pragmas, final String buildSetName) {
+        final Integer
+                threshold =
+                BuildOptions.getOptionValue(pragmas,
+                                            PRECOMPILED_HEADERS_PRAGMA,
+                                            "a percentage of files",
+                                            DEFAULT_THRESHOLD,
+                                            buildSetName);
+        if (threshold == null) {
+            return null;
+        }
+
+        final Set<String> excluded = new LinkedHashSet<>();
+        final List<String> exclusions = pragmas.getPragmaValues(NO_PRECOMPILED_HEADERS_PRAGMA);
+        if (exclusions != null) {
+            for (final String exclusion : exclusions) {
+                for (final String file : exclusion.split(",")) {
+                    if (file.trim().length() > 0) {
+                        excluded.add(file.trim());
+                    }
+                }
+            }
+        }
+        return new PrecompiledHeaders(threshold, excluded);
+    }
+
+    public PrecompiledHeaders(final int threshold, final Set<String> excludedFiles) {
+        this.threshold = threshold;
+        this.excludedFiles = excludedFiles;
+    }
+
+    /**
+     * Determines whether a body file must be compiled without the precompiled
+     * header, either because it forces its own include order or because it has
+     * been excluded by name. The name may be given with or without its
+     * extension.
+     *
+     * @param file the file to check
+     * @return <code>true</code> if the file should not use the precompiled header
+     */
+    public boolean isExcluded(final CodeFile file) {
+        final String name = file.getFile().getName();
+        final int dot = name.lastIndexOf('.');
+        return file.hasOrderedIncludes() ||
+               excludedFiles.contains(name) ||
+               (dot > 0 && excludedFiles.contains(name.substring(0, dot)));
+    }
+
+    /**
+     * Creates the precompiled header for a library, containing every header
+     * included by at least the threshold percentage of its body files. Files
+     * split out of another, for example to hold a single action, are counted as
+     * part of the file they were split from, so that splitting files does not
+     * change which headers are chosen.
+     *
+     * @param library the library to create the header for
+     * @return the new header, or null if there are too few body files or no
+     * headers in common
+     */
+    public CodeFile createHeader(final Library library) {
+        final Map<CodeFile, Set<CodeFile>> bodyFiles = new LinkedHashMap<>();
+        for (final CodeFile file : library.getBodyFiles()) {
+            if (!isExcluded(file)) {
+                bodyFiles.computeIfAbsent(file.getOriginal(), k -> new LinkedHashSet<>()).addAll(file.getIncludes());
+            }
+        }
+        if (bodyFiles.size() < MIN_BODY_FILES) {
+            return null;
+        }
+
+        final Map<CodeFile, Integer> usage = new TreeMap<>();
+        for (final Set<CodeFile> includes : bodyFiles.values()) {
+            for (final CodeFile include : includes) {
+                if (include.getParent() != library || include.isPublicHeader()) {
+                    usage.merge(include, 1, Integer::sum);
+                }
+            }
+        }
+
+        final List<CodeFile> common = new ArrayList<>();
+        for (final Map.Entry<CodeFile, Integer> entry : usage.entrySet()) {
+            if (entry.getValue() * 100 >= threshold * bodyFiles.size()) {
+                common.add(entry.getKey());
+            }
+        }
+        if (common.isEmpty()) {
+            return null;
+        }
+
+        final CodeFile header = library.createPrivateHeader(library.getName() + "_pch");
+        for (final CodeFile include : common) {
+            header.addInclude(include);
+        }
+        return header;
+    }
+
+    private final int threshold;
+    private final Set<String> excludedFiles;
+
+}
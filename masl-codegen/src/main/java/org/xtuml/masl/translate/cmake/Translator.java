@@ -16,6 +16,7 @@ import org.xtuml.masl.cppgen.ArchiveLibrary;
 import org.xtuml.masl.cppgen.Executable;
 import org.xtuml.masl.cppgen.InterfaceLibrary;
 import org.xtuml.masl.cppgen.SharedLibrary;
+import org.xtuml.masl.metamodel.common.PragmaList;
 import org.xtuml.masl.translate.Alias;
 import org.xtuml.masl.translate.BuildTranslator;
 import org.xtuml.masl.translate.Default;
@@ -33,7 +34,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -77,26 +80,31 @@ public class Translator extends BuildTranslator {
 
         projectSetup.add(dependencies);
 
+        final BuildOptions options = BuildOptions.create(getBuildSetPragmas(), name);
+        for (final Command command : options.getSetupCommands()) {
+            projectSetup.add(command);
+        }
+
         final Set<BuildSet> buildSets = new LinkedHashSet<>();
 
         for (final ArchiveLibrary lib : Iterables.filter(getBuildSet().getFileGroups(), ArchiveLibrary.class)) {
-            archives.add(new BuildArchiveLibrary(lib, srcPath));
-            buildSets.addAll(lib.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toSet()));
+            archives.add(new BuildArchiveLibrary(lib, srcPath, options));
+            buildSets.addAll(lib.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toCollection(LinkedHashSet::new)));
         }
 
         for (final SharedLibrary lib : Iterables.filter(getBuildSet().getFileGroups(), SharedLibrary.class)) {
-            libraries.add(new BuildSharedLibrary(lib, srcPath));
-            buildSets.addAll(lib.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toSet()));
+            libraries.add(new BuildSharedLibrary(lib, srcPath, options));
+            buildSets.addAll(lib.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toCollection(LinkedHashSet::new)));
         }
 
         for (final InterfaceLibrary lib : Iterables.filter(getBuildSet().getFileGroups(), InterfaceLibrary.class)) {
             libraries.add(new BuildInterfaceLibrary(lib, srcPath));
-            buildSets.addAll(lib.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toSet()));
+            buildSets.addAll(lib.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toCollection(LinkedHashSet::new)));
         }
 
         for (final Executable exe : Iterables.filter(getBuildSet().getFileGroups(), Executable.class)) {
-            executables.add(new BuildExecutable(exe, srcPath));
-            buildSets.addAll(exe.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toSet()));
+            executables.add(new BuildExecutable(exe, srcPath, options));
+            buildSets.addAll(exe.getDependencies().stream().map(fg -> fg.getParent()).collect(Collectors.toCollection(LinkedHashSet::new)));
         }
 
         buildSets.stream().filter(bs -> bs != null &&
@@ -126,10 +134,29 @@ public class Translator extends BuildTranslator {
         final FileGroup buildFiles = FileGroup.getFileGroup("cmakeBuildFiles");
         buildFiles.addFile(cmakelists);
 
+        final IncludeReport includeReport = IncludeReport.create(getBuildSetPragmas(), getBuildSet());
+        if (includeReport != null) {
+            buildFiles.addFile(includeReport);
+        }
+
+        if (options.getCompileCost() != null) {
+            buildFiles.addFile(new CompileCostReport(getBuildSet(), options.getCompileCost()));
+        }
+
         getBuildSet().addFileGroup(buildFiles);
 
     }
 
+    private PragmaList getBuildSetPragmas() {
+        if (getDomain() != null) {
+            return getDomain().getPragmas();
+        } else if (getProject() != null) {
+            return getProject().getPragmas();
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public void translateBuild(final org.xtuml.masl.translate.Translator<?> parent, final File sourceDirectory) {
         final Class<?> parentClass = parent.getClass();
@@ -156,10 +183,12 @@ public class Translator extends BuildTranslator {
             final File srcDir = new File(directory, srcPath.getPath());
             final File includeDir = new File(directory, includePath.getPath());
 
-            final Set<WriteableFile>
+            // Write the files in path order so that the output (and any errors
+            // reported while writing it) is the same from one run to the next.
+            final List<WriteableFile>
                     files =
                     getBuildSet().getFileGroups().stream().flatMap(g -> g.getFiles().stream()).filter(f -> f instanceof WriteableFile).map(
-                            f -> (WriteableFile) f).collect(Collectors.toSet());
+                            f -> (WriteableFile) f).distinct().sorted(Comparator.comparing(WriteableFile::getFile)).toList();
 
             for (final WriteableFile codeFile : files) {
                 final Writer newFileCode = new StringWriter();
@@ -0,0 +1,214 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.translate.building.ReferencedFile;
+import org.xtuml.masl.translate.cmake.language.arguments.QuotedArgument;
+import org.xtuml.masl.translate.cmake.language.arguments.SingleArgument;
+import org.xtuml.masl.translate.cmake.language.commands.Command;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Groups the generated body files of each library into unity sources, so that
+ * the headers shared by a batch of files are only parsed once. Batches are
+ * limited by an estimated compile cost, made up of the size of the code in each
+ * body file plus a fixed amount for each distinct file the batch includes.
+ * Files that declare the same names, or define the same names with internal
+ * linkage, are never put in the same batch. Files that compile cost
+ * estimation has split into shards are always compiled on their own, as
+ * batching them would merge the shards back into one translation unit.
+ * <p>
+ * Unity builds are enabled for a build set by the <code>unity_build</code>
+ * pragma on the domain or project, optionally giving the batch budget. The
+ * generated CMakeLists.txt has an option to switch back to compiling each file
+ * separately, which is useful when debugging.
+ */
+public class UnityBuild {
+
+    public static final String UNITY_BUILD_PRAGMA = "unity_build";
+
+    /**
+     * Default budget for a batch, in the same units as {@link CodeFile#getCodeSize()}
+     */
+    public static final int DEFAULT_BUDGET = 250000;
+
+    /**
+     * Estimated cost of each distinct include file in a batch
+     */
+    public static final int INCLUDE_COST = 2000;
+
+    /**
+     * Creates the unity build settings for a build set from its pragmas.
+     *
+     * @param pragmas      the domain or project pragmas
+     * @param buildSetName the name of the build set
+     * @return the unity build, or null if unity builds are not required
+     */
+    public static UnityBuild create(final PragmaList pragmas, final String buildSetName) {
+        final Integer
+                budget =
+                BuildOptions.getOptionValue(pragmas,
+                                            UNITY_BUILD_PRAGMA,
+                                            "a batch budget",
+                                            DEFAULT_BUDGET,
+                                            buildSetName);
+        if (budget == null) {
+            return null;
+        }
+        return new UnityBuild(buildSetName + "_UNITY_BUILD", budget);
+    }
+
+    public UnityBuild(final String optionName, final int budget) {
+        this.optionName = optionName;
+        this.budget = budget;
+    }
+
+    public String getOptionName() {
+        return optionName;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public Command getOption() {
+        return new Command("option",
+                           new SingleArgument(optionName),
+                           new QuotedArgument("Compile generated sources in unity batches"),
+                           new SingleArgument("ON"));
+    }
+
+    /**
+     * Creates the commands to add the sources for a library. If any unity sources
+     * are needed, the target is added twice, once using the unity sources and
+     * once using the original body files, selected by the unity build option.
+     *
+     * @param bodyFiles    the body files of the library
+     * @param unitySources the sources returned by {@link #createSources(Library)}
+     * @param target       creates the command adding a target given its sources
+     * @return the commands to add to the CMakeLists.txt
+     */
+    public List<Command> addSources(final Iterable<CodeFile> bodyFiles,
+                                    final Iterable<ReferencedFile> unitySources,
+                                    final Function<List<SingleArgument>, Command> target) {
+        final List<SingleArgument> plainSources = Utils.getSourcePathArgs(bodyFiles);
+
+        if (Iterables.all(unitySources, source -> !(source instanceof UnitySourceFile))) {
+            return List.of(target.apply(plainSources));
+        }
+
+        return List.of(new Command("if", optionName),
+                       target.apply(Utils.getSourcePathArgs(unitySources)),
+                       new Command("else"),
+                       target.apply(plainSources),
+                       new Command("endif"));
+    }
+
+    /**
+     * Batches the body files of a library, adding a unity source to the library
+     * for each batch of more than one file.
+     *
+     * @param library   the library to batch
+     * @param unbatched body files that must be compiled on their own
+     * @return the files to compile for the library, either unity sources or body
+     * files that were left on their own
+     */
+    public List<ReferencedFile> createSources(final Library library, final Set<CodeFile> unbatched) {
+        final List<CodeFile> files = Lists.newArrayList(library.getBodyFiles());
+        files.removeAll(unbatched);
+        files.sort(Comparator.comparing(CodeFile::getFile));
+
+        final List<Batch> batches = new ArrayList<>();
+        for (final CodeFile file : files) {
+            final FileCost cost = new FileCost(file);
+            Batch batch = batches.stream().filter(b -> b.accepts(cost)).findFirst().orElse(null);
+            if (batch == null) {
+                batch = new Batch();
+                batches.add(batch);
+            }
+            batch.add(cost);
+        }
+
+        final List<ReferencedFile> result = new ArrayList<>();
+        int unityNo = 0;
+        for (final Batch batch : batches) {
+            if (batch.files.size() == 1) {
+                result.add(batch.files.get(0));
+            } else {
+                final File
+                        unityFile =
+                        new File(library.getName() + "_unity_" + ++unityNo + library.getBodyExtension());
+                result.add(library.addFile(new UnitySourceFile(library, unityFile, batch.files)));
+            }
+        }
+        for (final CodeFile file : library.getBodyFiles()) {
+            if (unbatched.contains(file)) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private static final class FileCost {
+
+        private FileCost(final CodeFile file) {
+            this.file = file;
+            this.names = file.getTranslationUnitNames();
+            this.includes = new LinkedHashSet<>(file.getIncludes());
+            this.codeSize = file.getCodeSize();
+        }
+
+        private final CodeFile file;
+        private final Set<String> names;
+        private final Set<CodeFile> includes;
+        private final int codeSize;
+    }
+
+    private final class Batch {
+
+        private boolean accepts(final FileCost candidate) {
+            return Collections.disjoint(names, candidate.names) && cost + getMarginalCost(candidate) <= budget;
+        }
+
+        private int getMarginalCost(final FileCost candidate) {
+            int result = candidate.codeSize;
+            for (final CodeFile include : candidate.includes) {
+                if (!includes.contains(include)) {
+                    result += INCLUDE_COST;
+                }
+            }
+            return result;
+        }
+
+        private void add(final FileCost candidate) {
+            cost += getMarginalCost(candidate);
+            files.add(candidate.file);
+            names.addAll(candidate.names);
+            includes.addAll(candidate.includes);
+        }
+
+        private final List<CodeFile> files = new ArrayList<>();
+        private final Set<String> names = new HashSet<>();
+        private final Set<CodeFile> includes = new HashSet<>();
+        private int cost = 0;
+    }
+
+    private final String optionName;
+    private final int budget;
+
+}
@@ -0,0 +1,52 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.translate.building.FileGroup;
+import org.xtuml.masl.translate.building.ReferencedFile;
+import org.xtuml.masl.translate.building.WriteableFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A source file that compiles a batch of generated body files as a single
+ * translation unit by including each of them in turn.
+ */
+public class UnitySourceFile extends ReferencedFile implements WriteableFile {
+
+    public UnitySourceFile(final FileGroup parent, final File file, final List<CodeFile> bodyFiles) {
+        super(parent, file);
+        this.bodyFiles = List.copyOf(bodyFiles);
+    }
+
+    public List<CodeFile> getBodyFiles() {
+        return bodyFiles;
+    }
+
+    @Override
+    public void writeCode(final Writer writer) throws IOException {
+        writer.write("// Unity build source - compiles the following generated files as one translation unit\n");
+        for (final CodeFile bodyFile : bodyFiles) {
+            writer.write("#include \"" + bodyFile.getFile().getPath() + "\"\n");
+        }
+    }
+
+    @Override
+    public boolean isSourceFile() {
+        return true;
+    }
+
+    private final List<CodeFile> bodyFiles;
+
+}
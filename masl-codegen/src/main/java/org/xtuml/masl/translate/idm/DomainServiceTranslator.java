@@ -1,7 +1,7 @@
 package org.xtuml.masl.translate.idm;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -201,7 +201,7 @@ public class DomainServiceTranslator extends ServiceTranslator {
         // handle parameters
         final List<Variable> serializeVars = new ArrayList<>();
         final List<Variable> serializeKeyVars = new ArrayList<>();
-        final Map<ParameterDefinition, ParameterTranslator> paramTranslators = new HashMap<>();
+        final Map<ParameterDefinition, ParameterTranslator> paramTranslators = new LinkedHashMap<>();
         for (final ParameterDefinition param : getService().getParameters()) {
             final ParameterTranslator paramTrans = new ParameterTranslator(param, produceFn);
             paramTranslators.put(param, paramTrans);
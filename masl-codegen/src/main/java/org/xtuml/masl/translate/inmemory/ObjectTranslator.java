@@ -18,12 +18,15 @@ import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
 import org.xtuml.masl.metamodel.type.BasicType;
 import org.xtuml.masl.translate.main.Architecture;
+import org.xtuml.masl.translate.main.ContainerPolicy;
 import org.xtuml.masl.translate.main.Mangler;
 import org.xtuml.masl.translate.main.Types;
 import org.xtuml.masl.translate.main.object.ClassAttributeTranslator;
 import org.xtuml.masl.translate.main.object.ConcreteObjectTranslator;
 import org.xtuml.masl.translate.main.object.HalfRelationshipTranslator;
 import org.xtuml.masl.translate.main.object.IdentifierLookupTranslator;
+import org.xtuml.masl.translate.main.object.ObjectTranslator.LookupKey;
+import org.xtuml.masl.translate.main.object.ObjectTranslator.FindRange;
 
 import java.util.*;
 
@@ -41,32 +44,33 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
                 domainTranslator.getLibrary().createPrivateHeader("Transient" +
                                                                   Mangler.mangleFile(objectDeclaration) +
                                                                   "Population");
-        bodyFile = domainTranslator.getLibrary().createBodyFile("Transient" + Mangler.mangleFile(objectDeclaration));
-        populationBodyFile =
-                domainTranslator.getLibrary().createBodyFile("Transient" +
-                                                             Mangler.mangleFile(objectDeclaration) +
-                                                             "Population");
+        library = domainTranslator.getLibrary();
+        bodyFileName = "Transient" + Mangler.mangleFile(objectDeclaration);
+        bodyFile = library.createBodyFile(bodyFileName);
+        populationBodyFileName = "Transient" + Mangler.mangleFile(objectDeclaration) + "Population";
+        populationBodyFile = library.createBodyFile(populationBodyFileName);
+        containerPolicy = ContainerPolicy.getPolicy(objectDeclaration);
 
         relationshipTranslator = new HalfRelationshipTranslator(this, object) {
 
             @Override
             protected Class getToManyAssocClass(final TypeUsage related, final TypeUsage assoc) {
-                return Transient.toManyAssociative(related.getTemplateRefOnly(), assoc.getTemplateRefOnly());
+                return addInstantiation(headerFile, Transient.toManyAssociative(related.getTemplateRefOnly(), assoc.getTemplateRefOnly(), containerPolicy));
             }
 
             @Override
             protected Class getToManyRelClass(final TypeUsage related) {
-                return Transient.toManyRelationship(related.getTemplateRefOnly());
+                return addInstantiation(headerFile, Transient.toManyRelationship(related.getTemplateRefOnly(), containerPolicy));
             }
 
             @Override
             protected Class getToOneAssocClass(final TypeUsage related, final TypeUsage assoc) {
-                return Transient.toOneAssociative(related.getTemplateRefOnly(), assoc.getTemplateRefOnly());
+                return addInstantiation(headerFile, Transient.toOneAssociative(related.getTemplateRefOnly(), assoc.getTemplateRefOnly()));
             }
 
             @Override
             protected Class getToOneRelClass(final TypeUsage related) {
-                return Transient.toOneRelationship(related.getTemplateRefOnly());
+                return addInstantiation(headerFile, Transient.toOneRelationship(related.getTemplateRefOnly()));
             }
 
         };
@@ -102,6 +106,20 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
         return populationBodyFile;
     }
 
+    @Override
+    public CodeFile getFindBodyFile(final Function function) {
+        return mainDomainTranslator.getActionBodyFile(objectDeclaration,
+                                                      library,
+                                                      populationBodyFile,
+                                                      populationBodyFileName,
+                                                      function);
+    }
+
+    @Override
+    public CodeFile getNavigatorBodyFile(final Function function) {
+        return mainDomainTranslator.getActionBodyFile(objectDeclaration, library, bodyFile, bodyFileName, function);
+    }
+
     @Override
     protected void addArchitectureId(final Function getter) {
         attributeTranslator.addArchitectureId(getter,
@@ -118,7 +136,34 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
                                     final Function getter,
                                     final Variable constructorParameter,
                                     final Function setter) {
-        return attributeTranslator.addAttribute(declaration, getter, constructorParameter, setter);
+        final List<IdentifierLookupTranslator> indexes = new ArrayList<>();
+        for (final List<AttributeDeclaration> index : mainObjectTranslator.getIndexesContaining(declaration)) {
+            indexes.add(getIndexLookupTranslator(index));
+        }
+        if (mainObjectTranslator.getOrderedIndexes().contains(declaration)) {
+            indexes.add(getOrderedIndexLookupTranslator(declaration));
+        }
+        if (setter == null || indexes.isEmpty()) {
+            return attributeTranslator.addAttribute(declaration, getter, constructorParameter, setter);
+        }
+
+        // Move the instance to its new place in each index containing the
+        // attribute. The setter can then no longer be inline, as the population
+        // is not visible from the header.
+        final Expression population = getGetPopulation().asFunctionCall();
+        final Expression
+                self =
+                Architecture.objectPtr(new TypeUsage(mainObjectTranslator.getMainClass())).callConstructor(getMainClass().getThis().asExpression());
+        for (final IdentifierLookupTranslator index : indexes) {
+            setter.getCode().appendExpression(index.getIndexRemover().asFunctionCall(population, false, self));
+        }
+        final Variable result = attributeTranslator.addAttribute(declaration, getter, constructorParameter, setter);
+        for (final IdentifierLookupTranslator index : indexes) {
+            setter.getCode().appendExpression(index.getIndexAdder().asFunctionCall(population, false, self));
+        }
+        setter.declareInClass(false);
+        bodyFile.addFunctionDefinition(setter);
+        return result;
     }
 
     @Override
@@ -159,47 +204,94 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
 
     }
 
-    private final Map<IdentifierDeclaration, IdentifierLookupTranslator> identifierLookupTranslators = new HashMap<>();
+    /**
+     * A lookup held by the population, keyed on an identifier, the attributes
+     * named by an index pragma or an attribute with an ordered index.
+     */
+    private class LookupTranslator extends IdentifierLookupTranslator {
+
+        LookupTranslator(final List<? extends AttributeDeclaration> attributes, final boolean unique) {
+            super(ObjectTranslator.this, attributes, unique);
+        }
+
+        LookupTranslator(final AttributeDeclaration attribute) {
+            super(ObjectTranslator.this, attribute);
+        }
+
+        @Override
+        public DeclarationGroup getDeclarationGroup() {
+            return queries;
+        }
+
+        @Override
+        public CodeBlock getInstanceCreatedCode() {
+            return getInstanceCreated().getCode();
+        }
+
+        @Override
+        public Expression getInstanceCreatedInstance() {
+            return getInstanceCreated().getParameters().get(0).asExpression();
+        }
+
+        @Override
+        public CodeBlock getInstanceDeletedCode() {
+            return getInstanceDeleted().getCode();
+        }
+
+        @Override
+        public Expression getInstanceDeletedInstance() {
+            return getInstanceDeleted().getParameters().get(0).asExpression();
+        }
+
+        @Override
+        public TypeUsage getStoredType() {
+            return new TypeUsage(Architecture.objectPtr(new TypeUsage(mainObjectTranslator.getMainClass())));
+        }
+
+        @Override
+        protected void addLookupInstantiation(final TypeUsage lookupType) {
+            mainDomainTranslator.addExplicitInstantiation(lookupType,
+                                                          populationHeaderFile,
+                                                          library,
+                                                          bodyFileName + "_instantiations");
+        }
+
+    }
+
+    private final Map<IdentifierDeclaration, IdentifierLookupTranslator> identifierLookupTranslators = new LinkedHashMap<>();
 
     IdentifierLookupTranslator getIdentifierLookupTranslator(final IdentifierDeclaration identifier) {
         IdentifierLookupTranslator lookupTranslator = identifierLookupTranslators.get(identifier);
 
         if (lookupTranslator == null) {
-            lookupTranslator = new IdentifierLookupTranslator(this, objectDeclaration, identifier) {
+            lookupTranslator = new LookupTranslator(identifier.getAttributes(), true);
+            identifierLookupTranslators.put(identifier, lookupTranslator);
+        }
 
-                @Override
-                public DeclarationGroup getDeclarationGroup() {
-                    return queries;
-                }
+        return lookupTranslator;
+    }
 
-                @Override
-                public CodeBlock getInstanceCreatedCode() {
-                    return getInstanceCreated().getCode();
-                }
+    private final Map<List<? extends AttributeDeclaration>, IdentifierLookupTranslator> indexLookupTranslators = new LinkedHashMap<>();
 
-                @Override
-                public Expression getInstanceCreatedInstance() {
-                    return getInstanceCreated().getParameters().get(0).asExpression();
-                }
+    IdentifierLookupTranslator getIndexLookupTranslator(final List<? extends AttributeDeclaration> index) {
+        IdentifierLookupTranslator lookupTranslator = indexLookupTranslators.get(index);
 
-                @Override
-                public CodeBlock getInstanceDeletedCode() {
-                    return getInstanceDeleted().getCode();
-                }
+        if (lookupTranslator == null) {
+            lookupTranslator = new LookupTranslator(index, false);
+            indexLookupTranslators.put(index, lookupTranslator);
+        }
 
-                @Override
-                public Expression getInstanceDeletedInstance() {
-                    return getInstanceDeleted().getParameters().get(0).asExpression();
-                }
+        return lookupTranslator;
+    }
 
-                @Override
-                public TypeUsage getStoredType() {
-                    return new TypeUsage(Architecture.objectPtr(new TypeUsage(mainObjectTranslator.getMainClass())));
-                }
+    private final Map<AttributeDeclaration, IdentifierLookupTranslator> orderedIndexLookupTranslators = new LinkedHashMap<>();
 
-            };
+    IdentifierLookupTranslator getOrderedIndexLookupTranslator(final AttributeDeclaration attribute) {
+        IdentifierLookupTranslator lookupTranslator = orderedIndexLookupTranslators.get(attribute);
 
-            identifierLookupTranslators.put(identifier, lookupTranslator);
+        if (lookupTranslator == null) {
+            lookupTranslator = new LookupTranslator(attribute);
+            orderedIndexLookupTranslators.put(attribute, lookupTranslator);
         }
 
         return lookupTranslator;
@@ -210,34 +302,150 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
         return getIdentifierLookupTranslator(identifier).getChecker();
     }
 
-    private void createIdentifierFind(final IdentifierDeclaration identifier,
-                                      final org.xtuml.masl.metamodel.expression.Expression predicate,
-                                      final Function function,
-                                      final FindExpression.Type type) {
-        final Function identifierLookup = getIdentifierLookupTranslator(identifier).getFinder();
-
-        final List<? extends AttributeDeclaration> attributes = predicate.getFindEqualAttributes();
+    /**
+     * Creates a find which looks up an identifier or secondary index, checking
+     * each instance found against the predicate unless the key covers it
+     * completely.
+     */
+    private void createKeyFind(final LookupKey key,
+                               final org.xtuml.masl.metamodel.expression.Expression predicate,
+                               final Function function,
+                               final FindExpression.Type type) {
+        final Map<String, Expression> params = getFindParams(function);
+        final List<Expression> keyParams = getKeyParams(key, params);
+        final Expression
+                residual =
+                key.isComplete() ? null : mainObjectTranslator.getBoundPredicate(predicate, new ArrayList<>(params.values()));
+
+        Expression result;
+        if (key.getIdentifier() != null) {
+            result = getIdentifierLookupTranslator(key.getIdentifier()).getFinder().asFunctionCall(keyParams);
+            if (residual != null) {
+                result = Architecture.filterInstance.asFunctionCall(result, residual);
+            }
+            if (type == FindExpression.Type.FIND) {
+                result = function.getReturnType().getType().callConstructor(result);
+            }
+        } else {
+            final IdentifierLookupTranslator lookupTranslator = getIndexLookupTranslator(key.getAttributes());
+            if (residual == null) {
+                final Function indexLookup = switch (type) {
+                    case FIND -> lookupTranslator.getAllFinder();
+                    case FIND_ONE -> lookupTranslator.getFinder();
+                    case FIND_ONLY -> lookupTranslator.getOnlyFinder();
+                };
+                result = indexLookup.asFunctionCall(keyParams);
+            } else {
+                final Function scan = switch (type) {
+                    case FIND -> Architecture.findIndexed;
+                    case FIND_ONE -> Architecture.findOneIndexed;
+                    case FIND_ONLY -> Architecture.findOnlyIndexed;
+                };
+                result =
+                        scan.asFunctionCall(lookupTranslator.getLookup(),
+                                            lookupTranslator.getKey(keyParams),
+                                            residual);
+            }
+        }
+        function.getCode().appendStatement(new ReturnStatement(result));
+        getFindBodyFile(function).addFunctionDefinition(function);
 
-        final Iterator<Variable> param = function.getParameters().iterator();
+    }
 
-        final Map<AttributeDeclaration, Expression> paramLookup = new HashMap<>();
-        for (final AttributeDeclaration att : attributes) {
-            paramLookup.put(att, param.next().asExpression());
+    private void createKeyCount(final LookupKey key,
+                                final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                final Function function) {
+        final Map<String, Expression> params = getFindParams(function);
+        final List<Expression> keyParams = getKeyParams(key, params);
+        final IdentifierLookupTranslator
+                lookupTranslator =
+                key.getIdentifier() != null ?
+                getIdentifierLookupTranslator(key.getIdentifier()) :
+                getIndexLookupTranslator(key.getAttributes());
+
+        final Expression result;
+        if (key.isComplete()) {
+            result = lookupTranslator.getCounter().asFunctionCall(keyParams);
+        } else {
+            final Expression
+                    residual =
+                    mainObjectTranslator.getBoundPredicate(predicate, new ArrayList<>(params.values()));
+            if (key.getIdentifier() != null) {
+                result =
+                        Architecture.countInstance.asFunctionCall(lookupTranslator.getFinder().asFunctionCall(keyParams),
+                                                                  residual);
+            } else {
+                result =
+                        Architecture.countIndexed.asFunctionCall(lookupTranslator.getLookup(),
+                                                                 lookupTranslator.getKey(keyParams),
+                                                                 residual);
+            }
         }
+        function.getCode().appendStatement(new ReturnStatement(result));
+        getFindBodyFile(function).addFunctionDefinition(function);
+    }
 
-        final List<Expression> orderedParams = new ArrayList<>(attributes.size());
-
-        for (final AttributeDeclaration identAttribute : identifier.getAttributes()) {
-            orderedParams.add(paramLookup.get(identAttribute));
+    /**
+     * @return the parameters of a find function, by the name of the find
+     * parameter each is passed
+     */
+    private Map<String, Expression> getFindParams(final Function function) {
+        final Map<String, Expression> params = new LinkedHashMap<>();
+        for (final Variable param : function.getParameters()) {
+            params.put(param.getName(), param.asExpression());
         }
+        return params;
+    }
 
-        Expression result = identifierLookup.asFunctionCall(orderedParams);
-        if (type == FindExpression.Type.FIND) {
-            result = function.getReturnType().getType().callConstructor(result);
+    /**
+     * Picks out the parameters of a find function, which follow the order of
+     * the attributes in the predicate, giving the value of each attribute of a
+     * lookup key.
+     */
+    private List<Expression> getKeyParams(final LookupKey key, final Map<String, Expression> params) {
+        final List<Expression> keyParams = new ArrayList<>(key.getAttributes().size());
+        for (final AttributeDeclaration keyAttribute : key.getAttributes()) {
+            keyParams.add(params.get(key.getParameter(keyAttribute).getName()));
         }
-        function.getCode().appendStatement(new ReturnStatement(result));
-        populationBodyFile.addFunctionDefinition(function);
+        return keyParams;
+    }
+
+    private void createRangeFind(final FindRange range,
+                                 final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                 final Function function,
+                                 final FindExpression.Type type) {
+        final Function scan = switch (type) {
+            case FIND -> Architecture.findRange;
+            case FIND_ONE -> Architecture.findOneRange;
+            case FIND_ONLY -> Architecture.findOnlyRange;
+        };
+        function.getCode().appendStatement(new ReturnStatement(scan.asFunctionCall(getRangeScanArgs(range,
+                                                                                                    predicate,
+                                                                                                    function))));
+        getFindBodyFile(function).addFunctionDefinition(function);
+    }
 
+    /**
+     * Gets the arguments to scan an ordered index over the range selected by a
+     * find, adding the predicate to check each instance against unless the
+     * range covers it completely.
+     */
+    private List<Expression> getRangeScanArgs(final FindRange range,
+                                              final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                              final Function function) {
+        final IdentifierLookupTranslator index = getOrderedIndexLookupTranslator(range.getAttribute());
+        final Map<String, Expression> params = getFindParams(function);
+
+        final List<Expression> args = new ArrayList<>();
+        args.add(index.getLookup());
+        args.add(index.getLowerBound(range.getLower() == null ? null : params.get(range.getLower().getName()),
+                                     range.isLowerInclusive()));
+        args.add(index.getUpperBound(range.getUpper() == null ? null : params.get(range.getUpper().getName()),
+                                     range.isUpperInclusive()));
+        if (!range.isComplete()) {
+            args.add(mainObjectTranslator.getBoundPredicate(predicate, new ArrayList<>(params.values())));
+        }
+        return args;
     }
 
     protected void createPredicateFind(final org.xtuml.masl.metamodel.expression.Expression predicate,
@@ -276,7 +484,7 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
             function.getCode().appendStatement(new ReturnStatement(finder));
         }
 
-        populationBodyFile.addFunctionDefinition(function);
+        getFindBodyFile(function).addFunctionDefinition(function);
 
     }
 
@@ -284,18 +492,79 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
     protected void addFindFunction(final org.xtuml.masl.metamodel.expression.Expression predicate,
                                    final Function function,
                                    final FindExpression.Type type) {
-        final IdentifierDeclaration identifier = mainObjectTranslator.getFindIdentifier(predicate);
-
-        if (identifier == null) {
+        final LookupKey key = mainObjectTranslator.getLookupKey(predicate);
+
+        if (key != null) {
+            // The find is looking for a match on an identifier or secondary index
+            createKeyFind(key, predicate, function, type);
+        } else if (mainObjectTranslator.getFindRange(predicate) != null) {
+            // The find is looking for a range on an ordered index
+            createRangeFind(mainObjectTranslator.getFindRange(predicate), predicate, function, type);
+        } else {
             // No matching identifier, so use default finds and predicate functions
             createPredicateFind(predicate, function, type);
-        } else {
-            // The find is looking for an exact match on an identifier
-            createIdentifierFind(identifier, predicate, function, type);
         }
 
     }
 
+    @Override
+    protected void addCountFunction(final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                    final Function function) {
+        final LookupKey key = mainObjectTranslator.getLookupKey(predicate);
+        if (key != null) {
+            createKeyCount(key, predicate, function);
+            return;
+        }
+
+        final FindRange range = mainObjectTranslator.getFindRange(predicate);
+        if (range != null) {
+            function.getCode().appendStatement(new ReturnStatement(Architecture.countRange.asFunctionCall(
+                    getRangeScanArgs(range, predicate, function))));
+            getFindBodyFile(function).addFunctionDefinition(function);
+            return;
+        }
+
+        final List<Expression> findArgs = new ArrayList<>(function.getParameters().size());
+        for (final Variable param : function.getParameters()) {
+            findArgs.add(param.asExpression());
+        }
+
+        final Expression predicateArg = mainObjectTranslator.getBoundPredicate(predicate, findArgs);
+
+        function.getCode().appendStatement(new ReturnStatement(Std.count_if.asFunctionCall(new Function("begin").asFunctionCall(),
+                                                                                           new Function("end").asFunctionCall(),
+                                                                                           predicateArg)));
+        getFindBodyFile(function).addFunctionDefinition(function);
+    }
+
+    @Override
+    protected void addOrderedFindFunction(final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                          final AttributeDeclaration attribute,
+                                          final Function function) {
+        final IdentifierLookupTranslator index = getOrderedIndexLookupTranslator(attribute);
+        final FindRange range = mainObjectTranslator.getFindRange(predicate, attribute);
+
+        final List<Expression> args;
+        if (range != null) {
+            args = getRangeScanArgs(range, predicate, function);
+        } else {
+            // Walk the whole index, which still saves sorting the result
+            args = new ArrayList<>();
+            args.add(index.getLookup());
+            args.add(index.getLowerBound(null, true));
+            args.add(index.getUpperBound(null, true));
+            if (predicate != null) {
+                final List<Expression> findArgs = new ArrayList<>(function.getParameters().size());
+                for (final Variable param : function.getParameters()) {
+                    findArgs.add(param.asExpression());
+                }
+                args.add(mainObjectTranslator.getBoundPredicate(predicate, findArgs));
+            }
+        }
+        function.getCode().appendStatement(new ReturnStatement(Architecture.findRangeOrdered.asFunctionCall(args)));
+        getFindBodyFile(function).addFunctionDefinition(function);
+    }
+
     @Override
     protected void addMainClass(final Class mainClass) {
         attributeTranslator.addMainClassDeclarationGroups();
@@ -339,8 +608,23 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
 
     @Override
     protected Class getPopulationSuperclass() {
-        return Transient.population(new TypeUsage(mainObjectTranslator.getMainClass()),
-                                    new TypeUsage(mainObjectTranslator.getPopulationClass()));
+        return addInstantiation(populationHeaderFile,
+                                Transient.population(new TypeUsage(mainObjectTranslator.getMainClass()),
+                                                     new TypeUsage(mainObjectTranslator.getPopulationClass()),
+                                                     containerPolicy));
+    }
+
+    /**
+     * Declares a template specialisation used by this object extern in one of its
+     * headers, instantiating it in the object's instantiation file if no other
+     * object has already done so.
+     */
+    private Class addInstantiation(final CodeFile header, final Class specialisation) {
+        mainDomainTranslator.addExplicitInstantiation(new TypeUsage(specialisation),
+                                                      header,
+                                                      library,
+                                                      bodyFileName + "_instantiations");
+        return specialisation;
     }
 
     @Override
@@ -358,7 +642,10 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
         return namespace;
     }
 
+    private final Library library;
+    private final String bodyFileName;
     private final CodeFile bodyFile;
+    private final String populationBodyFileName;
     private final CodeFile populationBodyFile;
 
     private final CodeFile headerFile;
@@ -366,6 +653,8 @@ public class ObjectTranslator extends ConcreteObjectTranslator {
 
     private final Namespace namespace;
 
+    private final ContainerPolicy containerPolicy;
+
     private final HalfRelationshipTranslator relationshipTranslator;
     private final ClassAttributeTranslator attributeTranslator;
     private DeclarationGroup queries;
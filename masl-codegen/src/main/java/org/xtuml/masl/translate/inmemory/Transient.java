@@ -13,6 +13,7 @@ import org.xtuml.masl.cppgen.Class;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.translate.building.BuildSet;
 import org.xtuml.masl.translate.main.Architecture;
+import org.xtuml.masl.translate.main.ContainerPolicy;
 
 public class Transient {
 
@@ -31,18 +32,22 @@ public class Transient {
 
     public final static CodeFile toManyInc = popLibrary.createInterfaceHeader("transient/ToManyRelationship.hh");
 
-    public final static Class toManyRelationship(final TypeUsage related) {
+    public final static Class toManyRelationship(final TypeUsage related, final ContainerPolicy policy) {
         final Class ret = new Class("ToManyRelationship", NAMESPACE, toManyInc);
         ret.addTemplateSpecialisation(related);
+        addPolicy(ret, policy);
         return ret;
     }
 
     public final static CodeFile toManyAssocInc = popLibrary.createInterfaceHeader("transient/ToManyAssociative.hh");
 
-    public final static Class toManyAssociative(final TypeUsage related, final TypeUsage assoc) {
+    public final static Class toManyAssociative(final TypeUsage related,
+                                                final TypeUsage assoc,
+                                                final ContainerPolicy policy) {
         final Class ret = new Class("ToManyAssociative", NAMESPACE, toManyAssocInc);
         ret.addTemplateSpecialisation(related);
         ret.addTemplateSpecialisation(assoc);
+        addPolicy(ret, policy);
         return ret;
     }
 
@@ -57,11 +62,24 @@ public class Transient {
 
     public final static CodeFile populationInc = popLibrary.createInterfaceHeader("transient/Population.hh");
 
-    public final static Class population(final TypeUsage object, final TypeUsage factory) {
+    public final static Class population(final TypeUsage object,
+                                         final TypeUsage factory,
+                                         final ContainerPolicy policy) {
         final Class ret = new Class("TransientPopulation", NAMESPACE, populationInc);
         ret.addTemplateSpecialisation(object);
         ret.addTemplateSpecialisation(factory);
+        addPolicy(ret, policy);
         return ret;
     }
 
+    /**
+     * Passes the container policy to a template taking one, leaving the
+     * template's own default for the default policy.
+     */
+    private static void addPolicy(final Class template, final ContainerPolicy policy) {
+        if (!policy.isDefault()) {
+            template.addTemplateSpecialisation(new TypeUsage(policy.getPolicyClass()));
+        }
+    }
+
 }
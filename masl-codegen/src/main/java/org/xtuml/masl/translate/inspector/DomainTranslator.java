@@ -171,9 +171,9 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
         return objectTranslators.get(terminator);
     }
 
-    private final Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new HashMap<>();
-    private final Map<DomainTerminator, TerminatorTranslator> terminatorTranslators = new HashMap<>();
-    private final Map<DomainService, ActionTranslator> serviceTranslators = new HashMap<>();
+    private final Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new LinkedHashMap<>();
+    private final Map<DomainTerminator, TerminatorTranslator> terminatorTranslators = new LinkedHashMap<>();
+    private final Map<DomainService, ActionTranslator> serviceTranslators = new LinkedHashMap<>();
 
     private DeclarationGroup group;
 
@@ -27,7 +27,7 @@ import org.xtuml.masl.translate.main.Mangler;
 import org.xtuml.masl.translate.main.Types;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -40,9 +40,9 @@ class ObjectTranslator {
     private final CodeFile headerFile;
     private final Class handlerClass;
 
-    private final Map<ObjectService, ActionTranslator> serviceTranslators = new HashMap<>();
-    private final Map<State, ActionTranslator> stateTranslators = new HashMap<>();
-    private final Map<EventDeclaration, EventTranslator> eventTranslators = new HashMap<>();
+    private final Map<ObjectService, ActionTranslator> serviceTranslators = new LinkedHashMap<>();
+    private final Map<State, ActionTranslator> stateTranslators = new LinkedHashMap<>();
+    private final Map<EventDeclaration, EventTranslator> eventTranslators = new LinkedHashMap<>();
     private final DomainTranslator domainTranslator;
     private final DeclarationGroup relationshipNavigators;
     private final Namespace namespace;
@@ -16,7 +16,7 @@ import org.xtuml.masl.metamodel.domain.DomainTerminatorService;
 import org.xtuml.masl.translate.main.Boost;
 import org.xtuml.masl.translate.main.Mangler;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 class TerminatorTranslator {
@@ -27,7 +27,7 @@ class TerminatorTranslator {
     private final CodeFile headerFile;
     private final Class handlerClass;
 
-    private final Map<DomainTerminatorService, ActionTranslator> serviceTranslators = new HashMap<>();
+    private final Map<DomainTerminatorService, ActionTranslator> serviceTranslators = new LinkedHashMap<>();
     private final DomainTranslator domainTranslator;
 
     private final Namespace namespace;
@@ -0,0 +1,1239 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.javasim;
+
+import org.xtuml.masl.javagen.ast.AST;
+import org.xtuml.masl.javagen.ast.code.*;
+import org.xtuml.masl.javagen.ast.def.*;
+import org.xtuml.masl.javagen.ast.expr.Expression;
+import org.xtuml.masl.javagen.ast.expr.NewInstance;
+import org.xtuml.masl.javagen.ast.expr.StatementExpression;
+import org.xtuml.masl.javagen.ast.types.DeclaredType;
+import org.xtuml.masl.javagen.ast.types.Type;
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.TypeNameExpression;
+import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.common.ParameterDefinition;
+import org.xtuml.masl.metamodel.expression.*;
+import org.xtuml.masl.metamodel.object.AttributeDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.relationship.MultiplicityType;
+import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
+import org.xtuml.masl.metamodel.type.BasicType;
+import org.xtuml.masl.metamodel.type.CollectionType;
+import org.xtuml.masl.metamodel.type.EnumerateType;
+import org.xtuml.masl.metamodel.type.InstanceType;
+import org.xtuml.masl.metamodel.type.TypeDefinition.ActualType;
+import org.xtuml.masl.metamodel.type.UserDefinedType;
+import org.xtuml.masl.translate.TranslationError;
+
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Translates the code of a MASL service or state action into the body of a
+ * Java method. Finds, navigations and orderings are translated into private
+ * static helper methods on the class that owns the action, each of which loops
+ * over the collection it is given, as the generated code has no lambdas to
+ * pass predicates around with.
+ * <p>
+ * Any statement that uses a construct the simulation does not model, and any
+ * exception handler, is reported as a translation error, so that the domain is
+ * not simulated with parts of its actions missing.
+ */
+class ActionTranslator {
+
+    /**
+     * Thrown while translating a construct that the simulation does not model.
+     * The statement containing it is reported and left out.
+     */
+    private static class UnsupportedConstruct extends Exception {
+
+        UnsupportedConstruct(final String what) {
+            super(what);
+        }
+    }
+
+    /**
+     * @param domainTranslator the translator for the domain
+     * @param owner            the class the action is defined in
+     * @param method           the method to translate the action into
+     * @param simulation       the expression giving the simulation the action runs
+     *                         in
+     * @param self             the expression giving the instance the action runs
+     *                         on, or null if there is none
+     * @param parameters       the Java parameters for each MASL parameter
+     * @param name             the qualified name of the service or state, for
+     *                         reporting constructs that cannot be simulated
+     */
+    ActionTranslator(final DomainTranslator domainTranslator,
+                     final TypeDeclaration owner,
+                     final Callable method,
+                     final Expression simulation,
+                     final Expression self,
+                     final Map<ParameterDefinition, Parameter> parameters,
+                     final String name) {
+        this.domainTranslator = domainTranslator;
+        this.owner = owner;
+        this.method = method;
+        this.simulation = simulation;
+        this.self = self;
+        this.parameters = parameters;
+        this.name = name;
+        this.ast = domainTranslator.getAST();
+        this.types = domainTranslator.getTypeTranslator();
+        for (final Parameter param : method.getParameters()) {
+            usedNames.add(param.getName());
+        }
+    }
+
+    /**
+     * Translates the code into the body of the method. Functions that can reach
+     * the end of their code without returning a value throw instead.
+     *
+     * @param code       the code to translate
+     * @param returnType the return type of the service, or null if it is not a
+     *                   function
+     */
+    void translate(final org.xtuml.masl.metamodel.code.CodeBlock code, final BasicType returnType) {
+        final org.xtuml.masl.javagen.ast.code.CodeBlock body = method.setCodeBlock();
+        translateBlock(code, body);
+        if (returnType != null && canCompleteNormally(code)) {
+            body.addStatement(ast.createThrow(ast.createNewInstance((DeclaredType) ast.createType(IllegalStateException.class),
+                                                                    ast.createLiteral("No value returned"))));
+        }
+    }
+
+    private void translateBlock(final org.xtuml.masl.metamodel.code.CodeBlock block, final StatementGroup target) {
+        for (final ExceptionHandler handler : block.getExceptionHandlers()) {
+            unsupported(handler, "Exception handler");
+        }
+        for (final VariableDefinition variable : block.getVariables()) {
+            final LocalVariable local = declareLocal(variable);
+            target.addStatement(local);
+            if (variable.getInitialValue() != null) {
+                try {
+                    local.setInitialValue(translateValue(variable.getInitialValue()));
+                } catch (final UnsupportedConstruct e) {
+                    unsupported(variable, e.getMessage());
+                }
+            }
+        }
+        translateStatements(block.getStatements(), target);
+    }
+
+    private void translateStatements(final List<? extends org.xtuml.masl.metamodel.code.Statement> statements, final StatementGroup target) {
+        for (final org.xtuml.masl.metamodel.code.Statement statement : statements) {
+            try {
+                final BlockStatement translated = translateStatement(statement);
+                if (translated != null) {
+                    target.addStatement(translated);
+                }
+            } catch (final UnsupportedConstruct e) {
+                unsupported(statement, e.getMessage());
+            }
+        }
+    }
+
+    private org.xtuml.masl.javagen.ast.code.CodeBlock translateStatements(final List<? extends org.xtuml.masl.metamodel.code.Statement> statements) {
+        final org.xtuml.masl.javagen.ast.code.CodeBlock result = ast.createCodeBlock();
+        translateStatements(statements, result);
+        return result;
+    }
+
+    private BlockStatement translateStatement(final org.xtuml.masl.metamodel.code.Statement statement) throws UnsupportedConstruct {
+        if (statement instanceof org.xtuml.masl.metamodel.code.CodeBlock block) {
+            final org.xtuml.masl.javagen.ast.code.CodeBlock result = ast.createCodeBlock();
+            translateBlock(block, result);
+            return result;
+        } else if (statement instanceof AssignmentStatement assignment) {
+            return translateAssignment(assignment);
+        } else if (statement instanceof IfStatement ifStatement) {
+            return translateIf(ifStatement);
+        } else if (statement instanceof WhileStatement whileStatement) {
+            final While result = ast.createWhile(translate(whileStatement.getCondition()));
+            result.setStatement(translateStatements(whileStatement.getStatements()));
+            return result;
+        } else if (statement instanceof ForStatement forStatement) {
+            return translateFor(forStatement);
+        } else if (statement instanceof ExitStatement exit) {
+            if (exit.getCondition() == null) {
+                return ast.createBreak();
+            }
+            final If result = ast.createIf(translate(exit.getCondition()));
+            result.setThen(ast.createBreak());
+            return result;
+        } else if (statement instanceof CaseStatement caseStatement) {
+            return translateCase(caseStatement);
+        } else if (statement instanceof LinkUnlinkStatement link) {
+            return translateLink(link);
+        } else if (statement instanceof DomainServiceInvocation invocation) {
+            return asStatement(callService(invocation.getService(), invocation.getArguments()));
+        } else if (statement instanceof TerminatorServiceInvocation invocation) {
+            return asStatement(callService(invocation.getService(), invocation.getArguments()));
+        } else if (statement instanceof ObjectServiceInvocation invocation) {
+            return asStatement(callObjectService(invocation.getService(), invocation.getArguments()));
+        } else if (statement instanceof InstanceServiceInvocation invocation) {
+            return asStatement(callInstanceService(invocation.getService(),
+                                                   invocation.getInstance(),
+                                                   invocation.getArguments()));
+        } else if (statement instanceof GenerateStatement generate) {
+            return asStatement(translateGenerate(generate));
+        } else if (statement instanceof ReturnStatement returnStatement) {
+            if (returnStatement.getReturnValue() == null) {
+                return ast.createReturn();
+            }
+            return ast.createReturn(translateValue(returnStatement.getReturnValue()));
+        } else if (statement instanceof DeleteStatement delete) {
+            return translateDelete(delete);
+        } else if (statement instanceof IOStreamStatement stream) {
+            return translateStream(stream);
+        } else if (statement instanceof RaiseStatement raise) {
+            return asStatement(domainTranslator.getRaise()
+                                               .call(ast.createLiteral(raise.getException().getName()),
+                                                     raise.getMessage() == null ?
+                                                     ast.createLiteral("") :
+                                                     translate(raise.getMessage())));
+        } else if (statement instanceof PragmaStatement) {
+            return null;
+        }
+        throw new UnsupportedConstruct(statement.toAbbreviatedString().trim());
+    }
+
+    private BlockStatement asStatement(final StatementExpression expression) {
+        return ast.createExpressionStatement(expression);
+    }
+
+    private BlockStatement translateAssignment(final AssignmentStatement assignment) throws UnsupportedConstruct {
+        final org.xtuml.masl.metamodel.expression.Expression target = assignment.getTarget();
+        if (!(target instanceof VariableNameExpression ||
+              target instanceof SelectedAttributeExpression ||
+              target instanceof SelectedComponentExpression)) {
+            throw new UnsupportedConstruct("Assignment to " + target);
+        }
+        return asStatement(translate(target).assign(translateValue(assignment.getValue())));
+    }
+
+    private BlockStatement translateIf(final IfStatement ifStatement) throws UnsupportedConstruct {
+        If first = null;
+        If current = null;
+        for (final IfStatement.Branch branch : ifStatement.getBranches()) {
+            final org.xtuml.masl.javagen.ast.code.CodeBlock code = translateStatements(branch.getStatements());
+            if (branch.getCondition() == null) {
+                current.setElse(code);
+            } else {
+                final If test = ast.createIf(translate(branch.getCondition()));
+                test.setThen(code);
+                if (current == null) {
+                    first = test;
+                } else {
+                    current.setElse(test);
+                }
+                current = test;
+            }
+        }
+        return first;
+    }
+
+    private BlockStatement translateFor(final ForStatement forStatement) throws UnsupportedConstruct {
+        final LoopSpec spec = forStatement.getLoopSpec();
+        final VariableDefinition loopVariable = spec.getLoopVariableDef();
+
+        if (spec instanceof LoopSpec.FromToRange range && types.isInteger(loopVariable.getType())) {
+            // The end of the range is only evaluated once, so is held in a variable
+            // in a block around the loop
+            final org.xtuml.masl.javagen.ast.code.CodeBlock result = ast.createCodeBlock();
+            final LocalVariable last = ast.createLocalVariable(ast.createLong(),
+                                                               newName(loopVariable.getName() + "_end"),
+                                                               translate(spec.isReverse() ?
+                                                                         range.getFrom() :
+                                                                         range.getTo()));
+            last.setFinal();
+            result.addStatement(last);
+            final LocalVariable local = declareLocal(loopVariable);
+            local.setInitialValue(translate(spec.isReverse() ? range.getTo() : range.getFrom()));
+            final For loop = ast.createFor(local,
+                                           spec.isReverse() ?
+                                           local.asExpression().greaterThanOrEqualTo(last.asExpression()) :
+                                           local.asExpression().lessThanOrEqualTo(last.asExpression()),
+                                           spec.isReverse() ?
+                                           local.asExpression().decrement() :
+                                           local.asExpression().increment());
+            loop.setStatement(translateStatements(forStatement.getStatements()));
+            result.addStatement(loop);
+            return result;
+        } else if (spec instanceof LoopSpec.VariableElements elements && !spec.isReverse()) {
+            // MASL loops over a copy of the collection, so that the loop is not
+            // affected by changes made to the collection within it
+            final Expression collection = translateValue(elements.getVariable());
+            final LocalVariable local = declareLoopVariable(loopVariable);
+            final For loop = ast.createFor(local, collection);
+            loop.setStatement(translateStatements(forStatement.getStatements()));
+            return loop;
+        } else if (spec instanceof LoopSpec.TypeRange range && types.isEnumeration(range.getType())) {
+            if (spec.isReverse()) {
+                throw new UnsupportedConstruct("Reverse loop over " + range.getType());
+            }
+            final TypeDeclaration enumDecl = types.getDeclaration((UserDefinedType) range.getType().getBasicType());
+            final LocalVariable local = declareLoopVariable(loopVariable);
+            final For loop = ast.createFor(local,
+                                           ast.createMethodInvocation(ast.getMethod(EnumSet.class,
+                                                                                    "allOf",
+                                                                                    Class.class),
+                                                                      ast.createClassLiteral(ast.createType(enumDecl))));
+            loop.setStatement(translateStatements(forStatement.getStatements()));
+            return loop;
+        }
+        throw new UnsupportedConstruct("Loop over " + spec);
+    }
+
+    private BlockStatement translateCase(final CaseStatement caseStatement) throws UnsupportedConstruct {
+        final org.xtuml.masl.javagen.ast.code.CodeBlock result = ast.createCodeBlock();
+        final org.xtuml.masl.metamodel.expression.Expression discriminator = caseStatement.getDiscriminator();
+        final LocalVariable value = ast.createLocalVariable(types.getType(discriminator.getType()),
+                                                            newName("discriminator"),
+                                                            translate(discriminator));
+        value.setFinal();
+        result.addStatement(value);
+
+        If first = null;
+        If current = null;
+        for (final CaseStatement.Alternative alternative : caseStatement.getAlternatives()) {
+            final org.xtuml.masl.javagen.ast.code.CodeBlock code = translateStatements(alternative.getStatements());
+            if (alternative.getConditions().isEmpty()) {
+                if (current == null) {
+                    result.addStatement(code);
+                } else {
+                    current.setElse(code);
+                }
+                return result;
+            }
+            Expression condition = null;
+            for (final org.xtuml.masl.metamodel.expression.Expression maslCondition : alternative.getConditions()) {
+                if (maslCondition instanceof RangeExpression) {
+                    throw new UnsupportedConstruct("Case range " + maslCondition);
+                }
+                final Expression test = equalTo(value.asExpression(),
+                                                discriminator.getType(),
+                                                translate(maslCondition),
+                                                maslCondition.getType());
+                condition = condition == null ? test : condition.or(test);
+            }
+            final If test = ast.createIf(condition);
+            test.setThen(code);
+            if (current == null) {
+                first = test;
+                result.addStatement(first);
+            } else {
+                current.setElse(test);
+            }
+            current = test;
+        }
+        return result;
+    }
+
+    private BlockStatement translateLink(final LinkUnlinkStatement link) throws UnsupportedConstruct {
+        final RelationshipSpecification spec = link.getRelationship();
+        if (link.getAssoc() != null || !ObjectTranslator.isSupported(spec)) {
+            throw new UnsupportedConstruct("Link across " + spec.getRelationship().getName());
+        }
+        if (types.isCollection(link.getLhs().getType()) || types.isCollection(link.getRhs().getType())) {
+            throw new UnsupportedConstruct("Link of collections across " + spec.getRelationship().getName());
+        }
+        final ObjectTranslator lhsObject = domainTranslator.getObjectTranslator(spec.getFromObject());
+        final Method method = link.getLinkType() == LinkUnlinkStatement.Type.LINK ?
+                              lhsObject.getLink(spec) :
+                              lhsObject.getUnlink(spec);
+        return asStatement(translate(link.getLhs()).dot(method, translate(link.getRhs())));
+    }
+
+    private BlockStatement translateDelete(final DeleteStatement delete) throws UnsupportedConstruct {
+        final org.xtuml.masl.metamodel.expression.Expression instance = delete.getInstance();
+        if (!(instance.getType().getBasicType() instanceof InstanceType instanceType)) {
+            throw new UnsupportedConstruct("Delete of " + instance);
+        }
+        final Method method = domainTranslator.getObjectTranslator(instanceType.getObjectDeclaration()).getDelete();
+        return asStatement(translate(instance).dot(method));
+    }
+
+    private BlockStatement translateStream(final IOStreamStatement stream) throws UnsupportedConstruct {
+        if (!(stream.getStreamName() instanceof ConsoleLiteral)) {
+            throw new UnsupportedConstruct("Stream " + stream.getStreamName());
+        }
+        Expression text = ast.createLiteral("");
+        for (final IOStreamStatement.IOExpression arg : stream.getArguments()) {
+            if (arg.getType() != IOStreamStatement.Type.OUT && arg.getType() != IOStreamStatement.Type.LINE_OUT) {
+                throw new UnsupportedConstruct("Console input");
+            }
+            final org.xtuml.masl.metamodel.expression.Expression value = arg.getExpression();
+            if (value instanceof EndlLiteral) {
+                text = text.add(ast.createLiteral("\n"));
+            } else if (!(value instanceof FlushLiteral)) {
+                text = text.add(translate(value));
+            }
+            if (arg.getType() == IOStreamStatement.Type.LINE_OUT) {
+                text = text.add(ast.createLiteral("\n"));
+            }
+        }
+        return asStatement(ast.createFieldAccess(ast.getField(System.class, "out"))
+                              .dot(ast.getMethod(PrintStream.class, "print", String.class), text));
+    }
+
+    private StatementExpression translateGenerate(final GenerateStatement generate) throws UnsupportedConstruct {
+        final ObjectDeclaration object = generate.getEvent().getParentObject();
+        final TypeDeclaration eventClass = domainTranslator.getObjectTranslator(object).getEventClass(generate.getEvent());
+        if (generate.getToInstance() == null ||
+            eventClass == null ||
+            !(generate.getToInstance().getType().getBasicType() instanceof InstanceType target) ||
+            target.getObjectDeclaration() != object) {
+            throw new UnsupportedConstruct("Generate " + generate.getEvent().getName());
+        }
+        final List<Expression> args = new ArrayList<>();
+        args.add(translate(generate.getToInstance()));
+        args.addAll(translateArguments(generate.getEvent().getParameters(), generate.getArguments()));
+        // The sending instance, if any, so that events to self are queued first
+        return simulation.dot(domainTranslator.getGenerate(),
+                              ast.createNewInstance(ast.createType(eventClass), args.toArray(new Expression[0])),
+                              self == null ? ast.createNullLiteral() : self);
+    }
+
+    private List<Expression> translateArguments(final List<? extends ParameterDefinition> params,
+                                                final List<? extends org.xtuml.masl.metamodel.expression.Expression> args) throws
+                                                                                                                           UnsupportedConstruct {
+        final List<Expression> result = new ArrayList<>();
+        for (int i = 0; i < args.size(); ++i) {
+            if (params.get(i).getMode() == ParameterDefinition.Mode.OUT) {
+                throw new UnsupportedConstruct("Out parameter " + params.get(i).getName());
+            }
+            result.add(translateValue(args.get(i)));
+        }
+        return result;
+    }
+
+    private StatementExpression callService(final org.xtuml.masl.metamodel.common.Service service,
+                                            final List<? extends org.xtuml.masl.metamodel.expression.Expression> args) throws
+                                                                                                                       UnsupportedConstruct {
+        final Method method = domainTranslator.getServiceMethod(service);
+        if (method == null) {
+            throw new UnsupportedConstruct("Call to " + service.getQualifiedName());
+        }
+        return simulation.dot(method, translateArguments(service.getParameters(), args).toArray(new Expression[0]));
+    }
+
+    private StatementExpression callObjectService(final org.xtuml.masl.metamodel.object.ObjectService service,
+                                                  final List<? extends org.xtuml.masl.metamodel.expression.Expression> args) throws
+                                                                                                                             UnsupportedConstruct {
+        final Method method = domainTranslator.getObjectTranslator(service.getParentObject()).getService(service);
+        if (method == null || service.isDeferred()) {
+            throw new UnsupportedConstruct("Call to " + service.getQualifiedName());
+        }
+        final List<Expression> javaArgs = new ArrayList<>();
+        javaArgs.add(simulation);
+        javaArgs.addAll(translateArguments(service.getParameters(), args));
+        return ast.createMethodInvocation(method, javaArgs.toArray(new Expression[0]));
+    }
+
+    private StatementExpression callInstanceService(final org.xtuml.masl.metamodel.object.ObjectService service,
+                                                    final org.xtuml.masl.metamodel.expression.Expression instance,
+                                                    final List<? extends org.xtuml.masl.metamodel.expression.Expression> args) throws
+                                                                                                                               UnsupportedConstruct {
+        final Method method = domainTranslator.getObjectTranslator(service.getParentObject()).getService(service);
+        if (method == null || service.isDeferred() || types.isCollection(instance.getType())) {
+            throw new UnsupportedConstruct("Call to " + service.getQualifiedName());
+        }
+        return translate(instance).dot(method,
+                                       translateArguments(service.getParameters(), args).toArray(new Expression[0]));
+    }
+
+    /**
+     * Translates an expression.
+     *
+     * @param expression the MASL expression
+     * @return the equivalent Java expression
+     * @throws UnsupportedConstruct if the expression cannot be simulated
+     */
+    private Expression translate(final org.xtuml.masl.metamodel.expression.Expression expression) throws
+                                                                                                   UnsupportedConstruct {
+        if (expression instanceof IntegerLiteral literal) {
+            return ast.createLiteral(literal.getValue().longValue());
+        } else if (expression instanceof RealLiteral literal) {
+            return ast.createLiteral(literal.getValue().doubleValue());
+        } else if (expression instanceof StringLiteral literal) {
+            return ast.createLiteral(literal.getValue());
+        } else if (expression instanceof CharacterLiteral literal) {
+            return ast.createLiteral(literal.getValue());
+        } else if (expression instanceof BooleanLiteral literal) {
+            return ast.createLiteral(literal.getValue());
+        } else if (expression instanceof EnumerateLiteral literal) {
+            return getEnumConstant(literal);
+        } else if (expression instanceof NullLiteral) {
+            return ast.createNullLiteral();
+        } else if (expression instanceof ThisLiteral && self != null) {
+            return self;
+        } else if (expression instanceof VariableNameExpression variable && locals.containsKey(variable.getVariable())) {
+            return locals.get(variable.getVariable()).asExpression();
+        } else if (expression instanceof ParameterNameExpression param && parameters.containsKey(param.getParameter())) {
+            return parameters.get(param.getParameter()).asExpression();
+        } else if (expression instanceof SelectedAttributeExpression attribute) {
+            return translatePrefix(attribute.getPrefix()).dot(getAttribute(attribute.getAttribute()));
+        } else if (expression instanceof SelectedComponentExpression component &&
+                   types.getElement(component.getComponent()) != null) {
+            return translatePrefix(component.getPrefix()).dot(types.getElement(component.getComponent()));
+        } else if (expression instanceof FindAttributeNameExpression attribute && candidate != null) {
+            return candidate.dot(getAttribute(attribute.getAttribute()));
+        } else if (expression instanceof FindParameterExpression param && findParameters.containsKey(param.getName())) {
+            return findParameters.get(param.getName()).asExpression();
+        } else if (expression instanceof org.xtuml.masl.metamodel.expression.BinaryExpression binary) {
+            return translateBinary(binary);
+        } else if (expression instanceof org.xtuml.masl.metamodel.expression.UnaryExpression unary) {
+            return translateUnary(unary);
+        } else if (expression instanceof CharacteristicExpression characteristic) {
+            return translateCharacteristic(characteristic);
+        } else if (expression instanceof CreateExpression create) {
+            return translateCreate(create);
+        } else if (expression instanceof FindExpression find) {
+            return translateFind(find);
+        } else if (expression instanceof NavigationExpression navigation) {
+            return translateNavigation(navigation);
+        } else if (expression instanceof InstanceOrderingExpression ordering) {
+            return translateOrdering(ordering);
+        } else if (expression instanceof DomainFunctionInvocation invocation) {
+            return callService(invocation.getService(), invocation.getArguments());
+        } else if (expression instanceof TerminatorFunctionInvocation invocation) {
+            return callService(invocation.getService(), invocation.getArguments());
+        } else if (expression instanceof ObjectFunctionInvocation invocation) {
+            return callObjectService(invocation.getService(), invocation.getArguments());
+        } else if (expression instanceof InstanceFunctionInvocation invocation) {
+            return callInstanceService(invocation.getService(), invocation.getInstance(), invocation.getArguments());
+        } else if (expression instanceof CastExpression cast) {
+            return translateCast(cast);
+        } else if (expression instanceof StructureAggregate aggregate && types.isStructure(aggregate.getType())) {
+            final TypeDeclaration structDecl = types.getDeclaration((UserDefinedType) aggregate.getType().getBasicType());
+            final List<Expression> args = new ArrayList<>();
+            for (final org.xtuml.masl.metamodel.expression.Expression element : aggregate.getElements()) {
+                args.add(translateValue(element));
+            }
+            return ast.createNewInstance(ast.createType(structDecl), args.toArray(new Expression[0]));
+        }
+        throw new UnsupportedConstruct("Expression " + expression);
+    }
+
+    /**
+     * Translates an expression whose value is to be stored or passed on. Values
+     * read from existing storage are copied if they are mutable in Java, as MASL
+     * gives structures and collections value semantics; values computed by the
+     * expression are already distinct, so are used as they are.
+     */
+    private Expression translateValue(final org.xtuml.masl.metamodel.expression.Expression expression) throws
+                                                                                                       UnsupportedConstruct {
+        final Expression result = translate(expression);
+        if (expression instanceof VariableNameExpression ||
+            expression instanceof ParameterNameExpression ||
+            expression instanceof SelectedAttributeExpression ||
+            expression instanceof SelectedComponentExpression ||
+            expression instanceof CharacteristicExpression) {
+            return types.copy(result, expression.getType());
+        }
+        return result;
+    }
+
+    /**
+     * Translates the prefix of a selected attribute or component, which must be a
+     * single value rather than a collection.
+     */
+    private Expression translatePrefix(final org.xtuml.masl.metamodel.expression.Expression prefix) throws
+                                                                                                     UnsupportedConstruct {
+        if (types.isCollection(prefix.getType())) {
+            throw new UnsupportedConstruct("Selection from collection " + prefix);
+        }
+        return translate(prefix);
+    }
+
+    private org.xtuml.masl.javagen.ast.def.Field getAttribute(final AttributeDeclaration attribute) throws
+                                                                                                    UnsupportedConstruct {
+        final org.xtuml.masl.javagen.ast.def.Field result = domainTranslator.getObjectTranslator(attribute.getParentObject())
+                                                                            .getAttribute(attribute);
+        if (result == null) {
+            throw new UnsupportedConstruct("Attribute " + attribute.getName());
+        }
+        return result;
+    }
+
+    private Expression getEnumConstant(final EnumerateLiteral literal) throws UnsupportedConstruct {
+        final EnumerateType enumerate = literal.getValue().getEnumerate();
+        final TypeDeclaration enumDecl = types.getDeclaration(enumerate.getUserDefinedType());
+        if (enumDecl == null) {
+            throw new UnsupportedConstruct("Enumerate " + enumerate.getUserDefinedType().getName());
+        }
+        return ast.createEnumConstantAccess(enumDecl.getEnumConstants().get(enumerate.getItems().indexOf(literal.getValue())));
+    }
+
+    private Expression translateBinary(final org.xtuml.masl.metamodel.expression.BinaryExpression binary) throws
+                                                                                                        UnsupportedConstruct {
+        final BasicType lhsType = binary.getLhs().getType();
+        final BasicType rhsType = binary.getRhs().getType();
+        final Expression lhs = translate(binary.getLhs());
+        final Expression rhs = translate(binary.getRhs());
+        final boolean numeric = types.isNumeric(lhsType) && types.isNumeric(rhsType);
+
+        switch (binary.getOperator()) {
+            case AND:
+                return lhs.and(rhs);
+            case OR:
+                return lhs.or(rhs);
+            case XOR:
+                return lhs.bitwiseXor(rhs);
+            case EQUAL:
+                return equalTo(lhs, lhsType, rhs, rhsType);
+            case NOT_EQUAL:
+                return equalTo(lhs, lhsType, rhs, rhsType).parenthesize().not();
+            case LESS_THAN:
+                return numeric ? lhs.lessThan(rhs) : compare(lhs, rhs).lessThan(ast.createLiteral(0));
+            case GREATER_THAN:
+                return numeric ? lhs.greaterThan(rhs) : compare(lhs, rhs).greaterThan(ast.createLiteral(0));
+            case LESS_THAN_OR_EQUAL:
+                return numeric ? lhs.lessThanOrEqualTo(rhs) : compare(lhs, rhs).lessThanOrEqualTo(ast.createLiteral(0));
+            case GREATER_THAN_OR_EQUAL:
+                return numeric ?
+                       lhs.greaterThanOrEqualTo(rhs) :
+                       compare(lhs, rhs).greaterThanOrEqualTo(ast.createLiteral(0));
+            case PLUS:
+                if (numeric) {
+                    return lhs.add(rhs);
+                } else if (isTimeType(lhsType) && rhsType.getBasicType().getActualType() == ActualType.DURATION) {
+                    return lhs.dot(ast.getMethod(lhsType.getBasicType().getActualType() == ActualType.TIMESTAMP ?
+                                                 java.time.Instant.class :
+                                                 java.time.Duration.class,
+                                                 "plus",
+                                                 lhsType.getBasicType().getActualType() == ActualType.TIMESTAMP ?
+                                                 java.time.temporal.TemporalAmount.class :
+                                                 java.time.Duration.class), rhs);
+                }
+                break;
+            case MINUS:
+                if (numeric) {
+                    return lhs.subtract(rhs);
+                } else if (lhsType.getBasicType().getActualType() == ActualType.TIMESTAMP &&
+                           rhsType.getBasicType().getActualType() == ActualType.TIMESTAMP) {
+                    return ast.createMethodInvocation(ast.getMethod(java.time.Duration.class,
+                                                                    "between",
+                                                                    java.time.temporal.Temporal.class,
+                                                                    java.time.temporal.Temporal.class), rhs, lhs);
+                } else if (isTimeType(lhsType) && rhsType.getBasicType().getActualType() == ActualType.DURATION) {
+                    return lhs.dot(ast.getMethod(lhsType.getBasicType().getActualType() == ActualType.TIMESTAMP ?
+                                                 java.time.Instant.class :
+                                                 java.time.Duration.class,
+                                                 "minus",
+                                                 lhsType.getBasicType().getActualType() == ActualType.TIMESTAMP ?
+                                                 java.time.temporal.TemporalAmount.class :
+                                                 java.time.Duration.class), rhs);
+                }
+                break;
+            case TIMES:
+                if (numeric) {
+                    return lhs.multiply(rhs);
+                }
+                break;
+            case DIVIDE:
+                if (numeric) {
+                    return lhs.divide(rhs);
+                }
+                break;
+            case REM:
+                if (numeric) {
+                    return lhs.remainder(rhs);
+                }
+                break;
+            case MOD:
+                if (types.isInteger(lhsType) && types.isInteger(rhsType)) {
+                    return ast.createMethodInvocation(ast.getMethod(Math.class, "floorMod", long.class, long.class),
+                                                      lhs,
+                                                      rhs);
+                }
+                break;
+            case POWER:
+                if (numeric) {
+                    final Expression power = ast.createMethodInvocation(ast.getMethod(Math.class,
+                                                                                      "pow",
+                                                                                      double.class,
+                                                                                      double.class), lhs, rhs);
+                    return types.isInteger(binary.getType()) ? power.castTo(ast.createLong()) : power;
+                }
+                break;
+            case CONCATENATE:
+                if (types.isString(binary.getType())) {
+                    return types.isString(lhsType) ?
+                           lhs.add(rhs) :
+                           ast.createMethodInvocation(ast.getMethod(String.class, "valueOf", Object.class), lhs).add(rhs);
+                } else if (types.isCollection(binary.getType()) && types.isCollection(lhsType)) {
+                    return types.isCollection(rhsType) ?
+                           ast.createMethodInvocation(domainTranslator.getConcatAll(), lhs, rhs) :
+                           ast.createMethodInvocation(domainTranslator.getConcat(), lhs, types.copy(rhs, rhsType));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new UnsupportedConstruct("Operator " + binary.getOperator() + " in " + binary);
+    }
+
+    private boolean isTimeType(final BasicType type) {
+        final ActualType actual = type.getBasicType().getActualType();
+        return actual == ActualType.TIMESTAMP || actual == ActualType.DURATION;
+    }
+
+    private Expression equalTo(final Expression lhs,
+                               final BasicType lhsType,
+                               final Expression rhs,
+                               final BasicType rhsType) throws UnsupportedConstruct {
+        if (types.isStructure(lhsType) || types.isStructure(rhsType)) {
+            throw new UnsupportedConstruct("Structure comparison");
+        }
+        if (types.hasIdentityEquality(lhsType) && types.hasIdentityEquality(rhsType) ||
+            lhs instanceof org.xtuml.masl.javagen.ast.expr.Literal.NullLiteral ||
+            rhs instanceof org.xtuml.masl.javagen.ast.expr.Literal.NullLiteral) {
+            return lhs.equalTo(rhs);
+        }
+        return ast.createMethodInvocation(ast.getMethod(Objects.class, "equals", Object.class, Object.class), lhs, rhs);
+    }
+
+    private Expression compare(final Expression lhs, final Expression rhs) {
+        return lhs.dot(ast.getMethod(Comparable.class, "compareTo", Object.class), rhs);
+    }
+
+    private Expression translateUnary(final org.xtuml.masl.metamodel.expression.UnaryExpression unary) throws
+                                                                                                     UnsupportedConstruct {
+        final Expression rhs = translate(unary.getRhs());
+        switch (unary.getOperator()) {
+            case MINUS:
+                return rhs.minus();
+            case PLUS:
+                return rhs.plus();
+            case NOT:
+                return rhs.not();
+            case ABS:
+                if (types.isNumeric(unary.getRhs().getType())) {
+                    return ast.createMethodInvocation(ast.getMethod(Math.class,
+                                                                    "abs",
+                                                                    types.isInteger(unary.getRhs().getType()) ?
+                                                                    long.class :
+                                                                    double.class), rhs);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new UnsupportedConstruct("Operator " + unary.getOperator() + " in " + unary);
+    }
+
+    private Expression translateCharacteristic(final CharacteristicExpression characteristic) throws
+                                                                                                 UnsupportedConstruct {
+        final BasicType lhsType = characteristic.getLhsType();
+        final boolean onType = characteristic.getLhs() instanceof TypeNameExpression;
+
+        switch (characteristic.getCharacteristic()) {
+            case IMAGE:
+                if (!onType) {
+                    return ast.createMethodInvocation(ast.getMethod(String.class,
+                                                                    "valueOf",
+                                                                    getValueOfParameterType(lhsType)),
+                                                      translate(characteristic.getLhs()));
+                }
+                break;
+            case LENGTH:
+                if (types.isCollection(lhsType)) {
+                    return translate(characteristic.getLhs()).dot(ast.getMethod(ArrayList.class, "size"))
+                                                             .castTo(ast.createLong());
+                } else if (types.isString(lhsType)) {
+                    return translate(characteristic.getLhs()).dot(ast.getMethod(String.class, "length"))
+                                                             .castTo(ast.createLong());
+                }
+                break;
+            case NOW:
+                if (lhsType.getBasicType().getActualType() == ActualType.TIMESTAMP) {
+                    return ast.createMethodInvocation(ast.getMethod(java.time.Instant.class, "now"));
+                }
+                break;
+            case FIRST:
+            case LAST:
+                if (onType && types.isEnumeration(lhsType)) {
+                    final List<? extends EnumConstant> constants = types.getDeclaration((UserDefinedType) lhsType.getBasicType())
+                                                                        .getEnumConstants();
+                    return ast.createEnumConstantAccess(characteristic.getCharacteristic() ==
+                                                        CharacteristicExpression.Type.FIRST ?
+                                                        constants.get(0) :
+                                                        constants.get(constants.size() - 1));
+                } else if (!onType && types.isCollection(lhsType) && isSimpleName(characteristic.getLhs())) {
+                    final Expression collection = translate(characteristic.getLhs());
+                    return collection.dot(ast.getMethod(ArrayList.class, "get", int.class),
+                                          characteristic.getCharacteristic() == CharacteristicExpression.Type.FIRST ?
+                                          ast.createLiteral(0) :
+                                          translate(characteristic.getLhs()).dot(ast.getMethod(ArrayList.class, "size"))
+                                                                            .subtract(ast.createLiteral(1)));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new UnsupportedConstruct("Characteristic " + characteristic);
+    }
+
+    private boolean isSimpleName(final org.xtuml.masl.metamodel.expression.Expression expression) {
+        return expression instanceof VariableNameExpression ||
+               expression instanceof ParameterNameExpression ||
+               expression instanceof SelectedAttributeExpression attribute && isSimpleName(attribute.getPrefix()) ||
+               expression instanceof ThisLiteral;
+    }
+
+    private Class<?> getValueOfParameterType(final BasicType type) {
+        if (types.isInteger(type)) {
+            return long.class;
+        } else if (types.isNumeric(type)) {
+            return double.class;
+        }
+        return switch (type.getBasicType().getActualType()) {
+            case BOOLEAN -> boolean.class;
+            case CHARACTER, WCHARACTER -> char.class;
+            default -> Object.class;
+        };
+    }
+
+    private Expression translateCast(final CastExpression cast) throws UnsupportedConstruct {
+        final Expression rhs = translate(cast.getRhs());
+        final BasicType from = cast.getRhs().getType();
+        final BasicType to = cast.getType();
+        if (types.isInteger(to) && types.isNumeric(from) && !types.isInteger(from)) {
+            return rhs.castTo(ast.createLong());
+        } else if (types.isNumeric(to) && !types.isInteger(to) && types.isInteger(from)) {
+            return rhs.castTo(ast.createDouble());
+        } else if (types.isNumeric(to) != types.isNumeric(from)) {
+            throw new UnsupportedConstruct("Conversion of " + cast.getRhs() + " to " + to);
+        }
+        return rhs;
+    }
+
+    private Expression translateCreate(final CreateExpression create) throws UnsupportedConstruct {
+        final ObjectTranslator objectTranslator = domainTranslator.getObjectTranslator(create.getObject());
+        final Map<AttributeDeclaration, org.xtuml.masl.metamodel.expression.Expression> values = new HashMap<>();
+        for (final CreateExpression.AttributeValue value : create.getAggregate()) {
+            values.put(value.getAttribute(), value.getValue());
+        }
+
+        final List<Expression> args = new ArrayList<>();
+        args.add(simulation);
+        for (final AttributeDeclaration attribute : create.getObject().getAttributes()) {
+            final org.xtuml.masl.metamodel.expression.Expression value = values.get(attribute);
+            if (value != null) {
+                args.add(translate(value));
+            } else if (attribute.isUnique()) {
+                args.add(simulation.dot(domainTranslator.getNextUnique()));
+            } else if (attribute.getDefault() != null) {
+                args.add(translate(attribute.getDefault()));
+            } else {
+                args.add(types.getDefaultValue(attribute.getType()));
+            }
+        }
+        if (objectTranslator.getCurrentState() != null) {
+            args.add(create.getState() == null ?
+                     ast.createNullLiteral() :
+                     ast.createEnumConstantAccess(objectTranslator.getStateConstant(create.getState())));
+        }
+        return ast.createMethodInvocation(objectTranslator.getCreate(), args.toArray(new Expression[0]));
+    }
+
+    /**
+     * Translates a find into a call to a helper method that loops over the
+     * collection, with the values the predicate compares against passed as
+     * parameters.
+     */
+    private Expression translateFind(final FindExpression find) throws UnsupportedConstruct {
+        final ObjectDeclaration object = find.getInstanceType().getObjectDeclaration();
+        final Expression collection;
+        if (find.getCollection() instanceof ObjectNameExpression) {
+            collection = simulation.dot(domainTranslator.getPopulation(object));
+        } else if (types.isCollection(find.getCollection().getType())) {
+            collection = translate(find.getCollection());
+        } else {
+            throw new UnsupportedConstruct("Find on " + find.getCollection());
+        }
+
+        final DeclaredType instanceType = types.getInstanceType(object);
+        final DeclaredType listType = ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class), instanceType);
+        final boolean findAll = find.getFindType() == FindExpression.Type.FIND;
+
+        final Method helper = owner.addMethod(domainTranslator.getHelperName(owner, "find"),
+                                              findAll ? listType : instanceType);
+        helper.setVisibility(Visibility.PRIVATE);
+        helper.setStatic();
+        final Parameter source = helper.addParameter(ast.createDeclaredType(ast.getTypeDeclaration(List.class),
+                                                                            instanceType), "collection");
+        final org.xtuml.masl.javagen.ast.code.CodeBlock code = helper.setCodeBlock();
+        final LocalVariable result = ast.createLocalVariable(findAll ? listType : instanceType,
+                                                             "result",
+                                                             findAll ?
+                                                             ast.createNewInstance(listType) :
+                                                             ast.createNullLiteral());
+        code.addStatement(result);
+        final LocalVariable each = ast.createLocalVariable(instanceType, "candidate");
+        final For loop = ast.createFor(each, source.asExpression());
+        final org.xtuml.masl.javagen.ast.code.CodeBlock loopCode = ast.createCodeBlock();
+        loop.setStatement(loopCode);
+
+        final org.xtuml.masl.javagen.ast.code.CodeBlock found = ast.createCodeBlock();
+        switch (find.getFindType()) {
+            case FIND:
+                found.addStatement(result.asExpression()
+                                         .dot(ast.getMethod(ArrayList.class, "add", Object.class),
+                                              each.asExpression()));
+                break;
+            case FIND_ONE:
+                found.addStatement(ast.createReturn(each.asExpression()));
+                break;
+            case FIND_ONLY:
+                final If duplicate = ast.createIf(result.asExpression().notEqualTo(ast.createNullLiteral()));
+                duplicate.setThen(ast.createThrow(ast.createNewInstance((DeclaredType) ast.createType(
+                        IllegalStateException.class), ast.createLiteral("find_only found more than one " +
+                                                                        object.getName()))));
+                found.addStatement(duplicate);
+                found.addStatement(result.asExpression().assign(each.asExpression()));
+                break;
+        }
+
+        final List<Expression> args = new ArrayList<>();
+        args.add(collection);
+        if (find.getSkeleton() == null) {
+            loopCode.addStatement(found);
+        } else {
+            final If matches = ast.createIf(translatePredicate(find.getSkeleton(),
+                                                               find.getArguments(),
+                                                               helper,
+                                                               each.asExpression(),
+                                                               args));
+            matches.setThen(found);
+            loopCode.addStatement(matches);
+        }
+        code.addStatement(loop);
+        code.addStatement(ast.createReturn(result.asExpression()));
+
+        return ast.createMethodInvocation(helper, args.toArray(new Expression[0]));
+    }
+
+    /**
+     * Translates the skeleton of a find or navigation predicate for use in a
+     * helper method, adding a parameter to the helper for each value the
+     * predicate refers to and the argument to pass it to the list given.
+     */
+    private Expression translatePredicate(final org.xtuml.masl.metamodel.expression.Expression skeleton,
+                                          final List<? extends org.xtuml.masl.metamodel.expression.Expression> maslArgs,
+                                          final Method helper,
+                                          final Expression instance,
+                                          final List<Expression> args) throws UnsupportedConstruct {
+        final List<? extends FindParameterExpression> findParams = skeleton.getFindParameters();
+        final Map<String, Parameter> savedParameters = findParameters;
+        final Expression savedCandidate = candidate;
+        findParameters = new HashMap<>();
+        candidate = instance;
+        try {
+            for (int i = 0; i < findParams.size(); ++i) {
+                final FindParameterExpression findParam = findParams.get(i);
+                if (!findParameters.containsKey(findParam.getName())) {
+                    final Parameter param = helper.addParameter(types.getType(findParam.getType()),
+                                                                "p" + (findParameters.size() + 1));
+                    findParameters.put(findParam.getName(), param);
+                    args.add(translateWithin(savedParameters, savedCandidate, maslArgs.get(i)));
+                }
+            }
+            return translate(skeleton);
+        } finally {
+            findParameters = savedParameters;
+            candidate = savedCandidate;
+        }
+    }
+
+    /**
+     * Translates an argument to a predicate in the scope the predicate is used
+     * from, rather than in the scope of the helper method.
+     */
+    private Expression translateWithin(final Map<String, Parameter> outerParameters,
+                                       final Expression outerCandidate,
+                                       final org.xtuml.masl.metamodel.expression.Expression expression) throws
+                                                                                                        UnsupportedConstruct {
+        final Map<String, Parameter> savedParameters = findParameters;
+        final Expression savedCandidate = candidate;
+        findParameters = outerParameters;
+        candidate = outerCandidate;
+        try {
+            return translate(expression);
+        } finally {
+            findParameters = savedParameters;
+            candidate = savedCandidate;
+        }
+    }
+
+    /**
+     * Translates a navigation. Navigating from a single instance without a
+     * predicate reads the relationship field directly, and anything else calls a
+     * helper method that collects the related instances.
+     */
+    private Expression translateNavigation(final NavigationExpression navigation) throws UnsupportedConstruct {
+        final RelationshipSpecification spec = navigation.getRelationship();
+        if (!ObjectTranslator.isSupported(spec)) {
+            throw new UnsupportedConstruct("Navigation across " + spec.getRelationship().getName());
+        }
+        final org.xtuml.masl.javagen.ast.def.Field field = domainTranslator.getObjectTranslator(spec.getFromObject())
+                                                                           .getRelationshipField(spec);
+        final boolean fromMany = types.isCollection(navigation.getLhs().getType());
+        final boolean toMany = spec.getCardinality() == MultiplicityType.MANY;
+        final Expression lhs = translate(navigation.getLhs());
+
+        if (!fromMany && navigation.getSkeleton() == null) {
+            if (toMany) {
+                return types.copy(lhs.dot(field), navigation.getType());
+            }
+            return lhs.dot(field);
+        }
+
+        final DeclaredType fromType = types.getInstanceType(spec.getFromObject());
+        final DeclaredType toType = types.getInstanceType(spec.getDestinationObject());
+        final DeclaredType listType = ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class), toType);
+        final boolean resultMany = types.isCollection(navigation.getType());
+
+        final Method helper = owner.addMethod(domainTranslator.getHelperName(owner, "navigate"),
+                                              resultMany ? listType : toType);
+        helper.setVisibility(Visibility.PRIVATE);
+        helper.setStatic();
+        final Parameter source = helper.addParameter(fromMany ?
+                                                     ast.createDeclaredType(ast.getTypeDeclaration(List.class),
+                                                                            fromType) :
+                                                     fromType, "source");
+        final org.xtuml.masl.javagen.ast.code.CodeBlock code = helper.setCodeBlock();
+        final DeclaredType setType = ast.createDeclaredType(ast.getTypeDeclaration(LinkedHashSet.class), toType);
+        final LocalVariable result = ast.createLocalVariable(setType, "result", ast.createNewInstance(setType));
+        code.addStatement(result);
+
+        final org.xtuml.masl.javagen.ast.code.CodeBlock perSource;
+        final Expression from;
+        if (fromMany) {
+            final LocalVariable each = ast.createLocalVariable(fromType, "from");
+            final For loop = ast.createFor(each, source.asExpression());
+            perSource = ast.createCodeBlock();
+            loop.setStatement(perSource);
+            code.addStatement(loop);
+            from = each.asExpression();
+        } else {
+            perSource = code;
+            from = source.asExpression();
+        }
+
+        final org.xtuml.masl.javagen.ast.code.CodeBlock perCandidate;
+        final LocalVariable related;
+        if (toMany) {
+            related = ast.createLocalVariable(toType, "candidate");
+            final For loop = ast.createFor(related, from.dot(field));
+            perCandidate = ast.createCodeBlock();
+            loop.setStatement(perCandidate);
+            perSource.addStatement(loop);
+        } else {
+            related = ast.createLocalVariable(toType, "candidate", from.dot(field));
+            perSource.addStatement(related);
+            perCandidate = perSource;
+        }
+
+        final List<Expression> args = new ArrayList<>();
+        args.add(lhs);
+        Expression condition = related.asExpression().notEqualTo(ast.createNullLiteral());
+        if (navigation.getSkeleton() != null) {
+            condition = condition.and(translatePredicate(navigation.getSkeleton(),
+                                                         navigation.getArguments(),
+                                                         helper,
+                                                         related.asExpression(),
+                                                         args));
+        }
+        final If matches = ast.createIf(condition);
+        final org.xtuml.masl.javagen.ast.code.CodeBlock add = ast.createCodeBlock();
+        add.addStatement(result.asExpression()
+                               .dot(ast.getMethod(LinkedHashSet.class, "add", Object.class),
+                                    related.asExpression()));
+        matches.setThen(add);
+        perCandidate.addStatement(matches);
+
+        if (resultMany) {
+            code.addStatement(ast.createReturn(ast.createNewInstance(listType, result.asExpression())));
+        } else {
+            code.addStatement(ast.createReturn(ast.createConditional(result.asExpression()
+                                                                           .dot(ast.getMethod(LinkedHashSet.class,
+                                                                                              "isEmpty")),
+                                                                     ast.createNullLiteral(),
+                                                                     result.asExpression()
+                                                                           .dot(ast.getMethod(LinkedHashSet.class,
+                                                                                              "iterator"))
+                                                                           .dot(ast.getMethod(Iterator.class,
+                                                                                              "next")))));
+        }
+        return ast.createMethodInvocation(helper, args.toArray(new Expression[0]));
+    }
+
+    /**
+     * Translates an ordering into a call to a helper method that sorts a copy of
+     * the collection with a comparator comparing each attribute in turn.
+     */
+    private Expression translateOrdering(final InstanceOrderingExpression ordering) throws UnsupportedConstruct {
+        if (!(((CollectionType) ordering.getCollection().getType().getBasicType()).getContainedType()
+                                                                                  .getBasicType() instanceof InstanceType instance)) {
+            throw new UnsupportedConstruct("Ordering of " + ordering.getCollection());
+        }
+        final DeclaredType instanceType = types.getInstanceType(instance.getObjectDeclaration());
+        final DeclaredType listType = ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class), instanceType);
+
+        final Method helper = owner.addMethod(domainTranslator.getHelperName(owner, "order"), listType);
+        helper.setVisibility(Visibility.PRIVATE);
+        helper.setStatic();
+        final Parameter source = helper.addParameter(ast.createDeclaredType(ast.getTypeDeclaration(List.class),
+                                                                            instanceType), "collection");
+        final org.xtuml.masl.javagen.ast.code.CodeBlock code = helper.setCodeBlock();
+        final LocalVariable result = ast.createLocalVariable(listType,
+                                                             "result",
+                                                             ast.createNewInstance(listType, source.asExpression()));
+        code.addStatement(result);
+
+        final DeclaredType comparatorType = ast.createDeclaredType(ast.getTypeDeclaration(Comparator.class),
+                                                                   instanceType);
+        final NewInstance comparator = ast.createNewInstance(comparatorType);
+        final TypeBody comparatorBody = comparator.setTypeBody();
+        final Method compare = comparatorBody.addMethod("compare", ast.createInt());
+        compare.setVisibility(Visibility.PUBLIC);
+        final Parameter lhs = compare.addParameter(instanceType, "lhs");
+        final Parameter rhs = compare.addParameter(instanceType, "rhs");
+        final org.xtuml.masl.javagen.ast.code.CodeBlock compareCode = compare.setCodeBlock();
+        final LocalVariable order = ast.createLocalVariable(ast.createInt(), "order", ast.createLiteral(0));
+        compareCode.addStatement(order);
+
+        final List<? extends InstanceOrderingExpression.Component> components = ordering.getOrder().isEmpty() ?
+                                                                                List.of() :
+                                                                                ordering.getOrder();
+        for (final InstanceOrderingExpression.Component component : components) {
+            final AttributeDeclaration attribute = component.getAttribute();
+            final org.xtuml.masl.javagen.ast.def.Field field = getAttribute(attribute);
+            final Expression first = (component.isReverse() ? rhs : lhs).asExpression().dot(field);
+            final Expression second = (component.isReverse() ? lhs : rhs).asExpression().dot(field);
+            final Expression comparison;
+            if (types.isInteger(attribute.getType())) {
+                comparison = ast.createMethodInvocation(ast.getMethod(Long.class, "compare", long.class, long.class),
+                                                        first,
+                                                        second);
+            } else if (types.isNumeric(attribute.getType())) {
+                comparison = ast.createMethodInvocation(ast.getMethod(Double.class,
+                                                                      "compare",
+                                                                      double.class,
+                                                                      double.class), first, second);
+            } else if (attribute.getType().getBasicType().getActualType() == ActualType.BOOLEAN) {
+                comparison = ast.createMethodInvocation(ast.getMethod(Boolean.class,
+                                                                      "compare",
+                                                                      boolean.class,
+                                                                      boolean.class), first, second);
+            } else if (types.isStructure(attribute.getType()) || types.isCollection(attribute.getType())) {
+                throw new UnsupportedConstruct("Ordering by " + attribute.getName());
+            } else {
+                comparison = compare(first, second);
+            }
+            final If undecided = ast.createIf(order.asExpression().equalTo(ast.createLiteral(0)));
+            final org.xtuml.masl.javagen.ast.code.CodeBlock next = ast.createCodeBlock();
+            next.addStatement(order.asExpression().assign(comparison));
+            undecided.setThen(next);
+            compareCode.addStatement(undecided);
+        }
+        compareCode.addStatement(ast.createReturn(order.asExpression()));
+
+        code.addStatement(ast.createMethodInvocation(ast.getMethod(Collections.class, "sort", List.class, Comparator.class),
+                                                     result.asExpression(),
+                                                     comparator));
+        if (ordering.isReverse()) {
+            code.addStatement(ast.createMethodInvocation(ast.getMethod(Collections.class, "reverse", List.class),
+                                                         result.asExpression()));
+        }
+        code.addStatement(ast.createReturn(result.asExpression()));
+
+        return ast.createMethodInvocation(helper, translate(ordering.getCollection()));
+    }
+
+    /**
+     * Determines whether execution can reach the end of some MASL code, so that a
+     * function needs a statement after it to satisfy the Java compiler.
+     */
+    private static boolean canCompleteNormally(final org.xtuml.masl.metamodel.code.Statement statement) {
+        if (statement instanceof ReturnStatement) {
+            return false;
+        } else if (statement instanceof org.xtuml.masl.metamodel.code.CodeBlock block) {
+            return block.getStatements().isEmpty() ||
+                   canCompleteNormally(block.getStatements().get(block.getStatements().size() - 1)) ||
+                   !block.getExceptionHandlers().isEmpty();
+        } else if (statement instanceof IfStatement ifStatement) {
+            boolean hasElse = false;
+            for (final IfStatement.Branch branch : ifStatement.getBranches()) {
+                if (branch.getCondition() == null) {
+                    hasElse = true;
+                }
+                if (branch.getStatements().isEmpty() ||
+                    canCompleteNormally(branch.getStatements().get(branch.getStatements().size() - 1))) {
+                    return true;
+                }
+            }
+            return !hasElse;
+        }
+        return true;
+    }
+
+    private LocalVariable declareLocal(final VariableDefinition variable) {
+        final LocalVariable local = ast.createLocalVariable(types.getType(variable.getType()),
+                                                            newName(DomainTranslator.getJavaName(variable.getName())),
+                                                            types.getDefaultValue(variable.getType()));
+        locals.put(variable, local);
+        return local;
+    }
+
+    private LocalVariable declareLoopVariable(final VariableDefinition variable) {
+        final LocalVariable local = ast.createLocalVariable(types.getType(variable.getType()),
+                                                            newName(DomainTranslator.getJavaName(variable.getName())));
+        locals.put(variable, local);
+        return local;
+    }
+
+    /**
+     * @return a name that is not yet used in the method, as Java does not allow
+     * a local variable to hide another
+     */
+    private String newName(final String name) {
+        String result = name;
+        for (int i = 2; usedNames.contains(result); ++i) {
+            result = name + "_" + i;
+        }
+        usedNames.add(result);
+        return result;
+    }
+
+    private void unsupported(final ASTNode node, final String what) {
+        new TranslationError(TranslationError.Code.UnsupportedConstruct, node, name, what).report();
+    }
+
+    private final DomainTranslator domainTranslator;
+    private final TypeDeclaration owner;
+    private final Callable method;
+    private final Expression simulation;
+    private final Expression self;
+    private final Map<ParameterDefinition, Parameter> parameters;
+    private final String name;
+    private final AST ast;
+    private final TypeTranslator types;
+    private final Map<VariableDefinition, LocalVariable> locals = new HashMap<>();
+    private final Set<String> usedNames = new HashSet<>();
+    private Map<String, Parameter> findParameters = new HashMap<>();
+    private Expression candidate = null;
+
+}
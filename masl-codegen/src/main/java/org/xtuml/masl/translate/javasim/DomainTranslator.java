@@ -0,0 +1,561 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.javasim;
+
+import org.xtuml.masl.javagen.JarFile;
+import org.xtuml.masl.javagen.ast.AST;
+import org.xtuml.masl.javagen.ast.ASTFactory;
+import org.xtuml.masl.javagen.ast.code.CodeBlock;
+import org.xtuml.masl.javagen.ast.code.For;
+import org.xtuml.masl.javagen.ast.code.If;
+import org.xtuml.masl.javagen.ast.code.LocalVariable;
+import org.xtuml.masl.javagen.ast.code.While;
+import org.xtuml.masl.javagen.ast.def.*;
+import org.xtuml.masl.javagen.ast.def.Package;
+import org.xtuml.masl.javagen.ast.expr.Expression;
+import org.xtuml.masl.javagen.ast.types.DeclaredType;
+import org.xtuml.masl.javagen.ast.types.TypeVariable;
+import org.xtuml.masl.metamodel.common.ParameterDefinition;
+import org.xtuml.masl.metamodel.common.Service;
+import org.xtuml.masl.metamodel.domain.Domain;
+import org.xtuml.masl.metamodel.domain.DomainService;
+import org.xtuml.masl.metamodel.domain.DomainTerminator;
+import org.xtuml.masl.metamodel.domain.DomainTerminatorService;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.translate.Alias;
+import org.xtuml.masl.translate.TranslationError;
+import org.xtuml.masl.translate.building.BuildSet;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a Java implementation of a domain that can be run as a simulation
+ * without a C++ toolchain. Each object becomes a class holding its attributes,
+ * relationships and current state, and a <code>Simulation</code> class holds
+ * the populations, the event queues and the domain and terminator services.
+ * Events are delivered in the same order as by the C++ runtime. The generated
+ * <code>main</code> runs each scenario named on its command line in a separate
+ * simulation on its own virtual thread, so that large sweeps of scenarios can
+ * be run side by side.
+ * <p>
+ * MASL constructs that the simulation does not model, such as timers,
+ * dictionaries and exception handlers, are reported as translation errors, as
+ * are domain and object services with no implementation to run. Terminator
+ * services with no implementation stand for whatever lies outside the domain,
+ * so are simulated as doing nothing, with a warning.
+ * <p>
+ * The Java source is written to <code>src/main/java</code> in the output
+ * directory, in the package given by {@link #getPackageName()}.
+ */
+@Alias("JavaSim")
+public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator {
+
+    public static DomainTranslator getInstance(final Domain domain) {
+        return getInstance(DomainTranslator.class, domain);
+    }
+
+    private DomainTranslator(final Domain domain) {
+        super(domain);
+    }
+
+    @Override
+    public Collection<org.xtuml.masl.translate.DomainTranslator> getPrerequisites() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the package the simulation of the domain is generated in
+     */
+    public String getPackageName() {
+        return "masl.sim." + domain.getName().toLowerCase();
+    }
+
+    @Override
+    public void translate() {
+        pkg = ast.createPackage(getPackageName());
+
+        createEvent();
+        createSimulation();
+
+        typeTranslator.declareTypes(pkg);
+        for (final ObjectDeclaration object : domain.getObjects()) {
+            final ObjectTranslator objectTranslator = new ObjectTranslator(this, object);
+            objectTranslators.put(object, objectTranslator);
+            objectTranslator.declare();
+        }
+        typeTranslator.defineTypes();
+
+        for (final ObjectDeclaration object : domain.getObjects()) {
+            final Field population = simulation.addField(ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class),
+                                                                                typeTranslator.getInstanceType(object)),
+                                                         "population_" + getJavaName(object.getName()));
+            population.setVisibility(Visibility.PUBLIC);
+            population.setFinal();
+            population.setInitialValue(ast.createNewInstance((DeclaredType) population.getType()));
+            populations.put(object, population);
+        }
+
+        for (final ObjectTranslator objectTranslator : objectTranslators.values()) {
+            objectTranslator.defineStructure();
+        }
+        for (final ObjectTranslator objectTranslator : objectTranslators.values()) {
+            objectTranslator.defineMethods();
+        }
+
+        for (final DomainService service : domain.getServices()) {
+            serviceMethods.put(service, declareService(simulation, service, getJavaName(service.getName()), false));
+        }
+        for (final DomainTerminator terminator : domain.getTerminators()) {
+            for (final DomainTerminatorService service : terminator.getServices()) {
+                serviceMethods.put(service,
+                                   declareService(simulation,
+                                                  service,
+                                                  getJavaName(terminator.getName()) +
+                                                  "_" +
+                                                  getJavaName(service.getName()),
+                                                  false));
+            }
+        }
+
+        createRun();
+        createMain();
+
+        for (final Map.Entry<Service, Method> entry : serviceMethods.entrySet()) {
+            final Service service = entry.getKey();
+            if (service.getCode() == null) {
+                translateNoImplementation(service, entry.getValue());
+            } else {
+                new ActionTranslator(this,
+                                     simulation,
+                                     entry.getValue(),
+                                     ast.createThis(),
+                                     null,
+                                     getParameters(service.getParameters(), entry.getValue()),
+                                     service.getQualifiedName()).translate(service.getCode(), service.getReturnType());
+            }
+        }
+
+        for (final ObjectTranslator objectTranslator : objectTranslators.values()) {
+            objectTranslator.translateActions();
+        }
+
+        final JarFile jarFile = new JarFile(domain.getName() + "_sim");
+        final BuildSet buildSet = BuildSet.getBuildSet(domain);
+        jarFile.setParent(buildSet);
+        buildSet.addFileGroup(jarFile);
+        for (final CompilationUnit cu : pkg.getCompilationUnits()) {
+            jarFile.addJavaFile(cu);
+        }
+    }
+
+    /**
+     * Creates the abstract event class. Each event declared on an object is a
+     * nested subclass holding the target instance and the event parameters.
+     */
+    private void createEvent() {
+        event = pkg.addTypeDeclaration("Event");
+        event.setVisibility(Visibility.PUBLIC);
+        event.setAbstract();
+        deliver = event.addMethod("deliver", ast.createVoid());
+        deliver.setVisibility(Visibility.PUBLIC);
+        deliver.setAbstract();
+        getTarget = event.addMethod("getTarget", ast.createType(Object.class));
+        getTarget.setVisibility(Visibility.PUBLIC);
+        getTarget.setAbstract();
+    }
+
+    /**
+     * Creates the simulation class, with its event queues and the utility
+     * methods called from the generated actions. As in the EventQueue of the C++
+     * runtime, an event an instance sends to itself goes on a queue of its own,
+     * and every event on that queue is delivered before any other.
+     */
+    private void createSimulation() {
+        simulation = pkg.addTypeDeclaration("Simulation");
+        simulation.setVisibility(Visibility.PUBLIC);
+        simulation.addInterface((DeclaredType) ast.createType(Runnable.class));
+
+        scenario = simulation.addField(ast.createType(String.class), "scenario");
+        scenario.setVisibility(Visibility.PRIVATE);
+        scenario.setFinal();
+
+        final Field events = simulation.addField(ast.createDeclaredType(ast.getTypeDeclaration(ArrayDeque.class),
+                                                                        ast.createType(event)), "events");
+        events.setVisibility(Visibility.PRIVATE);
+        events.setFinal();
+        events.setInitialValue(ast.createNewInstance((DeclaredType) events.getType()));
+
+        final Field selfEvents = simulation.addField(ast.createDeclaredType(ast.getTypeDeclaration(ArrayDeque.class),
+                                                                            ast.createType(event)), "selfEvents");
+        selfEvents.setVisibility(Visibility.PRIVATE);
+        selfEvents.setFinal();
+        selfEvents.setInitialValue(ast.createNewInstance((DeclaredType) selfEvents.getType()));
+
+        final Field lastUnique = simulation.addField(ast.createLong(), "lastUnique", ast.createLiteral(0L));
+        lastUnique.setVisibility(Visibility.PRIVATE);
+
+        final Constructor defaultConstructor = simulation.addConstructor();
+        defaultConstructor.setVisibility(Visibility.PUBLIC);
+        defaultConstructor.setCodeBlock().addStatement(ast.createThisInvocation(ast.createNullLiteral()));
+
+        final Constructor scenarioConstructor = simulation.addConstructor();
+        scenarioConstructor.setVisibility(Visibility.PUBLIC);
+        final Parameter scenarioName = scenarioConstructor.addParameter(ast.createType(String.class), "scenario");
+        scenarioConstructor.setCodeBlock()
+                           .addStatement(ast.createThis().dot(scenario).assign(scenarioName.asExpression()));
+
+        nextUnique = simulation.addMethod("nextUnique", ast.createLong());
+        nextUnique.setVisibility(Visibility.PUBLIC);
+        nextUnique.setCodeBlock().addStatement(ast.createReturn(lastUnique.asExpression().increment()));
+
+        generate = simulation.addMethod("generate", ast.createVoid());
+        generate.setVisibility(Visibility.PUBLIC);
+        final Parameter generated = generate.addParameter(ast.createType(event), "event");
+        final Parameter source = generate.addParameter(ast.createType(Object.class), "source");
+        final If toSelf = ast.createIf(source.asExpression()
+                                             .notEqualTo(ast.createNullLiteral())
+                                             .and(generated.asExpression()
+                                                           .dot(getTarget)
+                                                           .equalTo(source.asExpression())));
+        final CodeBlock addSelf = ast.createCodeBlock();
+        addSelf.addStatement(selfEvents.asExpression()
+                                       .dot(ast.getMethod(ArrayDeque.class, "add", Object.class),
+                                            generated.asExpression()));
+        toSelf.setThen(addSelf);
+        final CodeBlock addOther = ast.createCodeBlock();
+        addOther.addStatement(events.asExpression()
+                                    .dot(ast.getMethod(ArrayDeque.class, "add", Object.class),
+                                         generated.asExpression()));
+        toSelf.setElse(addOther);
+        generate.setCodeBlock().addStatement(toSelf);
+
+        processEvents = simulation.addMethod("processEvents", ast.createVoid());
+        processEvents.setVisibility(Visibility.PUBLIC);
+        final While loop = ast.createWhile(selfEvents.asExpression()
+                                                     .dot(ast.getMethod(ArrayDeque.class, "isEmpty"))
+                                                     .not()
+                                                     .or(events.asExpression()
+                                                               .dot(ast.getMethod(ArrayDeque.class, "isEmpty"))
+                                                               .not()));
+        final CodeBlock loopCode = ast.createCodeBlock();
+        final If nextSelf = ast.createIf(selfEvents.asExpression()
+                                                   .dot(ast.getMethod(ArrayDeque.class, "isEmpty"))
+                                                   .not());
+        final CodeBlock deliverSelf = ast.createCodeBlock();
+        deliverSelf.addStatement(selfEvents.asExpression()
+                                           .dot(ast.getMethod(ArrayDeque.class, "poll"))
+                                           .dot(deliver));
+        nextSelf.setThen(deliverSelf);
+        final CodeBlock deliverOther = ast.createCodeBlock();
+        deliverOther.addStatement(events.asExpression().dot(ast.getMethod(ArrayDeque.class, "poll")).dot(deliver));
+        nextSelf.setElse(deliverOther);
+        loopCode.addStatement(nextSelf);
+        loop.setStatement(loopCode);
+        processEvents.setCodeBlock().addStatement(loop);
+
+        raise = simulation.addMethod("raise", ast.createVoid());
+        raise.setVisibility(Visibility.PUBLIC);
+        raise.setStatic();
+        final Parameter exception = raise.addParameter(ast.createType(String.class), "exception");
+        final Parameter message = raise.addParameter(ast.createType(String.class), "message");
+        raise.setCodeBlock()
+             .addStatement(ast.createThrow(ast.createNewInstance((DeclaredType) ast.createType(RuntimeException.class),
+                                                                 exception.asExpression()
+                                                                          .add(ast.createLiteral(": "))
+                                                                          .add(message.asExpression()))));
+
+        concat = createConcat(false);
+        concatAll = createConcat(true);
+    }
+
+    /**
+     * Creates a generic helper that concatenates an element or a collection onto
+     * a copy of a collection.
+     */
+    private Method createConcat(final boolean all) {
+        final Method result = simulation.addMethod(all ? "concatAll" : "concat");
+        result.setVisibility(Visibility.PUBLIC);
+        result.setStatic();
+        final TypeVariable element = ast.createTypeVariable(result.addTypeParameter("T"));
+        final DeclaredType listType = ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class), element);
+        result.setReturnType(listType);
+        final Parameter lhs = result.addParameter(ast.createDeclaredType(ast.getTypeDeclaration(List.class), element),
+                                                  "lhs");
+        final Parameter rhs = result.addParameter(all ? ast.createDeclaredType(ast.getTypeDeclaration(List.class),
+                                                                               element) : element, "rhs");
+        final CodeBlock code = result.setCodeBlock();
+        final LocalVariable list = ast.createLocalVariable(listType, "result", ast.createNewInstance(listType,
+                                                                                                     lhs.asExpression()));
+        code.addStatement(list);
+        code.addStatement(list.asExpression()
+                              .dot(all ? ast.getMethod(ArrayList.class, "addAll", Collection.class) :
+                                   ast.getMethod(ArrayList.class, "add", Object.class), rhs.asExpression()));
+        code.addStatement(ast.createReturn(list.asExpression()));
+        return result;
+    }
+
+    /**
+     * Creates the method that runs the scenario the simulation was created with,
+     * followed by every event that results from it.
+     */
+    private void createRun() {
+        final Method run = simulation.addMethod("run", ast.createVoid());
+        run.setVisibility(Visibility.PUBLIC);
+        final CodeBlock code = run.setCodeBlock();
+
+        If current = null;
+        for (final DomainService service : domain.getServices()) {
+            if (service.isScenario()) {
+                final If test = ast.createIf(ast.createLiteral(service.getName())
+                                                .dot(ast.getMethod(String.class, "equals", Object.class),
+                                                     scenario.asExpression()));
+                final CodeBlock call = ast.createCodeBlock();
+                call.addStatement(serviceMethods.get(service).call());
+                test.setThen(call);
+                if (current == null) {
+                    code.addStatement(test);
+                } else {
+                    current.setElse(test);
+                }
+                current = test;
+            }
+        }
+        final If unknown = ast.createIf(scenario.asExpression().notEqualTo(ast.createNullLiteral()));
+        unknown.setThen(ast.createThrow(ast.createNewInstance((DeclaredType) ast.createType(IllegalArgumentException.class),
+                                                              ast.createLiteral("Unknown scenario ")
+                                                                 .add(scenario.asExpression()))));
+        if (current == null) {
+            code.addStatement(unknown);
+        } else {
+            current.setElse(unknown);
+        }
+        code.addStatement(processEvents.call());
+    }
+
+    /**
+     * Creates the entry point, which runs each scenario named on the command line
+     * in its own simulation on a virtual thread, waiting for them all to finish.
+     */
+    private void createMain() {
+        final Method main = simulation.addMethod("main", ast.createVoid());
+        main.setVisibility(Visibility.PUBLIC);
+        main.setStatic();
+        main.addThrownException(ast.createType(Exception.class));
+        final Parameter args = main.addParameter(ast.createArrayType(ast.createType(String.class)), "args");
+        final CodeBlock code = main.setCodeBlock();
+
+        final LocalVariable executor = ast.createLocalVariable(ast.createType(ExecutorService.class),
+                                                               "executor",
+                                                               ast.createMethodInvocation(ast.getMethod(Executors.class,
+                                                                                                        "newVirtualThreadPerTaskExecutor")));
+        code.addStatement(executor);
+        final DeclaredType futureType = ast.createDeclaredType(ast.getTypeDeclaration(Future.class),
+                                                               ast.createWildcardType());
+        final DeclaredType futuresType = ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class), futureType);
+        final LocalVariable futures = ast.createLocalVariable(futuresType, "results", ast.createNewInstance(futuresType));
+        code.addStatement(futures);
+
+        final LocalVariable name = ast.createLocalVariable(ast.createType(String.class), "name");
+        final For submit = ast.createFor(name, args.asExpression());
+        final CodeBlock submitCode = ast.createCodeBlock();
+        submitCode.addStatement(futures.asExpression()
+                                       .dot(ast.getMethod(ArrayList.class, "add", Object.class),
+                                            executor.asExpression()
+                                                    .dot(ast.getMethod(ExecutorService.class,
+                                                                       "submit",
+                                                                       Runnable.class),
+                                                         ast.createNewInstance(ast.createType(simulation),
+                                                                               name.asExpression()))));
+        submit.setStatement(submitCode);
+        code.addStatement(submit);
+        code.addStatement(executor.asExpression().dot(ast.getMethod(AutoCloseable.class, "close")));
+
+        final LocalVariable future = ast.createLocalVariable(futureType, "result");
+        final For wait = ast.createFor(future, futures.asExpression());
+        final CodeBlock waitCode = ast.createCodeBlock();
+        waitCode.addStatement(future.asExpression().dot(ast.getMethod(Future.class, "get")));
+        wait.setStatement(waitCode);
+        code.addStatement(wait);
+    }
+
+    /**
+     * Declares the method for a service, leaving its body to be translated once
+     * every method that it might call has been declared. Static methods are
+     * passed the simulation they run in as their first parameter.
+     */
+    Method declareService(final TypeDeclaration owner,
+                          final Service service,
+                          final String name,
+                          final boolean isStatic) {
+        final Method method = owner.addMethod(name + (service.getOverloadNo() > 0 ? "_" + service.getOverloadNo() : ""));
+        method.setVisibility(Visibility.PUBLIC);
+        if (isStatic) {
+            method.setStatic();
+            method.addParameter(ast.createType(simulation), "sim");
+        }
+        method.setReturnType(service.getReturnType() == null ?
+                             ast.createVoid() :
+                             typeTranslator.getType(service.getReturnType()));
+        for (final ParameterDefinition param : service.getParameters()) {
+            method.addParameter(typeTranslator.getType(param.getType()), getJavaName(param.getName()));
+        }
+        return method;
+    }
+
+    /**
+     * Gives the method for a service with no code a body that does nothing,
+     * returning the default value of a function's return type. This is only
+     * expected of terminator services, as anything else would leave part of
+     * the domain unsimulated.
+     */
+    void translateNoImplementation(final Service service, final Method method) {
+        final CodeBlock code = method.setCodeBlock();
+        if (service.getReturnType() != null) {
+            code.addStatement(ast.createReturn(typeTranslator.getDefaultValue(service.getReturnType())));
+        }
+        new TranslationError(service instanceof DomainTerminatorService ?
+                             TranslationError.Code.UnimplementedTerminatorService :
+                             TranslationError.Code.NoImplementation,
+                             service,
+                             service.getQualifiedName(),
+                             service.getQualifiedName()).report();
+    }
+
+    /**
+     * Matches up the MASL parameters of a service or state with the parameters of
+     * the Java method it has been translated to, skipping any leading parameters
+     * added for the simulation itself.
+     */
+    Map<ParameterDefinition, Parameter> getParameters(final List<? extends ParameterDefinition> maslParams,
+                                                      final Callable method) {
+        final Map<ParameterDefinition, Parameter> result = new LinkedHashMap<>();
+        final List<? extends Parameter> javaParams = method.getParameters();
+        final int offset = javaParams.size() - maslParams.size();
+        for (int i = 0; i < maslParams.size(); ++i) {
+            result.put(maslParams.get(i), javaParams.get(i + offset));
+        }
+        return result;
+    }
+
+    /**
+     * Makes a MASL name safe to use as a Java identifier, avoiding Java keywords
+     * and the names used by the generated code itself.
+     *
+     * @param name the MASL name
+     * @return the Java name
+     */
+    static String getJavaName(final String name) {
+        return RESERVED_NAMES.contains(name) ? name + "_" : name;
+    }
+
+    AST getAST() {
+        return ast;
+    }
+
+    TypeTranslator getTypeTranslator() {
+        return typeTranslator;
+    }
+
+    ObjectTranslator getObjectTranslator(final ObjectDeclaration object) {
+        return objectTranslators.get(object);
+    }
+
+    TypeDeclaration getSimulation() {
+        return simulation;
+    }
+
+    TypeDeclaration getEvent() {
+        return event;
+    }
+
+    Method getDeliver() {
+        return deliver;
+    }
+
+    Field getPopulation(final ObjectDeclaration object) {
+        return populations.get(object);
+    }
+
+    Method getServiceMethod(final Service service) {
+        return serviceMethods.get(service);
+    }
+
+    Method getGetTarget() {
+        return getTarget;
+    }
+
+    Method getGenerate() {
+        return generate;
+    }
+
+    Method getNextUnique() {
+        return nextUnique;
+    }
+
+    Method getRaise() {
+        return raise;
+    }
+
+    Method getConcat() {
+        return concat;
+    }
+
+    Method getConcatAll() {
+        return concatAll;
+    }
+
+    /**
+     * @return a name for a new helper method in the class, numbered to keep it
+     * distinct from the other helpers with the same prefix
+     */
+    String getHelperName(final TypeDeclaration owner, final String prefix) {
+        final int number = helperCounts.merge(owner.getName() + "." + prefix, 1, Integer::sum);
+        return prefix + "_" + number;
+    }
+
+    private static final Set<String> RESERVED_NAMES = Set.of("abstract", "assert", "boolean", "break", "byte",
+                                                             "case", "catch", "char", "class", "const",
+                                                             "continue", "default", "do", "double", "else",
+                                                             "enum", "extends", "false", "final", "finally",
+                                                             "float", "for", "goto", "if", "implements",
+                                                             "import", "instanceof", "int", "interface", "long",
+                                                             "native", "new", "null", "package", "private",
+                                                             "protected", "public", "return", "short", "static",
+                                                             "strictfp", "super", "switch", "synchronized",
+                                                             "this", "throw", "throws", "transient", "true",
+                                                             "try", "void", "volatile", "while", "var", "record",
+                                                             "yield", "sealed", "permits", "sim", "result",
+                                                             "candidate", "source", "collection", "rhs",
+                                                             "target", "Event", "Simulation", "State", "Object",
+                                                             "String", "Long", "Double", "Boolean", "Character");
+
+    private final AST ast = ASTFactory.createAST();
+    private final TypeTranslator typeTranslator = new TypeTranslator(this);
+    private final Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new LinkedHashMap<>();
+    private final Map<ObjectDeclaration, Field> populations = new LinkedHashMap<>();
+    private final Map<Service, Method> serviceMethods = new LinkedHashMap<>();
+    private final Map<String, Integer> helperCounts = new HashMap<>();
+    private Package pkg;
+    private TypeDeclaration simulation;
+    private TypeDeclaration event;
+    private Method deliver;
+    private Field scenario;
+    private Method nextUnique;
+    private Method generate;
+    private Method getTarget;
+    private Method processEvents;
+    private Method raise;
+    private Method concat;
+    private Method concatAll;
+
+}
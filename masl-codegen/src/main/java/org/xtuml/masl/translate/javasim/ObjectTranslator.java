@@ -0,0 +1,507 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.javasim;
+
+import org.xtuml.masl.javagen.ast.AST;
+import org.xtuml.masl.javagen.ast.code.CodeBlock;
+import org.xtuml.masl.javagen.ast.code.If;
+import org.xtuml.masl.javagen.ast.code.LocalVariable;
+import org.xtuml.masl.javagen.ast.def.*;
+import org.xtuml.masl.javagen.ast.expr.Expression;
+import org.xtuml.masl.javagen.ast.types.DeclaredType;
+import org.xtuml.masl.metamodel.common.ParameterDefinition;
+import org.xtuml.masl.metamodel.object.AttributeDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectService;
+import org.xtuml.masl.metamodel.object.ReferentialAttributeDefinition;
+import org.xtuml.masl.metamodel.relationship.MultiplicityType;
+import org.xtuml.masl.metamodel.relationship.NormalRelationshipDeclaration;
+import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
+import org.xtuml.masl.metamodel.statemodel.EventDeclaration;
+import org.xtuml.masl.metamodel.statemodel.State;
+import org.xtuml.masl.metamodel.statemodel.TransitionOption;
+import org.xtuml.masl.metamodel.statemodel.TransitionRow;
+import org.xtuml.masl.metamodel.statemodel.TransitionType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates the class for an object in the simulation. Instances hold their
+ * attributes, their current state, and a field for each end of a relationship
+ * they take part in, which is kept up to date from both ends by the link and
+ * unlink methods. Referential attributes are copied from the related instance
+ * when the formalising link is made. Events are queued on the simulation as
+ * instances of a nested class for each event, and delivered through the
+ * transition table to the state actions. An event whose target has been
+ * deleted by the time it is delivered is dropped.
+ * <p>
+ * Only simple relationships are modelled. Navigations and links across
+ * associative and subtype relationships are reported as unsupported.
+ */
+class ObjectTranslator {
+
+    ObjectTranslator(final DomainTranslator domainTranslator, final ObjectDeclaration object) {
+        this.domainTranslator = domainTranslator;
+        this.object = object;
+        this.ast = domainTranslator.getAST();
+        this.types = domainTranslator.getTypeTranslator();
+    }
+
+    /**
+     * Declares the class for the object, and the enumeration of its states.
+     */
+    void declare() {
+        classDecl = domainTranslator.getSimulation()
+                                    .getEnclosingPackage()
+                                    .addTypeDeclaration(DomainTranslator.getJavaName(object.getName()));
+        classDecl.setVisibility(Visibility.PUBLIC);
+
+        if (!object.getStates().isEmpty()) {
+            stateEnum = classDecl.addTypeDeclaration("State");
+            stateEnum.setEnum();
+            stateEnum.setVisibility(Visibility.PUBLIC);
+            for (final State state : object.getStates()) {
+                stateConstants.put(state, stateEnum.addEnumConstant(DomainTranslator.getJavaName(state.getName())));
+            }
+        }
+    }
+
+    /**
+     * Adds the fields holding the attributes, current state and relationships of
+     * each instance.
+     */
+    void defineStructure() {
+        sim = classDecl.addField(ast.createType(domainTranslator.getSimulation()), "sim");
+        sim.setVisibility(Visibility.PUBLIC);
+        sim.setFinal();
+
+        final Constructor constructor = classDecl.addConstructor();
+        constructor.setVisibility(Visibility.PRIVATE);
+        final Parameter simParam = constructor.addParameter(ast.createType(domainTranslator.getSimulation()), "sim");
+        constructor.setCodeBlock().addStatement(ast.createThis().dot(sim).assign(simParam.asExpression()));
+
+        deleted = classDecl.addField(ast.createBoolean(), "deleted", ast.createLiteral(false));
+        deleted.setVisibility(Visibility.PRIVATE);
+
+        for (final AttributeDeclaration attribute : object.getAttributes()) {
+            final Field field = classDecl.addField(types.getType(attribute.getType()),
+                                                   DomainTranslator.getJavaName(attribute.getName()));
+            field.setVisibility(Visibility.PUBLIC);
+            attributes.put(attribute, field);
+        }
+
+        if (stateEnum != null) {
+            currentState = classDecl.addField(ast.createType(stateEnum), "currentState");
+            currentState.setVisibility(Visibility.PUBLIC);
+        }
+
+        for (final RelationshipSpecification spec : object.getRelationships()) {
+            if (isSupported(spec)) {
+                final DeclaredType destination = types.getInstanceType(spec.getDestinationObject());
+                final Field field;
+                if (spec.getCardinality() == MultiplicityType.ONE) {
+                    field = classDecl.addField(destination, getRelationshipName(spec));
+                } else {
+                    final DeclaredType listType = ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class),
+                                                                         destination);
+                    field = classDecl.addField(listType, getRelationshipName(spec), ast.createNewInstance(listType));
+                    field.setFinal();
+                }
+                field.setVisibility(Visibility.PUBLIC);
+                relationships.put(getRelationshipName(spec), field);
+            }
+        }
+    }
+
+    /**
+     * Adds the methods to create and delete instances, link and unlink them, and
+     * deliver events to them, and declares the methods for the services and
+     * state actions. Needs the structure of every object to have been defined
+     * first.
+     */
+    void defineMethods() {
+        addCreate();
+        addDelete();
+
+        for (final RelationshipSpecification spec : object.getRelationships()) {
+            if (isSupported(spec)) {
+                addLink(spec);
+                addUnlink(spec);
+            }
+        }
+
+        for (final State state : object.getStates()) {
+            final Method action = classDecl.addMethod("state_" + state.getName(), ast.createVoid());
+            action.setVisibility(Visibility.PRIVATE);
+            for (final ParameterDefinition param : state.getParameters()) {
+                action.addParameter(types.getType(param.getType()), DomainTranslator.getJavaName(param.getName()));
+            }
+            stateActions.put(state, action);
+        }
+
+        for (final EventDeclaration event : object.getEvents()) {
+            if (event.getType() == EventDeclaration.Type.NORMAL) {
+                addEvent(event);
+            }
+        }
+
+        for (final ObjectService service : object.getServices()) {
+            final Method method = domainTranslator.declareService(classDecl,
+                                                                  service,
+                                                                  DomainTranslator.getJavaName(service.getName()),
+                                                                  !service.isInstance());
+            services.put(service, method);
+        }
+    }
+
+    /**
+     * Translates the code of the services and state actions.
+     */
+    void translateActions() {
+        for (final Map.Entry<ObjectService, Method> entry : services.entrySet()) {
+            final ObjectService service = entry.getKey();
+            final Method method = entry.getValue();
+            if (service.getCode() == null) {
+                domainTranslator.translateNoImplementation(service, method);
+            } else {
+                final Expression simulation = service.isInstance() ?
+                                              sim.asExpression() :
+                                              method.getParameters().get(0).asExpression();
+                new ActionTranslator(domainTranslator,
+                                     classDecl,
+                                     method,
+                                     simulation,
+                                     service.isInstance() ? ast.createThis() : null,
+                                     domainTranslator.getParameters(service.getParameters(), method),
+                                     service.getQualifiedName()).translate(service.getCode(), service.getReturnType());
+            }
+        }
+
+        for (final Map.Entry<State, Method> entry : stateActions.entrySet()) {
+            final State state = entry.getKey();
+            final Method method = entry.getValue();
+            if (state.getCode() == null) {
+                method.setCodeBlock();
+            } else {
+                new ActionTranslator(domainTranslator,
+                                     classDecl,
+                                     method,
+                                     sim.asExpression(),
+                                     ast.createThis(),
+                                     domainTranslator.getParameters(state.getParameters(), method),
+                                     state.getQualifiedName()).translate(state.getCode(), null);
+            }
+        }
+    }
+
+    /**
+     * Adds the factory method, which takes a value for every attribute and the
+     * initial state, and adds the new instance to the population.
+     */
+    private void addCreate() {
+        create = classDecl.addMethod("create", ast.createType(classDecl));
+        create.setVisibility(Visibility.PUBLIC);
+        create.setStatic();
+        final Parameter simParam = create.addParameter(ast.createType(domainTranslator.getSimulation()), "sim");
+        final CodeBlock code = create.setCodeBlock();
+        final LocalVariable result = ast.createLocalVariable(ast.createType(classDecl),
+                                                             "result",
+                                                             ast.createNewInstance(ast.createType(classDecl),
+                                                                                   simParam.asExpression()));
+        code.addStatement(result);
+        for (final Map.Entry<AttributeDeclaration, Field> attribute : attributes.entrySet()) {
+            final Parameter param = create.addParameter(attribute.getValue().getType(), attribute.getValue().getName());
+            code.addStatement(result.asExpression()
+                                    .dot(attribute.getValue())
+                                    .assign(types.copy(param.asExpression(), attribute.getKey().getType())));
+        }
+        if (currentState != null) {
+            final Parameter param = create.addParameter(ast.createType(stateEnum), "currentState");
+            code.addStatement(result.asExpression().dot(currentState).assign(param.asExpression()));
+        }
+        code.addStatement(simParam.asExpression()
+                                  .dot(domainTranslator.getPopulation(object))
+                                  .dot(ast.getMethod(ArrayList.class, "add", Object.class), result.asExpression()));
+        code.addStatement(ast.createReturn(result.asExpression()));
+    }
+
+    private void addDelete() {
+        delete = classDecl.addMethod("delete", ast.createVoid());
+        delete.setVisibility(Visibility.PUBLIC);
+        final CodeBlock code = delete.setCodeBlock();
+        code.addStatement(sim.asExpression()
+                             .dot(domainTranslator.getPopulation(object))
+                             .dot(ast.getMethod(ArrayList.class, "remove", Object.class), ast.createThis()));
+        code.addStatement(ast.createThis().dot(deleted).assign(ast.createLiteral(true)));
+    }
+
+    /**
+     * Adds the method to link an instance of the destination object to this one,
+     * updating both ends of the relationship and copying the referential
+     * attributes formalised by it.
+     */
+    private void addLink(final RelationshipSpecification spec) {
+        final ObjectTranslator destination = domainTranslator.getObjectTranslator(spec.getDestinationObject());
+        final RelationshipSpecification reverse = spec.getReverseSpec();
+
+        final Method link = classDecl.addMethod("link_" + getRelationshipName(spec), ast.createVoid());
+        link.setVisibility(Visibility.PUBLIC);
+        final Parameter rhs = link.addParameter(types.getInstanceType(spec.getDestinationObject()), "rhs");
+        final CodeBlock code = link.setCodeBlock();
+
+        code.addStatement(addToEnd(ast.createThis(), getRelationshipField(spec), spec, rhs.asExpression()));
+        code.addStatement(addToEnd(rhs.asExpression(),
+                                   destination.getRelationshipField(reverse),
+                                   reverse,
+                                   ast.createThis()));
+
+        for (final Map.Entry<AttributeDeclaration, Field> attribute : attributes.entrySet()) {
+            for (final ReferentialAttributeDefinition ref : attribute.getKey().getRefAttDefs()) {
+                if (getRelationshipName(ref.getRelationship()).equals(getRelationshipName(spec))) {
+                    code.addStatement(ast.createThis()
+                                         .dot(attribute.getValue())
+                                         .assign(rhs.asExpression()
+                                                    .dot(destination.getAttribute(ref.getDestinationAttribute()))));
+                }
+            }
+        }
+        for (final AttributeDeclaration attribute : spec.getDestinationObject().getAttributes()) {
+            for (final ReferentialAttributeDefinition ref : attribute.getRefAttDefs()) {
+                if (getRelationshipName(ref.getRelationship()).equals(getRelationshipName(reverse))) {
+                    code.addStatement(rhs.asExpression()
+                                         .dot(destination.getAttribute(attribute))
+                                         .assign(ast.createThis().dot(getAttribute(ref.getDestinationAttribute()))));
+                }
+            }
+        }
+        links.put(getRelationshipName(spec), link);
+    }
+
+    private void addUnlink(final RelationshipSpecification spec) {
+        final ObjectTranslator destination = domainTranslator.getObjectTranslator(spec.getDestinationObject());
+        final RelationshipSpecification reverse = spec.getReverseSpec();
+
+        final Method unlink = classDecl.addMethod("unlink_" + getRelationshipName(spec), ast.createVoid());
+        unlink.setVisibility(Visibility.PUBLIC);
+        final Parameter rhs = unlink.addParameter(types.getInstanceType(spec.getDestinationObject()), "rhs");
+        final CodeBlock code = unlink.setCodeBlock();
+        code.addStatement(removeFromEnd(ast.createThis(), getRelationshipField(spec), spec, rhs.asExpression()));
+        code.addStatement(removeFromEnd(rhs.asExpression(),
+                                        destination.getRelationshipField(reverse),
+                                        reverse,
+                                        ast.createThis()));
+        unlinks.put(getRelationshipName(spec), unlink);
+    }
+
+    private org.xtuml.masl.javagen.ast.expr.StatementExpression addToEnd(final Expression instance,
+                                                                        final Field field,
+                                                                        final RelationshipSpecification spec,
+                                                                        final Expression related) {
+        if (spec.getCardinality() == MultiplicityType.ONE) {
+            return instance.dot(field).assign(related);
+        } else {
+            return instance.dot(field).dot(ast.getMethod(ArrayList.class, "add", Object.class), related);
+        }
+    }
+
+    private org.xtuml.masl.javagen.ast.expr.StatementExpression removeFromEnd(final Expression instance,
+                                                                             final Field field,
+                                                                             final RelationshipSpecification spec,
+                                                                             final Expression related) {
+        if (spec.getCardinality() == MultiplicityType.ONE) {
+            return instance.dot(field).assign(ast.createNullLiteral());
+        } else {
+            return instance.dot(field).dot(ast.getMethod(ArrayList.class, "remove", Object.class), related);
+        }
+    }
+
+    /**
+     * Adds the nested class for an event, which holds the target instance and
+     * parameter values until the event is delivered, and the method that
+     * delivers it through the transition table.
+     */
+    private void addEvent(final EventDeclaration event) {
+        final Method process = classDecl.addMethod("process_" + event.getName(), ast.createVoid());
+        process.setVisibility(Visibility.PUBLIC);
+        for (final ParameterDefinition param : event.getParameters()) {
+            process.addParameter(types.getType(param.getType()), DomainTranslator.getJavaName(param.getName()));
+        }
+        final CodeBlock processCode = process.setCodeBlock();
+
+        If current = null;
+        if (object.getStateMachine() != null) {
+            for (final TransitionRow row : object.getStateMachine().getRows()) {
+                final TransitionOption option = row.getOption(event);
+                if (row.getInitialState() == null ||
+                    option == null ||
+                    option.getType() == TransitionType.CANNOT_HAPPEN) {
+                    continue;
+                }
+                final If test = ast.createIf(currentState.asExpression()
+                                                         .equalTo(ast.createEnumConstantAccess(stateConstants.get(row.getInitialState()))));
+                final CodeBlock transition = ast.createCodeBlock();
+                if (option.getType() == TransitionType.TO_STATE) {
+                    final State destination = option.getDestinationState();
+                    transition.addStatement(currentState.asExpression()
+                                                        .assign(ast.createEnumConstantAccess(stateConstants.get(
+                                                                destination))));
+                    final Expression[] args = new Expression[destination.getParameters().size()];
+                    for (int i = 0; i < args.length; ++i) {
+                        args[i] = process.getParameters().get(i).asExpression();
+                    }
+                    transition.addStatement(stateActions.get(destination).call(args));
+                    if (destination.getType() == State.Type.TERMINAL) {
+                        transition.addStatement(delete.call());
+                    }
+                }
+                test.setThen(transition);
+                if (current == null) {
+                    processCode.addStatement(test);
+                } else {
+                    current.setElse(test);
+                }
+                current = test;
+            }
+        }
+        final CodeBlock cannotHappen = ast.createCodeBlock();
+        cannotHappen.addStatement(ast.createThrow(ast.createNewInstance((DeclaredType) ast.createType(
+                IllegalStateException.class), ast.createLiteral(event.getParentObject().getName() +
+                                                                "." +
+                                                                event.getName() +
+                                                                " cannot happen in state ").add(currentState == null ?
+                                                                                                ast.createLiteral(
+                                                                                                        "Non_Existent") :
+                                                                                                currentState.asExpression()))));
+        if (current == null) {
+            processCode.addStatement(cannotHappen);
+        } else {
+            current.setElse(cannotHappen);
+        }
+        processes.put(event, process);
+
+        final TypeDeclaration eventClass = classDecl.addTypeDeclaration("Event_" + event.getName());
+        eventClass.setVisibility(Visibility.PUBLIC);
+        eventClass.setStatic();
+        eventClass.setSupertype(ast.createType(domainTranslator.getEvent()));
+        final Constructor constructor = eventClass.addConstructor();
+        constructor.setVisibility(Visibility.PUBLIC);
+        final CodeBlock constructorCode = constructor.setCodeBlock();
+        final Method deliver = eventClass.addMethod(domainTranslator.getDeliver().getName(), ast.createVoid());
+        deliver.setVisibility(Visibility.PUBLIC);
+        final Expression[] args = new Expression[event.getParameters().size()];
+
+        final Field target = eventClass.addField(ast.createType(classDecl), "target");
+        target.setVisibility(Visibility.PRIVATE);
+        target.setFinal();
+        final Parameter targetParam = constructor.addParameter(ast.createType(classDecl), "target");
+        constructorCode.addStatement(ast.createThis().dot(target).assign(targetParam.asExpression()));
+        for (int i = 0; i < args.length; ++i) {
+            final Parameter processParam = process.getParameters().get(i);
+            final Field field = eventClass.addField(processParam.getType(), processParam.getName());
+            field.setVisibility(Visibility.PRIVATE);
+            field.setFinal();
+            final Parameter param = constructor.addParameter(processParam.getType(), processParam.getName());
+            constructorCode.addStatement(ast.createThis()
+                                            .dot(field)
+                                            .assign(types.copy(param.asExpression(),
+                                                               event.getParameters().get(i).getType())));
+            args[i] = field.asExpression();
+        }
+        final If live = ast.createIf(target.asExpression().dot(deleted).not());
+        live.setThen(target.asExpression().dot(process, args).asStatement());
+        deliver.setCodeBlock().addStatement(live);
+
+        final Method getTarget = eventClass.addMethod(domainTranslator.getGetTarget().getName(),
+                                                      ast.createType(Object.class));
+        getTarget.setVisibility(Visibility.PUBLIC);
+        getTarget.setCodeBlock().addStatement(ast.createReturn(target.asExpression()));
+        eventClasses.put(event, eventClass);
+    }
+
+    /**
+     * @return <code>true</code> if the simulation models navigation and linking
+     * across the relationship
+     */
+    static boolean isSupported(final RelationshipSpecification spec) {
+        return spec.getRelationship() instanceof NormalRelationshipDeclaration;
+    }
+
+    static String getRelationshipName(final RelationshipSpecification spec) {
+        return spec.getRelationship().getName() + "_" + spec.getRole() + "_" + spec.getDestinationObject().getName();
+    }
+
+    TypeDeclaration getClassDeclaration() {
+        return classDecl;
+    }
+
+    Field getAttribute(final AttributeDeclaration attribute) {
+        return attributes.get(attribute);
+    }
+
+    Field getCurrentState() {
+        return currentState;
+    }
+
+    EnumConstant getStateConstant(final State state) {
+        return stateConstants.get(state);
+    }
+
+    Field getRelationshipField(final RelationshipSpecification spec) {
+        return relationships.get(getRelationshipName(spec));
+    }
+
+    Method getLink(final RelationshipSpecification spec) {
+        return links.get(getRelationshipName(spec));
+    }
+
+    Method getUnlink(final RelationshipSpecification spec) {
+        return unlinks.get(getRelationshipName(spec));
+    }
+
+    Method getCreate() {
+        return create;
+    }
+
+    Method getDelete() {
+        return delete;
+    }
+
+    Method getService(final ObjectService service) {
+        return services.get(service);
+    }
+
+    TypeDeclaration getEventClass(final EventDeclaration event) {
+        return eventClasses.get(event);
+    }
+
+    private final DomainTranslator domainTranslator;
+    private final ObjectDeclaration object;
+    private final AST ast;
+    private final TypeTranslator types;
+    private TypeDeclaration classDecl;
+    private TypeDeclaration stateEnum;
+    private Field sim;
+    private Field currentState;
+    private Method create;
+    private Method delete;
+    private Field deleted;
+    private final Map<State, EnumConstant> stateConstants = new LinkedHashMap<>();
+    private final Map<AttributeDeclaration, Field> attributes = new LinkedHashMap<>();
+    private final Map<String, Field> relationships = new LinkedHashMap<>();
+    private final Map<String, Method> links = new LinkedHashMap<>();
+    private final Map<String, Method> unlinks = new LinkedHashMap<>();
+    private final Map<State, Method> stateActions = new LinkedHashMap<>();
+    private final Map<EventDeclaration, Method> processes = new LinkedHashMap<>();
+    private final Map<EventDeclaration, TypeDeclaration> eventClasses = new LinkedHashMap<>();
+    private final Map<ObjectService, Method> services = new LinkedHashMap<>();
+
+}
@@ -0,0 +1,301 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.javasim;
+
+import org.xtuml.masl.javagen.ast.AST;
+import org.xtuml.masl.javagen.ast.code.CodeBlock;
+import org.xtuml.masl.javagen.ast.def.Constructor;
+import org.xtuml.masl.javagen.ast.def.Field;
+import org.xtuml.masl.javagen.ast.def.Package;
+import org.xtuml.masl.javagen.ast.def.Parameter;
+import org.xtuml.masl.javagen.ast.def.TypeDeclaration;
+import org.xtuml.masl.javagen.ast.def.Visibility;
+import org.xtuml.masl.javagen.ast.expr.Expression;
+import org.xtuml.masl.javagen.ast.types.DeclaredType;
+import org.xtuml.masl.javagen.ast.types.Type;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.type.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps MASL types onto Java types for the simulation. All integer types are
+ * held as <code>long</code>, collections of every kind as
+ * <code>java.util.ArrayList</code>, and enumerations and structures declared in
+ * the domain as generated Java enums and classes. Types with no sensible Java
+ * equivalent are held as <code>Object</code>, and any code that needs to do
+ * more than pass them around is reported as unsupported.
+ */
+class TypeTranslator {
+
+    TypeTranslator(final DomainTranslator domainTranslator) {
+        this.domainTranslator = domainTranslator;
+        this.ast = domainTranslator.getAST();
+    }
+
+    /**
+     * Declares the Java types for the enumerations and structures in the domain.
+     * Structure fields are added by {@link #defineTypes()} once every type has a
+     * declaration to refer to.
+     */
+    void declareTypes(final Package pkg) {
+        for (final org.xtuml.masl.metamodel.type.TypeDeclaration type : domainTranslator.getDomain().getTypes()) {
+            final TypeDefinition definition = type.getTypeDefinition();
+            if (definition instanceof EnumerateType enumerate) {
+                final TypeDeclaration enumDecl = pkg.addTypeDeclaration(DomainTranslator.getJavaName(type.getName()));
+                enumDecl.setEnum();
+                enumDecl.setVisibility(Visibility.PUBLIC);
+                for (final EnumerateItem item : enumerate.getItems()) {
+                    enumDecl.addEnumConstant(DomainTranslator.getJavaName(item.getName()));
+                }
+                enumerations.put(type, enumDecl);
+            } else if (definition instanceof StructureType) {
+                final TypeDeclaration structDecl = pkg.addTypeDeclaration(DomainTranslator.getJavaName(type.getName()));
+                structDecl.setVisibility(Visibility.PUBLIC);
+                structures.put(type, structDecl);
+            }
+        }
+    }
+
+    /**
+     * Adds the fields and constructors to the structure classes. Each structure
+     * has a default constructor, a constructor taking every element, and a copy
+     * constructor used to give structures value semantics.
+     */
+    void defineTypes() {
+        for (final Map.Entry<org.xtuml.masl.metamodel.type.TypeDeclaration, TypeDeclaration> entry : structures.entrySet()) {
+            final StructureType structure = (StructureType) entry.getKey().getTypeDefinition();
+            final TypeDeclaration structDecl = entry.getValue();
+            final Map<StructureElement, Field> fields = new LinkedHashMap<>();
+            for (final StructureElement element : structure.getElements()) {
+                final Field field = structDecl.addField(getType(element.getType()), DomainTranslator.getJavaName(element.getName()));
+                field.setVisibility(Visibility.PUBLIC);
+                fields.put(element, field);
+            }
+            elements.putAll(fields);
+
+            final Constructor defaultConstructor = structDecl.addConstructor();
+            defaultConstructor.setVisibility(Visibility.PUBLIC);
+            final CodeBlock defaultCode = defaultConstructor.setCodeBlock();
+            for (final Map.Entry<StructureElement, Field> field : fields.entrySet()) {
+                defaultCode.addStatement(ast.createThis().dot(field.getValue()).assign(getDefaultValue(field.getKey().getType())));
+            }
+
+            if (!fields.isEmpty()) {
+                final Constructor fullConstructor = structDecl.addConstructor();
+                fullConstructor.setVisibility(Visibility.PUBLIC);
+                final CodeBlock fullCode = fullConstructor.setCodeBlock();
+                for (final Map.Entry<StructureElement, Field> field : fields.entrySet()) {
+                    final Parameter param = fullConstructor.addParameter(field.getValue().getType(), field.getValue().getName());
+                    fullCode.addStatement(ast.createThis()
+                                             .dot(field.getValue())
+                                             .assign(copy(param.asExpression(), field.getKey().getType())));
+                }
+            }
+
+            final Constructor copyConstructor = structDecl.addConstructor();
+            copyConstructor.setVisibility(Visibility.PUBLIC);
+            final Parameter rhs = copyConstructor.addParameter(ast.createType(structDecl), "rhs");
+            final CodeBlock copyCode = copyConstructor.setCodeBlock();
+            for (final Map.Entry<StructureElement, Field> field : fields.entrySet()) {
+                copyCode.addStatement(ast.createThis()
+                                         .dot(field.getValue())
+                                         .assign(copy(rhs.asExpression().dot(field.getValue()), field.getKey().getType())));
+            }
+        }
+    }
+
+    /**
+     * @return the Java type used to hold values of the MASL type
+     */
+    Type getType(final BasicType type) {
+        final BasicType basicType = type.getBasicType();
+        if (basicType instanceof InstanceType instanceType) {
+            return getInstanceType(instanceType.getObjectDeclaration());
+        } else if (basicType instanceof CollectionType collection) {
+            return getListType(collection.getContainedType());
+        } else if (basicType instanceof UserDefinedType userDefined) {
+            final TypeDeclaration declaration = getDeclaration(userDefined);
+            return declaration == null ? ast.createType(Object.class) : ast.createType(declaration);
+        }
+        switch (basicType.getActualType()) {
+            case BOOLEAN:
+                return ast.createBoolean();
+            case BYTE:
+            case SMALL_INTEGER:
+            case INTEGER:
+                return ast.createLong();
+            case REAL:
+                return ast.createDouble();
+            case CHARACTER:
+            case WCHARACTER:
+                return ast.createChar();
+            case STRING:
+            case WSTRING:
+                return ast.createType(String.class);
+            case TIMESTAMP:
+                return ast.createType(java.time.Instant.class);
+            case DURATION:
+                return ast.createType(java.time.Duration.class);
+            default:
+                return ast.createType(Object.class);
+        }
+    }
+
+    /**
+     * @return the Java type used to hold values of the MASL type inside a
+     * collection, which must be a reference type
+     */
+    Type getBoxedType(final BasicType type) {
+        final BasicType basicType = type.getBasicType();
+        if (basicType instanceof InstanceType ||
+            basicType instanceof CollectionType ||
+            basicType instanceof UserDefinedType) {
+            return getType(type);
+        }
+        return switch (basicType.getActualType()) {
+            case BOOLEAN -> ast.createType(Boolean.class);
+            case BYTE, SMALL_INTEGER, INTEGER -> ast.createType(Long.class);
+            case REAL -> ast.createType(Double.class);
+            case CHARACTER, WCHARACTER -> ast.createType(Character.class);
+            default -> getType(type);
+        };
+    }
+
+    DeclaredType getListType(final BasicType containedType) {
+        return ast.createDeclaredType(ast.getTypeDeclaration(ArrayList.class), getBoxedType(containedType));
+    }
+
+    DeclaredType getInstanceType(final ObjectDeclaration object) {
+        return ast.createType(domainTranslator.getObjectTranslator(object).getClassDeclaration());
+    }
+
+    /**
+     * @return <code>true</code> if values of the type are held in a Java
+     * primitive, or in a reference type that is safe to compare with
+     * <code>==</code>
+     */
+    boolean hasIdentityEquality(final BasicType type) {
+        final BasicType basicType = type.getBasicType();
+        if (basicType instanceof InstanceType || isEnumeration(basicType)) {
+            return true;
+        }
+        return switch (basicType.getActualType()) {
+            case BOOLEAN, BYTE, SMALL_INTEGER, INTEGER, REAL, CHARACTER, WCHARACTER -> true;
+            default -> false;
+        };
+    }
+
+    boolean isNumeric(final BasicType type) {
+        return switch (type.getBasicType().getActualType()) {
+            case BYTE, SMALL_INTEGER, INTEGER, REAL -> true;
+            default -> false;
+        };
+    }
+
+    boolean isInteger(final BasicType type) {
+        return switch (type.getBasicType().getActualType()) {
+            case BYTE, SMALL_INTEGER, INTEGER -> true;
+            default -> false;
+        };
+    }
+
+    boolean isString(final BasicType type) {
+        return switch (type.getBasicType().getActualType()) {
+            case STRING, WSTRING -> true;
+            default -> false;
+        };
+    }
+
+    boolean isCollection(final BasicType type) {
+        return type.getBasicType() instanceof CollectionType;
+    }
+
+    boolean isEnumeration(final BasicType type) {
+        return type.getBasicType() instanceof UserDefinedType userDefined &&
+               userDefined.getDefinedType() instanceof EnumerateType;
+    }
+
+    boolean isStructure(final BasicType type) {
+        return type.getBasicType() instanceof UserDefinedType userDefined &&
+               userDefined.getDefinedType() instanceof StructureType;
+    }
+
+    /**
+     * @return the value a variable of the type starts with if no initial value
+     * is given
+     */
+    Expression getDefaultValue(final BasicType type) {
+        final BasicType basicType = type.getBasicType();
+        if (basicType instanceof InstanceType) {
+            return ast.createNullLiteral();
+        } else if (basicType instanceof CollectionType collection) {
+            return ast.createNewInstance(getListType(collection.getContainedType()));
+        } else if (basicType instanceof UserDefinedType userDefined) {
+            final TypeDeclaration declaration = getDeclaration(userDefined);
+            if (declaration == null) {
+                return ast.createNullLiteral();
+            } else if (declaration.isEnum()) {
+                return ast.createEnumConstantAccess(declaration.getEnumConstants().get(0));
+            } else {
+                return ast.createNewInstance(ast.createType(declaration));
+            }
+        }
+        return switch (basicType.getActualType()) {
+            case BOOLEAN -> ast.createLiteral(false);
+            case BYTE, SMALL_INTEGER, INTEGER -> ast.createLiteral(0L);
+            case REAL -> ast.createLiteral(0.0);
+            case CHARACTER, WCHARACTER -> ast.createLiteral(' ');
+            case STRING, WSTRING -> ast.createLiteral("");
+            case TIMESTAMP -> ast.createFieldAccess(ast.getField(java.time.Instant.class, "EPOCH"));
+            case DURATION -> ast.createFieldAccess(ast.getField(java.time.Duration.class, "ZERO"));
+            default -> ast.createNullLiteral();
+        };
+    }
+
+    /**
+     * Copies a value of the type if it is held in a mutable Java object, so that
+     * structures and collections keep the value semantics they have in MASL.
+     *
+     * @param value the expression giving the value
+     * @param type  the MASL type of the value
+     * @return the copied value, or the original expression if no copy is needed
+     */
+    Expression copy(final Expression value, final BasicType type) {
+        if (isCollection(type)) {
+            return ast.createNewInstance(getListType(((CollectionType) type.getBasicType()).getContainedType()), value);
+        } else if (isStructure(type)) {
+            final TypeDeclaration declaration = getDeclaration((UserDefinedType) type.getBasicType());
+            if (declaration != null) {
+                return ast.createNewInstance(ast.createType(declaration), value);
+            }
+        }
+        return value;
+    }
+
+    TypeDeclaration getDeclaration(final UserDefinedType type) {
+        final org.xtuml.masl.metamodel.type.TypeDeclaration declaration = type.getTypeDeclaration();
+        final TypeDeclaration result = enumerations.get(declaration);
+        return result == null ? structures.get(declaration) : result;
+    }
+
+    Field getElement(final StructureElement element) {
+        return elements.get(element);
+    }
+
+    private final DomainTranslator domainTranslator;
+    private final AST ast;
+    private final Map<org.xtuml.masl.metamodel.type.TypeDeclaration, TypeDeclaration> enumerations = new LinkedHashMap<>();
+    private final Map<org.xtuml.masl.metamodel.type.TypeDeclaration, TypeDeclaration> structures = new LinkedHashMap<>();
+    private final Map<StructureElement, Field> elements = new LinkedHashMap<>();
+
+}
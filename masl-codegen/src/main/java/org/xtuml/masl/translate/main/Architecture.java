@@ -14,7 +14,7 @@ import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.translate.building.BuildSet;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,7 +26,7 @@ public final class Architecture {
 
     public final static Library library = new ImportedLibrary("xtuml_swa").inBuildSet(buildSet);
 
-    public final static Map<String, String> eventRegistrationFunctions = new HashMap<>();
+    public final static Map<String, String> eventRegistrationFunctions = new LinkedHashMap<>();
 
     static {
         eventRegistrationFunctions.put("startup",           "registerStartupListener");
@@ -165,6 +165,10 @@ public final class Architecture {
     public final static CodeFile stringInc = library.createInterfaceHeader("swa/String.hh");
     public final static Class stringClass = new Class("String", NAMESPACE, stringInc);
 
+    static {
+        stringClass.allowForwardDeclaration();
+    }
+
     public final static CodeFile exceptionInc = library.createInterfaceHeader("swa/Exception.hh");
     public final static Class topException = new Class("Exception", NAMESPACE, exceptionInc);
 
@@ -197,6 +201,10 @@ public final class Architecture {
         public final static CodeFile timestampInc = library.createInterfaceHeader("swa/Timestamp.hh");
         public final static Class timestampClass = new Class("Timestamp", Architecture.NAMESPACE, timestampInc);
 
+        static {
+            timestampClass.allowForwardDeclaration();
+        }
+
         public final static Expression createFromNanosSinceEpoch(final Expression nanos) {
             return timestampClass.callStaticFunction("fromNanosSinceEpoch", nanos);
         }
@@ -342,6 +350,10 @@ public final class Architecture {
         public final static CodeFile durationInc = library.createInterfaceHeader("swa/Duration.hh");
         public final static Class durationClass = new Class("Duration", Architecture.NAMESPACE, durationInc);
 
+        static {
+            durationClass.allowForwardDeclaration();
+        }
+
         public final static Expression zero = durationClass.callStaticFunction("zero");
 
         public final static Expression getTicks(final Expression lhs) {
@@ -603,8 +615,13 @@ public final class Architecture {
         if (!eventRegistrationFunctions.containsKey(event)) {
             throw new IllegalArgumentException("Unrecognised process lifecycle event: " + event);
         }
-        final Expression callback = !wrapCallback ? function : Boost.bind.asFunctionCall(
-            runService.asFunctionPointer(), Boost.ref.asFunctionCall(process), function, Literal.EMPTY_STRING);
+        Expression callback = function;
+        if (wrapCallback) {
+            // []() { return SWA::Process::getInstance().runService(function, ""); }
+            final LambdaExpression wrapper = new LambdaExpression(false);
+            wrapper.setResult(runService.asFunctionCall(process, false, function, Literal.EMPTY_STRING));
+            callback = wrapper;
+        }
         return new Function(eventRegistrationFunctions.get(event)).asFunctionCall(process, false, callback);
     }
 
@@ -719,6 +736,21 @@ public final class Architecture {
                                                                          newState);
     }
 
+    public static final CodeFile transitionInc = library.createInterfaceHeader("swa/transition.hh");
+
+    /**
+     * @param types the object receiving an event, followed by the type of each
+     *              event parameter
+     * @return the type of an entry in a dense transition table
+     */
+    public static Class transitionAction(final List<TypeUsage> types) {
+        final Class ret = new Class("TransitionAction", NAMESPACE, transitionInc);
+        for (final TypeUsage type : types) {
+            ret.addTemplateSpecialisation(type);
+        }
+        return ret;
+    }
+
     private static final CodeFile nameFormatterInc = library.createInterfaceHeader("swa/NameFormatter.hh");
     private static final Class nameFormatter = new Class("NameFormatter", NAMESPACE, nameFormatterInc);
 
@@ -768,6 +800,60 @@ public final class Architecture {
         return fn;
     }
 
+    public static final Function countRelated = new Function("count_related", NAMESPACE, navigateInc);
+
+    public static final CodeFile pipelineInc = library.createInterfaceHeader("swa/pipeline.hh");
+    public static final Namespace PIPELINE_NAMESPACE = new Namespace("pipeline", NAMESPACE);
+    public static final Function pipelineNavigate = new Function("navigate", PIPELINE_NAMESPACE, pipelineInc);
+    public static final Function pipelineFilter = new Function("filter", PIPELINE_NAMESPACE, pipelineInc);
+
+    public static Function pipelineCollect(final TypeUsage destObj) {
+        final Function fn = new Function("collect", PIPELINE_NAMESPACE, pipelineInc);
+        fn.addTemplateSpecialisation(destObj);
+        return fn;
+    }
+
+    public static Function pipelineFirst(final TypeUsage destObj) {
+        final Function fn = new Function("first", PIPELINE_NAMESPACE, pipelineInc);
+        fn.addTemplateSpecialisation(destObj);
+        return fn;
+    }
+
+    public static Function pipelineOnly(final TypeUsage destObj) {
+        final Function fn = new Function("only", PIPELINE_NAMESPACE, pipelineInc);
+        fn.addTemplateSpecialisation(destObj);
+        return fn;
+    }
+
+    public static final CodeFile indexInc = library.createInterfaceHeader("swa/index.hh");
+    public static final Function findIndexed = new Function("find_indexed", NAMESPACE, indexInc);
+    public static final Function findOneIndexed = new Function("find_one_indexed", NAMESPACE, indexInc);
+    public static final Function findOnlyIndexed = new Function("find_only_indexed", NAMESPACE, indexInc);
+    public static final Function countIndexed = new Function("count_indexed", NAMESPACE, indexInc);
+    public static final Function filterInstance = new Function("filter_instance", NAMESPACE, indexInc);
+    public static final Function countInstance = new Function("count_instance", NAMESPACE, indexInc);
+    public static final Function eraseIndexed = new Function("erase_indexed", NAMESPACE, indexInc);
+    public static final Function findRange = new Function("find_range", NAMESPACE, indexInc);
+    public static final Function findRangeOrdered = new Function("find_range_ordered", NAMESPACE, indexInc);
+    public static final Function findOneRange = new Function("find_one_range", NAMESPACE, indexInc);
+    public static final Function findOnlyRange = new Function("find_only_range", NAMESPACE, indexInc);
+    public static final Function countRange = new Function("count_range", NAMESPACE, indexInc);
+
+    public static final CodeFile hashContainersInc = library.createInterfaceHeader("swa/HashContainers.hh");
+    public static final CodeFile
+            flatHashContainersInc =
+            library.createInterfaceHeader("swa/FlatHashContainers.hh");
+    public static final CodeFile
+            sortedVectorContainersInc =
+            library.createInterfaceHeader("swa/SortedVectorContainers.hh");
+    public static final CodeFile
+            smallVectorContainersInc =
+            library.createInterfaceHeader("swa/SmallVectorContainers.hh");
+
+    public static Class containerPolicy(final String name, final CodeFile include) {
+        return new Class(name, NAMESPACE, include);
+    }
+
     public static final CodeFile correlateInc = library.createInterfaceHeader("swa/correlate.hh");
     public static final Function correlateInstance = new Function("correlate_instance", NAMESPACE, correlateInc);
     public static final Function correlateSet = new Function("correlate_set", NAMESPACE, correlateInc);
@@ -779,6 +865,14 @@ public final class Architecture {
 
     public static final CodeFile eventQueueInc = library.createInterfaceHeader("swa/EventQueue.hh");
 
+    public static final CodeFile eventPoolInc = library.createInterfaceHeader("swa/EventPool.hh");
+
+    public static Class eventPoolAllocator(final TypeUsage eventType) {
+        final Class ret = new Class("EventPoolAllocator", NAMESPACE, eventPoolInc);
+        ret.addTemplateSpecialisation(eventType);
+        return ret;
+    }
+
     public static final CodeFile eventInc = library.createInterfaceHeader("swa/Event.hh");
     public static final Event event = new Event();
 
@@ -797,6 +891,7 @@ public final class Architecture {
 
         private Event() {
             clazz = new Class("Event", NAMESPACE, eventInc);
+            clazz.allowForwardDeclaration();
             final DeclarationGroup group = clazz.createDeclarationGroup();
 
             getDomainId = clazz.createMemberFunction(group, "getDomainId", Visibility.PUBLIC);
@@ -49,8 +49,6 @@ public final class Boost {
     public final static Expression bind_4 = new Variable("boost::placeholders::_4", null, bindInc).asExpression();
     public final static Expression bind_5 = new Variable("boost::placeholders::_5", null, bindInc).asExpression();
 
-    public static final int MAX_BIND_PARAMS = 9;
-
     public static final CodeFile boostSignalInc = core.createInterfaceHeader("boost/signal.hpp");
     public static final Class boostConnection = new Class("signals::connection", NAMESPACE, boostSignalInc);
 
@@ -86,6 +84,13 @@ public final class Boost {
         return ret;
     }
 
+    public static Class unordered_multimap(final TypeUsage key, final TypeUsage value) {
+        final Class ret = new Class("unordered_multimap", NAMESPACE, unorderedMapInc);
+        ret.addTemplateSpecialisation(key);
+        ret.addTemplateSpecialisation(value);
+        return ret;
+    }
+
     private final static CodeFile unorderedSetInc = core.createInterfaceHeader("boost/unordered_set.hpp");
 
     public static Class unordered_set(final TypeUsage key) {
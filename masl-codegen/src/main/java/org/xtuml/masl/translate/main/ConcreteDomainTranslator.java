@@ -20,12 +20,12 @@ import org.xtuml.masl.translate.main.object.ConcreteObjectTranslator;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public abstract class ConcreteDomainTranslator extends org.xtuml.masl.translate.DomainTranslator {
 
-    private final Map<ObjectDeclaration, ConcreteObjectTranslator> objectTranslators = new HashMap<>();
+    private final Map<ObjectDeclaration, ConcreteObjectTranslator> objectTranslators = new LinkedHashMap<>();
 
     protected ConcreteDomainTranslator(final Domain domain) {
         super(domain);
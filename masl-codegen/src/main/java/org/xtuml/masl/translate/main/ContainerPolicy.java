@@ -0,0 +1,129 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.xtuml.masl.cppgen.Class;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Std;
+import org.xtuml.masl.cppgen.TypeUsage;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.translate.TranslationError;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The containers holding the instances of an object, its identifier lookups and
+ * indexes, its relationships and any primary key cache, as chosen by a
+ * container_policy pragma on the object, or failing that on its domain. Each
+ * policy corresponds to a policy class in swa/container_policy.hh, declared in
+ * a header of its own so that only the containers used are included. The default
+ * hash policy changes nothing: lookups and primary key caches are written out
+ * as the containers they have always used, and runtime templates taking a
+ * policy are left to their own defaults.
+ */
+public enum ContainerPolicy {
+    HASH("hash", "HashContainers", Architecture.hashContainersInc),
+    FLAT_HASH("flat_hash", "FlatHashContainers", Architecture.flatHashContainersInc),
+    SORTED_VECTOR("sorted_vector", "SortedVectorContainers", Architecture.sortedVectorContainersInc),
+    SMALL_VECTOR("small_vector", "SmallVectorContainers", Architecture.smallVectorContainersInc);
+
+    public static final String CONTAINER_POLICY_PRAGMA = "container_policy";
+
+    ContainerPolicy(final String pragmaValue, final String className, final CodeFile include) {
+        this.pragmaValue = pragmaValue;
+        this.className = className;
+        this.include = include;
+    }
+
+    /**
+     * @param object the object whose containers are wanted
+     * @return the policy named on the object, or on its domain, or the default
+     * policy if neither names one
+     */
+    public static ContainerPolicy getPolicy(final ObjectDeclaration object) {
+        // Cached, so that an unknown policy is only reported once per object
+        return policies.computeIfAbsent(object, ContainerPolicy::findPolicy);
+    }
+
+    private static ContainerPolicy findPolicy(final ObjectDeclaration object) {
+        for (final PragmaList pragmas : Arrays.asList(object.getDeclarationPragmas(),
+                                                      object.getDefinitionPragmas(),
+                                                      object.getDomain().getPragmas())) {
+            if (pragmas != null && pragmas.hasPragma(CONTAINER_POLICY_PRAGMA)) {
+                final String value = pragmas.getValue(CONTAINER_POLICY_PRAGMA);
+                for (final ContainerPolicy policy : values()) {
+                    if (policy.pragmaValue.equals(value)) {
+                        return policy;
+                    }
+                }
+                new TranslationError(TranslationError.Code.UnknownPragmaValue,
+                                     object,
+                                     object.getDomain().getName() + "::" + object.getName(),
+                                     value,
+                                     CONTAINER_POLICY_PRAGMA,
+                                     Arrays.stream(values())
+                                           .map(policy -> policy.pragmaValue)
+                                           .collect(Collectors.joining(", "))).report();
+            }
+        }
+        return HASH;
+    }
+
+    public boolean isDefault() {
+        return this == HASH;
+    }
+
+    /**
+     * @return the policy class to pass to runtime templates, or null for the
+     * default policy
+     */
+    public Class getPolicyClass() {
+        return isDefault() ? null : Architecture.containerPolicy(className, include);
+    }
+
+    public Class map(final TypeUsage key, final TypeUsage value) {
+        return isDefault() ? Boost.unordered_map(key, value) : getContainer("map", key, value);
+    }
+
+    public Class multimap(final TypeUsage key, final TypeUsage value) {
+        return isDefault() ? Boost.unordered_multimap(key, value) : getContainer("multimap", key, value);
+    }
+
+    /**
+     * @return a multimap sorted on its key, supporting lower_bound and
+     * upper_bound
+     */
+    public Class orderedMultimap(final TypeUsage key, final TypeUsage value) {
+        return isDefault() ? Std.multimap(key, value) : getContainer("ordered_multimap", key, value);
+    }
+
+    public Class set(final TypeUsage key) {
+        return isDefault() ? Boost.unordered_set(key) : getContainer("set", key);
+    }
+
+    private Class getContainer(final String name, final TypeUsage... params) {
+        final Class ret = Architecture.containerPolicy(className, include).referenceNestedType(name);
+        ret.addDeclaredIn(include);
+        for (final TypeUsage param : params) {
+            ret.addTemplateSpecialisation(param);
+        }
+        return ret;
+    }
+
+    private static final Map<ObjectDeclaration, ContainerPolicy> policies = new HashMap<>();
+
+    private final String pragmaValue;
+    private final String className;
+    private final CodeFile include;
+}
@@ -12,12 +12,12 @@ package org.xtuml.masl.translate.main;
 import org.xtuml.masl.cppgen.Namespace;
 import org.xtuml.masl.metamodel.domain.Domain;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class DomainNamespace {
 
-    static Map<Domain, Namespace> namespaces = new HashMap<>();
+    static Map<Domain, Namespace> namespaces = new LinkedHashMap<>();
 
     public static Namespace get(final Domain domain) {
         Namespace result = namespaces.get(domain);
@@ -12,6 +12,7 @@ package org.xtuml.masl.translate.main;
 import org.xtuml.masl.cppgen.Class;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.metamodel.common.ParameterDefinition;
+import org.xtuml.masl.metamodel.domain.Domain;
 import org.xtuml.masl.metamodel.domain.DomainService;
 import org.xtuml.masl.translate.main.code.CodeTranslator;
 
@@ -128,7 +129,10 @@ public class DomainServiceTranslator {
         addLocalServiceRegistration(file, function, getNamespace());
 
         if (service.getCode() != null) {
-            code = CodeTranslator.createTranslator(service.getCode(), scope);
+            code =
+                    domainTranslator.isReachable(service) ?
+                    CodeTranslator.createTranslator(service.getCode(), scope) :
+                    CodeTranslator.createUnreachableTranslator(service.getCode(), scope, service.getQualifiedName());
             function.getCode().appendStatement(code.getFullCode());
         }
     }
@@ -151,6 +155,21 @@ public class DomainServiceTranslator {
         return getInvocation(Arrays.asList(args));
     }
 
+    /**
+     * Finds the invocation to use for a call from action code in the given
+     * domain. Where the domain asks for direct calls and the service is not
+     * marked as overridable, a call from within the same domain is made
+     * straight to the implementation, as it must be linked in alongside the
+     * caller. Calls from other domains still go through the interceptor, as
+     * the implementation may be remote.
+     */
+    public Expression getInvocation(final Domain caller, final List<Expression> args) {
+        if (caller == service.getDomain() && domainTranslator.isDirectCall(service)) {
+            return function.asFunctionCall(args);
+        }
+        return getInvocation(args);
+    }
+
     public Expression getLocalInvocation(final List<Expression> args) {
         return getInvocation(new Function("callLocal"), args);
     }
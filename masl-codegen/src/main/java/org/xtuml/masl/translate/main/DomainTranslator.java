@@ -12,10 +12,14 @@ package org.xtuml.masl.translate.main;
 import org.xtuml.masl.cppgen.Class;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.cppgen.EnumerationType.Enumerator;
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.metamodel.common.Service;
 import org.xtuml.masl.metamodel.common.Visibility;
 import org.xtuml.masl.metamodel.domain.Domain;
 import org.xtuml.masl.metamodel.domain.DomainService;
 import org.xtuml.masl.metamodel.domain.DomainTerminator;
+import org.xtuml.masl.metamodel.domain.DomainTerminatorService;
 import org.xtuml.masl.metamodel.exception.ExceptionDeclaration;
 import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.metamodel.relationship.RelationshipDeclaration;
@@ -43,6 +47,35 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
     private static final String startupPragma = "startup";
     private static final String processListenerPragma = "process_listener";
 
+    /**
+     * Domain or object pragma requesting that definitions generated on behalf of
+     * action code (finds and conditional navigations) are each written to their
+     * own body file rather than the shared object files. An object level
+     * <code>action_files(false)</code> overrides the domain setting.
+     */
+    public static final String ACTION_FILES_PRAGMA = "action_files";
+
+    private static final int MAX_ACTION_FILE_NAME = 64;
+
+    public static final String EXPLICIT_INSTANTIATION_PRAGMA = "explicit_instantiation";
+
+    /**
+     * Domain pragma requesting that calls to domain services from within the
+     * domain go straight to the implementation rather than through the runtime
+     * interceptors. A domain library is built without knowing which of its
+     * terminator services a project binds its own implementation of, so those
+     * keep their overriders unless the terminator service itself has the
+     * pragma, in which case no project may bind it.
+     */
+    public static final String DIRECT_CALLS_PRAGMA = "direct_calls";
+
+    /**
+     * Service pragma keeping the runtime indirection for a service, so that it
+     * may still be replaced by a test harness or plugin when
+     * <code>direct_calls</code> is in force.
+     */
+    public static final String OVERRIDABLE_PRAGMA = "overridable";
+
     public static DomainTranslator getInstance(final Domain domain) {
         return getInstance(DomainTranslator.class, domain);
     }
@@ -117,6 +150,14 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
 
     @Override
     public void translate() {
+        if (reachability == null && domain.getPragmas().hasPragma(Reachability.DEAD_CODE_PRAGMA)) {
+            reachability = Reachability.forDomain(domain);
+            final FileGroup reportFiles = FileGroup.getFileGroup(domain.getName() + "_dead_code");
+            reachability.writeReport(buildSet.createTextFile(domain.getName() + "_dead_code.txt",
+                                                             reportFiles).getWriter());
+            buildSet.addFileGroup(reportFiles);
+        }
+
         getDomain.setReturnType(new TypeUsage(Architecture.domainClass, TypeUsage.Reference));
 
         final Variable
@@ -312,6 +353,40 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
         }
     }
 
+    /**
+     * Restricts the action code translated for the domain to that which can be
+     * reached from within the project being translated, in place of any
+     * analysis of the domain on its own.
+     */
+    void setReachability(final Reachability reachability) {
+        this.reachability = reachability;
+    }
+
+    /**
+     * @return false if the service or state can never be called, so its action
+     * code need not be translated
+     */
+    public boolean isReachable(final ASTNode element) {
+        return reachability == null || reachability.isReachable(element);
+    }
+
+    private Reachability reachability = null;
+
+    /**
+     * @return true if calls to the service may bypass the runtime interceptor
+     * or overrider and go straight to the implementation
+     */
+    public boolean isDirectCall(final Service service) {
+        if (service instanceof DomainTerminatorService) {
+            return isDirectCalls(service.getDeclarationPragmas());
+        }
+        return isDirectCalls(domain.getPragmas()) && !service.getDeclarationPragmas().hasPragma(OVERRIDABLE_PRAGMA);
+    }
+
+    private static boolean isDirectCalls(final PragmaList pragmas) {
+        return pragmas.hasPragma(DIRECT_CALLS_PRAGMA) && !"false".equals(pragmas.getValue(DIRECT_CALLS_PRAGMA));
+    }
+
     public RelationshipTranslator getRelationshipTranslator(final RelationshipDeclaration relationship) {
         return relationshipTranslators.get(relationship);
     }
@@ -426,7 +501,7 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
         return translator.getExceptionClass();
     }
 
-    private final HashMap<ExceptionDeclaration, ExceptionTranslator> exceptionTranslators = new HashMap<>();
+    private final HashMap<ExceptionDeclaration, ExceptionTranslator> exceptionTranslators = new LinkedHashMap<>();
 
     private void translateServiceCode() {
         for (final DomainService service : domain.getServices()) {
@@ -469,13 +544,13 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
         }
     }
 
-    private final Map<DomainService, DomainServiceTranslator> serviceTranslators = new HashMap<>();
+    private final Map<DomainService, DomainServiceTranslator> serviceTranslators = new LinkedHashMap<>();
 
-    private final Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new HashMap<>();
+    private final Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new LinkedHashMap<>();
 
-    private final Map<DomainTerminator, TerminatorTranslator> terminatorTranslators = new HashMap<>();
+    private final Map<DomainTerminator, TerminatorTranslator> terminatorTranslators = new LinkedHashMap<>();
 
-    private final Map<RelationshipDeclaration, RelationshipTranslator> relationshipTranslators = new HashMap<>();
+    private final Map<RelationshipDeclaration, RelationshipTranslator> relationshipTranslators = new LinkedHashMap<>();
 
     private final Function getDomain;
     private Function initialiseDomain;
@@ -550,4 +625,92 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
     public CodeFile getNativeStubs() {
         return nativeStubsFile;
     }
+
+    public boolean useActionFiles(final ObjectDeclaration object) {
+        if (object.getDeclarationPragmas().hasPragma(ACTION_FILES_PRAGMA)) {
+            return !"false".equals(object.getDeclarationPragmas().getValue(ACTION_FILES_PRAGMA));
+        }
+        return domain.getPragmas().hasPragma(ACTION_FILES_PRAGMA) &&
+               !"false".equals(domain.getPragmas().getValue(ACTION_FILES_PRAGMA));
+    }
+
+    /**
+     * Finds the body file that the definition of a function generated for action
+     * code should be added to. Unless action files are enabled for the object
+     * this is the shared file passed in, otherwise a new body file is created
+     * alongside it, named after the function. Long names are shortened with a
+     * hash of the full name so that the file name is stable from one run to the
+     * next regardless of what other finds the object has.
+     *
+     * @param object     the object the function belongs to
+     * @param library    the library containing the shared file
+     * @param sharedFile the file the definition would normally be added to
+     * @param sharedName the name the shared file was created with
+     * @param function   the function to be defined
+     * @return the file to add the definition to
+     */
+    public CodeFile getActionBodyFile(final ObjectDeclaration object,
+                                      final Library library,
+                                      final CodeFile sharedFile,
+                                      final String sharedName,
+                                      final Function function) {
+        if (!useActionFiles(object)) {
+            return sharedFile;
+        }
+        String name = function.getName();
+        if (name.length() > MAX_ACTION_FILE_NAME) {
+            name = name.substring(0, MAX_ACTION_FILE_NAME - 9) + "_" + String.format("%08x", name.hashCode());
+        }
+        final CodeFile actionFile = library.createBodyFile(sharedName + "_" + name);
+        actionFile.setSplitFrom(sharedFile);
+        return actionFile;
+    }
+
+    public boolean useExplicitInstantiation() {
+        return domain.getPragmas().hasPragma(EXPLICIT_INSTANTIATION_PRAGMA) &&
+               !"false".equals(domain.getPragmas().getValue(EXPLICIT_INSTANTIATION_PRAGMA));
+    }
+
+    /**
+     * Declares a template specialisation <code>extern</code> in a header and
+     * arranges for it to be explicitly instantiated, so that it is compiled once
+     * rather than in every file that includes the header. Each specialisation is
+     * only instantiated once in the domain, in the instantiation file of the
+     * first object to ask for it; later requests just add the extern declaration
+     * to their header. Does nothing unless explicit instantiation is enabled for
+     * the domain.
+     *
+     * @param specialisation        the template specialisation
+     * @param header                the header to declare it extern in
+     * @param library               the library to instantiate it in
+     * @param fileName              the name of the instantiation file for the
+     *                              object
+     * @param instantiationIncludes any extra files needed to instantiate every
+     *                              member of the template
+     */
+    public void addExplicitInstantiation(final TypeUsage specialisation,
+                                         final CodeFile header,
+                                         final Library library,
+                                         final String fileName,
+                                         final CodeFile... instantiationIncludes) {
+        if (!useExplicitInstantiation()) {
+            return;
+        }
+        TemplateInstantiation instantiation = instantiations.get(specialisation.getQualifiedName());
+        if (instantiation == null) {
+            instantiation = new TemplateInstantiation(specialisation);
+            for (final CodeFile include : instantiationIncludes) {
+                instantiation.addInstantiationInclude(include);
+            }
+            instantiations.put(specialisation.getQualifiedName(), instantiation);
+            instantiationFiles.computeIfAbsent(fileName, library::createBodyFile).addTemplateInstantiation(instantiation);
+        }
+        if (headerInstantiations.add(header.getFile().getPath() + " " + specialisation.getQualifiedName())) {
+            header.addExternTemplateDeclaration(instantiation);
+        }
+    }
+
+    private final Map<String, TemplateInstantiation> instantiations = new LinkedHashMap<>();
+    private final Map<String, CodeFile> instantiationFiles = new LinkedHashMap<>();
+    private final Set<String> headerInstantiations = new HashSet<>();
 }
@@ -18,10 +18,7 @@ import org.xtuml.masl.metamodel.type.EnumerateType;
 import org.xtuml.masl.metamodel.type.TypeDeclaration;
 import org.xtuml.masl.translate.main.expression.ExpressionTranslator;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 public class EnumerationTranslator {
 
@@ -469,7 +466,7 @@ public class EnumerationTranslator {
                                                                               index.asExpression())));
 
         final Function fromText = createFromText();
-        final Variable text = constructor.createParameter(new TypeUsage(Std.string, TypeUsage.ConstReference), "text");
+        final Variable text = constructor.createParameter(new TypeUsage(Std.string_view), "text");
         constructor.setInitialValue(index, fromText.asFunctionCall(text.asExpression()));
         constructor.setExplicit(true);
 
@@ -537,64 +534,54 @@ public class EnumerationTranslator {
 
     }
 
+    /**
+     * Creates the conversion from text to an index. Rather than searching a
+     * table, the text is switched on its length and then on the character which
+     * best tells apart the enumerates of that length, so that it is compared
+     * against at most a few names and nothing is allocated.
+     */
     private Function createFromText() {
-        final TypedefType
-                lookupTableType =
-                new TypedefType("TextLookupTable",
-                                new TypeUsage(Std.map(new TypeUsage(Std.string), new TypeUsage(indexEnum))));
-        clazz.addTypedef(textConversion, lookupTableType, Visibility.PRIVATE);
-
-        final Function
-                getLookupTable =
-                clazz.createStaticFunction(textConversion, "getLookupTable", Visibility.PRIVATE);
-        getLookupTable.setReturnType(new TypeUsage(lookupTableType));
-
-        final Variable lookup = new Variable(new TypeUsage(lookupTableType), "lookup");
-        getLookupTable.getCode().appendStatement(new VariableDefinitionStatement(lookup));
-        for (int i = 0; i < maslEnumerates.size(); ++i) {
-            final Expression
-                    index =
-                    new ArrayAccess(textLookupVar.asExpression(), indexEnumerators.get(i).asExpression());
-            final Expression
-                    mapEntry =
-                    lookupTableType.referenceNestedType("value_type").callConstructor(index,
-                                                                                      indexEnumerators.get(i).asExpression());
+        final Function fromText = clazz.createStaticFunction(textConversion, "fromText", Visibility.PRIVATE);
+        final Variable text = fromText.createParameter(new TypeUsage(Std.string_view), "text");
 
-            getLookupTable.getCode().appendExpression(new Function("insert").asFunctionCall(lookup.asExpression(),
-                                                                                            false,
-                                                                                            mapEntry));
+        final Map<Integer, List<Integer>> byLength = new TreeMap<>();
+        for (int i = 0; i < maslEnumerates.size(); ++i) {
+            byLength.computeIfAbsent(maslEnumerates.get(i).getName().length(), k -> new ArrayList<>()).add(i);
         }
-        getLookupTable.getCode().appendStatement(new ReturnStatement(lookup.asExpression()));
 
-        bodyFile.addFunctionDefinition(getLookupTable);
+        final List<CaseCondition> lengthCases = new ArrayList<>();
+        for (final Map.Entry<Integer, List<Integer>> lengthEntry : byLength.entrySet()) {
+            final int length = lengthEntry.getKey();
+            final List<Integer> items = lengthEntry.getValue();
+
+            final StatementGroup lengthCase = new StatementGroup();
+            if (items.size() == 1) {
+                addTextMatches(lengthCase, text.asExpression(), items, length);
+            } else {
+                final int position = getDiscriminatingPosition(items, length);
+                final Map<Character, List<Integer>> byChar = new TreeMap<>();
+                for (final int i : items) {
+                    byChar.computeIfAbsent(maslEnumerates.get(i).getName().charAt(position), k -> new ArrayList<>()).add(
+                            i);
+                }
+
+                final List<CaseCondition> charCases = new ArrayList<>();
+                for (final Map.Entry<Character, List<Integer>> charEntry : byChar.entrySet()) {
+                    final StatementGroup charCase = new StatementGroup();
+                    addTextMatches(charCase, text.asExpression(), charEntry.getValue(), length);
+                    charCase.appendStatement(new BreakStatement());
+                    charCases.add(new CaseCondition(Literal.createCharLiteral(charEntry.getKey()), charCase));
+                }
+                lengthCase.appendStatement(new SwitchStatement(new ArrayAccess(text.asExpression(),
+                                                                               new Literal(position)), charCases));
+            }
+            lengthCase.appendStatement(new BreakStatement());
+            lengthCases.add(new CaseCondition(new Literal(length), lengthCase));
+        }
 
-        final Function fromText = clazz.createStaticFunction(textConversion, "fromText", Visibility.PRIVATE);
-        final Variable text = fromText.createParameter(new TypeUsage(Std.string, TypeUsage.ConstReference), "text");
-
-        final Variable
-                lookupStatic =
-                new Variable(new TypeUsage(lookupTableType), "lookup", getLookupTable.asFunctionCall());
-        lookupStatic.setStatic(true);
-
-        fromText.getCode().appendStatement(new VariableDefinitionStatement(lookupStatic));
-
-        final Variable
-                pos =
-                new Variable(new TypeUsage(lookupTableType.referenceNestedType("const_iterator")),
-                             "pos",
-                             new Function("find").asFunctionCall(lookupStatic.asExpression(),
-                                                                 false,
-                                                                 text.asExpression()));
-        fromText.getCode().appendStatement(new VariableDefinitionStatement(pos));
-
-        fromText.getCode().appendStatement(new IfStatement(new BinaryExpression(pos.asExpression(),
-                                                                                BinaryOperator.EQUAL,
-                                                                                new Function("end").asFunctionCall(
-                                                                                        lookupStatic.asExpression(),
-                                                                                        false)), getRangeError()));
-
-        fromText.getCode().appendStatement(new ReturnStatement(new Variable("second").asMemberReference(pos.asExpression(),
-                                                                                                        true)));
+        fromText.getCode().appendStatement(new SwitchStatement(new Function("size").asFunctionCall(text.asExpression(),
+                                                                                                   false), lengthCases));
+        fromText.getCode().appendStatement(getRangeError());
         fromText.setReturnType(new TypeUsage(indexEnum));
 
         bodyFile.addFunctionDefinition(fromText);
@@ -602,6 +589,45 @@ public class EnumerationTranslator {
         return fromText;
     }
 
+    /**
+     * Adds a check of the text against the name of each of the given
+     * enumerates, all of the given length, returning the index of any match.
+     */
+    private void addTextMatches(final StatementGroup group,
+                                final Expression text,
+                                final List<Integer> items,
+                                final int length) {
+        for (final int i : items) {
+            final Expression enumerator = indexEnumerators.get(i).asExpression();
+            final Expression
+                    name =
+                    Std.string_view.callConstructor(new ArrayAccess(textLookupVar.asExpression(), enumerator),
+                                                    new Literal(length));
+            group.appendStatement(new IfStatement(new BinaryExpression(text, BinaryOperator.EQUAL, name),
+                                                  new ReturnStatement(enumerator)));
+        }
+    }
+
+    /**
+     * @return the position at which the names of the given enumerates, all of
+     * the given length, have the most different characters
+     */
+    private int getDiscriminatingPosition(final List<Integer> items, final int length) {
+        int best = 0;
+        int bestCount = 0;
+        for (int position = 0; position < length; ++position) {
+            final Set<Character> chars = new HashSet<>();
+            for (final int i : items) {
+                chars.add(maslEnumerates.get(i).getName().charAt(position));
+            }
+            if (chars.size() > bestCount) {
+                best = position;
+                bestCount = chars.size();
+            }
+        }
+        return best;
+    }
+
     private Function createFromValue() {
 
         final Function fromValue = clazz.createStaticFunction(valueConversion, "fromValue", Visibility.PRIVATE);
@@ -635,9 +661,9 @@ public class EnumerationTranslator {
     final private DeclarationGroup enumConstants;
 
     final private DeclarationGroup enumeration;
-    final private Map<EnumerateItem, Expression> enumeratorValues = new HashMap<>();
-    final private Map<EnumerateItem, Expression> enumeratorIndexes = new HashMap<>();
-    final private Map<EnumerateItem, Expression> enumerators = new HashMap<>();
+    final private Map<EnumerateItem, Expression> enumeratorValues = new LinkedHashMap<>();
+    final private Map<EnumerateItem, Expression> enumeratorIndexes = new LinkedHashMap<>();
+    final private Map<EnumerateItem, Expression> enumerators = new LinkedHashMap<>();
 
     private Function getIndex;
     private Function setIndex;
@@ -15,6 +15,7 @@ import org.xtuml.masl.metamodel.project.Project;
 import org.xtuml.masl.metamodel.project.ProjectDomain;
 import org.xtuml.masl.metamodel.project.ProjectTerminator;
 import org.xtuml.masl.metamodel.project.ProjectTerminatorService;
+import org.xtuml.masl.translate.TranslationError;
 import org.xtuml.masl.translate.main.code.CodeTranslator;
 
 import java.util.ArrayList;
@@ -63,6 +64,14 @@ public class ProjectTerminatorServiceTranslator {
             scope.addParameter(param, paramTrans.getVariable().asExpression());
         }
 
+        if (DomainTranslator.getInstance(domain.getDomain()).isDirectCall(service.getDomainTerminatorService())) {
+            new TranslationError(TranslationError.Code.BindingNotCalled,
+                                 service,
+                                 service.getQualifiedName(),
+                                 service.getDomainTerminatorService().getQualifiedName(),
+                                 DomainTranslator.DIRECT_CALLS_PRAGMA).report();
+        }
+
         // Register the project terminator with the domain
         final Function
                 overrider =
@@ -104,7 +113,10 @@ public class ProjectTerminatorServiceTranslator {
         // Code may be null if no implementation file was provided, eg for native
         // functions. In this case leave definition to third party library.
         if (service.getCode() != null) {
-            code = CodeTranslator.createTranslator(service.getCode(), scope);
+            code =
+                    projectTranslator.isReachable(service.getDomainTerminatorService()) ?
+                    CodeTranslator.createTranslator(service.getCode(), scope) :
+                    CodeTranslator.createUnreachableTranslator(service.getCode(), scope, service.getQualifiedName());
             function.getCode().appendStatement(code.getFullCode());
         }
 
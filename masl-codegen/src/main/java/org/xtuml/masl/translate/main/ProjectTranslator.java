@@ -11,6 +11,7 @@ package org.xtuml.masl.translate.main;
 
 import com.google.common.base.Suppliers;
 import org.xtuml.masl.cppgen.*;
+import org.xtuml.masl.metamodel.ASTNode;
 import org.xtuml.masl.metamodel.domain.Domain;
 import org.xtuml.masl.metamodel.project.Project;
 import org.xtuml.masl.metamodel.project.ProjectDomain;
@@ -19,8 +20,9 @@ import org.xtuml.masl.metamodel.project.ProjectTerminatorService;
 import org.xtuml.masl.translate.Alias;
 import org.xtuml.masl.translate.Default;
 import org.xtuml.masl.translate.building.BuildSet;
+import org.xtuml.masl.translate.building.FileGroup;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,6 +33,12 @@ import java.util.Set;
  * <p>
  * Associated with each project is a set of terminator implementations that
  * should override the default terminator implementation.
+ * <p>
+ * With the <code>dead_code_elimination</code> pragma on the project, the action
+ * code of all the domains in the project is analysed together, and a report of
+ * the services, states, events and objects that nothing in the project can
+ * reach is written alongside the build files. Terminator code bound to an
+ * unreachable terminator service is left out. See {@link Reachability}.
  */
 @Alias("Main")
 @Default
@@ -38,7 +46,7 @@ public class ProjectTranslator extends org.xtuml.masl.translate.ProjectTranslato
 
     private final Map<ProjectTerminatorService, ProjectTerminatorServiceTranslator>
             terminatorServices =
-            new HashMap<>();
+            new LinkedHashMap<>();
 
     /**
      * The class uses the singleton pattern to only allow one instance of the
@@ -103,6 +111,14 @@ public class ProjectTranslator extends org.xtuml.masl.translate.ProjectTranslato
      */
     @Override
     public void translate() {
+        if (project.getPragmas().hasPragma(Reachability.DEAD_CODE_PRAGMA)) {
+            reachability = Reachability.forProject(project);
+            final FileGroup reportFiles = FileGroup.getFileGroup(project.getProjectName() + "_dead_code");
+            reachability.writeReport(buildSet.createTextFile(project.getProjectName() + "_dead_code.txt",
+                                                             reportFiles).getWriter());
+            buildSet.addFileGroup(reportFiles);
+        }
+
         translateTerminatorCode();
 
         for (final Domain interfaceDomain : interfaceDomains) {
@@ -119,6 +135,7 @@ public class ProjectTranslator extends org.xtuml.masl.translate.ProjectTranslato
     private void translateTerminatorCode() {
         for (final ProjectDomain domain : project.getDomains()) {
             final DomainTranslator domainTranslator = DomainTranslator.getInstance(domain.getDomain());
+            domainTranslator.setReachability(reachability);
             domainTranslator.translate();
 
             for (final ProjectTerminator terminator : domain.getTerminators()) {
@@ -136,6 +153,16 @@ public class ProjectTranslator extends org.xtuml.masl.translate.ProjectTranslato
 
     }
 
+    /**
+     * @return false if the project has the <code>dead_code_elimination</code>
+     * pragma and nothing in the project can ever use the element
+     */
+    public boolean isReachable(final ASTNode element) {
+        return reachability == null || reachability.isReachable(element);
+    }
+
+    private Reachability reachability = null;
+
     @Override
     public Project getProject() {
         return project;
@@ -0,0 +1,375 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.metamodel.common.Service;
+import org.xtuml.masl.metamodel.common.Visibility;
+import org.xtuml.masl.metamodel.domain.Domain;
+import org.xtuml.masl.metamodel.domain.DomainService;
+import org.xtuml.masl.metamodel.domain.DomainTerminator;
+import org.xtuml.masl.metamodel.domain.DomainTerminatorService;
+import org.xtuml.masl.metamodel.expression.*;
+import org.xtuml.masl.metamodel.object.AttributeDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectService;
+import org.xtuml.masl.metamodel.project.Project;
+import org.xtuml.masl.metamodel.project.ProjectDomain;
+import org.xtuml.masl.metamodel.project.ProjectTerminator;
+import org.xtuml.masl.metamodel.project.ProjectTerminatorService;
+import org.xtuml.masl.metamodel.statemodel.EventDeclaration;
+import org.xtuml.masl.metamodel.statemodel.State;
+import org.xtuml.masl.metamodel.statemodel.TransitionOption;
+import org.xtuml.masl.metamodel.statemodel.TransitionRow;
+import org.xtuml.masl.metamodel.statemodel.TransitionTable;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Works out which services, states, events and objects in a set of domains can
+ * ever be used, starting from the places the architecture calls in to them and
+ * following every invocation, generate and create in the action code reached.
+ * <p>
+ * The starting points are scenarios, externals, services registered as signal
+ * handlers, startup services or process listeners, and anything marked with
+ * the <code>entry_point</code> pragma. The pragma is for things only reached
+ * through the inspector or from another process, and may be given on a domain,
+ * object, service, state or event. On a domain or object it keeps everything
+ * within it. When a single domain is analysed, its public services are also
+ * starting points, as they may be called by any domain it is built in to a
+ * project with. When a whole project is analysed, a public service is only
+ * reached if a domain in the project calls it.
+ * <p>
+ * A terminator service reaches the code bound to it in the project, and a
+ * deferred object service reaches the services it is deferred to. A generated
+ * event reaches every state that it causes a transition in to. Native services
+ * can do anything at all, so reaching one keeps the whole of its domain, and
+ * reaching native terminator code keeps every domain analysed.
+ */
+public class Reachability {
+
+    /**
+     * Domain or project pragma turning on the removal of unreachable code.
+     */
+    public static final String DEAD_CODE_PRAGMA = "dead_code_elimination";
+
+    /**
+     * Pragma marking something as used from outside the domains analysed.
+     */
+    public static final String ENTRY_POINT_PRAGMA = "entry_point";
+
+    private static final List<String>
+            ARCHITECTURE_ENTRY_PRAGMAS =
+            List.of("signal_handler", "startup", "process_listener");
+
+    /**
+     * Analyses a domain on its own, for when it is built separately from any
+     * project.
+     */
+    public static Reachability forDomain(final Domain domain) {
+        return new Reachability(domain.getName(), List.of(domain), Collections.emptyList(), true);
+    }
+
+    /**
+     * Analyses all the domains in a project together with the terminator code
+     * bound in the project. The action code of the domains must have been
+     * parsed.
+     */
+    public static Reachability forProject(final Project project) {
+        final List<Domain> domains = new ArrayList<>();
+        final List<ProjectTerminatorService> bound = new ArrayList<>();
+        for (final ProjectDomain projectDomain : project.getDomains()) {
+            domains.add(projectDomain.getDomain());
+            for (final ProjectTerminator terminator : projectDomain.getTerminators()) {
+                bound.addAll(terminator.getServices());
+            }
+        }
+        return new Reachability(project.getProjectName(), domains, bound, false);
+    }
+
+    private Reachability(final String name,
+                         final List<Domain> domains,
+                         final List<ProjectTerminatorService> bound,
+                         final boolean publicServicesReachable) {
+        this.name = name;
+        this.domains = domains;
+        this.publicServicesReachable = publicServicesReachable;
+        for (final ProjectTerminatorService service : bound) {
+            bindings.computeIfAbsent(service.getDomainTerminatorService(), k -> new ArrayList<>()).add(service);
+        }
+
+        for (final Domain domain : domains) {
+            addRoots(domain);
+        }
+
+        while (!pending.isEmpty()) {
+            follow(pending.removeFirst());
+        }
+    }
+
+    /**
+     * @return true unless the service or state can never be executed, or the
+     * event never generated, or the object never created
+     */
+    public boolean isReachable(final ASTNode element) {
+        return reachable.contains(element);
+    }
+
+    /**
+     * Writes out the services and states that can never be executed, and the
+     * events and objects that are never used.
+     */
+    public void writeReport(final Writer writer) {
+        final List<String> services = new ArrayList<>();
+        final List<String> states = new ArrayList<>();
+        final List<String> events = new ArrayList<>();
+        final List<String> objects = new ArrayList<>();
+
+        for (final Domain domain : domains) {
+            for (final DomainService service : domain.getServices()) {
+                addIfRemoved(services, service, service.getCode());
+            }
+            for (final DomainTerminator terminator : domain.getTerminators()) {
+                for (final DomainTerminatorService service : terminator.getServices()) {
+                    addIfRemoved(services, service, service.getCode());
+                    for (final ProjectTerminatorService binding : bindings.getOrDefault(service,
+                                                                                          Collections.emptyList())) {
+                        if (!isReachable(service) && binding.getCode() != null) {
+                            services.add(name + "::" + binding.getQualifiedName());
+                        }
+                    }
+                }
+            }
+            for (final ObjectDeclaration object : domain.getObjects()) {
+                for (final ObjectService service : object.getServices()) {
+                    addIfRemoved(services, service, service.getCode());
+                }
+                for (final State state : object.getStates()) {
+                    if (!isReachable(state) && state.getCode() != null) {
+                        states.add(state.getQualifiedName());
+                    }
+                }
+                for (final EventDeclaration event : object.getEvents()) {
+                    if (!isReachable(event)) {
+                        events.add(domain.getName() + "::" + object.getName() + "." + event.getName());
+                    }
+                }
+                if (!isReachable(object)) {
+                    objects.add(domain.getName() + "::" + object.getName());
+                }
+            }
+        }
+
+        final PrintWriter out = new PrintWriter(writer);
+        out.println("Dead code report for " + name);
+        writeSection(out, "Unreachable services", services);
+        writeSection(out, "Unreachable states", states);
+        writeSection(out, "Events never generated", events);
+        writeSection(out, "Objects never created", objects);
+        out.flush();
+    }
+
+    private void addIfRemoved(final List<String> report, final Service service, final CodeBlock code) {
+        if (!isReachable(service) && code != null) {
+            report.add(service.getQualifiedName());
+        }
+    }
+
+    private static void writeSection(final PrintWriter out, final String title, final List<String> names) {
+        out.println();
+        out.println(title + " (" + names.size() + ")");
+        names.forEach(name -> out.println("    " + name));
+    }
+
+    private void addRoots(final Domain domain) {
+        if (domain.getPragmas().hasPragma(ENTRY_POINT_PRAGMA)) {
+            addDomain(domain);
+            return;
+        }
+
+        for (final DomainService service : domain.getServices()) {
+            if (service.isScenario() ||
+                service.isExternal() ||
+                (publicServicesReachable && service.getVisibility() == Visibility.PUBLIC) ||
+                isEntryPoint(service.getDeclarationPragmas()) ||
+                isEntryPoint(service.getDefinitionPragmas()) ||
+                ARCHITECTURE_ENTRY_PRAGMAS.stream().anyMatch(service.getDeclarationPragmas()::hasPragma)) {
+                add(service);
+            }
+        }
+        for (final DomainTerminator terminator : domain.getTerminators()) {
+            for (final DomainTerminatorService service : terminator.getServices()) {
+                if (isEntryPoint(service.getDeclarationPragmas()) || isEntryPoint(service.getDefinitionPragmas())) {
+                    add(service);
+                }
+            }
+        }
+        for (final ObjectDeclaration object : domain.getObjects()) {
+            if (isEntryPoint(object.getDeclarationPragmas()) || isEntryPoint(object.getDefinitionPragmas())) {
+                addObject(object);
+                continue;
+            }
+            for (final ObjectService service : object.getServices()) {
+                if (isEntryPoint(service.getDeclarationPragmas()) || isEntryPoint(service.getDefinitionPragmas())) {
+                    add(service);
+                }
+            }
+            for (final State state : object.getStates()) {
+                if (isEntryPoint(state.getDeclarationPragmas()) || isEntryPoint(state.getDefinitionPragmas())) {
+                    add(state);
+                }
+            }
+            for (final EventDeclaration event : object.getEvents()) {
+                if (isEntryPoint(event.getPragmas())) {
+                    add(event);
+                }
+            }
+            for (final AttributeDeclaration attribute : object.getAttributes()) {
+                scan(attribute.getDefault());
+            }
+        }
+    }
+
+    private static boolean isEntryPoint(final PragmaList pragmas) {
+        return pragmas != null && pragmas.hasPragma(ENTRY_POINT_PRAGMA);
+    }
+
+    private void addDomain(final Domain domain) {
+        if (!domains.contains(domain) || !keptDomains.add(domain)) {
+            return;
+        }
+        domain.getServices().forEach(this::add);
+        for (final DomainTerminator terminator : domain.getTerminators()) {
+            terminator.getServices().forEach(this::add);
+        }
+        for (final ObjectDeclaration object : domain.getObjects()) {
+            addObject(object);
+            for (final AttributeDeclaration attribute : object.getAttributes()) {
+                scan(attribute.getDefault());
+            }
+        }
+    }
+
+    private void addObject(final ObjectDeclaration object) {
+        add(object);
+        object.getServices().forEach(this::add);
+        object.getStates().forEach(this::add);
+        object.getEvents().forEach(this::add);
+    }
+
+    private void add(final ASTNode element) {
+        if (element != null && reachable.add(element)) {
+            pending.add(element);
+        }
+    }
+
+    private void follow(final ASTNode element) {
+        if (element instanceof DomainTerminatorService service) {
+            final List<ProjectTerminatorService>
+                    bound =
+                    bindings.getOrDefault(service, Collections.emptyList());
+            for (final ProjectTerminatorService binding : bound) {
+                if (binding.getCode() == null) {
+                    // Native bindings are free to call in to any domain
+                    domains.forEach(this::addDomain);
+                } else {
+                    scan(binding.getCode());
+                }
+            }
+            if (bound.isEmpty() && service.getCode() == null) {
+                // Terminator code from outside the domains analysed can only
+                // call public services, which are already reachable if it is
+                // built separately
+                if (!publicServicesReachable) {
+                    domains.forEach(this::addDomain);
+                }
+            } else {
+                scan(service.getCode());
+            }
+        } else if (element instanceof ObjectService service) {
+            if (service.isDeferred()) {
+                service.getDeferredTo().forEach(this::add);
+            } else if (service.getCode() == null) {
+                addDomain(service.getParentObject().getDomain());
+            } else {
+                scan(service.getCode());
+            }
+        } else if (element instanceof DomainService service) {
+            if (service.getCode() == null) {
+                addDomain(service.getDomain());
+            } else {
+                scan(service.getCode());
+            }
+        } else if (element instanceof State state) {
+            scan(state.getCode());
+        } else if (element instanceof EventDeclaration event) {
+            for (final ObjectDeclaration object : event.getParentObject().getDomain().getObjects()) {
+                addDestinations(object.getStateMachine(), event);
+                addDestinations(object.getAssignerStateMachine(), event);
+            }
+        }
+    }
+
+    private void addDestinations(final TransitionTable table, final EventDeclaration event) {
+        if (table == null) {
+            return;
+        }
+        for (final TransitionRow row : table.getRows()) {
+            for (final TransitionOption option : row.getOptions()) {
+                if (option.getEvent() == event) {
+                    add(option.getDestinationState());
+                }
+            }
+        }
+    }
+
+    private void scan(final ASTNode node) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof DomainServiceInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof DomainFunctionInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof TerminatorServiceInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof TerminatorFunctionInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof ObjectServiceInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof ObjectFunctionInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof InstanceServiceInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof InstanceFunctionInvocation invocation) {
+            add(invocation.getService());
+        } else if (node instanceof GenerateStatement generate) {
+            add(generate.getEvent());
+        } else if (node instanceof EventExpression event) {
+            add(event.getEvent());
+        } else if (node instanceof CreateExpression create) {
+            add(create.getObject());
+        }
+        node.children().forEach(this::scan);
+    }
+
+    private final String name;
+    private final List<Domain> domains;
+    private final boolean publicServicesReachable;
+    private final Map<DomainTerminatorService, List<ProjectTerminatorService>> bindings = new HashMap<>();
+    private final Set<ASTNode> reachable = new LinkedHashSet<>();
+    private final Set<Domain> keptDomains = new HashSet<>();
+    private final Deque<ASTNode> pending = new ArrayDeque<>();
+
+}
@@ -10,8 +10,13 @@
 package org.xtuml.masl.translate.main;
 
 import org.xtuml.masl.cppgen.Expression;
+import org.xtuml.masl.cppgen.Literal;
+import org.xtuml.masl.cppgen.StatementGroup;
+import org.xtuml.masl.cppgen.TypeUsage;
+import org.xtuml.masl.cppgen.Variable;
 import org.xtuml.masl.metamodel.code.VariableDefinition;
 import org.xtuml.masl.metamodel.common.ParameterDefinition;
+import org.xtuml.masl.metamodel.domain.Domain;
 import org.xtuml.masl.metamodel.domain.DomainService;
 import org.xtuml.masl.metamodel.domain.DomainTerminatorService;
 import org.xtuml.masl.metamodel.expression.FindParameterExpression;
@@ -20,7 +25,8 @@ import org.xtuml.masl.metamodel.project.ProjectTerminatorService;
 import org.xtuml.masl.metamodel.statemodel.State;
 import org.xtuml.masl.translate.main.object.ObjectTranslator;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public final class Scope {
@@ -86,9 +92,78 @@ public final class Scope {
         return par;
     }
 
-    private final Map<VariableDefinition, Expression> variables = new HashMap<>();
-    private final Map<ParameterDefinition, Expression> parameters = new HashMap<>();
-    private final Map<FindParameterExpression, Expression> findParameters = new HashMap<>();
+    /**
+     * Substitutes a translation for any later translation of the same masl
+     * expression, for example a variable holding a value already evaluated
+     * before a loop it is invariant in, or a move from a variable that is not
+     * used again. Expressions are matched by identity, so equal expressions
+     * elsewhere in the code are not affected.
+     */
+    public void addHoistedExpression(final org.xtuml.masl.metamodel.expression.Expression maslExpression,
+                                     final Expression expression) {
+        hoistedExpressions.put(maslExpression, expression);
+    }
+
+    public Expression resolveHoistedExpression(final org.xtuml.masl.metamodel.expression.Expression maslExpression) {
+        Expression hoisted = hoistedExpressions.get(maslExpression);
+        if (hoisted == null && parentScope != null) {
+            hoisted = parentScope.resolveHoistedExpression(maslExpression);
+        }
+        return hoisted;
+    }
+
+    /**
+     * @return a name for a variable to hold a hoisted expression, which does not
+     * hide any other such variable in this scope or its parents
+     */
+    public String getHoistedVariableName(final String prefix) {
+        return prefix + (getHoistedVariableCount() + ++hoistedVariables);
+    }
+
+    private int getHoistedVariableCount() {
+        return parentScope == null ? 0 : parentScope.getHoistedVariableCount() + parentScope.hoistedVariables;
+    }
+
+    /**
+     * Makes this scope define any string constants that translations within it
+     * ask for as function-local static constants in the supplied statements, so
+     * that each is only constructed once however often the code runs. Intended
+     * for the outermost scope of an action.
+     */
+    public void setConstantDefinitions(final StatementGroup definitions) {
+        constantDefinitions = definitions;
+    }
+
+    /**
+     * @return a static constant holding the string, shared by every request for
+     * the same string in the action, or null if no enclosing scope defines
+     * constants
+     */
+    public Expression getStringConstant(final String value) {
+        if (constantDefinitions == null) {
+            return parentScope == null ? null : parentScope.getStringConstant(value);
+        }
+        return stringConstants.computeIfAbsent(value, v -> {
+            final Variable
+                    constant =
+                    new Variable(new TypeUsage(Architecture.stringClass, TypeUsage.Const),
+                                 "constant" + (stringConstants.size() + 1),
+                                 Architecture.stringClass.callConstructor(Literal.createStringLiteral(v)));
+            constant.setStatic(true);
+            constantDefinitions.appendStatement(constant.asStatement());
+            return constant.asExpression();
+        });
+    }
+
+    private final Map<VariableDefinition, Expression> variables = new LinkedHashMap<>();
+    private final Map<ParameterDefinition, Expression> parameters = new LinkedHashMap<>();
+    private final Map<FindParameterExpression, Expression> findParameters = new LinkedHashMap<>();
+    private final Map<org.xtuml.masl.metamodel.expression.Expression, Expression>
+            hoistedExpressions =
+            new IdentityHashMap<>();
+    private int hoistedVariables = 0;
+    private StatementGroup constantDefinitions = null;
+    private final Map<String, Expression> stringConstants = new LinkedHashMap<>();
 
     public void setObjectService(final ObjectService service) {
         objectService = service;
@@ -165,4 +240,24 @@ public final class Scope {
 
     private State state;
 
+    /**
+     * @return the domain whose action code is being translated, or null for a
+     * project terminator service
+     */
+    public Domain getDomain() {
+        if (getDomainService() != null) {
+            return getDomainService().getDomain();
+        } else if (getTerminatorService() != null) {
+            return getTerminatorService().getTerminator().getDomain();
+        } else if (getObjectService() != null) {
+            return getObjectService().getParentObject().getDomain();
+        } else if (getState() != null) {
+            return getState().getParentObject().getDomain();
+        } else if (getParentObject() != null) {
+            return getParentObject().getObjectDeclaration().getDomain();
+        } else {
+            return null;
+        }
+    }
+
 }
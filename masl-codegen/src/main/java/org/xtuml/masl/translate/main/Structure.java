@@ -608,15 +608,15 @@ public class Structure {
     private final CodeFile bodyFile;
     private final Class clazz;
     private final DeclarationGroup constructors;
-    private final Map<StructureElement, Function> getterFunctions = new HashMap<>();
+    private final Map<StructureElement, Function> getterFunctions = new LinkedHashMap<>();
     private final DeclarationGroup getters;
     private final CodeFile headerFile;
     private final DeclarationGroup members;
 
-    private final Map<StructureElement, Variable> memberVariables = new HashMap<>();
+    private final Map<StructureElement, Variable> memberVariables = new LinkedHashMap<>();
     private final String name;
 
-    private final Map<StructureElement, Function> setterFunctions = new HashMap<>();
+    private final Map<StructureElement, Function> setterFunctions = new LinkedHashMap<>();
     private final DeclarationGroup setters;
     private final StructureType structure;
     private final TypeUsage type;
@@ -79,11 +79,17 @@ public class TerminatorServiceTranslator {
         terminatorTranslator.getConstructor().setInitialValue(overrider, domainFunction.asFunctionPointer());
         final Expression overrideMember = overrider.asMemberReference(terminatorTranslator.getGetInstance(), false);
 
-        // Add main function to forward to the override member
-        final Expression overrideCall = new FunctionObjectCall(
-                new Function("getFunction").asFunctionCall(overrideMember, false),
-                forwardArgs);
-        function.getCode().appendStatement(new ReturnStatement(overrideCall));
+        // Add main function to forward to the override member, or straight to
+        // the domain definition if overrides are not wanted
+        final Expression forwardCall;
+        if (domainTranslator.isDirectCall(service)) {
+            forwardCall = domainFunction.asFunctionCall(forwardArgs);
+        } else {
+            forwardCall =
+                    new FunctionObjectCall(new Function("getFunction").asFunctionCall(overrideMember, false),
+                                           forwardArgs);
+        }
+        function.getCode().appendStatement(new ReturnStatement(forwardCall));
         bodyFile.addFunctionDefinition(function);
 
         // Add override registration function
@@ -148,7 +154,10 @@ public class TerminatorServiceTranslator {
         // Code may be null if no implementation file was provided, eg for native
         // functions. In this case leave definition to third party library.
         if (service.getCode() != null) {
-            code = CodeTranslator.createTranslator(service.getCode(), scope);
+            code =
+                    domainTranslator.isReachable(service) ?
+                    CodeTranslator.createTranslator(service.getCode(), scope) :
+                    CodeTranslator.createUnreachableTranslator(service.getCode(), scope, service.getQualifiedName());
             domainFunction.getCode().appendStatement(code.getFullCode());
         }
     }
@@ -15,7 +15,7 @@ import org.xtuml.masl.cppgen.EnumerationType.Enumerator;
 import org.xtuml.masl.metamodel.domain.DomainTerminator;
 import org.xtuml.masl.metamodel.domain.DomainTerminatorService;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class TerminatorTranslator {
@@ -120,7 +120,7 @@ public class TerminatorTranslator {
         return serviceTranslators.get(service);
     }
 
-    private final Map<DomainTerminatorService, TerminatorServiceTranslator> serviceTranslators = new HashMap<>();
+    private final Map<DomainTerminatorService, TerminatorServiceTranslator> serviceTranslators = new LinkedHashMap<>();
     private final DomainTranslator domainTranslator;
     private final DomainTerminator terminator;
 
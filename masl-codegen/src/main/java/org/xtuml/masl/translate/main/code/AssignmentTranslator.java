@@ -11,8 +11,11 @@ package org.xtuml.masl.translate.main.code;
 
 import org.xtuml.masl.cppgen.Expression;
 import org.xtuml.masl.cppgen.ExpressionStatement;
+import org.xtuml.masl.cppgen.Std;
 import org.xtuml.masl.metamodel.code.AssignmentStatement;
+import org.xtuml.masl.metamodel.expression.VariableNameExpression;
 import org.xtuml.masl.translate.main.Scope;
+import org.xtuml.masl.translate.main.Types;
 import org.xtuml.masl.translate.main.expression.ExpressionTranslator;
 
 public class AssignmentTranslator extends CodeTranslator {
@@ -22,6 +25,14 @@ public class AssignmentTranslator extends CodeTranslator {
                                    final CodeTranslator parentTranslator) {
         super(assignment, parentScope, parentTranslator);
 
+        // Move rather than copy any variable that is not used again
+        for (final VariableNameExpression lastUse : getLastUses().getLastUses(assignment)) {
+            if (Types.getInstance().getType(lastUse.getType()).preferPassByReference()) {
+                getScope().addHoistedExpression(lastUse,
+                                                Std.move(getScope().resolveVariable(lastUse.getVariable())));
+            }
+        }
+
         rhsTranslator =
                 ExpressionTranslator.createTranslator(assignment.getValue(), getScope(), assignment.getTarget());
         final Expression rhs = rhsTranslator.getReadExpression();
@@ -39,11 +39,7 @@ public class CaseTranslator extends CodeTranslator {
         for (final org.xtuml.masl.metamodel.code.CaseStatement.Alternative branch : maslCase.getAlternatives()) {
 
             final CodeBlock caseCode = new CodeBlock();
-            for (final org.xtuml.masl.metamodel.code.Statement maslStatement : branch.getStatements()) {
-                final CodeTranslator translator = createChildTranslator(maslStatement);
-                final CodeBlock translation = translator.getFullCode();
-                caseCode.appendStatement(translation);
-            }
+            caseCode.appendStatement(translateStatements(branch.getStatements()));
 
             if (branch.getConditions() == null) {
                 defaultStatement = caseCode;
@@ -39,9 +39,7 @@ public class CodeBlockTranslator extends CodeTranslator {
             variableDefs.appendStatement(defTrans.getFullCode());
         }
 
-        for (final org.xtuml.masl.metamodel.code.Statement maslStatement : block.getStatements()) {
-            childStatements.appendStatement(createChildTranslator(maslStatement).getFullCode());
-        }
+        childStatements.appendStatement(translateStatements(block.getStatements()));
 
         final List<TryCatchBlock.CatchBlock> catchBlocks = new ArrayList<>();
         for (final ExceptionHandler handler : block.getExceptionHandlers()) {
@@ -81,9 +79,7 @@ public class CodeBlockTranslator extends CodeTranslator {
                 codeBlock.appendStatement(new VariableDefinitionStatement(messageVar));
             }
 
-            for (final org.xtuml.masl.metamodel.code.Statement maslStatement : handler.getCode()) {
-                codeBlock.appendStatement(createChildTranslator(maslStatement).getFullCode());
-            }
+            codeBlock.appendStatement(translateStatements(handler.getCode()));
             codeBlock.appendStatement(postamble);
 
             final ExceptionReference exception = handler.getException();
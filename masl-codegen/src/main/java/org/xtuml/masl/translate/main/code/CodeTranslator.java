@@ -12,8 +12,13 @@ package org.xtuml.masl.translate.main.code;
 import org.xtuml.masl.cppgen.CodeBlock;
 import org.xtuml.masl.cppgen.Comment;
 import org.xtuml.masl.cppgen.StatementGroup;
+import org.xtuml.masl.cppgen.Variable;
+import org.xtuml.masl.metamodel.ASTNode;
 import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.expression.Expression;
 import org.xtuml.masl.translate.main.Scope;
+import org.xtuml.masl.translate.main.Types;
+import org.xtuml.masl.translate.main.expression.ExpressionTranslator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +30,18 @@ public abstract class CodeTranslator {
         return createTranslator(statement, parentScope, null);
     }
 
+    /**
+     * Creates a translator for the code of an action that can never be called,
+     * which leaves the code untranslated.
+     *
+     * @param name the name of the action, for the error raised if it is called
+     */
+    public static CodeTranslator createUnreachableTranslator(final org.xtuml.masl.metamodel.code.CodeBlock code,
+                                                             final Scope parentScope,
+                                                             final String name) {
+        return new UnreachableCodeTranslator(code, parentScope, name);
+    }
+
     private static CodeTranslator createTranslator(final org.xtuml.masl.metamodel.code.Statement statement,
                                                    final Scope parentScope,
                                                    final CodeTranslator parentTranslator) {
@@ -95,6 +112,9 @@ public abstract class CodeTranslator {
         this.maslStatement = maslStatement;
         this.parentTranslator = parentTranslator;
         scope = new Scope(parentScope);
+        if (parentTranslator == null) {
+            scope.setConstantDefinitions(preamble);
+        }
         fullCode = new CodeBlock(Comment.createComment(maslStatement.toAbbreviatedString(), false));
 
         fullCode.appendStatement(preamble);
@@ -135,6 +155,71 @@ public abstract class CodeTranslator {
 
     private final CodeTranslator parentTranslator;
 
+    /**
+     * @return where the local variables of the action this code is part of are
+     * last used
+     */
+    LastUses getLastUses() {
+        if (parentTranslator != null) {
+            return parentTranslator.getLastUses();
+        }
+        if (lastUses == null) {
+            lastUses = new LastUses(maslStatement);
+        }
+        return lastUses;
+    }
+
+    private LastUses lastUses = null;
+
+    /**
+     * Evaluates the finds and navigations in a loop that do not change from one
+     * iteration to the next into variables before the loop, and arranges for
+     * their translations within the loop to use the variables instead. Must be
+     * called before anything is added to the scope or code for the loop itself.
+     *
+     * @param loopBody the parts of the loop evaluated on every iteration
+     */
+    void hoistLoopInvariants(final List<? extends ASTNode> loopBody) {
+        for (final Expression invariant : new LoopInvariants(scope, loopBody).getInvariants()) {
+            final Variable
+                    variable =
+                    new Variable(Types.getInstance().getType(invariant.getType()),
+                                 scope.getHoistedVariableName("invariant"),
+                                 ExpressionTranslator.createTranslator(invariant, scope).getReadExpression());
+            code.appendStatement(variable.asStatement());
+            scope.addHoistedExpression(invariant, variable.asExpression());
+        }
+    }
+
+    /**
+     * Translates a sequence of statements, evaluating any navigation or
+     * attribute read that they repeat once into a variable, and reusing the
+     * variable for each repeat.
+     *
+     * @param statements the statements to translate
+     * @return the translated statements
+     */
+    StatementGroup translateStatements(final List<? extends org.xtuml.masl.metamodel.code.Statement> statements) {
+        final StatementGroup result = new StatementGroup();
+        final CommonSubexpressions common = new CommonSubexpressions(scope, statements);
+        for (int i = 0; i < statements.size(); ++i) {
+            for (final CommonSubexpressions.Common subexpression : common.getCommonBefore(i)) {
+                final Expression maslExpression = subexpression.expression();
+                final Variable
+                        variable =
+                        new Variable(Types.getInstance().getType(maslExpression.getType()).getConstReferenceType(),
+                                     scope.getHoistedVariableName("common"),
+                                     ExpressionTranslator.createTranslator(maslExpression, scope).getReadExpression());
+                result.appendStatement(variable.asStatement());
+                for (final Expression occurrence : subexpression.occurrences()) {
+                    scope.addHoistedExpression(occurrence, variable.asExpression());
+                }
+            }
+            result.appendStatement(createChildTranslator(statements.get(i)).getFullCode());
+        }
+        return result;
+    }
+
     public StatementGroup getCode() {
         return code;
     }
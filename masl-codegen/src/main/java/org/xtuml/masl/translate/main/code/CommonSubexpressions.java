@@ -0,0 +1,220 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.expression.*;
+import org.xtuml.masl.translate.main.Scope;
+
+import java.util.*;
+
+/**
+ * Finds navigations and attribute reads that are made more than once in a
+ * sequence of statements and give the same result each time, so that they can
+ * be evaluated once and the result reused.
+ * <p>
+ * The sequence is split into runs of statements which do not change the result
+ * of the expression, so that a link, unlink, create, delete, write to an
+ * attribute or variable read by the expression, or any invocation, ends the
+ * run. A result is evaluated just before the first statement in the run that
+ * uses it, and that statement must use it on every path through it unless the
+ * expression can be evaluated without risk of raising an exception.
+ * <p>
+ * Where both a navigation and part of it are repeated, the longer expression
+ * is preferred.
+ */
+class CommonSubexpressions {
+
+    /**
+     * A result to be evaluated before a statement, and every place it is used.
+     *
+     * @param expression  the first use of the result
+     * @param occurrences every use of the result, including the first
+     */
+    record Common(Expression expression, List<Expression> occurrences) {
+    }
+
+    private record Occurrence(Expression expression, boolean unconditional) {
+    }
+
+    /**
+     * @param scope      the scope the statements are translated in
+     * @param statements the statements, in the order they are executed
+     */
+    CommonSubexpressions(final Scope scope, final List<? extends Statement> statements) {
+        this.scope = scope;
+
+        final List<Effects> effects = new ArrayList<>();
+        final Map<Expression, List<List<Occurrence>>> occurrences = new LinkedHashMap<>();
+        for (final Statement statement : statements) {
+            effects.add(Effects.of(statement));
+            commons.add(new ArrayList<>());
+
+            final List<Occurrence> found = new ArrayList<>();
+            collect(statement, true, found);
+            for (final Occurrence occurrence : found) {
+                final List<List<Occurrence>>
+                        byStatement =
+                        occurrences.computeIfAbsent(occurrence.expression(), k -> new ArrayList<>());
+                while (byStatement.size() < statements.size()) {
+                    byStatement.add(new ArrayList<>());
+                }
+                byStatement.get(commons.size() - 1).add(occurrence);
+            }
+        }
+
+        final List<Expression> candidates = new ArrayList<>(occurrences.keySet());
+        candidates.sort(Comparator.comparingInt(CommonSubexpressions::size).reversed());
+
+        for (final Expression candidate : candidates) {
+            final List<List<Occurrence>> byStatement = occurrences.get(candidate);
+            int start = 0;
+            while (start < statements.size()) {
+                final List<Occurrence> first = getUnused(byStatement.get(start));
+                if (first.isEmpty() ||
+                    effects.get(start).invalidates(candidate) ||
+                    !Effects.isPure(candidate,
+                                    scope,
+                                    first.stream().anyMatch(Occurrence::unconditional))) {
+                    ++start;
+                    continue;
+                }
+
+                final List<Expression> uses = new ArrayList<>();
+                first.forEach(o -> uses.add(o.expression()));
+                int end = start + 1;
+                while (end < statements.size() && !effects.get(end).invalidates(candidate)) {
+                    getUnused(byStatement.get(end)).forEach(o -> uses.add(o.expression()));
+                    ++end;
+                }
+
+                if (uses.size() > 1) {
+                    commons.get(start).add(new Common(uses.get(0), uses));
+                    uses.forEach(this::markUsed);
+                }
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * @return the results to evaluate before the statement at the given index
+     */
+    List<Common> getCommonBefore(final int index) {
+        return commons.get(index);
+    }
+
+    private List<Occurrence> getUnused(final List<Occurrence> occurrences) {
+        return occurrences.stream().filter(o -> !used.contains(o.expression())).toList();
+    }
+
+    /**
+     * Marks the expression as reused, along with everything within it, as they
+     * no longer need to be evaluated separately.
+     */
+    private void markUsed(final ASTNode node) {
+        if (node instanceof Expression expression) {
+            used.add(expression);
+        }
+        node.children().forEach(this::markUsed);
+    }
+
+    /**
+     * Finds the navigations and attribute reads in some code, noting whether
+     * each is evaluated every time the code is.
+     */
+    private void collect(final ASTNode node, final boolean unconditional, final List<Occurrence> found) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof Expression expression && scope.resolveHoistedExpression(expression) != null) {
+            return;
+        }
+        if (node instanceof NavigationExpression || node instanceof SelectedAttributeExpression) {
+            found.add(new Occurrence((Expression) node, unconditional));
+        }
+
+        if (node instanceof AssignmentStatement assignment) {
+            collectTarget(assignment.getTarget(), unconditional, found);
+            collect(assignment.getValue(), unconditional, found);
+        } else if (node instanceof EraseStatement erase) {
+            collectTarget(erase.getDictionary(), unconditional, found);
+            collect(erase.getKey(), unconditional, found);
+        } else if (node instanceof IOStreamStatement io) {
+            collect(io.getStreamName(), unconditional, found);
+            for (final IOStreamStatement.IOExpression arg : io.getArguments()) {
+                if (arg.getType() == IOStreamStatement.Type.IN || arg.getType() == IOStreamStatement.Type.LINE_IN) {
+                    collectTarget(arg.getExpression(), unconditional, found);
+                } else {
+                    collect(arg.getExpression(), unconditional, found);
+                }
+            }
+        } else if (node instanceof IfStatement ifStatement) {
+            boolean firstCondition = unconditional;
+            for (final IfStatement.Branch branch : ifStatement.getBranches()) {
+                collect(branch.getCondition(), firstCondition, found);
+                firstCondition = false;
+                branch.getStatements().forEach(child -> collect(child, false, found));
+            }
+        } else if (node instanceof CaseStatement caseStatement) {
+            collect(caseStatement.getDiscriminator(), unconditional, found);
+            for (final CaseStatement.Alternative alternative : caseStatement.getAlternatives()) {
+                alternative.getStatements().forEach(child -> collect(child, false, found));
+            }
+        } else if (node instanceof WhileStatement whileStatement) {
+            collect(whileStatement.getCondition(), unconditional, found);
+            whileStatement.getStatements().forEach(child -> collect(child, false, found));
+        } else if (node instanceof ForStatement forStatement) {
+            collect(forStatement.getLoopSpec(), unconditional, found);
+            forStatement.getStatements().forEach(child -> collect(child, false, found));
+        } else if (node instanceof CodeBlock) {
+            node.children().forEach(child -> collect(child, false, found));
+        } else if (node instanceof BinaryExpression binary &&
+                   (binary.getOperator() == BinaryExpression.Operator.AND ||
+                    binary.getOperator() == BinaryExpression.Operator.OR)) {
+            // Short circuit evaluation
+            collect(binary.getLhs(), unconditional, found);
+            collect(binary.getRhs(), false, found);
+        } else {
+            node.children().forEach(child -> collect(child, unconditional, found));
+        }
+    }
+
+    /**
+     * Finds the reads made in working out where to write to. The attribute
+     * being written is not itself a read.
+     */
+    private void collectTarget(final Expression target, final boolean unconditional, final List<Occurrence> found) {
+        if (target instanceof SelectedAttributeExpression attribute) {
+            collect(attribute.getPrefix(), unconditional, found);
+        } else if (target instanceof SelectedComponentExpression component) {
+            collectTarget(component.getPrefix(), unconditional, found);
+        } else if (target instanceof IndexedNameExpression indexed) {
+            collectTarget(indexed.getPrefix(), unconditional, found);
+            collect(indexed.getIndex(), unconditional, found);
+        } else if (target instanceof DictionaryAccessExpression access) {
+            collectTarget(access.getPrefix(), unconditional, found);
+            collect(access.getKey(), unconditional, found);
+        } else if (target instanceof SliceExpression slice) {
+            collectTarget(slice.getPrefix(), unconditional, found);
+            collect(slice.getRange(), unconditional, found);
+        }
+    }
+
+    private static int size(final ASTNode node) {
+        return 1 + node.children().stream().filter(Objects::nonNull).mapToInt(CommonSubexpressions::size).sum();
+    }
+
+    private final Scope scope;
+    private final List<List<Common>> commons = new ArrayList<>();
+    private final Set<Expression> used = Collections.newSetFromMap(new IdentityHashMap<>());
+
+}
@@ -0,0 +1,258 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.common.ParameterDefinition;
+import org.xtuml.masl.metamodel.expression.*;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.relationship.MultiplicityType;
+import org.xtuml.masl.metamodel.relationship.RelationshipDeclaration;
+import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
+import org.xtuml.masl.metamodel.type.BasicType;
+import org.xtuml.masl.metamodel.type.CollectionType;
+import org.xtuml.masl.metamodel.type.InstanceType;
+import org.xtuml.masl.translate.main.Scope;
+
+import java.util.*;
+
+/**
+ * The side effects a piece of code may have, as far as they can change the
+ * result of evaluating a pure expression. Any invocation may have side effects
+ * that cannot be seen from the calling code, so is assumed to change
+ * everything, as is a write to anything that cannot be traced back to a
+ * variable, parameter or attribute.
+ */
+final class Effects {
+
+    static Effects of(final Collection<? extends ASTNode> code) {
+        final Effects result = new Effects();
+        code.forEach(result::add);
+        return result;
+    }
+
+    static Effects of(final ASTNode code) {
+        return of(Collections.singletonList(code));
+    }
+
+    private Effects() {
+    }
+
+    /**
+     * @return true if the code may change anything at all
+     */
+    boolean isUnknown() {
+        return unknown;
+    }
+
+    /**
+     * Determines whether the code may give a different result for the
+     * expression when evaluated after it than before it. Expressions which are
+     * not pure are always assumed to be invalidated.
+     */
+    boolean invalidates(final Expression expression) {
+        if (unknown) {
+            return true;
+        } else if (expression instanceof LiteralExpression) {
+            return false;
+        } else if (expression instanceof VariableNameExpression variable) {
+            return variables.contains(variable.getVariable());
+        } else if (expression instanceof ParameterNameExpression parameter) {
+            return parameters.contains(parameter.getParameter());
+        } else if (expression instanceof SelectedAttributeExpression attribute) {
+            final ObjectDeclaration object = attribute.getAttribute().getParentObject();
+            return writtenObjects.contains(object) ||
+                   populatedObjects.contains(object) ||
+                   invalidates(attribute.getPrefix());
+        } else if (expression instanceof SelectedComponentExpression component) {
+            return invalidates(component.getPrefix());
+        } else if (expression instanceof UnaryExpression unary) {
+            return invalidates(unary.getRhs());
+        } else if (expression instanceof BinaryExpression binary) {
+            return invalidates(binary.getLhs()) || invalidates(binary.getRhs());
+        } else if (expression instanceof FindExpression find) {
+            final ObjectDeclaration object = find.getInstanceType().getObjectDeclaration();
+            return writtenObjects.contains(object) ||
+                   populatedObjects.contains(object) ||
+                   (!(find.getCollection() instanceof ObjectNameExpression) && invalidates(find.getCollection())) ||
+                   find.getArguments().stream().anyMatch(this::invalidates);
+        } else if (expression instanceof NavigationExpression navigation) {
+            final RelationshipSpecification relationship = navigation.getRelationship();
+            return relationships.contains(relationship.getRelationship()) ||
+                   populatedObjects.contains(relationship.getFromObject()) ||
+                   populatedObjects.contains(relationship.getDestinationObject()) ||
+                   (navigation.getSkeleton() != null &&
+                    writtenObjects.contains(relationship.getDestinationObject())) ||
+                   invalidates(navigation.getLhs()) ||
+                   getArguments(navigation).stream().anyMatch(this::invalidates);
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether an expression always gives the same result when none
+     * of the things it reads have changed, and can be evaluated at any point in
+     * the given scope.
+     *
+     * @param allowRaise whether the expression is allowed to raise an exception.
+     *                   If not, an expression may only navigate from an
+     *                   instance if it can be sure that the instance is there,
+     *                   so must start from <code>this</code> and only follow
+     *                   unconditional relationships to a single instance.
+     */
+    static boolean isPure(final Expression expression, final Scope scope, final boolean allowRaise) {
+        if (expression instanceof LiteralExpression) {
+            return true;
+        } else if (expression instanceof VariableNameExpression variable) {
+            return scope.resolveVariable(variable.getVariable()) != null;
+        } else if (expression instanceof ParameterNameExpression parameter) {
+            return scope.resolveParameter(parameter.getParameter()) != null;
+        } else if (expression instanceof SelectedAttributeExpression attribute) {
+            return (allowRaise || isNeverNull(attribute.getPrefix())) &&
+                   isPure(attribute.getPrefix(), scope, allowRaise);
+        } else if (expression instanceof SelectedComponentExpression component) {
+            return isPure(component.getPrefix(), scope, allowRaise);
+        } else if (expression instanceof UnaryExpression unary) {
+            return isPure(unary.getRhs(), scope, allowRaise);
+        } else if (expression instanceof BinaryExpression binary) {
+            return (allowRaise || !RAISING_OPERATORS.contains(binary.getOperator())) &&
+                   isPure(binary.getLhs(), scope, allowRaise) &&
+                   isPure(binary.getRhs(), scope, allowRaise);
+        } else if (expression instanceof FindExpression find) {
+            return (allowRaise || find.getFindType() != FindExpression.Type.FIND_ONLY) &&
+                   (find.getCollection() instanceof ObjectNameExpression ||
+                    (isCollection(find.getCollection()) && isPure(find.getCollection(), scope, allowRaise))) &&
+                   find.getArguments().stream().allMatch(arg -> isPure(arg, scope, allowRaise));
+        } else if (expression instanceof NavigationExpression navigation) {
+            return (allowRaise || isCollection(navigation.getLhs()) || isNeverNull(navigation.getLhs())) &&
+                   isPure(navigation.getLhs(), scope, allowRaise) &&
+                   getArguments(navigation).stream().allMatch(arg -> isPure(arg, scope, allowRaise));
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the expression is known to give an instance, rather than
+     * null, so can be dereferenced without raising an exception
+     */
+    private static boolean isNeverNull(final Expression expression) {
+        if (expression instanceof ThisLiteral) {
+            return true;
+        } else if (expression instanceof NavigationExpression navigation) {
+            final RelationshipSpecification relationship = navigation.getRelationship();
+            return navigation.getSkeleton() == null &&
+                   relationship.getCardinality() == MultiplicityType.ONE &&
+                   !relationship.getConditional() &&
+                   isNeverNull(navigation.getLhs());
+        }
+        return false;
+    }
+
+    private static List<? extends Expression> getArguments(final NavigationExpression navigation) {
+        return navigation.getSkeleton() == null ? Collections.emptyList() : navigation.getArguments();
+    }
+
+    private static boolean isCollection(final Expression expression) {
+        return expression.getType().getBasicType() instanceof CollectionType;
+    }
+
+    private void add(final ASTNode node) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof AssignmentStatement assignment) {
+            addWrite(assignment.getTarget());
+        } else if (node instanceof EraseStatement erase) {
+            addWrite(erase.getDictionary());
+        } else if (node instanceof IOStreamStatement io) {
+            for (final IOStreamStatement.IOExpression arg : io.getArguments()) {
+                if (arg.getType() == IOStreamStatement.Type.IN || arg.getType() == IOStreamStatement.Type.LINE_IN) {
+                    addWrite(arg.getExpression());
+                }
+            }
+        } else if (node instanceof CreateExpression create) {
+            populatedObjects.add(create.getObject());
+        } else if (node instanceof DeleteStatement delete) {
+            final ObjectDeclaration object = getObject(delete.getInstance().getType());
+            if (object == null) {
+                unknown = true;
+            } else {
+                populatedObjects.add(object);
+            }
+        } else if (node instanceof LinkUnlinkStatement link) {
+            // Linking sets the referential attributes of the formalising object
+            relationships.add(link.getRelationship().getRelationship());
+            writtenObjects.add(link.getLhsObject());
+            writtenObjects.add(link.getRhsObject());
+            if (link.getAssocObject() != null) {
+                writtenObjects.add(link.getAssocObject());
+            }
+        } else if (node instanceof LinkUnlinkExpression link) {
+            relationships.add(link.getRelationship().getRelationship());
+            writtenObjects.add(link.getLhsObject());
+            writtenObjects.add(link.getRhsObject());
+        } else if (node instanceof DomainServiceInvocation ||
+                   node instanceof TerminatorServiceInvocation ||
+                   node instanceof ObjectServiceInvocation ||
+                   node instanceof InstanceServiceInvocation ||
+                   node instanceof DomainFunctionInvocation ||
+                   node instanceof TerminatorFunctionInvocation ||
+                   node instanceof ObjectFunctionInvocation ||
+                   node instanceof InstanceFunctionInvocation) {
+            unknown = true;
+        }
+        node.children().forEach(this::add);
+    }
+
+    private void addWrite(final Expression target) {
+        if (target instanceof VariableNameExpression variable) {
+            variables.add(variable.getVariable());
+        } else if (target instanceof ParameterNameExpression parameter) {
+            parameters.add(parameter.getParameter());
+        } else if (target instanceof SelectedAttributeExpression attribute) {
+            writtenObjects.add(attribute.getAttribute().getParentObject());
+        } else if (target instanceof SelectedComponentExpression component) {
+            addWrite(component.getPrefix());
+        } else if (target instanceof IndexedNameExpression indexed) {
+            addWrite(indexed.getPrefix());
+        } else if (target instanceof DictionaryAccessExpression access) {
+            addWrite(access.getPrefix());
+        } else if (target instanceof SliceExpression slice) {
+            addWrite(slice.getPrefix());
+        } else {
+            unknown = true;
+        }
+    }
+
+    private static ObjectDeclaration getObject(final BasicType type) {
+        if (type.getBasicType() instanceof InstanceType instanceType) {
+            return instanceType.getObjectDeclaration();
+        } else if (type.getBasicType() instanceof CollectionType collectionType) {
+            return getObject(collectionType.getContainedType());
+        }
+        return null;
+    }
+
+    private static final Set<BinaryExpression.Operator>
+            RAISING_OPERATORS =
+            EnumSet.of(BinaryExpression.Operator.DIVIDE,
+                       BinaryExpression.Operator.MOD,
+                       BinaryExpression.Operator.REM,
+                       BinaryExpression.Operator.POWER);
+
+    private final Set<VariableDefinition> variables = new HashSet<>();
+    private final Set<ParameterDefinition> parameters = new HashSet<>();
+    private final Set<ObjectDeclaration> writtenObjects = new HashSet<>();
+    private final Set<ObjectDeclaration> populatedObjects = new HashSet<>();
+    private final Set<RelationshipDeclaration> relationships = new HashSet<>();
+    private boolean unknown = false;
+
+}
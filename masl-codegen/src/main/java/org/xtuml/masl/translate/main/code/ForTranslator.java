@@ -30,6 +30,8 @@ public class ForTranslator extends CodeTranslator {
                             final CodeTranslator parentTranslator) {
         super(maslFor, parentScope, parentTranslator);
 
+        hoistLoopInvariants(maslFor.getStatements());
+
         final StatementGroup codeBlock = getCode();
 
         final CodeBlock forCode = new CodeBlock();
@@ -188,11 +190,7 @@ public class ForTranslator extends CodeTranslator {
         forCode.appendStatement(loopVarDef);
         codeBlock.appendStatement(new ForStatement(startVariable, endCondition, increment, forCode));
 
-        for (final org.xtuml.masl.metamodel.code.Statement maslStatement : maslFor.getStatements()) {
-            final CodeTranslator translator = createChildTranslator(maslStatement);
-            final CodeBlock translation = translator.getFullCode();
-            forCode.appendStatement(translation);
-        }
+        forCode.appendStatement(translateStatements(maslFor.getStatements()));
 
     }
 
@@ -26,11 +26,7 @@ public class IfTranslator extends CodeTranslator {
 
         for (final org.xtuml.masl.metamodel.code.IfStatement.Branch branch : maslIf.getBranches()) {
             final CodeBlock ifCode = new CodeBlock();
-            for (final org.xtuml.masl.metamodel.code.Statement maslStatement : branch.getStatements()) {
-                final CodeTranslator translator = createChildTranslator(maslStatement);
-                final CodeBlock translation = translator.getFullCode();
-                ifCode.appendStatement(translation);
-            }
+            ifCode.appendStatement(translateStatements(branch.getStatements()));
 
             Statement current;
             if (branch.getCondition() != null) {
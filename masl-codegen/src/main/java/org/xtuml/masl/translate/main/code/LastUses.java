@@ -0,0 +1,261 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.expression.BinaryExpression;
+import org.xtuml.masl.metamodel.expression.Expression;
+import org.xtuml.masl.metamodel.expression.VariableNameExpression;
+import org.xtuml.masl.metamodel.type.BagType;
+import org.xtuml.masl.metamodel.type.BasicType;
+import org.xtuml.masl.metamodel.type.SequenceType;
+import org.xtuml.masl.metamodel.type.SetType;
+
+import java.util.*;
+
+/**
+ * Finds the places in an action where the value of a local variable is read
+ * for the last time, so that it can be moved rather than copied.
+ * <p>
+ * A variable is live after a statement if some path from there reads it before
+ * writing the whole of it. Loops are followed round until nothing changes. Any
+ * statement in a block with exception handlers may go to a handler instead of
+ * the next statement, and a loop over a collection reads the collection on
+ * every iteration, so variables read by either are live throughout. Only
+ * variables declared by the action itself are considered, as loop variables
+ * refer into the collection being looped over and parameters belong to the
+ * caller.
+ * <p>
+ * Moves are only offered for a read that is the whole value assigned, an
+ * element appended to a collection, or the collection being appended to in
+ * a new collection, and then only where the variable is read nowhere else in
+ * the assignment.
+ */
+class LastUses {
+
+    /**
+     * @param action the code of a service or state action
+     */
+    LastUses(final Statement action) {
+        liveBefore(action, Collections.emptySet());
+    }
+
+    /**
+     * @return the reads in the value of the assignment which are the last use
+     * of a local variable
+     */
+    List<VariableNameExpression> getLastUses(final AssignmentStatement assignment) {
+        final Set<VariableDefinition> after = liveAfter.get(assignment);
+        if (after == null) {
+            return Collections.emptyList();
+        }
+
+        final Map<VariableDefinition, Integer> reads = new HashMap<>();
+        countReads(assignment, reads);
+
+        final List<VariableNameExpression> candidates = new ArrayList<>();
+        collectCandidates(assignment.getValue(), candidates);
+
+        final List<VariableNameExpression> result = new ArrayList<>();
+        for (final VariableNameExpression candidate : candidates) {
+            final VariableDefinition variable = candidate.getVariable();
+            if (locals.contains(variable) &&
+                !variable.isReadonly() &&
+                reads.get(variable) == 1 &&
+                !after.contains(variable)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static void collectCandidates(final Expression value, final List<VariableNameExpression> found) {
+        if (value instanceof VariableNameExpression variable) {
+            found.add(variable);
+        } else if (value instanceof BinaryExpression binary &&
+                   binary.getOperator() == BinaryExpression.Operator.CONCATENATE &&
+                   isGrowable(binary.getType())) {
+            if (binary.getLhs() instanceof VariableNameExpression lhs &&
+                binary.getType().equals(lhs.getType())) {
+                found.add(lhs);
+            } else if (binary.getLhs() instanceof BinaryExpression) {
+                collectCandidates(binary.getLhs(), found);
+            }
+            if (binary.getRhs() instanceof VariableNameExpression rhs && !isGrowable(rhs.getType())) {
+                found.add(rhs);
+            }
+        }
+    }
+
+    private static boolean isGrowable(final BasicType type) {
+        final BasicType basic = type.getBasicType();
+        return basic instanceof SequenceType || basic instanceof SetType || basic instanceof BagType;
+    }
+
+    /**
+     * Works out the variables live before a statement, given those live after
+     * it, recording those live after each assignment on the way. Anything live
+     * in an exception handler is live before every statement it covers.
+     */
+    private Set<VariableDefinition> liveBefore(final Statement statement, final Set<VariableDefinition> after) {
+        if (statement instanceof CodeBlock block) {
+            final Set<VariableDefinition> savedPinned = pinned;
+            pinned = new HashSet<>(pinned);
+            for (final ExceptionHandler handler : block.getExceptionHandlers()) {
+                pinned.addAll(liveBefore(handler.getCode(), after));
+            }
+            Set<VariableDefinition> live = liveBefore(block.getStatements(), after);
+            pinned = savedPinned;
+
+            final List<? extends VariableDefinition> variables = block.getVariables();
+            for (int i = variables.size() - 1; i >= 0; --i) {
+                final VariableDefinition variable = variables.get(i);
+                locals.add(variable);
+                live = new HashSet<>(live);
+                live.remove(variable);
+                addReads(variable.getInitialValue(), live);
+            }
+            return live;
+        } else if (statement instanceof AssignmentStatement assignment) {
+            final Set<VariableDefinition> liveAfterAssignment = new HashSet<>(after);
+            liveAfterAssignment.addAll(pinned);
+            liveAfter.put(assignment, liveAfterAssignment);
+
+            final Set<VariableDefinition> live = new HashSet<>(liveAfterAssignment);
+            if (assignment.getTarget() instanceof VariableNameExpression target) {
+                live.remove(target.getVariable());
+            } else {
+                addReads(assignment.getTarget(), live);
+            }
+            addReads(assignment.getValue(), live);
+            return live;
+        } else if (statement instanceof IfStatement ifStatement) {
+            final Set<VariableDefinition> live = new HashSet<>();
+            boolean hasElse = false;
+            for (final IfStatement.Branch branch : ifStatement.getBranches()) {
+                live.addAll(liveBefore(branch.getStatements(), after));
+                addReads(branch.getCondition(), live);
+                hasElse |= branch.getCondition() == null;
+            }
+            if (!hasElse) {
+                live.addAll(after);
+            }
+            return live;
+        } else if (statement instanceof CaseStatement caseStatement) {
+            final Set<VariableDefinition> live = new HashSet<>();
+            boolean hasOthers = false;
+            for (final CaseStatement.Alternative alternative : caseStatement.getAlternatives()) {
+                live.addAll(liveBefore(alternative.getStatements(), after));
+                if (alternative.getConditions() == null) {
+                    hasOthers = true;
+                } else {
+                    alternative.getConditions().forEach(condition -> addReads(condition, live));
+                }
+            }
+            if (!hasOthers) {
+                live.addAll(after);
+            }
+            addReads(caseStatement.getDiscriminator(), live);
+            return live;
+        } else if (statement instanceof WhileStatement whileStatement) {
+            final Set<VariableDefinition> entry = new HashSet<>();
+            addReads(whileStatement.getCondition(), entry);
+            return loop(whileStatement.getStatements(), entry, after);
+        } else if (statement instanceof ForStatement forStatement) {
+            final Set<VariableDefinition> savedPinned = pinned;
+            pinned = new HashSet<>(pinned);
+            addReads(forStatement.getLoopSpec(), pinned);
+            final Set<VariableDefinition> live = loop(forStatement.getStatements(), pinned, after);
+            pinned = savedPinned;
+            return live;
+        } else if (statement instanceof ExitStatement exit) {
+            final Set<VariableDefinition> live = new HashSet<>(after);
+            live.addAll(exits.isEmpty() ? Collections.emptySet() : exits.peek());
+            addReads(exit.getCondition(), live);
+            return live;
+        } else if (statement instanceof ReturnStatement ret) {
+            final Set<VariableDefinition> live = new HashSet<>(pinned);
+            addReads(ret.getReturnValue(), live);
+            return live;
+        } else {
+            // Anything else, including any write through an out parameter or
+            // input stream, is treated as just reading what it mentions
+            final Set<VariableDefinition> live = new HashSet<>(after);
+            live.addAll(pinned);
+            addReads(statement, live);
+            return live;
+        }
+    }
+
+    private Set<VariableDefinition> liveBefore(final List<? extends Statement> statements,
+                                               final Set<VariableDefinition> after) {
+        Set<VariableDefinition> live = after;
+        for (int i = statements.size() - 1; i >= 0; --i) {
+            live = new HashSet<>(liveBefore(statements.get(i), live));
+            live.addAll(pinned);
+        }
+        return live;
+    }
+
+    /**
+     * Works out the variables live at the start of a loop body, going round
+     * until nothing more becomes live.
+     *
+     * @param entry the variables read at the start of every iteration, whatever
+     *              the body does
+     * @param after the variables live after the loop, which may be left at the
+     *              start of any iteration
+     */
+    private Set<VariableDefinition> loop(final List<? extends Statement> body,
+                                         final Set<VariableDefinition> entry,
+                                         final Set<VariableDefinition> after) {
+        exits.push(after);
+        Set<VariableDefinition> live = new HashSet<>(entry);
+        live.addAll(after);
+        while (true) {
+            final Set<VariableDefinition> next = new HashSet<>(entry);
+            next.addAll(after);
+            next.addAll(liveBefore(body, live));
+            if (next.equals(live)) {
+                break;
+            }
+            live = next;
+        }
+        exits.pop();
+        return live;
+    }
+
+    private static void addReads(final ASTNode node, final Set<VariableDefinition> live) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof VariableNameExpression variable) {
+            live.add(variable.getVariable());
+        }
+        node.children().forEach(child -> addReads(child, live));
+    }
+
+    private static void countReads(final ASTNode node, final Map<VariableDefinition, Integer> reads) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof VariableNameExpression variable) {
+            reads.merge(variable.getVariable(), 1, Integer::sum);
+        }
+        node.children().forEach(child -> countReads(child, reads));
+    }
+
+    private final Map<AssignmentStatement, Set<VariableDefinition>> liveAfter = new IdentityHashMap<>();
+    private final Set<VariableDefinition> locals = new HashSet<>();
+    private final Deque<Set<VariableDefinition>> exits = new ArrayDeque<>();
+    private Set<VariableDefinition> pinned = new HashSet<>();
+
+}
@@ -0,0 +1,68 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.expression.Expression;
+import org.xtuml.masl.metamodel.expression.FindExpression;
+import org.xtuml.masl.metamodel.expression.NavigationExpression;
+import org.xtuml.masl.translate.main.Scope;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the finds and navigations in the body of a loop that give the same
+ * result on every iteration, so that they can be evaluated once before the loop
+ * is entered.
+ * <p>
+ * An expression is only invariant if everything it reads is defined outside
+ * the loop and nothing in the loop can change its result. As the hoisted
+ * expression is evaluated even if the loop body never is, only expressions that
+ * cannot raise an exception are hoisted.
+ */
+class LoopInvariants {
+
+    /**
+     * @param scope    the scope the loop is translated in, before any of its own
+     *                 variables are added
+     * @param loopBody the parts of the loop evaluated on every iteration
+     */
+    LoopInvariants(final Scope scope, final List<? extends ASTNode> loopBody) {
+        this.scope = scope;
+        this.effects = Effects.of(loopBody);
+        if (!effects.isUnknown()) {
+            loopBody.forEach(this::findInvariants);
+        }
+    }
+
+    List<Expression> getInvariants() {
+        return invariants;
+    }
+
+    private void findInvariants(final ASTNode node) {
+        if (node == null) {
+            return;
+        }
+        if ((node instanceof FindExpression || node instanceof NavigationExpression) &&
+            scope.resolveHoistedExpression((Expression) node) == null &&
+            Effects.isPure((Expression) node, scope, false) &&
+            !effects.invalidates((Expression) node)) {
+            invariants.add((Expression) node);
+        } else {
+            node.children().forEach(this::findInvariants);
+        }
+    }
+
+    private final Scope scope;
+    private final Effects effects;
+    private final List<Expression> invariants = new ArrayList<>();
+
+}
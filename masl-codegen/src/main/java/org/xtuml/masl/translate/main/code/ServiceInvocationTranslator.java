@@ -34,6 +34,9 @@ import org.xtuml.masl.translate.main.object.ObjectServiceTranslator;
  * runtime through the use of static registration mechanisms. The actual method
  * invoked at the call site will therefore depend on what libraries have been
  * included in the build and what method(s) they register.
+ * <p>
+ * A domain with the <code>direct_calls</code> pragma calls its own services
+ * directly instead, unless they are marked <code>overridable</code>.
  */
 public class ServiceInvocationTranslator extends CodeTranslator {
 
@@ -58,7 +61,7 @@ public class ServiceInvocationTranslator extends CodeTranslator {
         } else if (invocation.getPragmas().getValue(PragmaList.SCOPE).equals("remote")) {
             fnCall = translator.getRemoteInvocation(args.getArguments());
         } else {
-            fnCall = translator.getInvocation(args.getArguments());
+            fnCall = translator.getInvocation(getScope().getDomain(), args.getArguments());
         }
 
         if (args.getTempVariableDefinitions().size() > 0) {
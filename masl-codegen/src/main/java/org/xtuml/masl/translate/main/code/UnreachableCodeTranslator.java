@@ -0,0 +1,34 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import org.xtuml.masl.cppgen.Literal;
+import org.xtuml.masl.cppgen.ThrowStatement;
+import org.xtuml.masl.translate.main.Architecture;
+import org.xtuml.masl.translate.main.Scope;
+
+/**
+ * Stands in for the code of an action that nothing in the project can ever
+ * call. None of the action code is translated, so nothing it uses is pulled in
+ * to the build, and the action raises a program error if it is somehow called
+ * after all.
+ */
+public class UnreachableCodeTranslator extends CodeTranslator {
+
+    UnreachableCodeTranslator(final org.xtuml.masl.metamodel.code.CodeBlock code,
+                              final Scope parentScope,
+                              final String name) {
+        super(code, parentScope, null);
+
+        getCode().appendStatement(new ThrowStatement(Architecture.programError.callConstructor(Literal.createStringLiteral(
+                name + " removed as unreachable"))));
+    }
+
+}
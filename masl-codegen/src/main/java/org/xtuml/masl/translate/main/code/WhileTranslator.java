@@ -13,12 +13,20 @@ import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.translate.main.Scope;
 import org.xtuml.masl.translate.main.expression.ExpressionTranslator;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class WhileTranslator extends CodeTranslator {
 
     protected WhileTranslator(final org.xtuml.masl.metamodel.code.WhileStatement maslWhile,
                               final Scope parentScope,
                               final CodeTranslator parentTranslator) {
         super(maslWhile, parentScope, parentTranslator);
+
+        final List<org.xtuml.masl.metamodel.ASTNode> loopBody = new ArrayList<>(maslWhile.getStatements());
+        loopBody.add(maslWhile.getCondition());
+        hoistLoopInvariants(loopBody);
+
         final CodeBlock whileCode = new CodeBlock();
 
         final Expression
@@ -27,11 +35,7 @@ public class WhileTranslator extends CodeTranslator {
 
         getCode().appendStatement(new WhileStatement(condition, whileCode));
 
-        for (final org.xtuml.masl.metamodel.code.Statement maslStatement : maslWhile.getStatements()) {
-            final CodeTranslator translator = createChildTranslator(maslStatement);
-            final CodeBlock translation = translator.getFullCode();
-            whileCode.appendStatement(translation);
-        }
+        whileCode.appendStatement(translateStatements(maslWhile.getStatements()));
 
     }
 
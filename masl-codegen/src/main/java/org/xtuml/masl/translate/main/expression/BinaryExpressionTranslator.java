@@ -80,6 +80,11 @@ public class BinaryExpressionTranslator extends ExpressionTranslator {
                 setReadExpression(new BinaryExpression(lhsExp, BinaryOperator.NOT_EQUAL, rhsExp));
                 break;
             case CONCATENATE: {
+                // A constant lhs cannot be appended to, so needs copying first
+                final boolean
+                        lhsLiteral =
+                        maslExpression.getLhs() instanceof LiteralExpression ||
+                        ExpressionTranslator.evaluateConstant(maslExpression.getLhs()) != null;
                 // Retranslate the rhs with the required element type if the lhs is a
                 // collection. Some expressions (eg StructureAggregates) will give
                 // better translations if they know what type they are inteded to be.
@@ -88,8 +93,7 @@ public class BinaryExpressionTranslator extends ExpressionTranslator {
                             ExpressionTranslator.createTranslator(maslExpression.getRhs(),
                                                                   scope,
                                                                   collection.getContainedType()).getReadExpression();
-                } else if (maslExpression.getLhs() instanceof LiteralExpression ||
-                           !maslExpression.getType().equals(maslExpression.getLhs().getType())) {
+                } else if (lhsLiteral || !maslExpression.getType().equals(maslExpression.getLhs().getType())) {
                     final TypeUsage resultType = Types.getInstance().getType(maslExpression.getType());
                     lhsExp = resultType.getType().callConstructor(lhsExp);
                 }
@@ -100,7 +104,8 @@ public class BinaryExpressionTranslator extends ExpressionTranslator {
                 // value being appended to, but subsequent terms can just append to
                 // the
                 // result of the last one.
-                if (maslExpression.getLhs() instanceof org.xtuml.masl.metamodel.expression.BinaryExpression &&
+                if (!lhsLiteral &&
+                    maslExpression.getLhs() instanceof org.xtuml.masl.metamodel.expression.BinaryExpression &&
                     ((org.xtuml.masl.metamodel.expression.BinaryExpression) maslExpression.getLhs()).getOperator() ==
                     org.xtuml.masl.metamodel.expression.BinaryExpression.Operator.CONCATENATE ||
                     maslExpression.getLhs().equals(assignedTo)) {
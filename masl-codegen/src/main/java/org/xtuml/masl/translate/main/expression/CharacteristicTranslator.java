@@ -12,6 +12,9 @@ package org.xtuml.masl.translate.main.expression;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.metamodel.expression.CharacteristicExpression;
 import org.xtuml.masl.metamodel.expression.Expression;
+import org.xtuml.masl.metamodel.expression.FindExpression;
+import org.xtuml.masl.metamodel.expression.IntegerLiteral;
+import org.xtuml.masl.metamodel.expression.NavigationExpression;
 import org.xtuml.masl.metamodel.type.*;
 import org.xtuml.masl.metamodel.type.TypeDefinition.ActualType;
 import org.xtuml.masl.translate.main.Architecture;
@@ -157,10 +160,113 @@ public class CharacteristicTranslator extends ExpressionTranslator {
 
     void translateLength(final CharacteristicExpression characteristicReference, final Scope scope) {
         final Expression prefix = characteristicReference.getLhs();
+        final org.xtuml.masl.cppgen.Expression count = getCount(prefix, scope);
+        if (count != null) {
+            setReadExpression(count);
+            return;
+        }
         final org.xtuml.masl.cppgen.Expression base = createTranslator(prefix, scope).getReadExpression();
         setReadExpression(new Function("size").asFunctionCall(base, false));
     }
 
+    /**
+     * Counts the result of a find or navigation without building it, where
+     * there is a way to do so.
+     */
+    private static org.xtuml.masl.cppgen.Expression getCount(final Expression prefix, final Scope scope) {
+        if (scope != null && scope.resolveHoistedExpression(prefix) != null) {
+            return null;
+        } else if (prefix instanceof FindExpression find) {
+            return FindTranslator.getCount(find, scope);
+        } else if (prefix instanceof NavigationExpression navigation) {
+            return NavigationTranslator.getCount(navigation, scope);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Translates a comparison of the length of a collection with zero, eg
+     * <code>(find obj (x = 1))'length > 0</code>, as a check for emptiness
+     * which can stop at the first instance found rather than counting them
+     * all.
+     *
+     * @return the check, or null if the comparison is not of this form
+     */
+    static org.xtuml.masl.cppgen.Expression getEmptinessCheck(final org.xtuml.masl.metamodel.expression.BinaryExpression comparison,
+                                                              final Scope scope) {
+        final boolean lengthOnLeft = isCollectionLength(comparison.getLhs()) && isZero(comparison.getRhs());
+        final boolean lengthOnRight = isZero(comparison.getLhs()) && isCollectionLength(comparison.getRhs());
+        if (!lengthOnLeft && !lengthOnRight) {
+            return null;
+        }
+
+        final boolean empty;
+        switch (comparison.getOperator()) {
+            case EQUAL:
+                empty = true;
+                break;
+            case NOT_EQUAL:
+                empty = false;
+                break;
+            case GREATER_THAN:
+            case LESS_THAN_OR_EQUAL:
+                if (!lengthOnLeft) {
+                    return null;
+                }
+                empty = comparison.getOperator() == org.xtuml.masl.metamodel.expression.BinaryExpression.Operator.LESS_THAN_OR_EQUAL;
+                break;
+            case LESS_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                if (!lengthOnRight) {
+                    return null;
+                }
+                empty = comparison.getOperator() == org.xtuml.masl.metamodel.expression.BinaryExpression.Operator.GREATER_THAN_OR_EQUAL;
+                break;
+            default:
+                return null;
+        }
+
+        final Expression
+                collection =
+                ((CharacteristicExpression) (lengthOnLeft ? comparison.getLhs() : comparison.getRhs())).getLhs();
+        if (scope == null || scope.resolveHoistedExpression(collection) == null) {
+            if (collection instanceof FindExpression find) {
+                final org.xtuml.masl.cppgen.Expression check = FindTranslator.getEmptinessCheck(find, scope, empty);
+                if (check != null) {
+                    return check;
+                }
+            }
+            final BinaryOperator operator = empty ? BinaryOperator.EQUAL : BinaryOperator.NOT_EQUAL;
+            final PipelineTranslator pipeline = PipelineTranslator.create(collection, scope, true);
+            if (pipeline != null) {
+                return new BinaryExpression(pipeline.getReadExpression(), operator, Architecture.nullPointer);
+            }
+            final org.xtuml.masl.cppgen.Expression count = getCount(collection, scope);
+            if (count != null) {
+                return new BinaryExpression(count, operator, Literal.ZERO);
+            }
+        }
+
+        final org.xtuml.masl.cppgen.Expression base = createTranslator(collection, scope).getReadExpression();
+        final org.xtuml.masl.cppgen.Expression isEmpty = new Function("empty").asFunctionCall(base, false);
+        return empty ? isEmpty : new UnaryExpression(UnaryOperator.NOT, isEmpty);
+    }
+
+    private static boolean isCollectionLength(final Expression expression) {
+        if (expression instanceof CharacteristicExpression characteristic &&
+            characteristic.getCharacteristic() == CharacteristicExpression.Type.LENGTH) {
+            final BasicType type = characteristic.getLhs().getType().getBasicType();
+            return type instanceof SetType || type instanceof BagType || type instanceof SequenceType;
+        }
+        return false;
+    }
+
+    private static boolean isZero(final Expression expression) {
+        final Expression value = expression instanceof IntegerLiteral ? expression : evaluateConstant(expression);
+        return value instanceof IntegerLiteral literal && literal.getValue() == 0;
+    }
+
     void translateLower(final CharacteristicExpression characteristicReference, final Scope scope) {
         setReadExpression(new Function("lower").asFunctionCall(createTranslator(characteristicReference.getLhs(),
                                                                                 scope).getReadExpression(), false));
@@ -23,7 +23,7 @@ import org.xtuml.masl.translate.main.Types;
 import org.xtuml.masl.translate.main.object.ObjectTranslator;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,7 +35,7 @@ public class CreateExpressionTranslator extends ExpressionTranslator {
         final ObjectTranslator objectTrans = ObjectTranslator.getInstance(object);
         final Function function = objectTrans.getCreateInstance();
 
-        final Map<AttributeDeclaration, Expression> paramLookup = new HashMap<>();
+        final Map<AttributeDeclaration, Expression> paramLookup = new LinkedHashMap<>();
         State state = null;
         for (final CreateExpression.AttributeValue value : createExpression.getAggregate()) {
             paramLookup.put(value.getAttribute(), value.getValue());
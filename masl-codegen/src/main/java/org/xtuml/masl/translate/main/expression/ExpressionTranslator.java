@@ -10,10 +10,15 @@
 package org.xtuml.masl.translate.main.expression;
 
 import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.LambdaExpression;
 import org.xtuml.masl.metamodel.expression.*;
 import org.xtuml.masl.metamodel.type.BasicType;
+import org.xtuml.masl.metamodel.type.BuiltinType;
 import org.xtuml.masl.translate.main.Scope;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class ExpressionTranslator {
 
     private static class SimpleTranslator extends ExpressionTranslator {
@@ -24,6 +29,53 @@ public abstract class ExpressionTranslator {
         }
     }
 
+    /**
+     * Works out the value of an expression made up only of literals, so that it
+     * can be translated as a literal rather than calculated at run time. Values
+     * that would change the c++ type of the translation are not worked out.
+     *
+     * @return the value, or null if the expression must be calculated at run time
+     */
+    static LiteralExpression evaluateConstant(final Expression expression) {
+        if (expression instanceof LiteralExpression) {
+            return null;
+        }
+        final LiteralExpression value = expression.evaluate();
+        if (value == null) {
+            return null;
+        }
+        final BasicType type = expression.getType();
+        return value instanceof DurationLiteral ||
+               (type instanceof BuiltinType && type.getActualType() == value.getType().getActualType()) ? value : null;
+    }
+
+    /**
+     * Translates the arguments to be passed from within a lambda. Variables,
+     * parameters and constants are used directly, captured by reference, but
+     * anything else is captured by value so that it is only evaluated once.
+     *
+     * @return the expressions to use for the arguments in the lambda result
+     */
+    public static List<org.xtuml.masl.cppgen.Expression> captureArguments(final LambdaExpression lambda,
+                                                                          final List<? extends Expression> args,
+                                                                          final Scope scope) {
+        final List<org.xtuml.masl.cppgen.Expression> result = new ArrayList<>(args.size());
+        for (final Expression arg : args) {
+            final org.xtuml.masl.cppgen.Expression value = createTranslator(arg, scope).getReadExpression();
+            if (arg instanceof VariableNameExpression ||
+                arg instanceof ParameterNameExpression ||
+                arg instanceof FindParameterExpression ||
+                arg instanceof LiteralExpression ||
+                scope.resolveHoistedExpression(arg) != null ||
+                evaluateConstant(arg) != null) {
+                result.add(value);
+            } else {
+                result.add(lambda.addCapture("arg" + result.size(), value));
+            }
+        }
+        return result;
+    }
+
     public static ExpressionTranslator createTranslator(final Expression expression, final Scope scope) {
         return createTranslator(expression, scope, null, null);
     }
@@ -44,7 +96,27 @@ public abstract class ExpressionTranslator {
                                                         final Scope scope,
                                                         final BasicType requiredType,
                                                         final Expression assignedTo) {
+        final org.xtuml.masl.cppgen.Expression
+                hoisted =
+                scope == null ? null : scope.resolveHoistedExpression(expression);
+        if (hoisted != null) {
+            return new SimpleTranslator(hoisted);
+        }
+        final LiteralExpression constant = evaluateConstant(expression);
+        if (constant != null) {
+            return new LiteralTranslator(constant, scope);
+        }
+        final PipelineTranslator pipeline = PipelineTranslator.create(expression, scope);
+        if (pipeline != null) {
+            return pipeline;
+        }
         if (expression instanceof BinaryExpression) {
+            final org.xtuml.masl.cppgen.Expression
+                    emptiness =
+                    CharacteristicTranslator.getEmptinessCheck((BinaryExpression) expression, scope);
+            if (emptiness != null) {
+                return new SimpleTranslator(emptiness);
+            }
             return new BinaryExpressionTranslator(((BinaryExpression) expression), scope, assignedTo);
         } else if (expression instanceof CastExpression) {
             return new CastExpressionTranslator((CastExpression) expression, scope);
@@ -80,7 +152,7 @@ public abstract class ExpressionTranslator {
         if (expression instanceof StructureOrderingExpression) {
             return new OrderingTranslator((StructureOrderingExpression) expression, scope);
         } else if (expression instanceof LiteralExpression) {
-            return new LiteralTranslator((LiteralExpression) expression);
+            return new LiteralTranslator((LiteralExpression) expression, scope);
         } else if (expression instanceof NavigationExpression) {
             return new NavigationTranslator((NavigationExpression) expression, scope);
         } else if (expression instanceof ObjectFunctionInvocation) {
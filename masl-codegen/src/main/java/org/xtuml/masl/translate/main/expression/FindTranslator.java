@@ -9,10 +9,16 @@
  */
 package org.xtuml.masl.translate.main.expression;
 
+import org.xtuml.masl.cppgen.BinaryExpression;
+import org.xtuml.masl.cppgen.BinaryOperator;
 import org.xtuml.masl.cppgen.Expression;
 import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.UnaryExpression;
+import org.xtuml.masl.cppgen.UnaryOperator;
 import org.xtuml.masl.metamodel.expression.FindExpression;
+import org.xtuml.masl.metamodel.expression.InstanceOrderingExpression;
 import org.xtuml.masl.metamodel.expression.ObjectNameExpression;
+import org.xtuml.masl.translate.main.Architecture;
 import org.xtuml.masl.translate.main.Scope;
 import org.xtuml.masl.translate.main.object.ObjectTranslator;
 
@@ -24,6 +30,8 @@ public class FindTranslator extends ExpressionTranslator {
     private static final Function FIND = new Function("find");
     private static final Function FIND_ONE = new Function("find_one");
     private static final Function FIND_ONLY = new Function("find_only");
+    private static final Function COUNT_IF = new Function("count_if");
+    private static final Function ANY_OF = new Function("any_of");
 
     FindTranslator(final FindExpression find, final Scope scope) {
         if (find.getCollection() instanceof ObjectNameExpression) {
@@ -37,11 +45,7 @@ public class FindTranslator extends ExpressionTranslator {
             } else {
                 final Function findFunction = objTrans.getFindFunction(find.getSkeleton(), find.getFindType());
 
-                final List<Expression> findParams = new ArrayList<>();
-
-                for (final org.xtuml.masl.metamodel.expression.Expression param : find.getArguments()) {
-                    findParams.add(createTranslator(param, scope).getReadExpression());
-                }
+                final List<Expression> findParams = translateArguments(find, scope);
 
                 setReadExpression(findFunction.asFunctionCall(findParams));
                 setWriteableExpression(findFunction.asFunctionCall(findParams));
@@ -72,15 +76,7 @@ public class FindTranslator extends ExpressionTranslator {
                         objTrans =
                         ObjectTranslator.getInstance(find.getInstanceType().getObjectDeclaration());
 
-                final List<? extends org.xtuml.masl.metamodel.expression.Expression> maslParams = find.getArguments();
-
-                final List<Expression> findArgs = new ArrayList<>(maslParams.size());
-
-                for (final org.xtuml.masl.metamodel.expression.Expression param : maslParams) {
-                    findArgs.add(createTranslator(param, scope).getReadExpression());
-                }
-
-                final Expression predicate = objTrans.getBoundPredicate(find.getSkeleton(), findArgs);
+                final Expression predicate = objTrans.getBoundPredicate(find.getSkeleton(), find.getArguments(), scope);
 
                 final ExpressionTranslator lhsTrans = createTranslator(find.getCollection(), scope);
 
@@ -98,4 +94,104 @@ public class FindTranslator extends ExpressionTranslator {
         }
     }
 
+    /**
+     * Gets the number of instances a find would return without building its
+     * result. A population find without a predicate uses the population size,
+     * one with a predicate uses the population's count function, and a find on
+     * a collection counts the matches in place.
+     *
+     * @return the count, or null if only the find itself will do
+     */
+    static Expression getCount(final FindExpression find, final Scope scope) {
+        if (find.getFindType() != FindExpression.Type.FIND) {
+            return null;
+        }
+        final ObjectTranslator
+                objTrans =
+                ObjectTranslator.getInstance(find.getInstanceType().getObjectDeclaration());
+
+        if (find.getCollection() instanceof ObjectNameExpression) {
+            if (find.getSkeleton() == null) {
+                return objTrans.getGetPopulationSize().asFunctionCall();
+            }
+            final Function countFunction = objTrans.getCountFunction(find.getSkeleton());
+            return countFunction.asFunctionCall(translateArguments(find, scope));
+        } else if (find.getSkeleton() != null) {
+            final Expression predicate = objTrans.getBoundPredicate(find.getSkeleton(), find.getArguments(), scope);
+            return COUNT_IF.asFunctionCall(createTranslator(find.getCollection(), scope).getReadExpression(),
+                                           false,
+                                           predicate);
+        }
+        return null;
+    }
+
+    /**
+     * Gets whether a find would return no instances, stopping at the first
+     * match rather than building its result.
+     *
+     * @param empty whether to check for an empty result rather than a non-empty
+     *              one
+     * @return the check, or null if the find has no predicate to check
+     */
+    static Expression getEmptinessCheck(final FindExpression find, final Scope scope, final boolean empty) {
+        if (find.getFindType() != FindExpression.Type.FIND || find.getSkeleton() == null) {
+            return null;
+        }
+        final ObjectTranslator
+                objTrans =
+                ObjectTranslator.getInstance(find.getInstanceType().getObjectDeclaration());
+
+        if (find.getCollection() instanceof ObjectNameExpression) {
+            final Function findFunction = objTrans.getFindFunction(find.getSkeleton(), FindExpression.Type.FIND_ONE);
+            return new BinaryExpression(findFunction.asFunctionCall(translateArguments(find, scope)),
+                                        empty ? BinaryOperator.EQUAL : BinaryOperator.NOT_EQUAL,
+                                        Architecture.nullPointer);
+        } else {
+            final Expression predicate = objTrans.getBoundPredicate(find.getSkeleton(), find.getArguments(), scope);
+            final Expression
+                    anyOf =
+                    ANY_OF.asFunctionCall(createTranslator(find.getCollection(), scope).getReadExpression(),
+                                          false,
+                                          predicate);
+            return empty ? new UnaryExpression(UnaryOperator.NOT, anyOf) : anyOf;
+        }
+    }
+
+    /**
+     * Gets the result of a population find already in the order requested, for
+     * a find ordered by a single attribute which has an ordered index, so that
+     * the instances need not be sorted.
+     *
+     * @return the ordered result, or null if it must be sorted
+     */
+    static Expression getOrdered(final FindExpression find,
+                                 final InstanceOrderingExpression ordering,
+                                 final Scope scope) {
+        if (!(find.getCollection() instanceof ObjectNameExpression) ||
+            find.getFindType() != FindExpression.Type.FIND ||
+            ordering.isReverse() ||
+            ordering.getOrder().size() != 1 ||
+            ordering.getOrder().get(0).isReverse()) {
+            return null;
+        }
+        final ObjectTranslator
+                objTrans =
+                ObjectTranslator.getInstance(find.getInstanceType().getObjectDeclaration());
+        if (!objTrans.getOrderedIndexes().contains(ordering.getOrder().get(0).getAttribute())) {
+            return null;
+        }
+        final Function orderedFunction = objTrans.getOrderedFindFunction(find.getSkeleton(), ordering.getOrder());
+        return find.getSkeleton() == null ?
+               orderedFunction.asFunctionCall() :
+               orderedFunction.asFunctionCall(translateArguments(find, scope));
+    }
+
+    private static List<Expression> translateArguments(final FindExpression find, final Scope scope) {
+        final List<Expression> findParams = new ArrayList<>();
+        for (final org.xtuml.masl.metamodel.expression.Expression param : find.getArguments()) {
+            findParams.add(createTranslator(param, scope).getReadExpression());
+        }
+        return findParams;
+    }
+
 }
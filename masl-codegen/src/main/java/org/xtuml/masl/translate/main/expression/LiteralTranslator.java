@@ -13,6 +13,7 @@ import org.xtuml.masl.cppgen.Std;
 import org.xtuml.masl.metamodel.expression.*;
 import org.xtuml.masl.translate.main.Architecture;
 import org.xtuml.masl.translate.main.EnumerationTranslator;
+import org.xtuml.masl.translate.main.Scope;
 import org.xtuml.masl.translate.main.Types;
 import org.xtuml.masl.translate.main.object.ObjectTranslator;
 
@@ -38,15 +39,24 @@ public class LiteralTranslator extends ExpressionTranslator {
 
     static final String escapedChars = "'\\";
 
-    LiteralTranslator(final LiteralExpression literal) {
+    LiteralTranslator(final LiteralExpression literal, final Scope scope) {
         this.literal = literal;
         if (literal instanceof BooleanLiteral) {
             setReadExpression(((BooleanLiteral) literal).getValue() ?
                               org.xtuml.masl.cppgen.Literal.TRUE :
                               org.xtuml.masl.cppgen.Literal.FALSE);
         } else if (literal instanceof StringLiteral) {
-            setReadExpression(Architecture.stringClass.callConstructor(org.xtuml.masl.cppgen.Literal.createStringLiteral(
-                    ((StringLiteral) literal).getValue())));
+            // Use a constant where possible, rather than constructing the string
+            // every time the code runs
+            final org.xtuml.masl.cppgen.Expression
+                    constant =
+                    scope == null ? null : scope.getStringConstant(((StringLiteral) literal).getValue());
+            if (constant != null) {
+                setReadExpression(constant);
+            } else {
+                setReadExpression(Architecture.stringClass.callConstructor(org.xtuml.masl.cppgen.Literal.createStringLiteral(
+                        ((StringLiteral) literal).getValue())));
+            }
         } else if (literal instanceof IntegerLiteral) {
             setReadExpression(new org.xtuml.masl.cppgen.Literal(((IntegerLiteral) literal).getValue() + "ll"));
         } else if (literal instanceof RealLiteral) {
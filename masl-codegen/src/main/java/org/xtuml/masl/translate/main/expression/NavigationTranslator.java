@@ -11,7 +11,9 @@ package org.xtuml.masl.translate.main.expression;
 
 import org.xtuml.masl.cppgen.Expression;
 import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.LambdaExpression;
 import org.xtuml.masl.cppgen.TypeUsage;
+import org.xtuml.masl.cppgen.Variable;
 import org.xtuml.masl.metamodel.expression.CorrelatedNavExpression;
 import org.xtuml.masl.metamodel.expression.NavigationExpression;
 import org.xtuml.masl.metamodel.relationship.MultiplicityType;
@@ -19,8 +21,6 @@ import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
 import org.xtuml.masl.metamodel.type.BagType;
 import org.xtuml.masl.metamodel.type.SetType;
 import org.xtuml.masl.translate.main.Architecture;
-import org.xtuml.masl.translate.main.BigTuple;
-import org.xtuml.masl.translate.main.Boost;
 import org.xtuml.masl.translate.main.Scope;
 import org.xtuml.masl.translate.main.object.ObjectTranslator;
 
@@ -30,13 +30,6 @@ import java.util.List;
 public class NavigationTranslator extends ExpressionTranslator {
 
     NavigationTranslator(final NavigationExpression navigation, final Scope scope) {
-        final ObjectTranslator sourceObj = ObjectTranslator.getInstance(navigation.getRelationship().getFromObject());
-
-        final Function
-                navFunction =
-                sourceObj.getRelationshipTranslator(navigation.getRelationship()).getPublicAccessors().getNavigateFunction(
-                        navigation.getSkeleton());
-
         final TypeUsage
                 destObj =
                 new TypeUsage(ObjectTranslator.getInstance(navigation.getRelationship().getDestinationObject()).getMainClass());
@@ -56,34 +49,73 @@ public class NavigationTranslator extends ExpressionTranslator {
             }
         }
 
-        final List<org.xtuml.masl.cppgen.Expression> bindArgs = new ArrayList<>();
-        bindArgs.add(navFunction.asFunctionPointer());
-        bindArgs.add(Boost.bind_1);
+        final LambdaExpression navigator = getNavigator(navigation, scope);
 
-        if (navigation.getSkeleton() != null) {
-            final List<? extends org.xtuml.masl.metamodel.expression.Expression> maslParams = navigation.getArguments();
+        final ExpressionTranslator lhsTrans = createTranslator(navigation.getLhs(), scope);
 
-            final List<Expression> findArgs = new ArrayList<>(maslParams.size());
+        setReadExpression(archNavFn.asFunctionCall(lhsTrans.getReadExpression(), navigator));
+        setWriteableExpression(getReadExpression());
 
-            for (final org.xtuml.masl.metamodel.expression.Expression param : maslParams) {
-                findArgs.add(createTranslator(param, scope).getReadExpression());
-            }
+    }
 
-            // If too many parameters for boost bind to cope with (not forgetting
-            // the bound object), then wrap in a tuple. Note that the navigate
-            // function should already be done!
-            if (findArgs.size() + 1 > Boost.MAX_BIND_PARAMS) {
-                bindArgs.add(BigTuple.getMakeTuple(findArgs));
-            } else {
-                bindArgs.addAll(findArgs);
-            }
-        }
+    /**
+     * Creates a lambda navigating a single step from a pointer to a source
+     * instance, eg <code>[&amp;](const SOURCE* source){ return source-&gt;navigate(args); }</code>
+     *
+     * @param navigation the navigation
+     * @param scope      the scope the navigation is in
+     * @return the navigator
+     */
+    static LambdaExpression getNavigator(final NavigationExpression navigation, final Scope scope) {
+        final ObjectTranslator sourceObj = ObjectTranslator.getInstance(navigation.getRelationship().getFromObject());
 
-        final ExpressionTranslator lhsTrans = createTranslator(navigation.getLhs(), scope);
+        final Function
+                navFunction =
+                sourceObj.getRelationshipTranslator(navigation.getRelationship()).getPublicAccessors().getNavigateFunction(
+                        navigation.getSkeleton());
 
-        setReadExpression(archNavFn.asFunctionCall(lhsTrans.getReadExpression(), Boost.bind.asFunctionCall(bindArgs)));
-        setWriteableExpression(getReadExpression());
+        final LambdaExpression navigator = new LambdaExpression();
+        final Variable
+                source =
+                navigator.createParameter(new TypeUsage(sourceObj.getMainClass(), TypeUsage.PointerToConst),
+                                          "source");
+
+        final List<Expression> findArgs =
+                navigation.getSkeleton() == null ?
+                new ArrayList<>() :
+                captureArguments(navigator, navigation.getArguments(), scope);
+        navigator.setResult(navFunction.asFunctionCall(source.asExpression(), true, findArgs));
+        return navigator;
+    }
+
+    /**
+     * Gets the number of instances a navigation from a single instance would
+     * return, using the relationship's own count rather than building the set
+     * of related instances.
+     *
+     * @return the count, or null if the navigation has to be done
+     */
+    static Expression getCount(final NavigationExpression navigation, final Scope scope) {
+        if (navigation.getSkeleton() != null ||
+            navigation.getRelationship().getCardinality() != MultiplicityType.MANY ||
+            navigation.getLhs().getType().isCollection()) {
+            return null;
+        }
+        final ObjectTranslator sourceObj = ObjectTranslator.getInstance(navigation.getRelationship().getFromObject());
 
+        final Function
+                countFunction =
+                sourceObj.getRelationshipTranslator(navigation.getRelationship()).getPublicAccessors().getCountFunction();
+
+        // [&](const SOURCE* source){ return source->count(); }
+        final LambdaExpression counter = new LambdaExpression();
+        final Variable
+                source =
+                counter.createParameter(new TypeUsage(sourceObj.getMainClass(), TypeUsage.PointerToConst), "source");
+        counter.setResult(countFunction.asFunctionCall(source.asExpression(), true));
+
+        return Architecture.countRelated.asFunctionCall(createTranslator(navigation.getLhs(), scope).getReadExpression(),
+                                                        counter);
     }
 
     NavigationTranslator(final CorrelatedNavExpression navigation, final Scope scope) {
@@ -11,7 +11,9 @@ package org.xtuml.masl.translate.main.expression;
 
 import org.xtuml.masl.cppgen.Expression;
 import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.LambdaExpression;
 import org.xtuml.masl.cppgen.TypeUsage;
+import org.xtuml.masl.metamodel.expression.FindExpression;
 import org.xtuml.masl.metamodel.expression.InstanceOrderingExpression;
 import org.xtuml.masl.metamodel.expression.StructureOrderingExpression;
 import org.xtuml.masl.metamodel.type.CollectionType;
@@ -33,18 +35,17 @@ public class OrderingTranslator extends ExpressionTranslator {
 
         final ObjectTranslator objTrans = ObjectTranslator.getInstance(instanceType.getObjectDeclaration());
 
-        // &SWA::ObjectPtr<OBJECT>::get
-        final Expression
-                ptrDerefFunction =
-                Architecture.objectPtr(new TypeUsage(objTrans.getMainClass())).getFunctionPointer("deref");
-
-        final Expression predicateFn = objTrans.getOrderByPredicate(ordering.getOrder()).asFunctionPointer();
+        if (collection instanceof FindExpression find &&
+            (scope == null || scope.resolveHoistedExpression(find) == null)) {
+            final Expression ordered = FindTranslator.getOrdered(find, ordering, scope);
+            if (ordered != null) {
+                setReadExpression(ordered);
+                setWriteableExpression(ordered);
+                return;
+            }
+        }
 
-        final Expression
-                predicate =
-                Boost.bind.asFunctionCall(predicateFn,
-                                          Boost.bind.asFunctionCall(ptrDerefFunction, Boost.bind_1),
-                                          Boost.bind.asFunctionCall(ptrDerefFunction, Boost.bind_2));
+        final LambdaExpression predicate = objTrans.getOrderByComparator(ordering.getOrder());
 
         final ExpressionTranslator collTrans = createTranslator(collection, scope);
         final Function orderFn = new Function((ordering.isReverse() ? "reverse_" : "") + "ordered_by");
@@ -63,6 +64,14 @@ public class OrderingTranslator extends ExpressionTranslator {
                 structTrans =
                 Types.getInstance().getStructureTranslator(collectionType.getContainedType().getBasicType().getTypeDeclaration());
 
+        // [&](const STRUCT& lhs, const STRUCT& rhs){ return lhs.getX() < rhs.getX() || ...; }
+        final TypeUsage
+                structType =
+                Types.getInstance().getType(collectionType.getContainedType()).getOptimalParameterType();
+        final LambdaExpression predicate = new LambdaExpression();
+        final Expression lhs = predicate.createParameter(structType, "lhs").asExpression();
+        final Expression rhs = predicate.createParameter(structType, "rhs").asExpression();
+
         Expression predicateExpression = null;
 
         // Go through backwards to aid setting up the comparison expression
@@ -70,10 +79,10 @@ public class OrderingTranslator extends ExpressionTranslator {
         Collections.reverse(reverseComponentOrder);
 
         for (final StructureOrderingExpression.Component component : reverseComponentOrder) {
-            final Expression attribute = structTrans.getGetter(component.getElement()).asFunctionPointer();
+            final Function attribute = structTrans.getGetter(component.getElement());
 
-            final Expression lhsAttribute = Boost.lambda_bind.asFunctionCall(attribute, Boost.lambda_1);
-            final Expression rhsAttribute = Boost.lambda_bind.asFunctionCall(attribute, Boost.lambda_2);
+            final Expression lhsAttribute = attribute.asFunctionCall(lhs, false);
+            final Expression rhsAttribute = attribute.asFunctionCall(rhs, false);
 
             predicateExpression =
                     Structure.buildComparator(predicateExpression, lhsAttribute, rhsAttribute, component.isReverse());
@@ -87,10 +96,9 @@ public class OrderingTranslator extends ExpressionTranslator {
             setReadExpression(orderby.asFunctionCall(collTrans.getReadExpression(), false));
             setWriteableExpression(orderby.asFunctionCall(collTrans.getWriteableExpression(), false));
         } else {
-            setReadExpression(orderby.asFunctionCall(collTrans.getReadExpression(), false, predicateExpression));
-            setWriteableExpression(orderby.asFunctionCall(collTrans.getWriteableExpression(),
-                                                          false,
-                                                          predicateExpression));
+            predicate.setResult(predicateExpression);
+            setReadExpression(orderby.asFunctionCall(collTrans.getReadExpression(), false, predicate));
+            setWriteableExpression(orderby.asFunctionCall(collTrans.getWriteableExpression(), false, predicate));
         }
 
     }
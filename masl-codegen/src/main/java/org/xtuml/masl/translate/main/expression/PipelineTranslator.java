@@ -0,0 +1,164 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.expression;
+
+import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.TypeUsage;
+import org.xtuml.masl.metamodel.expression.*;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.type.BasicType;
+import org.xtuml.masl.metamodel.type.InstanceType;
+import org.xtuml.masl.metamodel.type.SetType;
+import org.xtuml.masl.translate.main.Architecture;
+import org.xtuml.masl.translate.main.Scope;
+import org.xtuml.masl.translate.main.object.ObjectTranslator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Translates a chain of navigations and finds which passes through a
+ * collection of instances, eg <code>find_one (this->R1->R2) (x = 1)</code>,
+ * into a single call to a <code>SWA::pipeline</code> consumer. Each instance
+ * is passed along the chain in turn rather than building a set at each step,
+ * and find_one, find_only and any stop as soon as they have their answer.
+ * <p>
+ * Only sets and single instances are fused, as bags and sequences keep
+ * duplicates. Population finds, which may use an index, and any subexpression
+ * that has been hoisted are left as the source of the pipeline.
+ */
+class PipelineTranslator extends ExpressionTranslator {
+
+    /**
+     * @param expression the expression to translate
+     * @param scope      the scope the expression is in
+     * @return a translator for the pipeline, or null if the expression is not a
+     * chain worth fusing
+     */
+    static PipelineTranslator create(final Expression expression, final Scope scope) {
+        return create(expression, scope, false);
+    }
+
+    /**
+     * @param expression the expression to translate
+     * @param scope      the scope the expression is in
+     * @param firstOnly  whether only the first instance reaching the end of the
+     *                   chain is wanted, as when checking for emptiness
+     * @return a translator for the pipeline, or null if the expression is not a
+     * chain worth fusing
+     */
+    static PipelineTranslator create(final Expression expression, final Scope scope, final boolean firstOnly) {
+        Function consumer;
+        final ObjectDeclaration destObj;
+        final Expression chain;
+
+        if (expression instanceof FindExpression find && isFilter(find)) {
+            destObj = find.getInstanceType().getObjectDeclaration();
+            chain = find;
+            consumer = switch (find.getFindType()) {
+                case FIND -> Architecture.pipelineCollect(destType(destObj));
+                case FIND_ONE -> Architecture.pipelineFirst(destType(destObj));
+                case FIND_ONLY -> Architecture.pipelineOnly(destType(destObj));
+            };
+        } else if (expression instanceof AnyExpression any &&
+                   any.getCount() == null &&
+                   any.getCollection() instanceof NavigationExpression navigation &&
+                   isStep(navigation)) {
+            destObj = navigation.getRelationship().getDestinationObject();
+            chain = navigation;
+            consumer = Architecture.pipelineFirst(destType(destObj));
+        } else if (expression instanceof NavigationExpression navigation && isStep(navigation)) {
+            destObj = navigation.getRelationship().getDestinationObject();
+            chain = navigation;
+            consumer =
+                    navigation.getType().isCollection() ?
+                    Architecture.pipelineCollect(destType(destObj)) :
+                    Architecture.pipelineFirst(destType(destObj));
+        } else {
+            return null;
+        }
+        if (firstOnly) {
+            consumer = Architecture.pipelineFirst(destType(destObj));
+        }
+
+        // Work back from the end of the chain to its source
+        final List<Expression> steps = new ArrayList<>();
+        Expression source = chain;
+        boolean throughCollection = false;
+        while (true) {
+            if (source != expression && scope != null && scope.resolveHoistedExpression(source) != null) {
+                break;
+            }
+            final Expression previous;
+            if (source instanceof NavigationExpression navigation && isStep(navigation)) {
+                previous = navigation.getLhs();
+            } else if (source instanceof FindExpression find &&
+                       isFilter(find) &&
+                       (source == chain || find.getFindType() == FindExpression.Type.FIND)) {
+                previous = find.getCollection();
+            } else {
+                break;
+            }
+            steps.add(source);
+            throughCollection |= previous.getType().isCollection();
+            source = previous;
+        }
+
+        if (steps.size() < 2 || !throughCollection) {
+            return null;
+        }
+        Collections.reverse(steps);
+        return new PipelineTranslator(source, steps, consumer, scope);
+    }
+
+    private PipelineTranslator(final Expression source,
+                               final List<Expression> steps,
+                               final Function consumer,
+                               final Scope scope) {
+        final List<org.xtuml.masl.cppgen.Expression> args = new ArrayList<>();
+        args.add(createTranslator(source, scope).getReadExpression());
+
+        for (final Expression step : steps) {
+            if (step instanceof NavigationExpression navigation) {
+                args.add(Architecture.pipelineNavigate.asFunctionCall(NavigationTranslator.getNavigator(navigation,
+                                                                                                        scope)));
+            } else if (step instanceof FindExpression find && find.getSkeleton() != null) {
+                final ObjectTranslator
+                        objTrans =
+                        ObjectTranslator.getInstance(find.getInstanceType().getObjectDeclaration());
+                args.add(Architecture.pipelineFilter.asFunctionCall(objTrans.getBoundPredicate(find.getSkeleton(),
+                                                                                               find.getArguments(),
+                                                                                               scope)));
+            }
+        }
+
+        setReadExpression(consumer.asFunctionCall(args));
+        setWriteableExpression(getReadExpression());
+    }
+
+    private static boolean isStep(final NavigationExpression navigation) {
+        return isInstancesOrSet(navigation.getType()) && isInstancesOrSet(navigation.getLhs().getType());
+    }
+
+    private static boolean isFilter(final FindExpression find) {
+        return !(find.getCollection() instanceof ObjectNameExpression) &&
+               find.getCollection().getType().getBasicType() instanceof SetType;
+    }
+
+    private static boolean isInstancesOrSet(final BasicType type) {
+        return type.getBasicType() instanceof InstanceType || type.getBasicType() instanceof SetType;
+    }
+
+    private static TypeUsage destType(final ObjectDeclaration destObj) {
+        return new TypeUsage(ObjectTranslator.getInstance(destObj).getMainClass());
+    }
+
+}
@@ -17,7 +17,7 @@ import org.xtuml.masl.metamodel.type.BasicType;
 import org.xtuml.masl.translate.main.DomainTranslator;
 import org.xtuml.masl.translate.main.Mangler;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public abstract class ClassAttributeTranslator {
@@ -25,7 +25,7 @@ public abstract class ClassAttributeTranslator {
     private final org.xtuml.masl.translate.main.DomainTranslator mainDomainTranslator;
     private final org.xtuml.masl.translate.main.object.ObjectTranslator mainObjectTranslator;
 
-    private static final Map<ObjectDeclaration, ClassAttributeTranslator> translators = new HashMap<>();
+    private static final Map<ObjectDeclaration, ClassAttributeTranslator> translators = new LinkedHashMap<>();
     public static final String CURRENT_STATE = "currentState";
     public static final String ASSIGNER_STATE = "assignerState";
 
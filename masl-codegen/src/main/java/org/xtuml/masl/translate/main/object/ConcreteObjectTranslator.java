@@ -39,6 +39,22 @@ public abstract class ConcreteObjectTranslator {
 
     public abstract CodeFile getPopulationBodyFile();
 
+    /**
+     * @return the body file to define a find function generated for action code
+     * in. Defaults to the population body file.
+     */
+    public CodeFile getFindBodyFile(final Function function) {
+        return getPopulationBodyFile();
+    }
+
+    /**
+     * @return the body file to define a conditional navigation generated for
+     * action code in. Defaults to the object body file.
+     */
+    public CodeFile getNavigatorBodyFile(final Function function) {
+        return getBodyFile();
+    }
+
     public Function getConstructor() {
         return constructor;
     }
@@ -74,6 +90,8 @@ public abstract class ConcreteObjectTranslator {
         // Need to do find functions after relationships, as they may need to
         // navigate
         addFindFunctions();
+        addCountFunctions();
+        addOrderedFindFunctions();
         addIndexes();
     }
 
@@ -86,12 +104,19 @@ public abstract class ConcreteObjectTranslator {
                                              Variable constructorParameter,
                                              Function setter);
 
+    protected abstract void addCountFunction(org.xtuml.masl.metamodel.expression.Expression predicate,
+                                             Function function);
+
     protected abstract void addCurrentState(TypeUsage stateType, Function getter, Function setter);
 
     protected abstract void addFindFunction(org.xtuml.masl.metamodel.expression.Expression predicate,
                                             Function function,
                                             FindExpression.Type type);
 
+    protected abstract void addOrderedFindFunction(org.xtuml.masl.metamodel.expression.Expression predicate,
+                                                   AttributeDeclaration attribute,
+                                                   Function function);
+
     protected void addOther() {
     }
 
@@ -174,6 +199,30 @@ public abstract class ConcreteObjectTranslator {
 
     }
 
+    void addCountFunctions() {
+        for (final Population.CountFunction func : mainObjectTranslator.getPopulation().getCountFunctions()) {
+            final Function
+                    countFn =
+                    populationClass.redefineFunction(populationFinders, func.function, Visibility.PUBLIC);
+            countFn.setComment("MASL find: " + func.predicate.toString());
+
+            addCountFunction(func.predicate, countFn);
+        }
+    }
+
+    void addOrderedFindFunctions() {
+        for (final Population.OrderedFindFunction func : mainObjectTranslator.getPopulation().getOrderedFindFunctions()) {
+            final Function
+                    orderedFn =
+                    populationClass.redefineFunction(populationFinders, func.function, Visibility.PUBLIC);
+            if (func.predicate != null) {
+                orderedFn.setComment("MASL find: " + func.predicate.toString());
+            }
+
+            addOrderedFindFunction(func.predicate, func.attribute, orderedFn);
+        }
+    }
+
     private Function getPopulation;
 
     protected Function getGetPopulation() {
@@ -15,12 +15,11 @@ import org.xtuml.masl.metamodel.common.ParameterDefinition;
 import org.xtuml.masl.metamodel.statemodel.EventDeclaration;
 import org.xtuml.masl.metamodel.type.InstanceType;
 import org.xtuml.masl.translate.main.Architecture;
-import org.xtuml.masl.translate.main.Boost;
 import org.xtuml.masl.translate.main.DomainTranslator;
 import org.xtuml.masl.translate.main.Mangler;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -72,7 +71,7 @@ public class EventTranslator {
         // Generate state action calls if a state machine exists - it might not for
         // a polymorphic object
         if (smTranslator != null) {
-            processFunction.getCode().appendStatement(smTranslator.getProcessEventCode(event, stateArgs));
+            processFunction.getCode().appendStatement(smTranslator.getProcessEventCode(event, processFunction, stateArgs));
         }
     }
 
@@ -175,7 +174,7 @@ public class EventTranslator {
     private Function consumeFunction;
     private Function eventInvoker;
     private Function eventConstructor;
-    private final Map<ParameterDefinition, Function> getters = new HashMap<>();
+    private final Map<ParameterDefinition, Function> getters = new LinkedHashMap<>();
 
     public Function getParamGetter(final ParameterDefinition param) {
         return getters.get(param);
@@ -224,11 +223,16 @@ public class EventTranslator {
                 createFunction.createParameter(new TypeUsage(Architecture.ID_TYPE),
                                                "sourceInstance",
                                                Literal.ZERO).asExpression();
+        // Events are allocated from a pool for the event type, together with
+        // their reference count, rather than by new
+        final List<Expression> allocateArgs = new ArrayList<>();
+        allocateArgs.add(Architecture.eventPoolAllocator(new TypeUsage(eventClass)).callConstructor());
+        allocateArgs.addAll(eventParams);
         final Variable
                 eventVar =
                 new Variable(new TypeUsage(Architecture.event.getEventPtr()),
                              "event",
-                             new Expression[]{new NewExpression(new TypeUsage(eventClass), eventParams)});
+                             Std.allocate_shared(new TypeUsage(eventClass)).asFunctionCall(allocateArgs));
 
         createFunction.getCode().appendStatement(eventVar.asStatement());
 
@@ -255,13 +259,6 @@ public class EventTranslator {
         return createFunction;
     }
 
-    boolean wrapEventParamsInTuple(final EventDeclaration event) {
-        return event.getParameters().size() +
-               (event.getType() == EventDeclaration.Type.NORMAL ?
-                objectTranslator.getMain().getGetInstance().getParameters().size() :
-                0) > Boost.MAX_BIND_PARAMS;
-    }
-
     void translate() {
         addProcessFunction();
         addCreateFunction();
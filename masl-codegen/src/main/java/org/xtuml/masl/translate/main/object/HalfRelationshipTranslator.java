@@ -14,17 +14,15 @@ import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.metamodel.relationship.*;
 import org.xtuml.masl.translate.main.Architecture;
-import org.xtuml.masl.translate.main.BigTuple;
-import org.xtuml.masl.translate.main.Boost;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public abstract class HalfRelationshipTranslator {
 
-    private static final Map<ObjectDeclaration, HalfRelationshipTranslator> translators = new HashMap<>();
+    private static final Map<ObjectDeclaration, HalfRelationshipTranslator> translators = new LinkedHashMap<>();
 
     static HalfRelationshipTranslator getTranslator(final ObjectDeclaration object) {
         return translators.get(object);
@@ -86,7 +84,7 @@ public abstract class HalfRelationshipTranslator {
         }
     }
 
-    Map<RelationshipSpecification, Variable> relationshipAttributes = new HashMap<>();
+    Map<RelationshipSpecification, Variable> relationshipAttributes = new LinkedHashMap<>();
 
     public Variable getRelationshipAttribute(final RelationshipSpecification spec) {
         return relationshipAttributes.get(spec);
@@ -301,7 +299,7 @@ public abstract class HalfRelationshipTranslator {
                                    final org.xtuml.masl.metamodel.expression.Expression predicate) {
         final Function relGetter = getRelationshipConstGetter(spec);
 
-        getBodyFile().addFunctionDefinition(navigator);
+        concreteObj.getNavigatorBodyFile(navigator).addFunctionDefinition(navigator);
 
         final Function navFunction = new Function(spec.isToAssociative() ? "navigateAssociative" : "navigate");
 
@@ -317,20 +315,13 @@ public abstract class HalfRelationshipTranslator {
 
         final Function predicateFn = destObjTranslator.getFindPredicate(predicate);
 
-        final List<org.xtuml.masl.cppgen.Expression> bindArgs = new ArrayList<>();
-        bindArgs.add(predicateFn.asFunctionPointer());
-        bindArgs.add(Boost.bind_1);
-
-        // If too many parameters for boost bind to cope with (not forgetting
-        // the bound object), then wrap in a tuple. Note that the predicate
-        // function should already be done!
-        if (findArgs.size() + 1 > Boost.MAX_BIND_PARAMS) {
-            bindArgs.add(BigTuple.getMakeTuple(findArgs));
-        } else {
-            bindArgs.addAll(findArgs);
-        }
-
-        final Expression predicateArg = Boost.bind.asFunctionCall(bindArgs);
+        // [&](const RELATED& related){ return related.predicate(args); }
+        final LambdaExpression predicateArg = new LambdaExpression();
+        final Variable
+                relatedParam =
+                predicateArg.createParameter(new TypeUsage(destObjTranslator.getMainClass(), TypeUsage.ConstReference),
+                                             "related");
+        predicateArg.setResult(predicateFn.asFunctionCall(relatedParam.asExpression(), false, findArgs));
 
         final Statement
                 code =
@@ -390,9 +381,9 @@ public abstract class HalfRelationshipTranslator {
 
     private final ConcreteObjectTranslator concreteObj;
     private final org.xtuml.masl.translate.main.object.ObjectTranslator mainObjectTranslator;
-    private final Map<RelationshipSpecification, Function> relationshipConstGetters = new HashMap<>();
+    private final Map<RelationshipSpecification, Function> relationshipConstGetters = new LinkedHashMap<>();
 
-    private final Map<RelationshipSpecification, Function> relationshipGetters = new HashMap<>();
+    private final Map<RelationshipSpecification, Function> relationshipGetters = new LinkedHashMap<>();
 
     private DeclarationGroup relationships;
     private DeclarationGroup relationshipVars;
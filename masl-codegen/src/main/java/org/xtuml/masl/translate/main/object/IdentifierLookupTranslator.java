@@ -17,6 +17,7 @@ import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.translate.main.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class IdentifierLookupTranslator {
@@ -24,19 +25,61 @@ public abstract class IdentifierLookupTranslator {
     public IdentifierLookupTranslator(final ConcreteObjectTranslator concreteObj,
                                       final ObjectDeclaration object,
                                       final IdentifierDeclaration identifier) {
+        this(concreteObj, identifier.getAttributes(), true);
+    }
+
+    /**
+     * Creates a lookup on an arbitrary tuple of attributes, as requested by an
+     * index pragma. Where the attributes are not unique the lookup is held as a
+     * multimap, and must be kept up to date by calling the functions returned by
+     * {@link #getIndexAdder()} and {@link #getIndexRemover()} around any change
+     * to one of the attributes.
+     *
+     * @param concreteObj the object translator the lookup belongs to
+     * @param attributes  the attributes making up the key
+     * @param unique      whether the attributes identify a single instance
+     */
+    public IdentifierLookupTranslator(final ConcreteObjectTranslator concreteObj,
+                                      final List<? extends AttributeDeclaration> attributes,
+                                      final boolean unique) {
+        this(concreteObj, attributes, unique, false);
+    }
+
+    /**
+     * Creates an ordered index on a single attribute, as requested by an
+     * ordered_index pragma, held as a multimap sorted on the attribute value. It
+     * is kept up to date in the same way as a non-unique index, and may be
+     * scanned between the bounds given by {@link #getLowerBound} and
+     * {@link #getUpperBound}.
+     *
+     * @param concreteObj the object translator the lookup belongs to
+     * @param attribute   the attribute to order on
+     */
+    public IdentifierLookupTranslator(final ConcreteObjectTranslator concreteObj,
+                                      final AttributeDeclaration attribute) {
+        this(concreteObj, Collections.singletonList(attribute), false, true);
+    }
+
+    private IdentifierLookupTranslator(final ConcreteObjectTranslator concreteObj,
+                                       final List<? extends AttributeDeclaration> attributes,
+                                       final boolean unique,
+                                       final boolean ordered) {
         mainObjectTranslator = concreteObj.getMainObjectTranslator();
         this.concreteObj = concreteObj;
-        this.identifier = identifier;
+        this.attributes = attributes;
+        this.unique = unique;
+        this.ordered = ordered;
 
         final List<TypeUsage> keyTypes = new ArrayList<>();
         String name = "";
-        for (final AttributeDeclaration attDec : identifier.getAttributes()) {
+        for (final AttributeDeclaration attDec : attributes) {
             keyTypes.add(Types.getInstance().getType(attDec.getType()));
 
             name = name + Mangler.mangleName(attDec);
         }
         lookupName = name;
-        keyType = new BigTuple(keyTypes).getTupleType();
+        keyType = ordered ? keyTypes.get(0) : new BigTuple(keyTypes).getTupleType();
+        kind = unique ? "Lookup" : ordered ? "OrderedIndex" : "Index";
     }
 
     abstract public TypeUsage getStoredType();
@@ -45,41 +88,234 @@ public abstract class IdentifierLookupTranslator {
         return result;
     }
 
+    /**
+     * Called once the type of the lookup map is known, so that subclasses can
+     * arrange for it to be explicitly instantiated.
+     *
+     * @param lookupType the lookup map type
+     */
+    protected void addLookupInstantiation(final TypeUsage lookupType) {
+    }
+
     public Function addLookup() {
 
-        lookupType = Boost.unordered_map(getKeyType(), getStoredType());
+        final ContainerPolicy policy = ContainerPolicy.getPolicy(mainObjectTranslator.getObjectDeclaration());
+        if (unique) {
+            lookupType = policy.map(getKeyType(), getStoredType());
+        } else if (ordered) {
+            lookupType = policy.orderedMultimap(getKeyType(), getStoredType());
+        } else {
+            lookupType = policy.multimap(getKeyType(), getStoredType());
+        }
+        // The containers of other policies are alias templates, which cannot be
+        // explicitly instantiated
+        if (policy.isDefault()) {
+            addLookupInstantiation(new TypeUsage(lookupType));
+        }
         lookupAtt =
                 concreteObj.getPopulationClass().createMemberVariable(getDeclarationGroup(),
-                                                                      lookupName + "_Lookup",
+                                                                      lookupName + "_" + kind,
                                                                       new TypeUsage(lookupType),
                                                                       Visibility.PRIVATE);
-        final List<Expression> createGetters = new ArrayList<>();
-        final List<Expression> deleteGetters = new ArrayList<>();
-        for (final AttributeDeclaration attDec : identifier.getAttributes()) {
+
+        if (unique) {
+            getInstanceCreatedCode().appendExpression(getInsert(getInstanceCreatedInstance()));
+            getInstanceDeletedCode().appendExpression(new Function("erase").asFunctionCall(lookupAtt.asExpression(),
+                                                                                           false,
+                                                                                           getKey(getInstanceDeletedInstance())));
+        } else {
+            getInstanceCreatedCode().appendExpression(getIndexAdder().asFunctionCall(getInstanceCreatedInstance()));
+            getInstanceDeletedCode().appendExpression(getIndexRemover().asFunctionCall(getInstanceDeletedInstance()));
+        }
+
+        return findFunction;
+    }
+
+    /**
+     * @return a function adding an instance to a non-unique index under its
+     * current attribute values
+     */
+    public Function getIndexAdder() {
+        if (lookupAtt == null) {
+            // Adds the functions to maintain the index as well
+            addLookup();
+        }
+        if (indexAdder == null) {
+            indexAdder =
+                    concreteObj.getPopulationClass().createMemberFunction(getDeclarationGroup(),
+                                                                          "addTo" + kind + "_" + lookupName,
+                                                                          Visibility.PUBLIC);
             final Expression
-                    createGetter =
-                    mainObjectTranslator.getAttributeGetter(attDec).asFunctionCall(getInstanceCreatedInstance(), true);
-            createGetters.add(createGetter);
+                    instance =
+                    indexAdder.createParameter(getStoredType().getOptimalParameterType(), "instance").asExpression();
+            concreteObj.getPopulationBodyFile().addFunctionDefinition(indexAdder);
+            indexAdder.getCode().appendExpression(getInsert(instance));
+        }
+        return indexAdder;
+    }
+
+    /**
+     * @return a function removing an instance from a non-unique index, given
+     * that its attributes still hold the values it was added under
+     */
+    public Function getIndexRemover() {
+        if (lookupAtt == null) {
+            addLookup();
+        }
+        if (indexRemover == null) {
+            indexRemover =
+                    concreteObj.getPopulationClass().createMemberFunction(getDeclarationGroup(),
+                                                                          "removeFrom" + kind + "_" + lookupName,
+                                                                          Visibility.PUBLIC);
             final Expression
-                    deleteGetter =
-                    mainObjectTranslator.getAttributeGetter(attDec).asFunctionCall(getInstanceDeletedInstance(), true);
-            deleteGetters.add(deleteGetter);
+                    instance =
+                    indexRemover.createParameter(getStoredType().getOptimalParameterType(), "instance").asExpression();
+            concreteObj.getPopulationBodyFile().addFunctionDefinition(indexRemover);
+            indexRemover.getCode().appendExpression(Architecture.eraseIndexed.asFunctionCall(lookupAtt.asExpression(),
+                                                                                             getKey(instance),
+                                                                                             instance));
         }
+        return indexRemover;
+    }
 
-        final Expression createKey = BigTuple.getMakeTuple(createGetters);
-        final Expression deleteKey = BigTuple.getMakeTuple(deleteGetters);
+    private Expression getKey(final Expression instance) {
+        final List<Expression> getters = new ArrayList<>();
+        for (final AttributeDeclaration attDec : attributes) {
+            getters.add(mainObjectTranslator.getAttributeGetter(attDec).asFunctionCall(instance, true));
+        }
+        return ordered ? getters.get(0) : BigTuple.getMakeTuple(getters);
+    }
 
-        getInstanceCreatedCode().appendExpression(new Function("insert").asFunctionCall(lookupAtt.asExpression(),
-                                                                                        false,
-                                                                                        lookupType.referenceNestedType(
-                                                                                                "value_type").callConstructor(
-                                                                                                createKey,
-                                                                                                getInstanceCreatedInstance())));
-        getInstanceDeletedCode().appendExpression(new Function("erase").asFunctionCall(lookupAtt.asExpression(),
-                                                                                       false,
-                                                                                       deleteKey));
+    /**
+     * @param values the value of each attribute of the key, in key order
+     * @return the key to look up
+     */
+    public Expression getKey(final List<Expression> values) {
+        return ordered ? values.get(0) : BigTuple.getMakeTuple(values);
+    }
 
-        return findFunction;
+    /**
+     * @return the lookup itself, for scanning an index directly
+     */
+    public Expression getLookup() {
+        if (lookupAtt == null) {
+            addLookup();
+        }
+        return lookupAtt.asExpression();
+    }
+
+    /**
+     * @param value     the lower bound of an ordered index scan, or null for
+     *                  none
+     * @param inclusive whether instances equal to the bound are included
+     * @return an iterator to the first entry in the range
+     */
+    public Expression getLowerBound(final Expression value, final boolean inclusive) {
+        if (value == null) {
+            return new Function("begin").asFunctionCall(getLookup(), false);
+        }
+        return new Function(inclusive ? "lower_bound" : "upper_bound").asFunctionCall(getLookup(), false, value);
+    }
+
+    /**
+     * @param value     the upper bound of an ordered index scan, or null for
+     *                  none
+     * @param inclusive whether instances equal to the bound are included
+     * @return an iterator past the last entry in the range
+     */
+    public Expression getUpperBound(final Expression value, final boolean inclusive) {
+        if (value == null) {
+            return new Function("end").asFunctionCall(getLookup(), false);
+        }
+        return new Function(inclusive ? "upper_bound" : "lower_bound").asFunctionCall(getLookup(), false, value);
+    }
+
+    private Expression getInsert(final Expression instance) {
+        return new Function("insert").asFunctionCall(lookupAtt.asExpression(),
+                                                     false,
+                                                     lookupType.referenceNestedType("value_type").callConstructor(getKey(
+                                                             instance), instance));
+    }
+
+    /**
+     * Creates a const member function of the population taking each attribute
+     * of the key as a parameter.
+     *
+     * @return the key made up from the parameters
+     */
+    private Expression createKeyedFunction(final Function function, final TypeUsage returnType) {
+        if (lookupAtt == null) {
+            addLookup();
+        }
+        function.setConst(true);
+        function.setReturnType(returnType);
+        concreteObj.getPopulationBodyFile().addFunctionDefinition(function);
+        final List<Expression> params = new ArrayList<>();
+        for (final AttributeDeclaration attDec : attributes) {
+            final Variable
+                    param =
+                    function.createParameter(Types.getInstance().getType(attDec.getType()).getOptimalParameterType(),
+                                             Mangler.mangleName(attDec));
+            params.add(param.asExpression());
+        }
+        return BigTuple.getMakeTuple(params);
+    }
+
+    /**
+     * @return a function returning all the instances with the given attribute
+     * values
+     */
+    public Function getAllFinder() {
+        if (allFinder == null) {
+            final TypeUsage objPtr = new TypeUsage(Architecture.objectPtr(new TypeUsage(mainObjectTranslator.getMainClass())));
+            allFinder =
+                    concreteObj.getPopulationClass().createMemberFunction(getDeclarationGroup(),
+                                                                          "findAll_" + lookupName,
+                                                                          Visibility.PROTECTED);
+            final Expression key = createKeyedFunction(allFinder, new TypeUsage(Architecture.set(objPtr)));
+            allFinder.getCode().appendStatement(new ReturnStatement(Architecture.findIndexed.asFunctionCall(lookupAtt.asExpression(),
+                                                                                                          key)));
+        }
+        return allFinder;
+    }
+
+    /**
+     * @return a function returning the only instance with the given attribute
+     * values, failing if there is more than one
+     */
+    public Function getOnlyFinder() {
+        if (unique) {
+            return getFinder();
+        }
+        if (onlyFinder == null) {
+            final TypeUsage objPtr = new TypeUsage(Architecture.objectPtr(new TypeUsage(mainObjectTranslator.getMainClass())));
+            onlyFinder =
+                    concreteObj.getPopulationClass().createMemberFunction(getDeclarationGroup(),
+                                                                          "findOnly_" + lookupName,
+                                                                          Visibility.PROTECTED);
+            final Expression key = createKeyedFunction(onlyFinder, objPtr);
+            onlyFinder.getCode().appendStatement(new ReturnStatement(Architecture.findOnlyIndexed.asFunctionCall(
+                    lookupAtt.asExpression(),
+                    key)));
+        }
+        return onlyFinder;
+    }
+
+    /**
+     * @return a function counting the instances with the given attribute values
+     */
+    public Function getCounter() {
+        if (counter == null) {
+            counter =
+                    concreteObj.getPopulationClass().createMemberFunction(getDeclarationGroup(),
+                                                                          "count_" + lookupName,
+                                                                          Visibility.PROTECTED);
+            final Expression key = createKeyedFunction(counter, new TypeUsage(Std.size_t));
+            counter.getCode().appendStatement(new ReturnStatement(new Function("count").asFunctionCall(lookupAtt.asExpression(),
+                                                                                                     false,
+                                                                                                     key)));
+        }
+        return counter;
     }
 
     public Function getFinder() {
@@ -98,7 +334,7 @@ public abstract class IdentifierLookupTranslator {
             findFunction.setReturnType(new TypeUsage(objPtr));
             concreteObj.getPopulationBodyFile().addFunctionDefinition(findFunction);
             final List<Expression> params = new ArrayList<>();
-            for (final AttributeDeclaration attDec : identifier.getAttributes()) {
+            for (final AttributeDeclaration attDec : attributes) {
                 final Variable
                         param =
                         findFunction.createParameter(Types.getInstance().getType(attDec.getType()).getOptimalParameterType(),
@@ -146,7 +382,7 @@ public abstract class IdentifierLookupTranslator {
             checkFunction.setReturnType(new TypeUsage(FundamentalType.BOOL));
             concreteObj.getPopulationBodyFile().addFunctionDefinition(checkFunction);
             final List<Expression> params = new ArrayList<>();
-            for (final AttributeDeclaration attDec : identifier.getAttributes()) {
+            for (final AttributeDeclaration attDec : attributes) {
                 final Variable
                         param =
                         checkFunction.createParameter(Types.getInstance().getType(attDec.getType()).getOptimalParameterType(),
@@ -185,11 +421,19 @@ public abstract class IdentifierLookupTranslator {
 
     private final ConcreteObjectTranslator concreteObj;
     private final ObjectTranslator mainObjectTranslator;
-    private final IdentifierDeclaration identifier;
+    private final List<? extends AttributeDeclaration> attributes;
+    private final boolean unique;
+    private final boolean ordered;
+    private final String kind;
     private final TypeUsage keyType;
     private final String lookupName;
     private Function findFunction = null;
     private Function checkFunction = null;
+    private Function allFinder = null;
+    private Function onlyFinder = null;
+    private Function counter = null;
+    private Function indexAdder = null;
+    private Function indexRemover = null;
     private Variable lookupAtt;
     private Class lookupType;
 
@@ -384,6 +384,24 @@ public class Main {
         return fn;
     }
 
+    Function addCountFunction(final org.xtuml.masl.metamodel.expression.Expression predicate) {
+        final Function fn = addPopulationForwarder(population.addCountFunction(predicate), finders);
+        fn.setComment("MASL find: " + predicate);
+        return fn;
+    }
+
+    Function addOrderedFindFunction(final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                    final AttributeDeclaration attribute,
+                                    final Expression comparator) {
+        final Function
+                fn =
+                addPopulationForwarder(population.addOrderedFindFunction(predicate, attribute, comparator), finders);
+        if (predicate != null) {
+            fn.setComment("MASL find: " + predicate);
+        }
+        return fn;
+    }
+
     Function addFindPredicate(final org.xtuml.masl.metamodel.expression.Expression predicate) {
         final Function
                 predicateFn =
@@ -395,33 +413,13 @@ public class Main {
 
         final Scope fnScope = new Scope(scope);
 
-        // This function is going to be called by way of boost::bind, which has a
-        // maximum number of parameters, so if we would exceed this number (after
-        // including the object to bind to at the start) then use a tuple.
-        if (predicate.getFindParameters().size() + 1 > Boost.MAX_BIND_PARAMS) {
-            final List<TypeUsage> tupleTypes = new ArrayList<>(predicate.getFindParameters().size());
-            for (final FindParameterExpression maslParam : predicate.getFindParameters()) {
-                tupleTypes.add(domainTranslator.getTypes().getType(maslParam.getType()));
-            }
-            final BigTuple tuple = new BigTuple(tupleTypes);
+        for (final FindParameterExpression maslParam : predicate.getFindParameters()) {
             final Variable
-                    params =
-                    predicateFn.createParameter(tuple.getTupleType().getOptimalParameterType(), "params");
+                    param =
+                    predicateFn.createParameter(domainTranslator.getTypes().getType(maslParam.getType()).getOptimalParameterType(),
+                                                maslParam.getName());
 
-            int i = 0;
-            for (final FindParameterExpression maslParam : predicate.getFindParameters()) {
-                fnScope.addFindParameter(maslParam, tuple.getTupleGetter(params.asExpression(), i++));
-            }
-
-        } else {
-            for (final FindParameterExpression maslParam : predicate.getFindParameters()) {
-                final Variable
-                        param =
-                        predicateFn.createParameter(domainTranslator.getTypes().getType(maslParam.getType()).getOptimalParameterType(),
-                                                    maslParam.getName());
-
-                fnScope.addFindParameter(maslParam, param.asExpression());
-            }
+            fnScope.addFindParameter(maslParam, param.asExpression());
         }
 
         Expression predicateExpression = ExpressionTranslator.createTranslator(predicate, fnScope).getReadExpression();
@@ -689,6 +687,16 @@ public class Main {
         return stateEnum;
     }
 
+    /**
+     * Creates a private static function to perform a transition, or to ignore
+     * an event, for an entry in a dense transition table.
+     */
+    Function addTransitionFunction(final String name) {
+        final Function function = mainClass.createStaticFunction(stateActions, name, Visibility.PRIVATE);
+        getBodyFile().addFunctionDefinition(function);
+        return function;
+    }
+
     Function addStateFunction(final State state) {
         if (state.getType() == State.Type.ASSIGNER ||
             state.getType() == State.Type.ASSIGNER_START ||
@@ -724,7 +732,7 @@ public class Main {
     private final DeclarationGroup nestedTypes;
 
     private Population population;
-    private final Map<ObjectService, Scope> serviceScopes = new HashMap<>();
+    private final Map<ObjectService, Scope> serviceScopes = new LinkedHashMap<>();
 
     private final CodeFile bodyFile;
     private final DeclarationGroup constructors;
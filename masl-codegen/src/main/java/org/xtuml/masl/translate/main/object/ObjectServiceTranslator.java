@@ -84,7 +84,10 @@ public class ObjectServiceTranslator {
         file.addFunctionDefinition(function);
 
         if (service.getCode() != null) {
-            codeTranslator = CodeTranslator.createTranslator(service.getCode(), scope);
+            codeTranslator =
+                    domainTranslator.isReachable(service) ?
+                    CodeTranslator.createTranslator(service.getCode(), scope) :
+                    CodeTranslator.createUnreachableTranslator(service.getCode(), scope, service.getQualifiedName());
 
             function.getCode().appendStatement(codeTranslator.getFullCode());
         }
@@ -12,8 +12,13 @@ package org.xtuml.masl.translate.main.object;
 import org.xtuml.masl.cppgen.Class;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.cppgen.EnumerationType.Enumerator;
+import org.xtuml.masl.metamodel.common.PragmaDefinition;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.metamodel.expression.BinaryExpression.Operator;
 import org.xtuml.masl.metamodel.expression.Expression;
+import org.xtuml.masl.metamodel.expression.FindAttributeNameExpression;
 import org.xtuml.masl.metamodel.expression.FindExpression;
+import org.xtuml.masl.metamodel.expression.FindParameterExpression;
 import org.xtuml.masl.metamodel.expression.InstanceOrderingExpression;
 import org.xtuml.masl.metamodel.object.*;
 import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
@@ -22,6 +27,7 @@ import org.xtuml.masl.metamodel.statemodel.EventDeclaration;
 import org.xtuml.masl.metamodel.statemodel.State;
 import org.xtuml.masl.metamodel.statemodel.TransitionTable;
 import org.xtuml.masl.translate.main.*;
+import org.xtuml.masl.translate.main.expression.ExpressionTranslator;
 
 import java.util.*;
 
@@ -215,6 +221,21 @@ public class ObjectTranslator {
         return findFn;
     }
 
+    /**
+     * Gets the function counting the instances in the population which match a
+     * find predicate, for use where only the size of the find result is needed.
+     */
+    public Function getCountFunction(final Expression predicate) {
+        Function countFn = countFunctions.get(predicate);
+
+        if (countFn == null) {
+            getFindFunction(predicate, FindExpression.Type.FIND);
+            countFn = main.addCountFunction(predicate);
+            countFunctions.put(predicate, countFn);
+        }
+        return countFn;
+    }
+
     public Function getFindPredicate(final Expression predicate) {
         Function predicateFn = findPredicates.get(predicate);
 
@@ -226,30 +247,45 @@ public class ObjectTranslator {
         return predicateFn;
     }
 
-    public org.xtuml.masl.cppgen.Expression getBoundPredicate(final Expression predicate,
-                                                              final List<org.xtuml.masl.cppgen.Expression> findArgs) {
-        final Function predicateFn = getFindPredicate(predicate);
-
-        final List<org.xtuml.masl.cppgen.Expression> bindArgs = new ArrayList<>();
-        bindArgs.add(predicateFn.asFunctionPointer());
-        // &SWA::ObjectPtr<OBJECT>::get
-        final org.xtuml.masl.cppgen.Expression
-                ptrGetFunction =
-                Architecture.objectPtr(new TypeUsage(getMainClass())).getFunctionPointer("deref");
+    /**
+     * Creates a lambda which checks whether an instance matches the find
+     * predicate, passing the supplied arguments through to the predicate
+     * function.
+     */
+    public LambdaExpression getBoundPredicate(final Expression predicate,
+                                              final List<org.xtuml.masl.cppgen.Expression> findArgs) {
+        final LambdaExpression lambda = new LambdaExpression();
+        bindPredicate(lambda, predicate, findArgs);
+        return lambda;
+    }
 
-        // boost::bind([ptrGetFunction],boost::_1)
-        bindArgs.add(Boost.bind.asFunctionCall(ptrGetFunction, Boost.bind_1));
+    /**
+     * Creates a lambda which checks whether an instance matches the find
+     * predicate, evaluating the arguments from action code once when the lambda
+     * is created rather than for every instance checked.
+     */
+    public LambdaExpression getBoundPredicate(final Expression predicate,
+                                              final List<? extends Expression> findArgs,
+                                              final Scope scope) {
+        final LambdaExpression lambda = new LambdaExpression();
+        bindPredicate(lambda, predicate, ExpressionTranslator.captureArguments(lambda, findArgs, scope));
+        return lambda;
+    }
 
-        // If too many parameters for boost bind to cope with (not forgetting
-        // the bound object), then wrap in a tuple. Note that the predicate
-        // function should already be done!
-        if (findArgs.size() + 1 > Boost.MAX_BIND_PARAMS) {
-            bindArgs.add(BigTuple.getMakeTuple(findArgs));
-        } else {
-            bindArgs.addAll(findArgs);
-        }
+    private void bindPredicate(final LambdaExpression lambda,
+                               final Expression predicate,
+                               final List<org.xtuml.masl.cppgen.Expression> findArgs) {
+        final Function predicateFn = getFindPredicate(predicate);
 
-        return Boost.bind.asFunctionCall(bindArgs);
+        // [&](const SWA::ObjectPtr<OBJECT>& instance){ return instance.deref().predicate(args); }
+        final Variable
+                instance =
+                lambda.createParameter(new TypeUsage(Architecture.objectPtr(new TypeUsage(getMainClass())),
+                                                     TypeUsage.ConstReference), "instance");
+        final org.xtuml.masl.cppgen.Expression
+                object =
+                new Function("deref").asFunctionCall(instance.asExpression(), false);
+        lambda.setResult(predicateFn.asFunctionCall(object, false, findArgs));
     }
 
     /**
@@ -278,6 +314,412 @@ public class ObjectTranslator {
 
     }
 
+    /**
+     * Object pragma requesting a secondary index on a tuple of attributes, eg
+     * <code>pragma index(status, owner_id);</code>, so that finds checking for
+     * equality on exactly those attributes need not scan the population. Each
+     * occurrence of the pragma declares a separate index.
+     */
+    public static final String INDEX_PRAGMA = PragmaList.INDEX;
+
+    /**
+     * Returns the secondary indexes requested for an object. Indexes naming an
+     * unknown or derived referential attribute, and those duplicating an
+     * identifier or an earlier index, are ignored.
+     *
+     * @param object the object to find the indexes for
+     * @return the attributes making up each index
+     */
+    public static List<List<AttributeDeclaration>> getIndexes(final ObjectDeclaration object) {
+        final Map<String, AttributeDeclaration> attributes = new HashMap<>();
+        for (final AttributeDeclaration att : object.getAttributes()) {
+            attributes.put(att.getName(), att);
+        }
+
+        final Set<Set<AttributeDeclaration>> seen = new HashSet<>();
+        for (final IdentifierDeclaration identifier : object.getIdentifiers()) {
+            seen.add(new HashSet<>(identifier.getAttributes()));
+        }
+
+        final List<List<AttributeDeclaration>> result = new ArrayList<>();
+        for (final PragmaList pragmas : Arrays.asList(object.getDeclarationPragmas(), object.getDefinitionPragmas())) {
+            if (pragmas == null) {
+                continue;
+            }
+            for (final PragmaDefinition pragma : pragmas.getPragmas()) {
+                if (!INDEX_PRAGMA.equals(pragma.getName())) {
+                    continue;
+                }
+                final List<AttributeDeclaration> index = new ArrayList<>();
+                for (final String name : pragma.getValues()) {
+                    final AttributeDeclaration att = attributes.get(name.trim());
+                    if (att == null || (att.isReferential() && !att.isIdentifier())) {
+                        index.clear();
+                        break;
+                    }
+                    index.add(att);
+                }
+                if (!index.isEmpty() && seen.add(new HashSet<>(index))) {
+                    result.add(index);
+                }
+            }
+        }
+
+        if (hasPragma(object, PREFIX_INDEX_PRAGMA)) {
+            for (final IdentifierDeclaration identifier : object.getIdentifiers()) {
+                final List<? extends AttributeDeclaration> idAtts = identifier.getAttributes();
+                for (int length = 1; length < idAtts.size(); ++length) {
+                    final List<AttributeDeclaration> prefix = new ArrayList<>(idAtts.subList(0, length));
+                    if (seen.add(new HashSet<>(prefix))) {
+                        result.add(prefix);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Object pragma requesting a secondary index on each leading part of every
+     * composite identifier, eg on <code>(site)</code> and
+     * <code>(site, rack)</code> for an identifier <code>(site, rack,
+     * slot)</code>, so that finds which pin only the first few attributes of an
+     * identifier need not scan the population.
+     */
+    public static final String PREFIX_INDEX_PRAGMA = "prefix_index";
+
+    private static boolean hasPragma(final ObjectDeclaration object, final String name) {
+        for (final PragmaList pragmas : Arrays.asList(object.getDeclarationPragmas(), object.getDefinitionPragmas())) {
+            if (pragmas != null && pragmas.hasPragma(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<List<AttributeDeclaration>> getIndexes() {
+        if (indexes == null) {
+            indexes = getIndexes(objectDeclaration);
+        }
+        return indexes;
+    }
+
+    /**
+     * The key to look up in an identifier or secondary index to satisfy a find,
+     * along with the find parameter giving the value of each attribute in the
+     * key.
+     */
+    public static class LookupKey {
+
+        private LookupKey(final IdentifierDeclaration identifier,
+                        final List<? extends AttributeDeclaration> attributes,
+                        final Map<AttributeDeclaration, FindParameterExpression> parameters,
+                        final boolean complete) {
+            this.identifier = identifier;
+            this.attributes = attributes;
+            this.parameters = parameters;
+            this.complete = complete;
+        }
+
+        /**
+         * @return the identifier to look up, or null if the key is a secondary
+         * index
+         */
+        public IdentifierDeclaration getIdentifier() {
+            return identifier;
+        }
+
+        /**
+         * @return the attributes making up the key, in key order
+         */
+        public List<? extends AttributeDeclaration> getAttributes() {
+            return attributes;
+        }
+
+        public FindParameterExpression getParameter(final AttributeDeclaration attribute) {
+            return parameters.get(attribute);
+        }
+
+        /**
+         * @return whether the key is the whole of the predicate, so that
+         * instances found need no further check
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        private final IdentifierDeclaration identifier;
+        private final List<? extends AttributeDeclaration> attributes;
+        private final Map<AttributeDeclaration, FindParameterExpression> parameters;
+        private final boolean complete;
+    }
+
+    /**
+     * Given a find predicate returns the identifier or secondary index that can
+     * be used to satisfy it. The predicate must be a conjunction which checks
+     * for equality on all the attributes of the key; any other conditions are
+     * left to be checked against the instances found. An identifier is
+     * preferred to an index, and a longer index to a shorter one.
+     *
+     * @param object    the object being searched
+     * @param predicate the find predicate
+     * @return the key, or null if no identifier or index applies
+     */
+    public static LookupKey getLookupKey(final ObjectDeclaration object, final Expression predicate) {
+        return getLookupKey(object, getIndexes(object), predicate);
+    }
+
+    public LookupKey getLookupKey(final Expression predicate) {
+        return getLookupKey(objectDeclaration, getIndexes(), predicate);
+    }
+
+    private static LookupKey getLookupKey(final ObjectDeclaration object,
+                                      final List<List<AttributeDeclaration>> indexes,
+                                      final Expression predicate) {
+        if (predicate == null) {
+            return null;
+        }
+        final List<Expression> conditions = new ArrayList<>();
+        addConditions(predicate, conditions);
+
+        final Map<AttributeDeclaration, FindParameterExpression> parameters = new LinkedHashMap<>();
+        for (final Expression condition : conditions) {
+            if (condition instanceof org.xtuml.masl.metamodel.expression.BinaryExpression binary &&
+                binary.getOperator() == Operator.EQUAL) {
+                if (binary.getLhs() instanceof FindAttributeNameExpression lhs &&
+                    binary.getRhs() instanceof FindParameterExpression rhs) {
+                    parameters.putIfAbsent(lhs.getAttribute(), rhs);
+                } else if (binary.getRhs() instanceof FindAttributeNameExpression rhs &&
+                           binary.getLhs() instanceof FindParameterExpression lhs) {
+                    parameters.putIfAbsent(rhs.getAttribute(), lhs);
+                }
+            }
+        }
+
+        for (final IdentifierDeclaration identifier : object.getIdentifiers()) {
+            if (parameters.keySet().containsAll(identifier.getAttributes())) {
+                return new LookupKey(identifier,
+                                   identifier.getAttributes(),
+                                   parameters,
+                                   conditions.size() == identifier.getAttributes().size());
+            }
+        }
+
+        List<AttributeDeclaration> best = null;
+        for (final List<AttributeDeclaration> index : indexes) {
+            if (parameters.keySet().containsAll(index) && (best == null || index.size() > best.size())) {
+                best = index;
+            }
+        }
+        return best == null ? null : new LookupKey(null, best, parameters, conditions.size() == best.size());
+    }
+
+    /**
+     * @return the attributes of each index containing the attribute
+     */
+    public List<List<AttributeDeclaration>> getIndexesContaining(final AttributeDeclaration attribute) {
+        final List<List<AttributeDeclaration>> result = new ArrayList<>();
+        for (final List<AttributeDeclaration> index : getIndexes()) {
+            if (index.contains(attribute)) {
+                result.add(index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Object pragma requesting an ordered index on each of the named attributes,
+     * eg <code>pragma ordered_index(received);</code>, so that finds comparing
+     * the attribute against a range need not scan the population, and finds
+     * ordered by the attribute need not sort.
+     */
+    public static final String ORDERED_INDEX_PRAGMA = "ordered_index";
+
+    /**
+     * Returns the attributes with an ordered index requested for an object.
+     * Unknown and derived referential attributes are ignored.
+     *
+     * @param object the object to find the ordered indexes for
+     * @return the attribute for each ordered index
+     */
+    public static List<AttributeDeclaration> getOrderedIndexes(final ObjectDeclaration object) {
+        final Set<AttributeDeclaration> result = new LinkedHashSet<>();
+        for (final PragmaList pragmas : Arrays.asList(object.getDeclarationPragmas(), object.getDefinitionPragmas())) {
+            if (pragmas == null || !pragmas.hasPragma(ORDERED_INDEX_PRAGMA)) {
+                continue;
+            }
+            for (final String name : pragmas.getPragmaValues(ORDERED_INDEX_PRAGMA)) {
+                for (final AttributeDeclaration att : object.getAttributes()) {
+                    if (att.getName().equals(name.trim()) && (att.isIdentifier() || !att.isReferential())) {
+                        result.add(att);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    public List<AttributeDeclaration> getOrderedIndexes() {
+        if (orderedIndexes == null) {
+            orderedIndexes = getOrderedIndexes(objectDeclaration);
+        }
+        return orderedIndexes;
+    }
+
+    /**
+     * The bounds a find predicate places on an attribute with an ordered index,
+     * given as the find parameters the attribute is compared against. A missing
+     * bound leaves that end of the range open.
+     */
+    public static final class FindRange {
+
+        private FindRange(final AttributeDeclaration attribute) {
+            this.attribute = attribute;
+        }
+
+        public AttributeDeclaration getAttribute() {
+            return attribute;
+        }
+
+        public FindParameterExpression getLower() {
+            return lower;
+        }
+
+        public boolean isLowerInclusive() {
+            return lowerInclusive;
+        }
+
+        public FindParameterExpression getUpper() {
+            return upper;
+        }
+
+        public boolean isUpperInclusive() {
+            return upperInclusive;
+        }
+
+        /**
+         * @return whether the bounds are the whole of the predicate, so that
+         * instances in the range need no further check
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * Narrows the range by a single condition of the predicate.
+         *
+         * @return whether the condition is fully expressed by the range
+         */
+        private boolean addBound(final Expression condition) {
+            if (!(condition instanceof org.xtuml.masl.metamodel.expression.BinaryExpression binary)) {
+                return false;
+            }
+            Operator operator = binary.getOperator();
+            final FindParameterExpression param;
+            if (binary.getLhs() instanceof FindAttributeNameExpression lhs &&
+                lhs.getAttribute() == attribute &&
+                binary.getRhs() instanceof FindParameterExpression rhs) {
+                param = rhs;
+            } else if (binary.getRhs() instanceof FindAttributeNameExpression rhs &&
+                       rhs.getAttribute() == attribute &&
+                       binary.getLhs() instanceof FindParameterExpression lhs) {
+                param = lhs;
+                operator = switch (operator) {
+                    case LESS_THAN -> Operator.GREATER_THAN;
+                    case LESS_THAN_OR_EQUAL -> Operator.GREATER_THAN_OR_EQUAL;
+                    case GREATER_THAN -> Operator.LESS_THAN;
+                    case GREATER_THAN_OR_EQUAL -> Operator.LESS_THAN_OR_EQUAL;
+                    default -> operator;
+                };
+            } else {
+                return false;
+            }
+
+            final boolean toLower = switch (operator) {
+                case EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL -> lower == null;
+                default -> false;
+            };
+            final boolean toUpper = switch (operator) {
+                case EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL -> upper == null;
+                default -> false;
+            };
+            if (operator == Operator.EQUAL && !(toLower && toUpper)) {
+                return false;
+            }
+            if (toLower) {
+                lower = param;
+                lowerInclusive = operator != Operator.GREATER_THAN;
+            }
+            if (toUpper) {
+                upper = param;
+                upperInclusive = operator != Operator.LESS_THAN;
+            }
+            return toLower || toUpper;
+        }
+
+        private final AttributeDeclaration attribute;
+        private FindParameterExpression lower = null;
+        private boolean lowerInclusive = false;
+        private FindParameterExpression upper = null;
+        private boolean upperInclusive = false;
+        private boolean complete = false;
+    }
+
+    /**
+     * Given a find predicate returns the range it selects on an attribute with
+     * an ordered index. The predicate must be a conjunction, at least one of
+     * whose conditions compares the attribute against a find parameter.
+     *
+     * @param object    the object being searched
+     * @param predicate the find predicate
+     * @return the range, or null if no ordered index applies
+     */
+    public static FindRange getFindRange(final ObjectDeclaration object, final Expression predicate) {
+        return getFindRange(getOrderedIndexes(object), predicate);
+    }
+
+    public FindRange getFindRange(final Expression predicate) {
+        return getFindRange(getOrderedIndexes(), predicate);
+    }
+
+    /**
+     * @return the range the predicate selects on the given attribute, or null
+     * if it places no bounds on it
+     */
+    public FindRange getFindRange(final Expression predicate, final AttributeDeclaration attribute) {
+        return getFindRange(Collections.singletonList(attribute), predicate);
+    }
+
+    private static FindRange getFindRange(final List<AttributeDeclaration> orderedIndexes, final Expression predicate) {
+        if (predicate == null || orderedIndexes.isEmpty()) {
+            return null;
+        }
+        final List<Expression> conditions = new ArrayList<>();
+        addConditions(predicate, conditions);
+
+        for (final AttributeDeclaration attribute : orderedIndexes) {
+            final FindRange range = new FindRange(attribute);
+            boolean complete = true;
+            for (final Expression condition : conditions) {
+                complete &= range.addBound(condition);
+            }
+            if (range.lower != null || range.upper != null) {
+                range.complete = complete;
+                return range;
+            }
+        }
+        return null;
+    }
+
+    private static void addConditions(final Expression predicate, final List<Expression> conditions) {
+        if (predicate instanceof org.xtuml.masl.metamodel.expression.BinaryExpression binary && binary.getOperator() == Operator.AND) {
+            addConditions(binary.getLhs(), conditions);
+            addConditions(binary.getRhs(), conditions);
+        } else {
+            conditions.add(predicate);
+        }
+    }
+
     private void addStreamOperator() {
         final Function streamOperator = new Function("operator<<", DomainNamespace.get(objectDeclaration.getDomain()));
         streamOperator.setReturnType(new TypeUsage(Std.ostream, TypeUsage.Reference));
@@ -394,6 +836,50 @@ public class ObjectTranslator {
         return predicateFn;
     }
 
+    /**
+     * Creates a lambda comparing two instances by the given attributes, for use
+     * as the predicate of <code>ordered_by</code>.
+     */
+    public LambdaExpression getOrderByComparator(final List<? extends InstanceOrderingExpression.Component> attributeOrder) {
+        // [&](const SWA::ObjectPtr<OBJECT>& lhs, const SWA::ObjectPtr<OBJECT>& rhs)
+        //   { return lhs.deref().predicate(rhs.deref()); }
+        final TypeUsage
+                ptrType =
+                new TypeUsage(Architecture.objectPtr(new TypeUsage(getMainClass())), TypeUsage.ConstReference);
+        final LambdaExpression comparator = new LambdaExpression();
+        final org.xtuml.masl.cppgen.Expression
+                lhs =
+                new Function("deref").asFunctionCall(comparator.createParameter(ptrType, "lhs").asExpression(), false);
+        final org.xtuml.masl.cppgen.Expression
+                rhs =
+                new Function("deref").asFunctionCall(comparator.createParameter(ptrType, "rhs").asExpression(), false);
+        comparator.setResult(getOrderByPredicate(attributeOrder).asFunctionCall(lhs, false, rhs));
+        return comparator;
+    }
+
+    /**
+     * Gets the function returning the instances in the population which match
+     * a find predicate in ascending order of a single attribute, for use where
+     * the result of a find is immediately ordered by that attribute.
+     *
+     * @param predicate      the find predicate, or null for all instances
+     * @param attributeOrder the ordering, which must be a single attribute in
+     *                       ascending order
+     */
+    public Function getOrderedFindFunction(final Expression predicate,
+                                           final List<? extends InstanceOrderingExpression.Component> attributeOrder) {
+        final AttributeDeclaration attribute = attributeOrder.get(0).getAttribute();
+        final List<Object> key = Arrays.asList(predicate, attribute);
+        Function orderedFn = orderedFindFunctions.get(key);
+
+        if (orderedFn == null) {
+            getFindFunction(predicate, FindExpression.Type.FIND);
+            orderedFn = main.addOrderedFindFunction(predicate, attribute, getOrderByComparator(attributeOrder));
+            orderedFindFunctions.put(key, orderedFn);
+        }
+        return orderedFn;
+    }
+
     public TypeUsage getPointerType() {
         return pointerType;
     }
@@ -445,6 +931,27 @@ public class ObjectTranslator {
         getFindFunction(null, FindExpression.Type.FIND_ONE);
         getFindFunction(null, FindExpression.Type.FIND_ONLY);
 
+        addExplicitInstantiations();
+    }
+
+    /**
+     * Declares the pointer and set types for the object extern in its header, so
+     * that they are instantiated once in the object's instantiation file rather
+     * than in every file that uses the object. The set needs the other
+     * collections to instantiate its conversion and ordering members.
+     */
+    private void addExplicitInstantiations() {
+        final String fileName = Mangler.mangleFile(objectDeclaration) + "_instantiations";
+        domainTranslator.addExplicitInstantiation(pointerType,
+                                                  main.getHeaderFile(),
+                                                  domainTranslator.getLibrary(),
+                                                  fileName);
+        domainTranslator.addExplicitInstantiation(new TypeUsage(Architecture.set(pointerType)),
+                                                  main.getHeaderFile(),
+                                                  domainTranslator.getLibrary(),
+                                                  fileName,
+                                                  Architecture.bagInc,
+                                                  Architecture.sequenceInc);
     }
 
     public void addRelationships() {
@@ -500,7 +1007,7 @@ public class ObjectTranslator {
         addEventGenerators(objectDeclaration, eventsEnum);
     }
 
-    private final Map<EventDeclaration, org.xtuml.masl.cppgen.Expression> eventIds = new HashMap<>();
+    private final Map<EventDeclaration, org.xtuml.masl.cppgen.Expression> eventIds = new LinkedHashMap<>();
 
     public org.xtuml.masl.cppgen.Expression getEventId(final EventDeclaration event) {
         return eventIds.get(event);
@@ -598,22 +1105,26 @@ public class ObjectTranslator {
 
     private EnumerationType statesEnum;
 
-    Map<EventDeclaration, EventTranslator> eventTranslators = new HashMap<>();
-    private final Map<State, StateActionTranslator> actionTranslators = new HashMap<>();
+    Map<EventDeclaration, EventTranslator> eventTranslators = new LinkedHashMap<>();
+    private final Map<State, StateActionTranslator> actionTranslators = new LinkedHashMap<>();
 
     private StateMachineTranslator assignerFsm = null;
-    private final Map<AttributeDeclaration, Function> attributeGetters = new HashMap<>();
-    private final Map<AttributeDeclaration, Function> attributeSetters = new HashMap<>();
+    private final Map<AttributeDeclaration, Function> attributeGetters = new LinkedHashMap<>();
+    private final Map<AttributeDeclaration, Function> attributeSetters = new LinkedHashMap<>();
+    private List<List<AttributeDeclaration>> indexes = null;
+    private List<AttributeDeclaration> orderedIndexes = null;
     private Function createInstance;
     private Function deleteInstance;
     private Function getPopulationSize;
 
-    private final Map<FindKey, Function> findFunctions = new HashMap<>();
-    private final Map<Expression, Function> findPredicates = new HashMap<>();
+    private final Map<FindKey, Function> findFunctions = new LinkedHashMap<>();
+    private final Map<Expression, Function> findPredicates = new LinkedHashMap<>();
+    private final Map<Expression, Function> countFunctions = new LinkedHashMap<>();
+    private final Map<List<Object>, Function> orderedFindFunctions = new LinkedHashMap<>();
     private Function getId;
     private Function getNextArchId;
-    private final Map<AttributeDeclaration, Function> getUniqueIds = new HashMap<>();
-    private final Map<AttributeDeclaration, Function> useUniqueIds = new HashMap<>();
+    private final Map<AttributeDeclaration, Function> getUniqueIds = new LinkedHashMap<>();
+    private final Map<AttributeDeclaration, Function> useUniqueIds = new LinkedHashMap<>();
     private Function getInstance;
     private Function generateDelayedEvent;
 
@@ -624,12 +1135,12 @@ public class ObjectTranslator {
     private final ObjectDeclaration objectDeclaration;
     private final Map<List<? extends InstanceOrderingExpression.Component>, Function>
             orderByPredicates =
-            new HashMap<>();
+            new LinkedHashMap<>();
     private final TypeUsage pointerType;
     private Population population;
 
-    private final Map<ObjectService, ObjectServiceTranslator> serviceTranslators = new HashMap<>();
-    private final Map<RelationshipSpecification, RelationshipTranslator> relationshipTranslators = new HashMap<>();
+    private final Map<ObjectService, ObjectServiceTranslator> serviceTranslators = new LinkedHashMap<>();
+    private final Map<RelationshipSpecification, RelationshipTranslator> relationshipTranslators = new LinkedHashMap<>();
     private final DomainTranslator domainTranslator;
 
     public DomainTranslator getDomainTranslator() {
@@ -20,8 +20,10 @@ import org.xtuml.masl.translate.main.expression.PredicateNameMangler;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class Population {
 
@@ -133,7 +135,7 @@ public class Population {
         return createInstanceParams.get(att);
     }
 
-    Map<AttributeDeclaration, Expression> createInstanceParams = new HashMap<>();
+    Map<AttributeDeclaration, Expression> createInstanceParams = new LinkedHashMap<>();
 
     Function addDeleteInstance() {
         deleteInstance = theClass.createMemberFunction(creators, "deleteInstance", Visibility.PUBLIC);
@@ -267,6 +269,136 @@ public class Population {
         return findFn;
     }
 
+    public class CountFunction {
+
+        public Function function;
+        public org.xtuml.masl.metamodel.expression.Expression predicate;
+
+        public CountFunction(final Function function, final org.xtuml.masl.metamodel.expression.Expression predicate) {
+            this.function = function;
+            this.predicate = predicate;
+        }
+    }
+
+    Collection<CountFunction> countFunctions = new ArrayList<>();
+
+    public Collection<CountFunction> getCountFunctions() {
+        return countFunctions;
+    }
+
+    /**
+     * Adds a function counting the instances matching a find predicate. By
+     * default this takes the size of the result of the corresponding find, but
+     * it is virtual so that an architecture which can count without building
+     * the set may do so.
+     *
+     * @param predicate the find predicate, which must already have a find
+     *                  function
+     * @return the count function
+     */
+    Function addCountFunction(final org.xtuml.masl.metamodel.expression.Expression predicate) {
+        Function find = null;
+        for (final FindFunction findFunction : findFunctions) {
+            if (findFunction.type == FindExpression.Type.FIND && predicate.equals(findFunction.predicate)) {
+                find = findFunction.function;
+            }
+        }
+
+        final Function
+                countFn =
+                theClass.createMemberFunction(retrieval,
+                                              "count_" + PredicateNameMangler.createMangler(predicate).getName(),
+                                              Visibility.PUBLIC);
+        final List<Expression> findArgs = new ArrayList<>();
+        for (final FindParameterExpression maslParam : predicate.getFindParameters()) {
+            findArgs.add(countFn.createParameter(domainTranslator.getTypes().getType(maslParam.getType()).getOptimalParameterType(),
+                                                 maslParam.getName()).asExpression());
+        }
+        countFn.setComment("MASL find: " + predicate);
+        countFn.setConst(true);
+        countFn.setVirtual(true);
+        countFn.setReturnType(new TypeUsage(Std.size_t));
+        countFn.getCode().appendStatement(new ReturnStatement(new Function("size").asFunctionCall(find.asFunctionCall(
+                findArgs), false)));
+        bodyFile.addFunctionDefinition(countFn);
+
+        countFunctions.add(new CountFunction(countFn, predicate));
+
+        return countFn;
+    }
+
+    public class OrderedFindFunction {
+
+        public Function function;
+        public org.xtuml.masl.metamodel.expression.Expression predicate;
+        public AttributeDeclaration attribute;
+
+        public OrderedFindFunction(final Function function,
+                                   final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                   final AttributeDeclaration attribute) {
+            this.function = function;
+            this.predicate = predicate;
+            this.attribute = attribute;
+        }
+    }
+
+    Collection<OrderedFindFunction> orderedFindFunctions = new ArrayList<>();
+
+    public Collection<OrderedFindFunction> getOrderedFindFunctions() {
+        return orderedFindFunctions;
+    }
+
+    /**
+     * Adds a function returning the instances matching a find predicate in
+     * ascending order of an attribute. By default this orders the result of the
+     * corresponding find, but it is virtual so that an architecture holding the
+     * instances in that order may avoid the sort.
+     *
+     * @param predicate  the find predicate, or null for all instances, which
+     *                   must already have a find function
+     * @param attribute  the attribute to order by
+     * @param comparator the comparison to order by
+     * @return the ordered find function
+     */
+    Function addOrderedFindFunction(final org.xtuml.masl.metamodel.expression.Expression predicate,
+                                    final AttributeDeclaration attribute,
+                                    final Expression comparator) {
+        Function find = null;
+        for (final FindFunction findFunction : findFunctions) {
+            if (findFunction.type == FindExpression.Type.FIND && Objects.equals(predicate, findFunction.predicate)) {
+                find = findFunction.function;
+            }
+        }
+
+        final Function
+                orderedFn =
+                theClass.createMemberFunction(retrieval,
+                                              (predicate == null ? "findAllOrdered_" : "findOrdered_") +
+                                              Mangler.mangleName(attribute) +
+                                              (predicate == null ?
+                                               "" :
+                                               "_" + PredicateNameMangler.createMangler(predicate).getName()),
+                                              Visibility.PUBLIC);
+        final List<Expression> findArgs = new ArrayList<>();
+        if (predicate != null) {
+            for (final FindParameterExpression maslParam : predicate.getFindParameters()) {
+                findArgs.add(orderedFn.createParameter(domainTranslator.getTypes().getType(maslParam.getType()).getOptimalParameterType(),
+                                                       maslParam.getName()).asExpression());
+            }
+            orderedFn.setComment("MASL find: " + predicate);
+        }
+        orderedFn.setConst(true);
+        orderedFn.setVirtual(true);
+        orderedFn.setReturnType(new TypeUsage(Architecture.sequence(translator.getPointerType())));
+        orderedFn.getCode().appendStatement(new ReturnStatement(new Function("ordered_by").asFunctionCall(find.asFunctionCall(
+                findArgs), false, comparator)));
+        bodyFile.addFunctionDefinition(orderedFn);
+
+        orderedFindFunctions.add(new OrderedFindFunction(orderedFn, predicate, attribute));
+
+        return orderedFn;
+    }
+
     Function addGetUniqueId(final AttributeDeclaration att) {
         final TypeUsage type = Types.getInstance().getType(att.getType());
         final Function
@@ -336,8 +468,8 @@ public class Population {
     private Function getInstance;
 
     private final Function getSingleton;
-    private final Map<AttributeDeclaration, Function> getUniqueIds = new HashMap<>();
-    private final Map<AttributeDeclaration, Function> useUniqueIds = new HashMap<>();
+    private final Map<AttributeDeclaration, Function> getUniqueIds = new LinkedHashMap<>();
+    private final Map<AttributeDeclaration, Function> useUniqueIds = new LinkedHashMap<>();
     private Function getNextArchId;
 
     private final DeclarationGroup retrieval;
@@ -14,12 +14,14 @@ import org.xtuml.masl.cppgen.Class;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.metamodel.expression.FindParameterExpression;
 import org.xtuml.masl.metamodel.object.AttributeDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.metamodel.object.ReferentialAttributeDefinition;
 import org.xtuml.masl.metamodel.relationship.MultiplicityType;
 import org.xtuml.masl.metamodel.relationship.RelationshipSpecification;
 import org.xtuml.masl.metamodel.type.TypeDefinition.ActualType;
 import org.xtuml.masl.translate.main.Architecture;
 import org.xtuml.masl.translate.main.DomainTranslator;
+import org.xtuml.masl.translate.main.Mangler;
 import org.xtuml.masl.translate.main.Types;
 import org.xtuml.masl.translate.main.expression.PredicateNameMangler;
 
@@ -172,6 +174,7 @@ public class RelationshipTranslator {
         this.mainClass = objectTranslator.getMainClass();
         this.bodyFile = objectTranslator.getMain().getBodyFile();
         this.domainTranslator = objectTranslator.getDomainTranslator();
+        this.objectDeclaration = objectTranslator.getObjectDeclaration();
 
         specName =
                 relSpec.getRelationship().getName() +
@@ -382,7 +385,11 @@ public class RelationshipTranslator {
                                                        maslParam.getName()).asExpression());
         }
 
-        bodyFile.addFunctionDefinition(condNavigator);
+        domainTranslator.getActionBodyFile(objectDeclaration,
+                                           domainTranslator.getLibrary(),
+                                           bodyFile,
+                                           Mangler.mangleFile(objectDeclaration),
+                                           condNavigator).addFunctionDefinition(condNavigator);
 
         final ObjectTranslator destObjTranslator = ObjectTranslator.getInstance(spec.getDestinationObject());
         final Function predicateFn = destObjTranslator.getFindPredicate(predicate);
@@ -1083,6 +1090,7 @@ public class RelationshipTranslator {
     private final Class assocSetType;
     private final Class assocBagType;
     private final CodeFile bodyFile;
+    private final ObjectDeclaration objectDeclaration;
     private final DeclarationGroup group;
 
 }
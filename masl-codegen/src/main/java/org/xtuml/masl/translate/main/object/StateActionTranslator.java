@@ -64,7 +64,10 @@ public class StateActionTranslator {
         file.addFunctionDefinition(function);
 
         if (state.getCode() != null) {
-            codeTranslator = CodeTranslator.createTranslator(state.getCode(), scope);
+            codeTranslator =
+                    domainTranslator.isReachable(state) ?
+                    CodeTranslator.createTranslator(state.getCode(), scope) :
+                    CodeTranslator.createUnreachableTranslator(state.getCode(), scope, state.getQualifiedName());
 
             function.getCode().appendStatement(codeTranslator.getFullCode());
         }
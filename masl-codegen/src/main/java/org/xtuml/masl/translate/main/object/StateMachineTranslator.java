@@ -9,10 +9,13 @@
  */
 package org.xtuml.masl.translate.main.object;
 
+import org.xtuml.masl.cppgen.Class;
 import org.xtuml.masl.cppgen.*;
 import org.xtuml.masl.cppgen.EnumerationType.Enumerator;
 import org.xtuml.masl.cppgen.SwitchStatement.CaseCondition;
+import org.xtuml.masl.metamodel.common.PragmaList;
 import org.xtuml.masl.metamodel.object.AttributeDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.metamodel.statemodel.*;
 import org.xtuml.masl.translate.main.Architecture;
 import org.xtuml.masl.translate.main.Boost;
@@ -84,7 +87,36 @@ public class StateMachineTranslator {
         return this.isAssigner;
     }
 
-    Statement getProcessEventCode(final EventDeclaration event, final List<Expression> stateArgs) {
+    /**
+     * Object pragma choosing how events are dispatched to state actions. With
+     * a value of <code>true</code>, or no value, each event is dispatched
+     * through a dense table holding the action for each state; with
+     * <code>false</code> it is dispatched by a switch on the current state.
+     * Without the pragma a table is used for state machines with at least
+     * {@link #TRANSITION_TABLE_THRESHOLD} states.
+     */
+    public static final String TRANSITION_TABLE_PRAGMA = "transition_table";
+
+    public static final int TRANSITION_TABLE_THRESHOLD = 16;
+
+    private boolean useTransitionTable() {
+        // Assigner state actions are static, so there is no instance to pass
+        // through the table
+        if (isAssigner || states.isEmpty()) {
+            return false;
+        }
+        final ObjectDeclaration object = translator.getObjectDeclaration();
+        for (final PragmaList pragmas : Arrays.asList(object.getDeclarationPragmas(), object.getDefinitionPragmas())) {
+            if (pragmas != null && pragmas.hasPragma(TRANSITION_TABLE_PRAGMA)) {
+                return !"false".equals(pragmas.getValue(TRANSITION_TABLE_PRAGMA));
+            }
+        }
+        return states.size() >= TRANSITION_TABLE_THRESHOLD;
+    }
+
+    Statement getProcessEventCode(final EventDeclaration event,
+                                  final Function processFunction,
+                                  final List<Expression> stateArgs) {
         final Expression domainId = translator.getDomainTranslator().getDomainId();
         final Expression objectId = translator.getObjectId();
         final Expression eventId = translator.getEventId(event);
@@ -115,7 +147,9 @@ public class StateMachineTranslator {
             return result;
         } else {
             final List<CaseCondition> cases = new ArrayList<>();
-            for (final StateTransition transition : transitions.get(event)) {
+            for (final StateTransition transition : useTransitionTable() ?
+                                                    Collections.<StateTransition>emptyList() :
+                                                    transitions.get(event)) {
                 // Shouldn't be necessary to check this, as there should be no valid
                 // non-creation events from a creation state!
                 if (transition.from != null) {
@@ -187,11 +221,151 @@ public class StateMachineTranslator {
 
             final ThrowStatement throwStatement = new ThrowStatement(Std.OutOfRangeError.callConstructor(message));
 
+            if (useTransitionTable()) {
+                return getTransitionTableCode(event, processFunction, stateArgs, throwStatement);
+            }
             return new SwitchStatement(getCurrentState.asFunctionCall(), cases, throwStatement);
         }
 
     }
 
+    /**
+     * Dispatches an event through a table holding, for each state in turn, a
+     * pointer to a function performing the transition for the event from that
+     * state, or doing nothing if it is ignored. The entry for a state in which
+     * the event cannot happen is null, and is rejected in the same way as a
+     * current state outside the table. The event is dispatched with a single
+     * indexed load and indirect call, rather than through a switch which for a
+     * large state machine compiles to a long chain of branches.
+     */
+    private Statement getTransitionTableCode(final EventDeclaration event,
+                                             final Function processFunction,
+                                             final List<Expression> stateArgs,
+                                             final Statement cannotHappen) {
+        final String suffix = processFunction.getName().substring("process".length());
+
+        final List<TypeUsage> actionTypes = new ArrayList<>();
+        actionTypes.add(new TypeUsage(translator.getMainClass()));
+        for (final Variable param : processFunction.getParameters()) {
+            actionTypes.add(param.getType());
+        }
+        final Class actionType = Architecture.transitionAction(actionTypes);
+
+        final Map<Enumerator, Function> transitionFns = new LinkedHashMap<>();
+        Function ignoreFn = null;
+
+        final List<Expression> entries = new ArrayList<>();
+        for (final State state : states) {
+            StateTransition found = null;
+            for (final StateTransition transition : transitions.get(event)) {
+                if (transition.from == stateEnums.get(state)) {
+                    found = transition;
+                    break;
+                }
+            }
+            if (found == null) {
+                entries.add(Literal.NULL);
+            } else if (found.stateFn == null) {
+                if (ignoreFn == null) {
+                    ignoreFn = createTransitionFunction("ignore" + suffix, processFunction);
+                    ignoreFn.getCode().appendStatement(Comment.createComment("Ignore"));
+                }
+                entries.add(ignoreFn.asFunctionPointer());
+            } else {
+                Function transitionFn = transitionFns.get(found.to);
+                if (transitionFn == null) {
+                    transitionFn = createTransition(found, suffix, processFunction);
+                    transitionFns.put(found.to, transitionFn);
+                }
+                entries.add(transitionFn.asFunctionPointer());
+            }
+        }
+
+        final StatementGroup result = new StatementGroup();
+
+        final Variable
+                table =
+                new Variable(new TypeUsage(actionType, TypeUsage.Const),
+                             "transitions",
+                             new AggregateInitialiser(entries));
+        table.setStatic(true);
+        table.setArray();
+        result.appendStatement(new VariableDefinitionStatement(table));
+
+        // The current state is checked against the size of the table, as the
+        // switch form rejects any state it has no case for
+        final Variable
+                state =
+                new Variable(new TypeUsage(Std.size_t, TypeUsage.Const), "state", getCurrentState.asFunctionCall());
+        result.appendStatement(new VariableDefinitionStatement(state));
+        final Expression action = new ArrayAccess(table.asExpression(), state.asExpression());
+        result.appendStatement(new IfStatement(new BinaryExpression(new BinaryExpression(state.asExpression(),
+                                                                                         BinaryOperator.GREATER_THAN_OR_EQUAL,
+                                                                                         new Literal(entries.size())),
+                                                                    BinaryOperator.OR,
+                                                                    new UnaryExpression(UnaryOperator.NOT, action)),
+                                               cannotHappen));
+
+        final List<Expression> actionArgs = new ArrayList<>();
+        actionArgs.add(new UnaryExpression(UnaryOperator.DEREFERENCE,
+                                           translator.getMainClass().getThis().asExpression()));
+        actionArgs.addAll(stateArgs);
+        result.appendStatement(new ExpressionStatement(new FunctionObjectCall(action, actionArgs)));
+
+        return result;
+    }
+
+    /**
+     * Creates the function performing a transition for a transition table,
+     * taking the instance followed by the event parameters.
+     */
+    private Function createTransition(final StateTransition transition,
+                                      final String suffix,
+                                      final Function processFunction) {
+        final Function
+                transitionFn =
+                createTransitionFunction("transition" + suffix + "_" + getStateName(transition.to), processFunction);
+        final Expression self = transitionFn.getParameters().get(0).asExpression();
+        final List<Expression> args = new ArrayList<>();
+        for (final Variable param : transitionFn.getParameters().subList(1, transitionFn.getParameters().size())) {
+            args.add(param.asExpression());
+        }
+
+        transitionFn.getCode().appendStatement(new ExpressionStatement(transition.stateFn.asFunctionCall(self,
+                                                                                                         false,
+                                                                                                         args)));
+        transitionFn.getCode().appendStatement(Architecture.transitioningState(translator.getDomainTranslator().getDomainId(),
+                                                                               translator.getObjectId(),
+                                                                               new Function("getArchitectureId").asFunctionCall(
+                                                                                       self,
+                                                                                       false),
+                                                                               getCurrentState.asFunctionCall(self,
+                                                                                                              false),
+                                                                               transition.to.asExpression()).asStatement());
+        transitionFn.getCode().appendStatement(new ExpressionStatement(setCurrentState.asFunctionCall(self,
+                                                                                                     false,
+                                                                                                     transition.to.asExpression())));
+        return transitionFn;
+    }
+
+    private String getStateName(final Enumerator stateEnum) {
+        for (final Map.Entry<State, Enumerator> entry : stateEnums.entrySet()) {
+            if (entry.getValue() == stateEnum) {
+                return Mangler.mangleName(entry.getKey());
+            }
+        }
+        return null;
+    }
+
+    private Function createTransitionFunction(final String name, final Function processFunction) {
+        final Function function = translator.getMain().addTransitionFunction(name);
+        function.createParameter(new TypeUsage(translator.getMainClass(), TypeUsage.Reference), "self");
+        for (final Variable param : processFunction.getParameters()) {
+            function.createParameter(param.getType(), param.getName());
+        }
+        return function;
+    }
+
     public List<State> getStates() {
         return states;
     }
@@ -266,10 +440,10 @@ public class StateMachineTranslator {
     private boolean isAssigner = false;
 
     private EnumerationType stateEnum = null;
-    private final Map<State, Enumerator> stateEnums = new HashMap<>();
+    private final Map<State, Enumerator> stateEnums = new LinkedHashMap<>();
 
     private final List<State> states = new ArrayList<>();
-    private final Map<EventDeclaration, Collection<StateTransition>> transitions = new HashMap<>();
+    private final Map<EventDeclaration, Collection<StateTransition>> transitions = new LinkedHashMap<>();
 
     private final ObjectTranslator translator;
 
@@ -95,7 +95,7 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
     }
 
     private final EnumerationType typeIds;
-    private final Map<TypeDeclaration, Expression> typeIdLookup = new HashMap<>();
+    private final Map<TypeDeclaration, Expression> typeIdLookup = new LinkedHashMap<>();
 
     public CodeFile getCodeFile() {
         return codeFile;
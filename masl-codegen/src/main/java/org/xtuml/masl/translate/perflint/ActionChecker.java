@@ -0,0 +1,249 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.perflint;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.ASTNodeVisitor;
+import org.xtuml.masl.metamodel.code.*;
+import org.xtuml.masl.metamodel.expression.*;
+import org.xtuml.masl.metamodel.object.AttributeDeclaration;
+import org.xtuml.masl.metamodel.object.IdentifierDeclaration;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.relationship.MultiplicityType;
+import org.xtuml.masl.metamodel.type.CollectionType;
+import org.xtuml.masl.metamodel.type.InstanceType;
+import org.xtuml.masl.metamodelImpl.common.Position;
+import org.xtuml.masl.metamodelImpl.common.Positioned;
+import org.xtuml.masl.translate.main.object.ObjectTranslator;
+
+import java.util.*;
+
+/**
+ * Walks the code of a single action looking for costly patterns, keeping track
+ * of how deeply each construct is nested in loops.
+ */
+class ActionChecker extends ASTNodeVisitor {
+
+    ActionChecker(final DomainTranslator domainTranslator, final String action) {
+        this.domainTranslator = domainTranslator;
+        this.action = action;
+    }
+
+    void check(final CodeBlock code) {
+        visit(code);
+    }
+
+    @Override
+    public void visit(final ASTNode node) {
+        if (node == null) {
+            return;
+        }
+        node.accept(this);
+        if (node instanceof ForStatement loop) {
+            // The loop range is only evaluated once
+            visit(loop.getLoopSpec());
+            ++loopDepth;
+            visitSeparately(loop.getStatements());
+            --loopDepth;
+        } else if (node instanceof WhileStatement) {
+            ++loopDepth;
+            visitSeparately(node.children());
+            --loopDepth;
+        } else if (node instanceof IfStatement.Branch ||
+                   node instanceof CaseStatement.Alternative ||
+                   node instanceof ExceptionHandler) {
+            visitSeparately(node.children());
+        } else if (node instanceof AssignmentStatement assignment) {
+            node.children().forEach(this::visit);
+            forgetChainsFrom(assignment.getTarget());
+        } else {
+            node.children().forEach(this::visit);
+        }
+    }
+
+    /**
+     * Visits code that may run more than once, or not at all, so a navigation
+     * in it only repeats another in the same code. Assignments in the code still
+     * stop later navigations repeating earlier ones from outside it.
+     */
+    private void visitSeparately(final List<? extends ASTNode> code) {
+        chainScopes.push(new HashMap<>());
+        code.forEach(this::visit);
+        chainScopes.pop();
+    }
+
+    /**
+     * Forgets the navigations from a variable or parameter that has been
+     * assigned, as navigating from it again may give a different result.
+     */
+    private void forgetChainsFrom(final Expression target) {
+        final Object source = getSource(target);
+        if (source != null) {
+            chainScopes.forEach(chains -> chains.values().removeIf(chain -> source.equals(getSource(getStart(chain)))));
+        }
+    }
+
+    @Override
+    public void visitFindExpression(final FindExpression node) {
+        if (!(node.getCollection() instanceof ObjectNameExpression)) {
+            return;
+        }
+        final ObjectDeclaration object = node.getInstanceType().getObjectDeclaration();
+        if (domainTranslator.isSmallPopulation(object)) {
+            return;
+        }
+
+        if (ObjectTranslator.getLookupKey(object, node.getSkeleton()) != null) {
+            // Found by identifier or secondary index lookup
+            return;
+        }
+        if (ObjectTranslator.getFindRange(object, node.getSkeleton()) != null) {
+            // Found by ordered index scan
+            return;
+        }
+
+        final Set<AttributeDeclaration> matched = getMatchedAttributes(node.getSkeleton());
+        if (node.getFindType() != FindExpression.Type.FIND && matched != null) {
+            for (final IdentifierDeclaration identifier : object.getIdentifiers()) {
+                final List<AttributeDeclaration> missing = new ArrayList<>(identifier.getAttributes());
+                missing.removeAll(matched);
+                if (missing.size() == 1 && identifier.getAttributes().size() > 1) {
+                    report(PerformanceWarning.Check.NearIdentifierFind,
+                           node,
+                           CostClass.LINEAR,
+                           node.getFindType().toString().toLowerCase(),
+                           object.getName(),
+                           missing.get(0).getName());
+                    return;
+                }
+            }
+        }
+
+        if (loopDepth > 0) {
+            report(PerformanceWarning.Check.UnindexedFindInLoop, node, CostClass.LINEAR, object.getName());
+        }
+    }
+
+    @Override
+    public void visitInstanceOrderingExpression(final InstanceOrderingExpression node) {
+        if (loopDepth == 0) {
+            return;
+        }
+        final ObjectDeclaration object = getObject(node.getCollection());
+        if (object != null && domainTranslator.isSmallPopulation(object)) {
+            return;
+        }
+        report(PerformanceWarning.Check.OrderingInLoop,
+               node,
+               CostClass.LINEARITHMIC,
+               object == null ? node.getCollection().toString() : object.getName());
+    }
+
+    @Override
+    public void visitNavigationExpression(final NavigationExpression node) {
+        if (node.getLhs() instanceof NavigationExpression lhs) {
+            // Only the whole of a chain is checked, not each part of it
+            partChains.add(lhs);
+        }
+        if (partChains.contains(node) || getHops(node) < 2) {
+            return;
+        }
+
+        if (getSource(getStart(node)) == null && !(getStart(node) instanceof ThisLiteral)) {
+            // Navigating from anything else may not give the same result twice
+            return;
+        }
+        final String chain = node.toString();
+        final NavigationExpression first = chainScopes.peek().putIfAbsent(chain, node);
+        if (first != null && reportedChains.add(first)) {
+            final Position firstPosition = getPosition(first);
+            report(PerformanceWarning.Check.RepeatedNavigation,
+                   node,
+                   getNavigationCost(node),
+                   chain,
+                   firstPosition == null ? "?" : String.valueOf(firstPosition.getLineNumber()));
+        }
+    }
+
+    /**
+     * @return the attributes the predicate matches for equality, or null if it
+     * does anything other than match attributes for equality
+     */
+    private static Set<AttributeDeclaration> getMatchedAttributes(final Expression skeleton) {
+        if (skeleton == null) {
+            return null;
+        }
+        final List<? extends AttributeDeclaration> attributes = skeleton.getFindEqualAttributes();
+        return attributes == null ? null : new HashSet<>(attributes);
+    }
+
+    private static ObjectDeclaration getObject(final Expression collection) {
+        if (collection.getType().getBasicType() instanceof CollectionType collectionType &&
+            collectionType.getContainedType().getBasicType() instanceof InstanceType instanceType) {
+            return instanceType.getObjectDeclaration();
+        }
+        return null;
+    }
+
+    private static Expression getStart(final NavigationExpression node) {
+        return node.getLhs() instanceof NavigationExpression lhs ? getStart(lhs) : node.getLhs();
+    }
+
+    /**
+     * @return the definition of the variable or parameter named by the
+     * expression, or null if it names neither
+     */
+    private static Object getSource(final Expression expression) {
+        if (expression instanceof VariableNameExpression variable) {
+            return variable.getVariable();
+        } else if (expression instanceof ParameterNameExpression parameter) {
+            return parameter.getParameter();
+        }
+        return null;
+    }
+
+    private static int getHops(final NavigationExpression node) {
+        return node.getLhs() instanceof NavigationExpression lhs ? getHops(lhs) + 1 : 1;
+    }
+
+    /**
+     * A navigation to many instances costs one population's worth for each hop,
+     * whereas navigating to one instance is constant.
+     */
+    private static CostClass getNavigationCost(final NavigationExpression node) {
+        int degree = node.getRelationship().getCardinality() == MultiplicityType.MANY ? 1 : 0;
+        if (node.getLhs() instanceof NavigationExpression lhs) {
+            degree += getNavigationCost(lhs).degree();
+        }
+        return new CostClass(degree, false);
+    }
+
+    private static Position getPosition(final ASTNode node) {
+        return node instanceof Positioned positioned ? positioned.getPosition() : null;
+    }
+
+    private void report(final PerformanceWarning.Check check,
+                        final ASTNode node,
+                        final CostClass baseCost,
+                        final Object... args) {
+        final CostClass cost = baseCost.inLoops(loopDepth);
+        if (domainTranslator.isEnabled(check) && cost.compareTo(domainTranslator.getMinimumCost()) >= 0) {
+            new PerformanceWarning(check, node, action, cost, args).report();
+        }
+    }
+
+    private final DomainTranslator domainTranslator;
+    private final String action;
+    private int loopDepth = 0;
+    private final Deque<Map<String, NavigationExpression>> chainScopes = new ArrayDeque<>(List.of(new HashMap<>()));
+    private final Set<NavigationExpression> reportedChains = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<NavigationExpression> partChains = Collections.newSetFromMap(new IdentityHashMap<>());
+
+}
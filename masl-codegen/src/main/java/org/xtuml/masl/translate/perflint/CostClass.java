@@ -0,0 +1,73 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.perflint;
+
+/**
+ * An estimate of how the cost of a construct grows with the size of the
+ * populations involved, as a power of the population size with an optional
+ * logarithmic factor. Each enclosing loop is assumed to run once per instance
+ * of a population, so adds one to the power.
+ *
+ * @param degree      the power of the population size
+ * @param logarithmic whether there is an extra logarithmic factor
+ */
+public record CostClass(int degree, boolean logarithmic) implements Comparable<CostClass> {
+
+    public static final CostClass CONSTANT = new CostClass(0, false);
+    public static final CostClass LINEAR = new CostClass(1, false);
+    public static final CostClass LINEARITHMIC = new CostClass(1, true);
+    public static final CostClass QUADRATIC = new CostClass(2, false);
+    public static final CostClass CUBIC = new CostClass(3, false);
+
+    /**
+     * Finds a cost class given its name, as used in pragmas.
+     *
+     * @param name one of <code>constant</code>, <code>linear</code>,
+     *             <code>linearithmic</code>, <code>quadratic</code> or
+     *             <code>cubic</code>
+     * @return the cost class, or null if the name is not recognised
+     */
+    public static CostClass forName(final String name) {
+        return switch (name) {
+            case "constant" -> CONSTANT;
+            case "linear" -> LINEAR;
+            case "linearithmic" -> LINEARITHMIC;
+            case "quadratic" -> QUADRATIC;
+            case "cubic" -> CUBIC;
+            default -> null;
+        };
+    }
+
+    /**
+     * @param loopDepth the number of loops the construct is nested in
+     * @return the cost of executing the construct within that many loops
+     */
+    public CostClass inLoops(final int loopDepth) {
+        return new CostClass(degree + loopDepth, logarithmic);
+    }
+
+    @Override
+    public int compareTo(final CostClass rhs) {
+        final int result = Integer.compare(degree, rhs.degree);
+        return result == 0 ? Boolean.compare(logarithmic, rhs.logarithmic) : result;
+    }
+
+    @Override
+    public String toString() {
+        final String power = switch (degree) {
+            case 0 -> logarithmic ? "" : "1";
+            case 1 -> "n";
+            default -> "n^" + degree;
+        };
+        final String log = logarithmic ? (degree == 0 ? "log n" : " log n") : "";
+        return "O(" + power + log + ")";
+    }
+
+}
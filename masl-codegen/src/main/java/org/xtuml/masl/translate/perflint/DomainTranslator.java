@@ -0,0 +1,156 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.perflint;
+
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.code.CodeBlock;
+import org.xtuml.masl.metamodel.common.PragmaList;
+import org.xtuml.masl.metamodel.common.Service;
+import org.xtuml.masl.metamodel.domain.Domain;
+import org.xtuml.masl.metamodel.domain.DomainTerminator;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.statemodel.State;
+import org.xtuml.masl.translate.Alias;
+import org.xtuml.masl.translate.TranslationError;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reports costly patterns in the actions of a domain as warnings, so that they
+ * are caught at code generation time rather than by profiling. No code is
+ * generated.
+ * <p>
+ * The checks made can be tuned with pragmas on the domain:
+ * <ul>
+ * <li><code>perf_lint_disable(check, ...)</code> turns off the named checks,
+ * and may also be given on a service or state to turn them off for that action
+ * alone</li>
+ * <li><code>perf_lint_min_cost(cost)</code> only reports patterns estimated to
+ * cost at least <code>constant</code>, <code>linear</code>,
+ * <code>linearithmic</code>, <code>quadratic</code> or <code>cubic</code>. By
+ * default every pattern found is reported.</li>
+ * </ul>
+ * An object with the <code>perf_lint_small</code> pragma is known to have a
+ * small population, so finds and orderings over it are never reported.
+ */
+@Alias("PerformanceLint")
+public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator {
+
+    public static final String DISABLE_PRAGMA = "perf_lint_disable";
+    public static final String MIN_COST_PRAGMA = "perf_lint_min_cost";
+    public static final String SMALL_POPULATION_PRAGMA = "perf_lint_small";
+
+    public static DomainTranslator getInstance(final Domain domain) {
+        return getInstance(DomainTranslator.class, domain);
+    }
+
+    private DomainTranslator(final Domain domain) {
+        super(domain);
+    }
+
+    @Override
+    public Collection<org.xtuml.masl.translate.DomainTranslator> getPrerequisites() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void translate() {
+        domainDisabled = getDisabledChecks(domain, domain.getName(), domain.getPragmas());
+        final String minCost = domain.getPragmas().getValue(MIN_COST_PRAGMA);
+        if (minCost != null && minCost.length() > 0) {
+            final CostClass cost = CostClass.forName(minCost);
+            if (cost == null) {
+                new TranslationError(TranslationError.Code.UnknownPragmaValue,
+                                     domain,
+                                     domain.getName(),
+                                     minCost,
+                                     MIN_COST_PRAGMA,
+                                     "constant, linear, linearithmic, quadratic, cubic").report();
+            } else {
+                minimumCost = cost;
+            }
+        }
+
+        for (final Service service : domain.getServices()) {
+            checkAction(service, service.getQualifiedName(), service.getDeclarationPragmas(), service.getCode());
+        }
+        for (final DomainTerminator terminator : domain.getTerminators()) {
+            for (final Service service : terminator.getServices()) {
+                checkAction(service, service.getQualifiedName(), service.getDeclarationPragmas(), service.getCode());
+            }
+        }
+        for (final ObjectDeclaration object : domain.getObjects()) {
+            for (final Service service : object.getServices()) {
+                checkAction(service, service.getQualifiedName(), service.getDeclarationPragmas(), service.getCode());
+            }
+            for (final State state : object.getStates()) {
+                checkAction(state, state.getQualifiedName(), state.getDeclarationPragmas(), state.getCode());
+            }
+        }
+    }
+
+    private void checkAction(final ASTNode action, final String name, final PragmaList pragmas, final CodeBlock code) {
+        if (code == null) {
+            return;
+        }
+        actionDisabled = getDisabledChecks(action, name, pragmas);
+        new ActionChecker(this, name).check(code);
+    }
+
+    private Set<PerformanceWarning.Check> getDisabledChecks(final ASTNode node,
+                                                            final String context,
+                                                            final PragmaList pragmas) {
+        final Set<PerformanceWarning.Check> result = EnumSet.noneOf(PerformanceWarning.Check.class);
+        if (pragmas == null || !pragmas.hasPragma(DISABLE_PRAGMA)) {
+            return result;
+        }
+        final List<String> names = pragmas.getPragmaValues(DISABLE_PRAGMA);
+        if (names.isEmpty()) {
+            result.addAll(EnumSet.allOf(PerformanceWarning.Check.class));
+        }
+        for (final String name : names) {
+            final Optional<PerformanceWarning.Check>
+                    check =
+                    Arrays.stream(PerformanceWarning.Check.values()).filter(c -> c.getPragmaName().equals(name)).findFirst();
+            if (check.isPresent()) {
+                result.add(check.get());
+            } else {
+                new TranslationError(TranslationError.Code.UnknownPragmaValue,
+                                     node,
+                                     context,
+                                     name,
+                                     DISABLE_PRAGMA,
+                                     Arrays.stream(PerformanceWarning.Check.values())
+                                           .map(PerformanceWarning.Check::getPragmaName)
+                                           .collect(Collectors.joining(", "))).report();
+            }
+        }
+        return result;
+    }
+
+    boolean isEnabled(final PerformanceWarning.Check check) {
+        return !domainDisabled.contains(check) && !actionDisabled.contains(check);
+    }
+
+    boolean isSmallPopulation(final ObjectDeclaration object) {
+        return object.getDeclarationPragmas().hasPragma(SMALL_POPULATION_PRAGMA) ||
+               object.getDefinitionPragmas().hasPragma(SMALL_POPULATION_PRAGMA);
+    }
+
+    CostClass getMinimumCost() {
+        return minimumCost;
+    }
+
+    private Set<PerformanceWarning.Check> domainDisabled = EnumSet.noneOf(PerformanceWarning.Check.class);
+    private Set<PerformanceWarning.Check> actionDisabled = EnumSet.noneOf(PerformanceWarning.Check.class);
+    private CostClass minimumCost = CostClass.CONSTANT;
+
+}
@@ -0,0 +1,74 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.perflint;
+
+import org.xtuml.masl.error.ErrorCode;
+import org.xtuml.masl.error.ErrorType;
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.translate.TranslationError;
+
+import java.text.MessageFormat;
+
+/**
+ * A costly pattern found in the code of an action, reported as a warning along
+ * with an estimate of its cost.
+ */
+public class PerformanceWarning extends TranslationError {
+
+    /**
+     * The patterns checked for. The name of each, in lower case, is used to
+     * disable the check with the <code>perf_lint_disable</code> pragma.
+     */
+    public enum Check implements ErrorCode {
+        UnindexedFindInLoop("find on ''{0}'' in a loop does not match an identifier, so searches the whole population"),
+        NearIdentifierFind("{0} on ''{1}'' searches the whole population, but would be an identifier lookup if ''{2}'' were also matched"),
+        RepeatedNavigation("navigation ''{0}'' repeats the navigation at line {1}; consider holding the result in a variable"),
+        OrderingInLoop("ordered_by on ''{0}'' in a loop sorts the set on every iteration");
+
+        Check(final String messageFormat) {
+            this.messageFormat = messageFormat;
+        }
+
+        @Override
+        public ErrorType getErrorType() {
+            return ErrorType.Warning;
+        }
+
+        public String getPragmaName() {
+            return name().replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+        }
+
+        private final String messageFormat;
+    }
+
+    /**
+     * @param node   the construct found, used for its position
+     * @param action the qualified name of the action the construct is in
+     * @param cost   the estimated cost of the construct where it is found
+     */
+    public PerformanceWarning(final Check check,
+                              final ASTNode node,
+                              final String action,
+                              final CostClass cost,
+                              final Object... args) {
+        super(check,
+              MessageFormat.format(check.messageFormat, args) + " [estimated cost " + cost + " in " + action + "]",
+              node,
+              action);
+        this.cost = cost;
+    }
+
+    public CostClass getCost() {
+        return cost;
+    }
+
+    private final CostClass cost;
+
+}
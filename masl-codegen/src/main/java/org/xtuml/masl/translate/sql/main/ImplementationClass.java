@@ -25,6 +25,7 @@ import org.xtuml.masl.translate.main.object.StateMachineTranslator;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 public class ImplementationClass implements GeneratedClass {
@@ -35,11 +36,11 @@ public class ImplementationClass implements GeneratedClass {
     private final Namespace namespace;
     private final ObjectDeclaration objectDeclaration;
     private final ObjectTranslator objectTranslator;
-    private final HashMap<AttributeDeclaration, Variable> attributeMap = new HashMap<>();
-    private final HashMap<AttributeDeclaration, Function> setterMethods = new HashMap<>();
+    private final HashMap<AttributeDeclaration, Variable> attributeMap = new LinkedHashMap<>();
+    private final HashMap<AttributeDeclaration, Function> setterMethods = new LinkedHashMap<>();
 
-    private final HashMap<IdentifierDeclaration, Function> identifierKeyGetterFns = new HashMap<>();
-    private final HashMap<IdentifierDeclaration, TypedefType> identifierKeyTypes = new HashMap<>();
+    private final HashMap<IdentifierDeclaration, Function> identifierKeyGetterFns = new LinkedHashMap<>();
+    private final HashMap<IdentifierDeclaration, TypedefType> identifierKeyTypes = new LinkedHashMap<>();
 
     private CodeFile bodyFile;
     private CodeFile headerFile;
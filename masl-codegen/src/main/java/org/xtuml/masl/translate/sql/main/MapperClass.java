@@ -20,8 +20,7 @@ import org.xtuml.masl.metamodel.object.AttributeDeclaration;
 import org.xtuml.masl.metamodel.object.ObjectDeclaration;
 import org.xtuml.masl.metamodel.relationship.RelationshipDeclaration;
 import org.xtuml.masl.translate.main.Architecture;
-import org.xtuml.masl.translate.main.BigTuple;
-import org.xtuml.masl.translate.main.Boost;
+import org.xtuml.masl.translate.main.ContainerPolicy;
 import org.xtuml.masl.translate.main.Mangler;
 import org.xtuml.masl.translate.main.object.Population;
 
@@ -198,9 +197,12 @@ public class MapperClass implements GeneratedClass {
         // Create cpp line:
         // ::boost::unordered_set< maslo_Object_B::PrimaryKeyType >
         // primarykey_cache;
+        // or the set of the object's container policy
         final Class objectClass = objectTranslator.getClass(ImplementationClass.KEY_NAME);
         final Class primaryKeyType = objectClass.referenceNestedType("PrimaryKeyType");
-        final Class primaryKeyCacheType = Boost.unordered_set(new TypeUsage(primaryKeyType));
+        final Class
+                primaryKeyCacheType =
+                ContainerPolicy.getPolicy(objectDeclaration).set(new TypeUsage(primaryKeyType));
         primaryKeyCacheVar =
                 mapperClass.createMemberVariable(attributes,
                                                  "primarykey_cache",
@@ -465,8 +467,8 @@ public class MapperClass implements GeneratedClass {
 
         // Create cpp line:
         // ::std::function<bool (maslo_Find_Test_Object_A*) > predicate =
-        // ::boost::bind(
-        // &::masld_PERF::maslo_Find_Test_Object_A::findPredicate_OPOPOPmasl_attribute_1_maslEQp1CPOROPmasl_attribute_1_maslEQp2CPCPOROPmasl_attribute_1_maslEQp3CPCP,_1,p1,p2,p3);
+        // [&](maslo_Find_Test_Object_A* instance)
+        // { return instance->findPredicate_OPOPOPmasl_attribute_1_maslEQp1CPOROPmasl_attribute_1_maslEQp2CPCPOROPmasl_attribute_1_maslEQp3CPCP(p1,p2,p3); }
         // selectOne(predicate, selectedObject);
         final Expression predicateValue = createFindFnPredicateValue(findFn, predicateFn);
         final Class predicateClass = createFindFnPredicateClass();
@@ -633,27 +635,20 @@ public class MapperClass implements GeneratedClass {
     private Expression createFindFnPredicateValue(final Function findFn, final Function predicateFn) {
         // Create cpp line:
         // ::std::function<bool (maslo_Find_Test_Object_A*) > predicate =
-        // ::boost::bind(
-        // &::masld_PERF::maslo_Find_Test_Object_A::findPredicate_OPOPOPmasl_attribute_1_maslEQp1CPOROPmasl_attribute_1_maslEQp2CPCPOROPmasl_attribute_1_maslEQp3CPCP,_1,p1,p2,p3);
-
-        final List<Expression> bindArgs = new ArrayList<>();
-        bindArgs.add(predicateFn.asFunctionPointer());
-        bindArgs.add(Boost.bind_1);
+        // [&](maslo_Find_Test_Object_A* instance)
+        // { return instance->findPredicate_OPOPOPmasl_attribute_1_maslEQp1CPOROPmasl_attribute_1_maslEQp2CPCPOROPmasl_attribute_1_maslEQp3CPCP(p1,p2,p3); }
 
         final List<Expression> findArgs = new ArrayList<>(findFn.getParameters().size());
         for (final Variable param : findFn.getParameters()) {
             findArgs.add(param.asExpression());
         }
 
-        // If too many parameters for boost bind to cope with (not forgetting
-        // the bound object), then wrap in a tuple. Note that the predicate
-        // function should already be done!
-        if (findArgs.size() + 1 > Boost.MAX_BIND_PARAMS) {
-            bindArgs.add(BigTuple.getMakeTuple(findArgs));
-        } else {
-            bindArgs.addAll(findArgs);
-        }
-        final Expression predicateValue = Boost.bind.asFunctionCall(bindArgs);
+        final LambdaExpression predicateValue = new LambdaExpression();
+        final Variable
+                instance =
+                predicateValue.createParameter(new TypeUsage(objectTranslator.getClass(ImplementationClass.KEY_NAME),
+                                                             TypeUsage.Pointer), "instance");
+        predicateValue.setResult(predicateFn.asFunctionCall(instance.asExpression(), true, findArgs));
         return predicateValue;
     }
 
@@ -43,14 +43,14 @@ public class PopulationClass implements GeneratedClass {
     private Function deleterFn;
     private Function constructor;
     private Function initialiseMethod;
-    private final Map<IdentifierDeclaration, Function> identifierFindFns = new HashMap<>();
+    private final Map<IdentifierDeclaration, Function> identifierFindFns = new LinkedHashMap<>();
     private final Map<IdentifierDeclaration, Variable> identifierFindAtts = new LinkedHashMap<>();
 
     private CodeFile bodyFile;
     private CodeFile headerFile;
 
     private CodeBlock cacheInitLoopBlock;
-    private final Map<String, Variable> relationshipDataMemberList = new HashMap<>();
+    private final Map<String, Variable> relationshipDataMemberList = new LinkedHashMap<>();
 
     private Class baseClass;
     private final Class populationClass;
@@ -325,7 +325,7 @@ public class PopulationClass implements GeneratedClass {
 
         final Iterator<Variable> param = findFunction.function.getParameters().iterator();
 
-        final Map<AttributeDeclaration, Expression> paramLookup = new HashMap<>();
+        final Map<AttributeDeclaration, Expression> paramLookup = new LinkedHashMap<>();
         for (final AttributeDeclaration att : findFunction.predicate.getFindEqualAttributes()) {
             paramLookup.put(att, param.next().asExpression());
         }
@@ -1616,12 +1616,10 @@ public class PopulationClass implements GeneratedClass {
         final Function getPopFnCall = new Function("getPopulation").inheritInto(populationClass);
         final Function initFnCall = new Function("initialise").inheritInto(populationClass);
 
-        final Expression BoostBindGetPopFnCall = Boost.bind.asFunctionCall(getPopFnCall.asFunctionPointer());
-        final Expression
-                BoostBindInitFnCall =
-                Boost.bind.asFunctionCall(initFnCall.asFunctionPointer(), BoostBindGetPopFnCall);
+        final LambdaExpression initCallback = new LambdaExpression(false);
+        initCallback.setResult(initFnCall.asFunctionCall(getPopFnCall.asFunctionCall(), false));
 
-        final Expression regInitFnCall = Architecture.registerProcessListener("initialising", BoostBindInitFnCall, false);
+        final Expression regInitFnCall = Architecture.registerProcessListener("initialising", initCallback, false);
 
         final Variable
                 initialised =
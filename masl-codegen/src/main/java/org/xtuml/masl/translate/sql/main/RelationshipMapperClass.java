@@ -20,7 +20,7 @@ import org.xtuml.masl.metamodel.relationship.RelationshipDeclaration;
 import org.xtuml.masl.metamodel.relationship.SubtypeRelationshipDeclaration;
 import org.xtuml.masl.translate.main.Mangler;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -42,8 +42,8 @@ public class RelationshipMapperClass {
     CodeFile headerFile;
     Namespace parentNamespace;
 
-    private final Map<String, TypedefType> superToSubRelMapperList = new HashMap<>();
-    private final Map<String, GeneratedRelationshipClass> superToSubRelMapperSqlList = new HashMap<>();
+    private final Map<String, TypedefType> superToSubRelMapperList = new LinkedHashMap<>();
+    private final Map<String, GeneratedRelationshipClass> superToSubRelMapperSqlList = new LinkedHashMap<>();
 
     private GeneratedRelationshipClass mapperSqlClass;
     private final CodeFile sqlBodyFile;
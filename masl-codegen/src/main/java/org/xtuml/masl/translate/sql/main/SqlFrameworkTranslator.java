@@ -20,7 +20,7 @@ import java.util.*;
 public abstract class SqlFrameworkTranslator extends DomainTranslator {
 
     private final Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new LinkedHashMap<>();
-    private final Map<RelationshipDeclaration, RelationshipTranslator> relationshipTranslators = new HashMap<>();
+    private final Map<RelationshipDeclaration, RelationshipTranslator> relationshipTranslators = new LinkedHashMap<>();
 
     protected SqlFrameworkTranslator(final Domain domain) {
         super(domain);
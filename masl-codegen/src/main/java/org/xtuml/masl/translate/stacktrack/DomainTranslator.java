@@ -18,7 +18,7 @@ import org.xtuml.masl.translate.Default;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Alias("StackTrack")
@@ -74,8 +74,8 @@ public class DomainTranslator extends org.xtuml.masl.translate.DomainTranslator
         return objectTranslators.get(object);
     }
 
-    Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new HashMap<>();
-    Map<DomainTerminator, TerminatorTranslator> termTranslators = new HashMap<>();
+    Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new LinkedHashMap<>();
+    Map<DomainTerminator, TerminatorTranslator> termTranslators = new LinkedHashMap<>();
 
     private final org.xtuml.masl.translate.main.DomainTranslator mainDomainTranslator;
 
@@ -19,7 +19,7 @@ import org.xtuml.masl.translate.Default;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Alias("StackTrack")
@@ -62,7 +62,7 @@ public class ProjectTranslator extends org.xtuml.masl.translate.ProjectTranslato
         return objectTranslators.get(object);
     }
 
-    Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new HashMap<>();
+    Map<ObjectDeclaration, ObjectTranslator> objectTranslators = new LinkedHashMap<>();
 
     private final org.xtuml.masl.translate.main.ProjectTranslator mainProjectTranslator;
 
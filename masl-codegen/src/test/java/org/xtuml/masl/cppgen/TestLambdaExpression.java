@@ -0,0 +1,40 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.cppgen;
+
+import junit.framework.TestCase;
+
+public class TestLambdaExpression extends TestCase {
+
+    public void testNoCapture() {
+        final LambdaExpression lambda = new LambdaExpression(false);
+        lambda.setResult(new Function("f").asFunctionCall());
+        assertEquals("[]() { return f(); }", lambda.getCode(null, ""));
+    }
+
+    public void testParameters() {
+        final LambdaExpression lambda = new LambdaExpression();
+        final Variable
+                lhs =
+                lambda.createParameter(new TypeUsage(FundamentalType.INT, TypeUsage.ConstReference), "lhs");
+        final Variable rhs = lambda.createParameter(new TypeUsage(FundamentalType.INT), "rhs");
+        lambda.setResult(new BinaryExpression(lhs.asExpression(), BinaryOperator.LESS_THAN, rhs.asExpression()));
+        assertEquals("[&]( const int& lhs, int rhs ) { return lhs < rhs; }", lambda.getCode(null, ""));
+    }
+
+    public void testInitCapture() {
+        final LambdaExpression lambda = new LambdaExpression();
+        final Variable instance = lambda.createParameter(new TypeUsage(FundamentalType.INT), "instance");
+        final Expression arg = lambda.addCapture("arg0", new Function("g").asFunctionCall());
+        lambda.setResult(new Function("h").asFunctionCall(instance.asExpression(), arg));
+        assertEquals("[&, arg0 = g()]( int instance ) { return h( instance, arg0 ); }", lambda.getCode(null, ""));
+    }
+
+}
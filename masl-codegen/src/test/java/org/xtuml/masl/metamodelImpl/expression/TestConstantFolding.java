@@ -0,0 +1,92 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.metamodelImpl.expression;
+
+import junit.framework.TestCase;
+import org.xtuml.masl.unittest.ErrorLog;
+
+public class TestConstantFolding extends TestCase {
+
+    private static Expression binary(final Expression lhs, final BinaryExpression.ImplOperator op, final Expression rhs) {
+        ErrorLog.getInstance().reset();
+        final Expression expression = BinaryExpression.create(lhs, new BinaryExpression.OperatorRef(null, op), rhs);
+        assertNotNull(expression);
+        ErrorLog.getInstance().checkErrors();
+        return expression;
+    }
+
+    private static Expression unary(final UnaryExpression.ImplOperator op, final Expression rhs) {
+        return UnaryExpression.create(new UnaryExpression.OperatorRef(null, op), rhs);
+    }
+
+    private static IntegerLiteral integer(final long value) {
+        return new IntegerLiteral(value);
+    }
+
+    public void test_IntegerArithmetic() {
+        final Expression
+                expression =
+                binary(binary(integer(2), BinaryExpression.ImplOperator.TIMES, integer(3)),
+                       BinaryExpression.ImplOperator.MINUS,
+                       unary(UnaryExpression.ImplOperator.MINUS, integer(4)));
+        assertEquals(integer(10), expression.evaluate());
+    }
+
+    public void test_IntegerOverflow() {
+        assertNull(binary(integer(Long.MAX_VALUE), BinaryExpression.ImplOperator.PLUS, integer(1)).evaluate());
+        assertNull(binary(integer(Long.MAX_VALUE), BinaryExpression.ImplOperator.TIMES, integer(2)).evaluate());
+        assertNull(binary(integer(Long.MIN_VALUE), BinaryExpression.ImplOperator.DIVIDE, integer(-1)).evaluate());
+        assertNull(unary(UnaryExpression.ImplOperator.ABS, integer(Long.MIN_VALUE)).evaluate());
+    }
+
+    public void test_IntegerDivideByZero() {
+        assertNull(binary(integer(7), BinaryExpression.ImplOperator.DIVIDE, integer(0)).evaluate());
+        assertNull(binary(integer(7), BinaryExpression.ImplOperator.REM, integer(0)).evaluate());
+        assertNull(binary(integer(7), BinaryExpression.ImplOperator.MOD, integer(0)).evaluate());
+    }
+
+    public void test_IntegerRemMod() {
+        assertEquals(integer(-1), binary(integer(-7), BinaryExpression.ImplOperator.REM, integer(3)).evaluate());
+        assertEquals(integer(2), binary(integer(-7), BinaryExpression.ImplOperator.MOD, integer(3)).evaluate());
+    }
+
+    public void test_RealRem() {
+        final LiteralExpression
+                result =
+                binary(new RealLiteral(7.5), BinaryExpression.ImplOperator.REM, new RealLiteral(2.0)).evaluate();
+        assertEquals(1.5, ((RealLiteral) result).getValue());
+        assertNull(binary(integer(7), BinaryExpression.ImplOperator.REM, new RealLiteral(2.5)).evaluate());
+    }
+
+    public void test_PowerNotFolded() {
+        assertNull(binary(integer(2), BinaryExpression.ImplOperator.POWER, integer(3)).evaluate());
+    }
+
+    public void test_Concatenation() {
+        final Expression
+                expression =
+                binary(binary(StringLiteral.create(null, "\"a\""),
+                              BinaryExpression.ImplOperator.CONCATENATE,
+                              StringLiteral.create(null, "\"b\"")),
+                       BinaryExpression.ImplOperator.CONCATENATE,
+                       CharacterLiteral.create(null, "'c'"));
+        assertEquals("abc", ((StringLiteral) expression.evaluate()).getValue());
+    }
+
+    public void test_DurationAddition() {
+        final Expression
+                expression =
+                binary(DurationLiteral.create(null, "@PT5S@"),
+                       BinaryExpression.ImplOperator.PLUS,
+                       DurationLiteral.create(null, "@PT0.25S@"));
+        assertEquals(5250000000L, ((DurationLiteral) expression.evaluate()).getNanos());
+    }
+
+}
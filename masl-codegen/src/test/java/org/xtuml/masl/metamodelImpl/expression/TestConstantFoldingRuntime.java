@@ -0,0 +1,146 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.metamodelImpl.expression;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.unittest.ErrorLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that folding rem and mod gives the same answers as the run time
+ * functions in swa/math.hh, by compiling those functions and running them over
+ * every combination of signs, with and without a zero remainder. Skipped when
+ * there is no C++ compiler.
+ */
+public class TestConstantFoldingRuntime {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final long[] INTEGERS = {-9, -7, -6, -3, -1, 0, 1, 3, 6, 7, 9};
+    private static final double[] REALS = {-7.5, -6.0, -2.5, -1.5, 0.0, 1.5, 2.5, 6.0, 7.5};
+
+    private static final File INCLUDE = new File("../architecture/swa/include");
+
+    private static boolean haveCompiler() {
+        try {
+            return new ProcessBuilder("g++", "--version").start().waitFor() == 0;
+        } catch (final IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compiles and runs a program printing the value of each expression, one per
+     * line.
+     */
+    private List<String> runtimeValues(final List<String> expressions) throws Exception {
+        final StringBuilder source = new StringBuilder();
+        source.append("#include \"swa/math.hh\"\n");
+        source.append("#include <cstdint>\n");
+        source.append("#include <iomanip>\n");
+        source.append("int main() {\n");
+        source.append("  std::cout << std::setprecision(17);\n");
+        for (final String expression : expressions) {
+            source.append("  std::cout << (").append(expression).append(") << '\\n';\n");
+        }
+        source.append("}\n");
+
+        final File cc = tmp.newFile("math.cc");
+        Files.writeString(cc.toPath(), source);
+        final File exe = new File(tmp.getRoot(), "math");
+        final Process
+                compile =
+                new ProcessBuilder("g++",
+                                   "-std=c++20",
+                                   "-I",
+                                   INCLUDE.getPath(),
+                                   "-o",
+                                   exe.getPath(),
+                                   cc.getPath()).redirectErrorStream(true).start();
+        final String errors = new String(compile.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(errors, 0, compile.waitFor());
+
+        final Process run = new ProcessBuilder(exe.getPath()).start();
+        final String output = new String(run.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(0, run.waitFor());
+        return List.of(output.split("\n"));
+    }
+
+    private static LiteralExpression fold(final Expression lhs,
+                                          final BinaryExpression.ImplOperator op,
+                                          final Expression rhs) {
+        ErrorLog.getInstance().reset();
+        final Expression expression = BinaryExpression.create(lhs, new BinaryExpression.OperatorRef(null, op), rhs);
+        ErrorLog.getInstance().checkErrors();
+        return expression.evaluate();
+    }
+
+    @Test
+    public void testIntegerRemModMatchRuntime() throws Exception {
+        Assume.assumeTrue("No C++ compiler", haveCompiler());
+        final List<String> expressions = new ArrayList<>();
+        final List<LiteralExpression> folded = new ArrayList<>();
+        for (final long lhs : INTEGERS) {
+            for (final long rhs : INTEGERS) {
+                if (rhs != 0) {
+                    for (final String fn : new String[]{"rem", "mod"}) {
+                        expressions.add("SWA::" + fn + "(int64_t(" + lhs + "), int64_t(" + rhs + "))");
+                    }
+                    folded.add(fold(new IntegerLiteral(lhs), BinaryExpression.ImplOperator.REM, new IntegerLiteral(rhs)));
+                    folded.add(fold(new IntegerLiteral(lhs), BinaryExpression.ImplOperator.MOD, new IntegerLiteral(rhs)));
+                }
+            }
+        }
+        final List<String> runtime = runtimeValues(expressions);
+        for (int i = 0; i < expressions.size(); ++i) {
+            Assert.assertEquals(expressions.get(i),
+                                Long.parseLong(runtime.get(i)),
+                                ((IntegerLiteral) folded.get(i)).getValue().longValue());
+        }
+    }
+
+    @Test
+    public void testRealRemModMatchRuntime() throws Exception {
+        Assume.assumeTrue("No C++ compiler", haveCompiler());
+        final List<String> expressions = new ArrayList<>();
+        final List<LiteralExpression> folded = new ArrayList<>();
+        for (final double lhs : REALS) {
+            for (final double rhs : REALS) {
+                if (rhs != 0) {
+                    for (final String fn : new String[]{"rem", "mod"}) {
+                        expressions.add("SWA::" + fn + "(double(" + lhs + "), double(" + rhs + "))");
+                    }
+                    folded.add(fold(new RealLiteral(lhs), BinaryExpression.ImplOperator.REM, new RealLiteral(rhs)));
+                    folded.add(fold(new RealLiteral(lhs), BinaryExpression.ImplOperator.MOD, new RealLiteral(rhs)));
+                }
+            }
+        }
+        final List<String> runtime = runtimeValues(expressions);
+        for (int i = 0; i < expressions.size(); ++i) {
+            // Compare as values, so that 0 and -0 agree
+            Assert.assertEquals(expressions.get(i),
+                                Double.parseDouble(runtime.get(i)),
+                                ((RealLiteral) folded.get(i)).getValue(),
+                                0.0);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Translates the same model in separate JVMs, each using a different identity
+ * hash code generator, and checks that the generated files are byte for byte
+ * identical. Any iteration over a hash ordered collection keyed on model or
+ * cppgen objects will show up as a difference.
+ */
+public class TestDeterministicOutput {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static File getModel() throws URISyntaxException {
+        return new File(TestDeterministicOutput.class.getResource("models/WH/WH.mod").toURI());
+    }
+
+    private static void translate(final File model, final File output, final int hashCodeMode) throws IOException,
+                                                                                                      InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-XX:+UnlockExperimentalVMOptions");
+        command.add("-XX:hashCode=" + hashCodeMode);
+        command.add("-Djava.awt.headless=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("org.xtuml.masl.Main");
+        command.add("-mod");
+        command.add(model.getPath());
+        command.add("-output");
+        command.add(output.getPath());
+
+        final Process
+                process =
+                new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(new File(output.getParentFile(),
+                                                                                              output.getName() +
+                                                                                              ".log")).start();
+        Assert.assertEquals("Translation with hashCode=" + hashCodeMode + " failed", 0, process.waitFor());
+    }
+
+    private static SortedMap<String, byte[]> readTree(final File root) throws IOException {
+        final SortedMap<String, byte[]> result = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            for (final Path path : paths.filter(Files::isRegularFile).toList()) {
+                result.put(root.toPath().relativize(path).toString(), Files.readAllBytes(path));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testSameOutputForDifferentHashSeeds() throws Exception {
+        final File model = getModel();
+
+        // Mode 5 is the default thread local xor-shift, mode 2 makes every identity
+        // hash collide and mode 3 is a global sequence, so the three runs see
+        // completely different hash iteration orders.
+        final int[] modes = {5, 2, 3};
+        final List<SortedMap<String, byte[]>> outputs = new ArrayList<>();
+        for (final int mode : modes) {
+            final File output = tmp.newFolder("hash" + mode);
+            translate(model, output, mode);
+            outputs.add(readTree(output));
+        }
+
+        final SortedMap<String, byte[]> expected = outputs.get(0);
+        Assert.assertFalse("No files generated", expected.isEmpty());
+        for (int i = 1; i < outputs.size(); ++i) {
+            final SortedMap<String, byte[]> actual = outputs.get(i);
+            Assert.assertEquals("Generated file list differs for hashCode=" + modes[i],
+                                expected.keySet(),
+                                actual.keySet());
+            for (final String file : expected.keySet()) {
+                Assert.assertEquals("Generated file " + file + " differs for hashCode=" + modes[i],
+                                    new String(expected.get(file)),
+                                    new String(actual.get(file)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate;
+
+import org.junit.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A model written out to a scratch directory and translated by running Main in
+ * a separate JVM, as the translators hold global state. The model is either
+ * written file by file, or copied from one of the test models and then edited,
+ * so that each test only states what it changes. The generated files are
+ * looked up by name, wherever they were written in the output tree.
+ */
+public class TranslatedModel {
+
+    public TranslatedModel(final File root) {
+        this.modelDir = new File(root, "model");
+        this.outputDir = new File(root, "output");
+        modelDir.mkdirs();
+    }
+
+    /**
+     * Copies the files of one of the models under models in the test resources.
+     */
+    public TranslatedModel copy(final String model) throws IOException, URISyntaxException {
+        final File source = new File(TranslatedModel.class.getResource("models/" + model).toURI());
+        for (final File file : source.listFiles()) {
+            Files.copy(file.toPath(), new File(modelDir, file.getName()).toPath());
+        }
+        return this;
+    }
+
+    public TranslatedModel write(final String name, final String contents) throws IOException {
+        Files.writeString(new File(modelDir, name).toPath(), contents, StandardCharsets.UTF_8);
+        return this;
+    }
+
+    /**
+     * Replaces text in a model file, failing if the text is not there, so that a
+     * change to the test model cannot silently turn an edit into a no-op.
+     */
+    public TranslatedModel edit(final String name, final String from, final String to) throws IOException {
+        final Path path = new File(modelDir, name).toPath();
+        final String contents = Files.readString(path, StandardCharsets.UTF_8);
+        Assert.assertTrue("'" + from + "' not found in " + name, contents.contains(from));
+        Files.writeString(path, contents.replace(from, to), StandardCharsets.UTF_8);
+        return this;
+    }
+
+    /**
+     * Translates the domain in the given .mod file, passing any extra arguments
+     * on to Main.
+     */
+    public TranslatedModel translate(final String mod, final String... args) throws IOException,
+                                                                                    InterruptedException {
+        return run("-mod", mod, args);
+    }
+
+    /**
+     * Translates the project in the given .prj file, finding its domains in
+     * the model directory, and passing any extra arguments on to Main.
+     */
+    public TranslatedModel translateProject(final String prj, final String... args) throws IOException,
+                                                                                           InterruptedException {
+        final List<String> projectArgs = new ArrayList<>(List.of("-domainpath", modelDir.getPath()));
+        projectArgs.addAll(Arrays.asList(args));
+        return run("-prj", prj, projectArgs.toArray(new String[0]));
+    }
+
+    private TranslatedModel run(final String option, final String model, final String... args) throws IOException,
+                                                                                                      InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Djava.awt.headless=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("org.xtuml.masl.Main");
+        command.add(option);
+        command.add(new File(modelDir, model).getPath());
+        command.add("-output");
+        command.add(outputDir.getPath());
+        command.addAll(Arrays.asList(args));
+
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        log = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        exitCode = process.waitFor();
+
+        files = new TreeMap<>();
+        if (outputDir.exists()) {
+            try (Stream<Path> paths = Files.walk(outputDir.toPath())) {
+                for (final Path path : paths.filter(Files::isRegularFile).toList()) {
+                    files.put(outputDir.toPath().relativize(path).toString(), path);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Fails unless the last translation succeeded.
+     */
+    public TranslatedModel assertSucceeded() {
+        Assert.assertEquals("Translation failed:\n" + log, 0, exitCode);
+        return this;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public String getLog() {
+        return log;
+    }
+
+    public File getModelDir() {
+        return modelDir;
+    }
+
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * @return the paths of all generated files, relative to the output
+     * directory
+     */
+    public SortedMap<String, Path> getFiles() {
+        return files;
+    }
+
+    /**
+     * @param name the name of a generated file, optionally qualified by the
+     *             directories leading to it, which must identify one file
+     * @return the contents of the file
+     */
+    public String getFile(final String name) throws IOException {
+        final List<Path> matches = new ArrayList<>();
+        for (final var entry : files.entrySet()) {
+            if (entry.getKey().equals(name) || entry.getKey().endsWith(File.separator + name)) {
+                matches.add(entry.getValue());
+            }
+        }
+        Assert.assertEquals("Generated files matching " + name + ": " + matches, 1, matches.size());
+        return Files.readString(matches.get(0), StandardCharsets.UTF_8);
+    }
+
+    private final File modelDir;
+    private final File outputDir;
+    private String log;
+    private int exitCode;
+    private SortedMap<String, Path> files = new TreeMap<>();
+}
@@ -0,0 +1,196 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.cppgen.Class;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the compile cost estimated for a body file, which files are split into
+ * shards and the order sources are listed in, on hand built libraries, and the
+ * report and unity sources generated for the WH test model.
+ */
+public class TestCompileCost {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static CodeFile bodyFile(final Library library, final String name, final int functions) {
+        final CodeFile file = library.createBodyFile(name);
+        for (int i = 1; i <= functions; ++i) {
+            file.addFunctionDefinition(new Function(name + "_f" + i));
+        }
+        return file;
+    }
+
+    @Test
+    public void testEstimate() {
+        final Library other = new Library("cost_estimate_other").withCCDefaultExtensions();
+        final CodeFile outer = other.createPublicHeader("outer");
+        outer.addInclude(other.createPublicHeader("inner"));
+        final Library library = new Library("cost_estimate").withCCDefaultExtensions();
+        final CodeFile file = bodyFile(library, "file", 2);
+        file.addInclude(outer);
+
+        final CompileCost compileCost = new CompileCost(CompileCost.DEFAULT_THRESHOLD);
+        compileCost.estimateLibrary(library);
+
+        final CompileCost.Estimate estimate = compileCost.getEstimates().get(file);
+        Assert.assertEquals(file.getCodeSize(), estimate.codeSize());
+        Assert.assertEquals(2, estimate.functions());
+        Assert.assertEquals(0, estimate.templates());
+        // Files included indirectly are paid for too
+        Assert.assertEquals(2, estimate.includes());
+        Assert.assertEquals(file.getCodeSize() + 2 * CompileCost.FUNCTION_COST + 2 * UnityBuild.INCLUDE_COST,
+                            estimate.getTotal());
+        Assert.assertEquals(estimate.getTotal(), compileCost.getCost(file));
+        Assert.assertTrue(compileCost.getShards().isEmpty());
+    }
+
+    /**
+     * Creates a body file defining functions declared in a header, so that the
+     * definitions can be moved to another file.
+     */
+    private static CodeFile shardableBodyFile(final Library library, final String name, final int functions) {
+        final CodeFile header = library.createPrivateHeader(name);
+        final CodeFile file = library.createBodyFile(name);
+        for (int i = 1; i <= functions; ++i) {
+            final Function function = new Function(name + "_f" + i, null, header);
+            header.addFunctionDeclaration(function);
+            file.addFunctionDefinition(function);
+        }
+        return file;
+    }
+
+    @Test
+    public void testOversizedFileSharded() {
+        final Library library = new Library("cost_shard").withCCDefaultExtensions();
+        final CodeFile big = shardableBodyFile(library, "big", 4);
+        final CodeFile small = shardableBodyFile(library, "small", 2);
+        Assert.assertTrue(big.isShardable());
+
+        final CompileCost unsplit = new CompileCost(Integer.MAX_VALUE);
+        unsplit.estimateLibrary(library);
+        Assert.assertTrue(unsplit.getShards().isEmpty());
+
+        final CompileCost compileCost = new CompileCost(unsplit.getCost(big) - 1);
+        compileCost.estimateLibrary(library);
+
+        final List<CodeFile> shards = compileCost.getShards().get(big);
+        Assert.assertNotNull(shards);
+        Assert.assertEquals("big_shard1.cc", shards.get(0).getFile().getName());
+        int functions = big.getFunctionDefinitionCount();
+        for (final CodeFile shard : shards) {
+            Assert.assertSame(big, shard.getOriginal());
+            // Every part is estimated again once split
+            Assert.assertEquals(shard.getFunctionDefinitionCount(), compileCost.getEstimates().get(shard).functions());
+            functions += shard.getFunctionDefinitionCount();
+        }
+        Assert.assertEquals(4, functions);
+        Assert.assertEquals(big.getFunctionDefinitionCount(), compileCost.getEstimates().get(big).functions());
+        Assert.assertTrue(compileCost.getShardedFiles().contains(big));
+        Assert.assertTrue(compileCost.getShardedFiles().containsAll(shards));
+        // Under the threshold, so left alone
+        Assert.assertFalse(compileCost.getShards().containsKey(small));
+        Assert.assertEquals(2, small.getFunctionDefinitionCount());
+    }
+
+    @Test
+    public void testUnshardableFileKept() {
+        final Library library = new Library("cost_unshardable").withCCDefaultExtensions();
+        final CodeFile file = shardableBodyFile(library, "file", 4);
+        // A declaration in a body file can only be seen by that file
+        file.addClassDeclaration(new Class("Local"));
+        Assert.assertFalse(file.isShardable());
+
+        final CompileCost compileCost = new CompileCost(1);
+        compileCost.estimateLibrary(library);
+
+        Assert.assertTrue(compileCost.getShards().isEmpty());
+        Assert.assertEquals(4, file.getFunctionDefinitionCount());
+    }
+
+    @Test
+    public void testMostExpensiveFirst() {
+        final Library library = new Library("cost_order").withCCDefaultExtensions();
+        final CodeFile a = bodyFile(library, "a", 1);
+        final CodeFile b = bodyFile(library, "b", 3);
+        final CodeFile c = bodyFile(library, "c", 1);
+
+        final CompileCost compileCost = new CompileCost(CompileCost.DEFAULT_THRESHOLD);
+        compileCost.estimateLibrary(library);
+
+        // Files of equal cost stay in path order
+        Assert.assertEquals(List.of(b, a, c), compileCost.order(List.of(c, b, a)));
+        final UnitySourceFile unitySource = new UnitySourceFile(library, a.getFile(), List.of(a, c));
+        Assert.assertEquals(compileCost.getCost(a) + compileCost.getCost(c), compileCost.getCost(unitySource));
+    }
+
+    private TranslatedModel translate(final String name, final String pragmas) throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name)).copy("WH");
+        model.edit("WH.mod", "end domain;", "end domain;\n" + pragmas);
+        return model.translate("WH.mod").assertSucceeded();
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        final TranslatedModel model = translate("report", "pragma compile_cost ( 20000 );");
+        final String report = model.getFile("WH_compile_costs.txt");
+        Assert.assertTrue(report,
+                          report.startsWith(String.join("\n",
+                                                        "Estimated compile costs for WH",
+                                                        "",
+                                                        "Body files    :        110",
+                                                        "Shard limit   :      20000",
+                                                        "")));
+        Assert.assertTrue(report,
+                          report.contains("     Total       Code Functions Templates  Includes  File\n" +
+                                          "    131400      11900        12        15        50  Inspector__WH.cc\n"));
+        Assert.assertTrue(report,
+                          report.contains("\nSplit files\n\n__WH__SITE.cc\n    __WH__SITE_shard1.cc\n" +
+                                          "    __WH__SITE_shard2.cc\n"));
+        // Listed most expensive first
+        final String cmake = model.getFile("CMakeLists.txt");
+        Assert.assertTrue(cmake.contains("add_library (\n  WH_inspector\n  SHARED\n  src/Inspector__WH.cc\n"));
+    }
+
+    @Test
+    public void testShardsNotBatched() throws Exception {
+        final TranslatedModel model = translate("unity", "pragma compile_cost ( 20000 );\npragma unity_build ();");
+        for (final String source : List.of("WH_unity_1.cc", "WH_transient_unity_1.cc")) {
+            final String unitySource = model.getFile(source);
+            Assert.assertFalse(unitySource, unitySource.contains("_shard"));
+            Assert.assertFalse(unitySource, unitySource.contains("\"__WH__ITEM.cc\""));
+        }
+        Assert.assertTrue(model.getFile("CMakeLists.txt").contains("  src/__WH__ITEM_shard1.cc\n"));
+    }
+
+    @Test
+    public void testInvalidThresholdReported() throws Exception {
+        final TranslatedModel model = translate("invalid", "pragma compile_cost ( high );");
+        Assert.assertTrue(model.getLog(),
+                          model.getLog()
+                               .contains("WH: Warning: unknown value 'high' for pragma compile_cost, expected one of " +
+                                         "true, false, a cost threshold"));
+        // The default threshold is used instead
+        Assert.assertTrue(model.getFile("WH_compile_costs.txt").contains("Shard limit   :     400000\n"));
+    }
+
+}
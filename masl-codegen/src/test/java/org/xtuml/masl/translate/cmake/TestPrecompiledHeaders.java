@@ -0,0 +1,165 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks which headers PrecompiledHeaders chooses for a library, that files
+ * split out of another do not change the choice, and which files are compiled
+ * without the precompiled header in the CMakeLists.txt generated for the WH
+ * test model.
+ */
+public class TestPrecompiledHeaders {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String EXPECTED_PCH = String.join("\n",
+                                                           "#include \"WH_OOA/__WH_interface.hh\"",
+                                                           "#include <stdint.h>",
+                                                           "#include \"swa/Domain.hh\"",
+                                                           "#include \"swa/ObjectPtr.hh\"");
+
+    private static final String EXPECTED_TRANSIENT_PCH = String.join("\n",
+                                                                     "#include <cstddef>",
+                                                                     "#include <stdint.h>",
+                                                                     "#include \"swa/ObjectPtr.hh\"",
+                                                                     "#include \"swa/Set.hh\"",
+                                                                     "#include \"transient/ToManyRelationship.hh\"",
+                                                                     "#include \"transient/ToOneRelationship.hh\"");
+
+    private static CodeFile bodyFile(final Library library, final String name, final CodeFile... includes) {
+        final CodeFile file = library.createBodyFile(name);
+        for (final CodeFile include : includes) {
+            file.addInclude(include);
+        }
+        return file;
+    }
+
+    @Test
+    public void testHeadersOverThresholdChosen() {
+        final Library other = new Library("pch_chosen_other").withCCDefaultExtensions();
+        final CodeFile common = other.createPublicHeader("common");
+        final CodeFile rare = other.createPublicHeader("rare");
+        final Library library = new Library("pch_chosen").withCCDefaultExtensions();
+        final CodeFile own = library.createPrivateHeader("own");
+        bodyFile(library, "a", common, own);
+        bodyFile(library, "b", common, own);
+        bodyFile(library, "c", rare, own);
+
+        final CodeFile header = new PrecompiledHeaders(50, Set.of()).createHeader(library);
+        Assert.assertEquals("pch_chosen_pch.hh", header.getFile().getName());
+        // The library's own private header is left out, however often used
+        Assert.assertEquals(List.of(common), header.getIncludes());
+        Assert.assertEquals(List.of(common, rare),
+                            new PrecompiledHeaders(30, Set.of()).createHeader(library).getIncludes());
+    }
+
+    @Test
+    public void testTooFewFiles() {
+        final Library other = new Library("pch_few_other").withCCDefaultExtensions();
+        final Library library = new Library("pch_few").withCCDefaultExtensions();
+        bodyFile(library, "a", other.createPublicHeader("common"));
+
+        Assert.assertNull(new PrecompiledHeaders(50, Set.of()).createHeader(library));
+    }
+
+    @Test
+    public void testSplitFilesCountedAsOriginal() {
+        final Library other = new Library("pch_split_other").withCCDefaultExtensions();
+        final CodeFile common = other.createPublicHeader("common");
+        final Library library = new Library("pch_split").withCCDefaultExtensions();
+        final CodeFile a = bodyFile(library, "a", common);
+        bodyFile(library, "b", common);
+        for (int i = 1; i <= 3; ++i) {
+            bodyFile(library, "a_action" + i).setSplitFrom(a);
+        }
+
+        // Counted separately, only two of the five files would include the header
+        Assert.assertEquals(List.of(common), new PrecompiledHeaders(50, Set.of()).createHeader(library).getIncludes());
+    }
+
+    @Test
+    public void testExcludedFiles() {
+        final Library library = new Library("pch_excluded").withCCDefaultExtensions();
+        final CodeFile named = library.createBodyFile("named");
+        final CodeFile ordered = library.createBodyFile("ordered");
+        ordered.addTopInclude(library.createPrivateHeader("first"));
+        final CodeFile plain = library.createBodyFile("plain");
+
+        final PrecompiledHeaders precompiledHeaders = new PrecompiledHeaders(50, Set.of("named"));
+        Assert.assertTrue(precompiledHeaders.isExcluded(named));
+        Assert.assertTrue(precompiledHeaders.isExcluded(ordered));
+        Assert.assertFalse(precompiledHeaders.isExcluded(plain));
+        Assert.assertTrue(new PrecompiledHeaders(50, Set.of("named.cc")).isExcluded(named));
+    }
+
+    private TranslatedModel translate(final String name, final String pragmas) throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name)).copy("WH");
+        model.edit("WH.mod", "end domain;", "end domain;\npragma precompiled_headers ();\n" + pragmas);
+        return model.translate("WH.mod").assertSucceeded();
+    }
+
+    private static void assertHeader(final TranslatedModel model, final String name, final String expected) throws
+                                                                                                          Exception {
+        Assert.assertTrue(model.getFile(name), model.getFile(name).contains(expected + "\n\n"));
+    }
+
+    @Test
+    public void testExcludedFilesSkipPrecompiledHeader() throws Exception {
+        final TranslatedModel
+                model =
+                translate("skip", "pragma no_precompiled_headers ( __WH__SITE, \"__WH__RACK.cc\" );");
+        assertHeader(model, "WH_pch.hh", EXPECTED_PCH);
+        Assert.assertTrue(model.getFile("CMakeLists.txt")
+                               .contains("target_precompile_headers (\n  WH\n  PRIVATE\n  src/WH_pch.hh\n  )\n" +
+                                         "set_source_files_properties (\n  src/__WH__SITE.cc\n  src/__WH__RACK.cc\n" +
+                                         "  PROPERTIES\n  SKIP_PRECOMPILE_HEADERS\n  ON\n  )\n"));
+    }
+
+    @Test
+    public void testShardingKeepsHeader() throws Exception {
+        final TranslatedModel model = translate("sharded", "pragma compile_cost ( 20000 );");
+        assertHeader(model, "WH_pch.hh", EXPECTED_PCH);
+        assertHeader(model, "WH_transient_pch.hh", EXPECTED_TRANSIENT_PCH);
+    }
+
+    @Test
+    public void testActionFilesKeepHeader() throws Exception {
+        final TranslatedModel model = translate("actions", "pragma action_files ( true );");
+        assertHeader(model, "WH_pch.hh", EXPECTED_PCH);
+        assertHeader(model, "WH_transient_pch.hh", EXPECTED_TRANSIENT_PCH);
+    }
+
+    @Test
+    public void testInvalidThresholdReported() throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder("invalid")).copy("WH");
+        model.edit("WH.mod", "end domain;", "end domain;\npragma precompiled_headers ( most );");
+        model.translate("WH.mod").assertSucceeded();
+
+        Assert.assertTrue(model.getLog(),
+                          model.getLog()
+                               .contains("WH: Warning: unknown value 'most' for pragma precompiled_headers, expected " +
+                                         "one of true, false, a percentage of files"));
+        // The default threshold is used instead
+        assertHeader(model, "WH_pch.hh", EXPECTED_PCH);
+    }
+
+}
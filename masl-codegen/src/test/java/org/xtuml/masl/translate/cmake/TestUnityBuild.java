@@ -0,0 +1,180 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.cmake;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.cppgen.Class;
+import org.xtuml.masl.cppgen.CodeFile;
+import org.xtuml.masl.cppgen.Function;
+import org.xtuml.masl.cppgen.Library;
+import org.xtuml.masl.cppgen.Namespace;
+import org.xtuml.masl.translate.TranslatedModel;
+import org.xtuml.masl.translate.building.ReferencedFile;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks how UnityBuild batches the body files of a library, both on hand built
+ * libraries, where the cost of each file is known, and on the sqlite mappers
+ * generated for the WH test model, which all define the same names in an
+ * anonymous namespace.
+ */
+public class TestUnityBuild {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final Namespace ANONYMOUS = new Namespace("");
+
+    private static Library library(final String name) {
+        return new Library(name).withCCDefaultExtensions();
+    }
+
+    /**
+     * Creates a body file defining a function with external linkage.
+     */
+    private static CodeFile bodyFile(final Library library, final String name) {
+        final CodeFile file = library.createBodyFile(name);
+        file.addFunctionDefinition(new Function(name + "_impl"));
+        return file;
+    }
+
+    /**
+     * Creates a body file defining a function with internal linkage.
+     */
+    private static CodeFile anonymousBodyFile(final Library library, final String name, final String function) {
+        final CodeFile file = library.createBodyFile(name);
+        file.addFunctionDefinition(new Function(function, ANONYMOUS));
+        return file;
+    }
+
+    private static List<CodeFile> batch(final ReferencedFile source) {
+        Assert.assertTrue(source + " is not a unity source", source instanceof UnitySourceFile);
+        return ((UnitySourceFile) source).getBodyFiles();
+    }
+
+    @Test
+    public void testBatchesLimitedByBudget() {
+        final Library library = library("unity_budget");
+        final CodeFile a = bodyFile(library, "a");
+        final CodeFile b = bodyFile(library, "b");
+        final CodeFile c = bodyFile(library, "c");
+
+        final UnityBuild unityBuild = new UnityBuild("UNITY", a.getCodeSize() + b.getCodeSize());
+        final List<ReferencedFile> sources = unityBuild.createSources(library, Set.of());
+
+        Assert.assertEquals(2, sources.size());
+        Assert.assertEquals(List.of(a, b), batch(sources.get(0)));
+        Assert.assertEquals("unity_budget_unity_1.cc", sources.get(0).getFile().getName());
+        // A batch of one is compiled as it is
+        Assert.assertSame(c, sources.get(1));
+    }
+
+    @Test
+    public void testSharedIncludeCostedOnce() {
+        final Library library = library("unity_include");
+        final CodeFile header = library.createPrivateHeader("shared");
+        final CodeFile a = bodyFile(library, "a");
+        final CodeFile b = bodyFile(library, "b");
+        a.addInclude(header);
+        b.addInclude(header);
+
+        final int cost = a.getCodeSize() + b.getCodeSize() + UnityBuild.INCLUDE_COST;
+        Assert.assertEquals(1, new UnityBuild("UNITY", cost).createSources(library, Set.of()).size());
+        Assert.assertEquals(2, new UnityBuild("UNITY", cost - 1).createSources(library, Set.of()).size());
+    }
+
+    @Test
+    public void testClashingNamesKeptApart() {
+        final Library library = library("unity_clash");
+        final CodeFile a = anonymousBodyFile(library, "a", "createTableStatment");
+        final CodeFile b = anonymousBodyFile(library, "b", "createTableStatment");
+        final CodeFile c = anonymousBodyFile(library, "c", "createIndexStatment");
+
+        final List<ReferencedFile>
+                sources =
+                new UnityBuild("UNITY", UnityBuild.DEFAULT_BUDGET).createSources(library, Set.of());
+
+        Assert.assertEquals(2, sources.size());
+        Assert.assertEquals(List.of(a, c), batch(sources.get(0)));
+        Assert.assertSame(b, sources.get(1));
+    }
+
+    @Test
+    public void testTranslationUnitNames() {
+        final Library library = library("unity_names");
+        final CodeFile body = library.createBodyFile("body");
+        final CodeFile header = library.createPrivateHeader("header");
+        body.addClassDeclaration(new Class("Local"));
+        body.addFunctionDefinition(new Function("anonymous", ANONYMOUS));
+        body.addFunctionDefinition(new Function("external"));
+        header.addClassDeclaration(new Class("Exported"));
+
+        // Only declarations in a body file and definitions with internal
+        // linkage are private to the translation unit
+        Assert.assertEquals(Set.of("Local", "::anonymous"), body.getTranslationUnitNames());
+        Assert.assertEquals(Set.of(), header.getTranslationUnitNames());
+    }
+
+    @Test
+    public void testUnitySourceIncludesBatch() throws Exception {
+        final Library library = library("unity_source");
+        final CodeFile a = bodyFile(library, "a");
+        final CodeFile b = bodyFile(library, "b");
+
+        final StringWriter code = new StringWriter();
+        new UnitySourceFile(library, new File("unity_source_unity_1.cc"), List.of(a, b)).writeCode(code);
+        Assert.assertEquals(String.join("\n",
+                                        "// Unity build source - compiles the following generated files as one " +
+                                        "translation unit",
+                                        "#include \"a.cc\"",
+                                        "#include \"b.cc\"",
+                                        ""), code.toString());
+    }
+
+    @Test
+    public void testSqliteMappersKeptApart() throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder("sqlite")).copy("WH");
+        model.edit("WH.mod", "end domain;", "end domain;\npragma unity_build ();");
+        model.translate("WH.mod").assertSucceeded();
+
+        final String unitySource = model.getFile("WH_sqlite_unity_1.cc");
+        final Matcher mappers = Pattern.compile("#include \".*MapperSql\\.cc\"").matcher(unitySource);
+        Assert.assertTrue(unitySource, mappers.find());
+        Assert.assertFalse(unitySource, mappers.find());
+
+        final String cmake = model.getFile("CMakeLists.txt");
+        Assert.assertTrue(cmake.contains("if ( WH_UNITY_BUILD )\n"));
+        Assert.assertTrue(cmake.contains("  src/WH_sqlite_unity_1.cc\n  src/Sqlite__WH__ORDERMapperSql.cc\n"));
+    }
+
+    @Test
+    public void testInvalidBudgetReported() throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder("invalid")).copy("WH");
+        model.edit("WH.mod", "end domain;", "end domain;\npragma unity_build ( lots );");
+        model.translate("WH.mod").assertSucceeded();
+
+        Assert.assertTrue(model.getLog(),
+                          model.getLog()
+                               .contains("WH: Warning: unknown value 'lots' for pragma unity_build, expected one of " +
+                                         "true, false, a batch budget"));
+        // The default budget is used instead
+        model.getFile("WH_unity_1.cc");
+    }
+
+}
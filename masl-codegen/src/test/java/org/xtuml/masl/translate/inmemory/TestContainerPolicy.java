@@ -0,0 +1,148 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.inmemory;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks which containers the container_policy pragma selects for the
+ * population, identifier lookups, relationships and primary key cache of an
+ * object, and that models without the pragma are translated as they always
+ * were.
+ */
+public class TestContainerPolicy {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private TranslatedModel translate(final String name, final String domainPragma, final String itemPragma) throws
+                                                                                                             Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name)).copy("WH");
+        if (domainPragma != null) {
+            model.edit("WH.mod", "end domain;", "end domain;\npragma container_policy ( " + domainPragma + " );");
+        }
+        if (itemPragma != null) {
+            model.edit("WH.mod", "  object ITEM;", "  object ITEM; pragma container_policy ( " + itemPragma + " );");
+        }
+        return model.translate("WH.mod").assertSucceeded();
+    }
+
+    @Test
+    public void testNoPragmaUsesOriginalContainers() throws Exception {
+        final TranslatedModel model = translate("none", null, null);
+
+        Assert.assertTrue(model.getFile("Transient__WH__ITEMPopulation.hh")
+                               .contains(
+                                       "TransientPopulation< ::masld_WH::maslo_ITEM,::masld_WH::maslo_ITEMPopulation>"));
+        Assert.assertTrue(model.getFile("Transient__WH__ITEMPopulation.hh")
+                               .contains(
+                                       "::boost::unordered_map< ::boost::tuple<int32_t>,::SWA::ObjectPtr< ::masld_WH::maslo_ITEM> > masla_item_id_Lookup;"));
+        Assert.assertTrue(model.getFile("Transient__WH__ITEM.hh")
+                               .contains("ToManyRelationship<maslo_ORDER> R4_is_requested_by_ORDER;"));
+        Assert.assertTrue(model.getFile("Sqlite__WH__SITEMapper.hh")
+                               .contains("::boost::unordered_set<maslo_SITE::PrimaryKeyType> primarykey_cache;"));
+        for (final Path file : model.getFiles().values()) {
+            Assert.assertFalse(file + " names a container policy", Files.readString(file).contains("Containers"));
+        }
+    }
+
+    @Test
+    public void testHashPragmaChangesNothing() throws Exception {
+        final TranslatedModel none = translate("none", null, null);
+        final TranslatedModel hash = translate("hash", "hash", "hash");
+
+        Assert.assertEquals(none.getFiles().keySet(), hash.getFiles().keySet());
+        for (final String file : none.getFiles().keySet()) {
+            // The build files name the model directory
+            Assert.assertEquals("Generated file " + file + " differs",
+                                Files.readString(none.getFiles().get(file))
+                                     .replace(none.getModelDir().getPath(), "model"),
+                                Files.readString(hash.getFiles().get(file))
+                                     .replace(hash.getModelDir().getPath(), "model"));
+        }
+    }
+
+    @Test
+    public void testObjectPragmaSelectsPolicy() throws Exception {
+        final TranslatedModel model = translate("object", null, "flat_hash");
+
+        final String population = model.getFile("Transient__WH__ITEMPopulation.hh");
+        Assert.assertTrue(population.contains(
+                "TransientPopulation< ::masld_WH::maslo_ITEM,::masld_WH::maslo_ITEMPopulation,::SWA::FlatHashContainers>"));
+        Assert.assertTrue(population.contains(
+                "::SWA::FlatHashContainers::map< ::boost::tuple<int32_t>,::SWA::ObjectPtr< ::masld_WH::maslo_ITEM> > masla_item_id_Lookup;"));
+        Assert.assertTrue(model.getFile("Transient__WH__ITEM.hh")
+                               .contains("ToManyRelationship<maslo_ORDER,::SWA::FlatHashContainers> R4_is_requested_by_ORDER;"));
+        Assert.assertTrue(model.getFile("Sqlite__WH__ITEMMapper.hh")
+                               .contains("::SWA::FlatHashContainers::set<maslo_ITEM::PrimaryKeyType> primarykey_cache;"));
+
+        // Other objects keep the default
+        Assert.assertTrue(model.getFile("Transient__WH__SITEPopulation.hh")
+                               .contains(
+                                       "TransientPopulation< ::masld_WH::maslo_SITE,::masld_WH::maslo_SITEPopulation>"));
+        Assert.assertTrue(model.getFile("Transient__WH__SITE.hh")
+                               .contains("ToManyRelationship<maslo_RACK> R1_contains_RACK;"));
+    }
+
+    @Test
+    public void testObjectPragmaOverridesDomainPragma() throws Exception {
+        final TranslatedModel model = translate("domain", "small_vector", "flat_hash");
+
+        Assert.assertTrue(model.getFile("Transient__WH__SITEPopulation.hh")
+                               .contains(
+                                       "TransientPopulation< ::masld_WH::maslo_SITE,::masld_WH::maslo_SITEPopulation,::SWA::SmallVectorContainers>"));
+        Assert.assertTrue(model.getFile("Transient__WH__SITE.hh")
+                               .contains("ToManyRelationship<maslo_RACK,::SWA::SmallVectorContainers> R1_contains_RACK;"));
+        Assert.assertTrue(model.getFile("Sqlite__WH__SITEMapper.hh")
+                               .contains("::SWA::SmallVectorContainers::set<maslo_SITE::PrimaryKeyType> primarykey_cache;"));
+
+        Assert.assertTrue(model.getFile("Transient__WH__ITEMPopulation.hh")
+                               .contains(
+                                       "TransientPopulation< ::masld_WH::maslo_ITEM,::masld_WH::maslo_ITEMPopulation,::SWA::FlatHashContainers>"));
+        Assert.assertTrue(model.getFile("Transient__WH__ITEM.hh")
+                               .contains("ToManyRelationship<maslo_ORDER,::SWA::FlatHashContainers> R4_is_requested_by_ORDER;"));
+    }
+
+    @Test
+    public void testOnlyChosenPolicyIncluded() throws Exception {
+        final TranslatedModel model = translate("include", "small_vector", "flat_hash");
+
+        final String item = model.getFile("Transient__WH__ITEMPopulation.hh");
+        Assert.assertTrue(item.contains("#include \"swa/FlatHashContainers.hh\""));
+        Assert.assertFalse(item.contains("#include \"swa/SmallVectorContainers.hh\""));
+        final String site = model.getFile("Transient__WH__SITEPopulation.hh");
+        Assert.assertTrue(site.contains("#include \"swa/SmallVectorContainers.hh\""));
+        Assert.assertFalse(site.contains("#include \"swa/FlatHashContainers.hh\""));
+        for (final Path file : model.getFiles().values()) {
+            Assert.assertFalse(file + " includes every policy",
+                               Files.readString(file).contains("swa/container_policy.hh"));
+        }
+    }
+
+    @Test
+    public void testUnknownPolicyWarnsOnceAndUsesDefault() throws Exception {
+        final TranslatedModel model = translate("unknown", null, "btree");
+
+        Assert.assertTrue(model.getLog(),
+                          model.getLog().contains("Warning: unknown value 'btree' for pragma container_policy"));
+        Assert.assertEquals(model.getLog(), 1, model.getLog().split("unknown value 'btree'", -1).length - 1);
+        Assert.assertTrue(model.getFile("Transient__WH__ITEMPopulation.hh")
+                               .contains(
+                                       "TransientPopulation< ::masld_WH::maslo_ITEM,::masld_WH::maslo_ITEMPopulation>"));
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.inmemory;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+/**
+ * Checks the code generated for the index, ordered_index and prefix_index
+ * pragmas: that every index is kept up to date as instances are created,
+ * deleted and have indexed attributes set, and that finds only use an index
+ * when their conditions match it.
+ */
+public class TestPopulationIndexes {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String PROBE = """
+            public service WH::probe () is
+              items : sequence of instance of ITEM;
+              slots : sequence of instance of SLOT;
+            begin
+              items := find ITEM ( owner_id = 1 );
+              items := find ITEM ( quantity /= 3 );
+              items := find ITEM ( quantity >= 2 and quantity < 5 );
+              items := find ITEM ( status = Low and owner_id = 2 );
+              slots := find SLOT ( rack = 1 );
+              slots := find SLOT ( site_id = 1 );
+              slots := find SLOT ( slot = 3 and site_id = 1 );
+            end service;
+            """;
+
+    private static TranslatedModel indexed;
+
+    @BeforeClass
+    public static void translate() throws Exception {
+        indexed = new TranslatedModel(tmp.newFolder("indexed")).copy("WH")
+                                                               .edit("WH.mod",
+                                                                     "  object ITEM;",
+                                                                     "  object ITEM; pragma index ( status ); pragma ordered_index ( quantity );")
+                                                               .edit("WH.mod",
+                                                                     "  object SLOT;",
+                                                                     "  object SLOT; pragma prefix_index ();")
+                                                               .edit("WH.mod",
+                                                                     "  public service urgent_count () return integer;",
+                                                                     "  public service urgent_count () return integer;\n  public service probe ();")
+                                                               .write("probe.svc", PROBE)
+                                                               .translate("WH.mod")
+                                                               .assertSucceeded();
+    }
+
+    /**
+     * @return the definition of a member function, from its name to the end of
+     * its body
+     */
+    private static String function(final String source, final String qualifiedName) {
+        final int begin = source.indexOf(qualifiedName + " (");
+        Assert.assertTrue("No " + qualifiedName, begin >= 0);
+        return source.substring(begin, source.indexOf("\n    }\n", begin));
+    }
+
+    private static void assertInOrder(final String code, final String... fragments) {
+        int from = 0;
+        for (final String fragment : fragments) {
+            final int at = code.indexOf(fragment, from);
+            Assert.assertTrue("'" + fragment + "' not found in order in\n" + code, at >= 0);
+            from = at + fragment.length();
+        }
+    }
+
+    @Test
+    public void testCreateAndDeleteMaintainIndexes() throws Exception {
+        final String item = indexed.getFile("Transient__WH__ITEMPopulation.cc");
+        final String created = function(item, "maslo_ITEMPopulation::instanceCreated");
+        Assert.assertTrue(created.contains("addToOrderedIndex_masla_quantity( instance );"));
+        Assert.assertTrue(created.contains("addToIndex_masla_status( instance );"));
+        final String deleted = function(item, "maslo_ITEMPopulation::instanceDeleted");
+        Assert.assertTrue(deleted.contains("removeFromOrderedIndex_masla_quantity( instance );"));
+        Assert.assertTrue(deleted.contains("removeFromIndex_masla_status( instance );"));
+
+        // Both prefixes of the identifier (site_id, rack, slot)
+        final String slot = indexed.getFile("Transient__WH__SLOTPopulation.cc");
+        final String slotCreated = function(slot, "maslo_SLOTPopulation::instanceCreated");
+        Assert.assertTrue(slotCreated.contains("addToIndex_masla_site_idmasla_rack( instance );"));
+        Assert.assertTrue(slotCreated.contains("addToIndex_masla_site_id( instance );"));
+        final String slotDeleted = function(slot, "maslo_SLOTPopulation::instanceDeleted");
+        Assert.assertTrue(slotDeleted.contains("removeFromIndex_masla_site_idmasla_rack( instance );"));
+        Assert.assertTrue(slotDeleted.contains("removeFromIndex_masla_site_id( instance );"));
+    }
+
+    @Test
+    public void testIndexedSettersMoveInstance() throws Exception {
+        final String body = indexed.getFile("Transient__WH__ITEM.cc");
+        assertInOrder(function(body, "maslo_ITEM::set_masla_quantity"),
+                      "removeFromOrderedIndex_masla_quantity(",
+                      "this->masla_quantity = value;",
+                      "addToOrderedIndex_masla_quantity(");
+        assertInOrder(function(body, "maslo_ITEM::set_masla_status"),
+                      "removeFromIndex_masla_status(",
+                      "this->masla_status = value;",
+                      "addToIndex_masla_status(");
+
+        final String header = indexed.getFile("Transient__WH__ITEM.hh");
+        Assert.assertTrue(header.contains("virtual void set_masla_quantity ( int32_t value );"));
+        Assert.assertTrue(header.contains("virtual void set_masla_status ( const ::masld_WH::maslt_Priority& value );"));
+
+        // Attributes in no index keep their inline setters
+        Assert.assertTrue(header.contains(
+                "virtual void set_masla_owner_id ( int32_t value ) { this->masla_owner_id = value; }"));
+        Assert.assertTrue(header.contains(
+                "virtual void set_masla_name ( const ::SWA::String& value ) { this->masla_name = value; }"));
+        Assert.assertFalse(body.contains("maslo_ITEM::set_masla_owner_id"));
+        Assert.assertFalse(body.contains("maslo_ITEM::set_masla_name"));
+    }
+
+    @Test
+    public void testNoPragmasNoIndexes() throws Exception {
+        final TranslatedModel plain = new TranslatedModel(tmp.newFolder("plain")).copy("WH")
+                                                                                 .translate("WH.mod")
+                                                                                 .assertSucceeded();
+        Assert.assertFalse(plain.getFile("Transient__WH__ITEMPopulation.cc").contains("Index_"));
+        Assert.assertFalse(plain.getFile("Transient__WH__SLOTPopulation.cc").contains("Index_"));
+        Assert.assertTrue(plain.getFile("Transient__WH__ITEM.hh")
+                               .contains("virtual void set_masla_quantity ( int32_t value ) { this->masla_quantity = value; }"));
+    }
+
+    @Test
+    public void testRangeFindsOnlyForBoundedConditions() throws Exception {
+        final String item = indexed.getFile("Transient__WH__ITEMPopulation.cc");
+
+        Assert.assertTrue(function(item,
+                                   "maslo_ITEMPopulation::find_OPOPmasl_quantity_maslGEp1CPANDOPmasl_quantity_maslLTp2CPCP")
+                                  .contains(
+                                          "return ::SWA::find_range( masla_quantity_OrderedIndex, masla_quantity_OrderedIndex.lower_bound( p1 ), masla_quantity_OrderedIndex.lower_bound( p2 ) );"));
+
+        // A bound on the indexed attribute alongside another condition filters
+        // the range
+        final String mixed = function(item,
+                                      "maslo_ITEMPopulation::find_OPOPmasl_owner_id_maslEQp1CPANDOPmasl_quantity_maslGTp2CPCP");
+        Assert.assertTrue(mixed.contains(
+                "::SWA::find_range( masla_quantity_OrderedIndex, masla_quantity_OrderedIndex.upper_bound( p2 ), masla_quantity_OrderedIndex.end(), [&]"));
+
+        // Inequality cannot be scanned as a range, and owner_id is not indexed
+        for (final String find : new String[]{"find_OPmasl_quantity_maslNEp1CP", "find_OPmasl_owner_id_maslEQp1CP"}) {
+            final String code = function(item, "maslo_ITEMPopulation::" + find);
+            Assert.assertTrue(code.contains("::SWA::copy_if( begin(), end(),"));
+            Assert.assertFalse(code.contains("find_range"));
+            Assert.assertFalse(code.contains("find_indexed"));
+        }
+    }
+
+    @Test
+    public void testIndexLookupsOnlyForMatchingConditions() throws Exception {
+        final String item = indexed.getFile("Transient__WH__ITEMPopulation.cc");
+        Assert.assertTrue(function(item, "maslo_ITEMPopulation::find_OPmasl_status_maslEQp1CP")
+                                  .contains("return findAll_masla_status( p1 );"));
+        // Partial match, filtering on the remaining condition
+        Assert.assertTrue(function(item,
+                                   "maslo_ITEMPopulation::find_OPOPmasl_status_maslEQp1CPANDOPmasl_owner_id_maslEQp2CPCP")
+                                  .contains("return ::SWA::find_indexed( masla_status_Index, ::boost::make_tuple( p1 ), [&]"));
+
+        final String slot = indexed.getFile("Transient__WH__SLOTPopulation.cc");
+        Assert.assertTrue(function(slot,
+                                   "maslo_SLOTPopulation::find_OPOPmasl_site_id_maslEQp1CPANDOPmasl_rack_maslEQp2CPCP")
+                                  .contains("return findAll_masla_site_idmasla_rack( p1, p2 );"));
+        Assert.assertTrue(function(slot, "maslo_SLOTPopulation::find_OPmasl_site_id_maslEQp1CP")
+                                  .contains("return findAll_masla_site_id( p1 );"));
+        Assert.assertTrue(function(slot,
+                                   "maslo_SLOTPopulation::find_OPOPmasl_slot_maslEQp1CPANDOPmasl_site_id_maslEQp2CPCP")
+                                  .contains("return ::SWA::find_indexed( masla_site_id_Index, ::boost::make_tuple( p2 ), [&]"));
+
+        // rack alone is not a leading part of the identifier
+        final String rack = function(slot, "maslo_SLOTPopulation::find_OPmasl_rack_maslEQp1CP");
+        Assert.assertTrue(rack.contains("::SWA::copy_if( begin(), end(),"));
+        Assert.assertFalse(rack.contains("find_indexed"));
+        Assert.assertFalse(rack.contains("findAll_"));
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.javasim;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the SIM test model into a Java simulation, compiles it and runs
+ * its scenarios, checking what each scenario prints. Constructs the simulation
+ * cannot run must be reported when the simulation is generated, rather than
+ * when they are reached.
+ */
+public class TestJavaSim {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private TranslatedModel model(final String name) throws Exception {
+        return new TranslatedModel(tmp.newFolder(name)).copy("SIM");
+    }
+
+    private static TranslatedModel translate(final TranslatedModel model) throws Exception {
+        return model.translate("SIM.mod", "-onlytranslator", "JavaSim");
+    }
+
+    /**
+     * Compiles the generated simulation and runs the given scenario in a
+     * separate JVM.
+     *
+     * @return what the scenario printed
+     */
+    private String run(final TranslatedModel model, final String scenario) throws Exception {
+        final List<String> args = new ArrayList<>();
+        final File classes = tmp.newFolder();
+        args.add("-d");
+        args.add(classes.getPath());
+        for (final Path source : model.getFiles().values()) {
+            if (source.toString().endsWith(".java")) {
+                args.add(source.toString());
+            }
+        }
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        Assert.assertEquals(errors.toString(StandardCharsets.UTF_8),
+                            0,
+                            compiler.run(null, null, errors, args.toArray(new String[0])));
+
+        final Process
+                process =
+                new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                                   "-cp",
+                                   classes.getPath(),
+                                   "masl.sim.sim.Simulation",
+                                   scenario).redirectErrorStream(true).start();
+        final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(output, 0, process.waitFor());
+        return output;
+    }
+
+    private static void assertNoStubs(final TranslatedModel model) throws Exception {
+        final String simulation = model.getFile("Simulation.java");
+        Assert.assertFalse(simulation.contains("unsupported"));
+        Assert.assertFalse(simulation.contains("UnsupportedOperationException"));
+    }
+
+    @Test
+    public void testScenarioRuns() throws Exception {
+        final TranslatedModel model = translate(model("run")).assertSucceeded();
+        assertNoStubs(model);
+        Assert.assertEquals(String.join("\n",
+                                        "heavy 3",
+                                        "box 3 on bottom",
+                                        "top 4 10",
+                                        "top 2 30",
+                                        "last 4",
+                                        "note generated",
+                                        "moved 1 to 1",
+                                        ""), run(model, "stock"));
+    }
+
+    @Test
+    public void testSelfEventsDeliveredFirst() throws Exception {
+        final TranslatedModel model = translate(model("queue")).assertSucceeded();
+        // The event to the deleted box 3 is dropped, and box 1 settles before
+        // the move to box 2 generated by the scenario is delivered
+        Assert.assertEquals(String.join("\n", "moved 1 to 2", "settled 1", "moved 2 to 1", ""), run(model, "queue"));
+    }
+
+    @Test
+    public void testUnsupportedExpressionReported() throws Exception {
+        final TranslatedModel model = model("expression");
+        model.edit("stock.scn",
+                   "  LOG~>note ( \"generated\" );",
+                   "  console << boxes[boxes'first].box_id << endl;\n  LOG~>note ( \"generated\" );");
+        translate(model);
+        Assert.assertNotEquals(model.getLog(), 0, model.getExitCode());
+        Assert.assertTrue(model.getLog(),
+                          model.getLog()
+                               .contains("stock.scn:40:2: Error: Expression boxes[boxes'first] cannot be simulated"));
+        assertNoStubs(model);
+    }
+
+    @Test
+    public void testExceptionHandlerReported() throws Exception {
+        final TranslatedModel model = model("handler");
+        model.edit("BOX_Waiting.al", "  null;\n", "  null;\nexception\n  when program_error =>\n    null;\n");
+        translate(model);
+        Assert.assertNotEquals(model.getLog(), 0, model.getExitCode());
+        Assert.assertTrue(model.getLog(),
+                          model.getLog().contains("BOX_Waiting.al:9:7: Error: Exception handler cannot be simulated"));
+        assertNoStubs(model);
+    }
+
+    @Test
+    public void testServiceWithoutCodeReported() throws Exception {
+        final TranslatedModel model = model("service");
+        model.edit("SIM.mod",
+                   "  private service stock ();",
+                   "  private service missing ();\n  private service stock ();");
+        translate(model);
+        Assert.assertNotEquals(model.getLog(), 0, model.getExitCode());
+        Assert.assertTrue(model.getLog(),
+                          model.getLog().contains("Error: SIM::missing has no implementation to simulate"));
+        assertNoStubs(model);
+    }
+
+    @Test
+    public void testTerminatorServiceWithoutCodeDoesNothing() throws Exception {
+        final TranslatedModel model = model("terminator");
+        Files.delete(new File(model.getModelDir(), "LOG_note.tr").toPath());
+        translate(model).assertSucceeded();
+        Assert.assertTrue(model.getLog(),
+                          model.getLog().contains("Warning: SIM::LOG~>note has no implementation, so does nothing " +
+                                                  "when simulated"));
+        assertNoStubs(model);
+        Assert.assertFalse(run(model, "stock").contains("note"));
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that the action_files pragma writes each find and conditional
+ * navigation to a body file of its own, which is compiled as part of the
+ * object's library, and that without it the generated files are unchanged.
+ */
+public class TestActionFiles {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String NAVIGATE = """
+            public service WH::racks_numbered ( site_id: in integer, number: in integer ) is
+              site  : instance of SITE;
+              racks : sequence of instance of RACK;
+            begin
+              site := find_one SITE ( site_id = site_id );
+              racks := site -> R1.RACK ( rack = number );
+            end service;
+            """;
+
+    private static final String SITE_FIND = "Transient__WH__SITEPopulation_findOne_OPmasl_site_id_maslEQp1CP.cc";
+    private static final String SITE_FIND_DEFINITION =
+            "maslo_SITEPopulation::findOne_OPmasl_site_id_maslEQp1CP ( int32_t p1 ) const";
+
+    private static final String SITE_NAVIGATE = "__WH__SITE_navigate_R1_contains_RACK_OPmasl_rack_maslEQp1CP.cc";
+    private static final String SITE_NAVIGATE_DEFINITION =
+            "maslo_SITE::navigate_R1_contains_RACK_OPmasl_rack_maslEQp1CP ( int32_t p1 ) const";
+
+    private TranslatedModel translate(final String name, final String domainPragma, final String itemPragma) throws
+                                                                                                             Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name)).copy("WH");
+        model.edit("WH.mod",
+                   "  public service urgent_count () return integer;",
+                   "  public service urgent_count () return integer;\n" +
+                   "  public service racks_numbered ( site_id: in integer, number: in integer );");
+        if (domainPragma != null) {
+            model.edit("WH.mod", "end domain;", "end domain;\npragma action_files ( " + domainPragma + " );");
+        }
+        if (itemPragma != null) {
+            model.edit("WH.mod", "  object ITEM;", "  object ITEM; pragma action_files ( " + itemPragma + " );");
+        }
+        return model.write("racks_numbered.svc", NAVIGATE).translate("WH.mod").assertSucceeded();
+    }
+
+    private static List<String> filesStartingWith(final TranslatedModel model, final String prefix) {
+        return model.getFiles()
+                    .values()
+                    .stream()
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the sources listed for a library in the generated CMakeLists.txt.
+     */
+    private static List<String> librarySources(final TranslatedModel model, final String library) throws Exception {
+        final String cmake = model.getFile("CMakeLists.txt");
+        final String start = "add_library (\n  " + library + "\n  SHARED\n";
+        final int from = cmake.indexOf(start);
+        Assert.assertTrue("No library " + library, from >= 0);
+        return cmake.substring(from + start.length(), cmake.indexOf("  )\n", from))
+                    .lines()
+                    .map(String::strip)
+                    .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFindInOwnFile() throws Exception {
+        final TranslatedModel model = translate("find", "true", null);
+
+        Assert.assertTrue(model.getFile(SITE_FIND).contains(SITE_FIND_DEFINITION));
+        Assert.assertFalse(model.getFile("Transient__WH__SITEPopulation.cc").contains(SITE_FIND_DEFINITION));
+        Assert.assertTrue(librarySources(model, "WH_transient").contains("src/" + SITE_FIND));
+    }
+
+    @Test
+    public void testConditionalNavigationInOwnFile() throws Exception {
+        final TranslatedModel model = translate("navigate", "true", null);
+
+        Assert.assertEquals(List.of(SITE_NAVIGATE), filesStartingWith(model, "__WH__SITE_"));
+        Assert.assertTrue(model.getFile(SITE_NAVIGATE).contains(SITE_NAVIGATE_DEFINITION));
+        Assert.assertFalse(model.getFile("__WH__SITE.cc").contains(SITE_NAVIGATE_DEFINITION));
+        // The population's implementation of the navigation is split out too
+        Assert.assertTrue(model.getFile("Transient" + SITE_NAVIGATE).contains(SITE_NAVIGATE_DEFINITION));
+        Assert.assertTrue(librarySources(model, "WH").contains("src/" + SITE_NAVIGATE));
+        Assert.assertTrue(librarySources(model, "WH_transient").contains("src/Transient" + SITE_NAVIGATE));
+    }
+
+    @Test
+    public void testObjectPragmaOverridesDomainPragma() throws Exception {
+        final TranslatedModel model = translate("object", "true", "false");
+
+        Assert.assertEquals(List.of(), filesStartingWith(model, "Transient__WH__ITEMPopulation_"));
+        Assert.assertEquals(List.of(SITE_FIND), filesStartingWith(model, "Transient__WH__SITEPopulation_"));
+    }
+
+    @Test
+    public void testDefaultLayoutUnchanged() throws Exception {
+        final TranslatedModel none = translate("none", null, null);
+        final TranslatedModel off = translate("off", "false", null);
+
+        Assert.assertTrue(none.getFile("Transient__WH__SITEPopulation.cc").contains(SITE_FIND_DEFINITION));
+        Assert.assertTrue(none.getFile("__WH__SITE.cc").contains(SITE_NAVIGATE_DEFINITION));
+        Assert.assertEquals(List.of(), filesStartingWith(none, "__WH__SITE_"));
+        Assert.assertEquals(List.of(), filesStartingWith(none, "Transient__WH__SITEPopulation_"));
+        Assert.assertEquals(none.getFiles().keySet(), off.getFiles().keySet());
+        for (final String file : none.getFiles().keySet()) {
+            // The build files name the model directory
+            Assert.assertEquals("Generated file " + file + " differs",
+                                Files.readString(none.getFiles().get(file))
+                                     .replace(none.getModelDir().getPath(), "model"),
+                                Files.readString(off.getFiles().get(file))
+                                     .replace(off.getModelDir().getPath(), "model"));
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+/**
+ * Checks which calls the direct_calls pragma makes straight to the
+ * implementation, and that a project cannot bind a terminator service its
+ * domain will never call through the overrider.
+ */
+public class TestDirectCalls {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String OVERRIDER_CALL = "return getInstance().override_masls_called.getFunction()();";
+    private static final String DIRECT_CALL = "return domain_masls_called();";
+
+    private TranslatedModel model(final String name) throws Exception {
+        return new TranslatedModel(tmp.newFolder(name)).copy("RCH");
+    }
+
+    @Test
+    public void testDomainServicesCalledDirectly() throws Exception {
+        final TranslatedModel model = model("domain");
+        model.translate("RCH.mod").assertSucceeded();
+        final String before = model.getFile("__RCH__scen.cc");
+        Assert.assertFalse(before.contains("\n          masls_from_scen();"));
+
+        model.edit("RCH.mod", "end domain;", "end domain;\npragma direct_calls ();");
+        model.translate("RCH.mod").assertSucceeded();
+        Assert.assertTrue(model.getFile("__RCH__scen.cc").contains("\n          masls_from_scen();"));
+    }
+
+    @Test
+    public void testTerminatorServicesKeepOverrider() throws Exception {
+        // The domain cannot know whether a project binds the service
+        final TranslatedModel model = model("terminator");
+        model.edit("RCH.mod", "end domain;", "end domain;\npragma direct_calls ();");
+        model.translate("RCH.mod").assertSucceeded();
+        Assert.assertTrue(model.getFile("__RCH__TERM__called.cc").contains(OVERRIDER_CALL));
+    }
+
+    @Test
+    public void testTerminatorServicePragma() throws Exception {
+        final TranslatedModel model = model("service");
+        model.edit("RCH.mod", "public service called ();", "public service called (); pragma direct_calls ();");
+        model.translate("RCH.mod").assertSucceeded();
+        final String forwarder = model.getFile("__RCH__TERM__called.cc");
+        Assert.assertTrue(forwarder.contains(DIRECT_CALL));
+        Assert.assertFalse(forwarder.contains(OVERRIDER_CALL));
+    }
+
+    @Test
+    public void testProjectBinding() throws Exception {
+        final TranslatedModel model = model("project");
+        model.edit("RCH.mod", "end domain;", "end domain;\npragma direct_calls ();");
+        model.translateProject("RCHP.prj").assertSucceeded();
+        Assert.assertTrue(model.getFile("__RCHP__RCH__TERM__called.cc")
+                               .contains("::masld_RCH::maslb_TERM::register_masls_called( &masls_called )"));
+    }
+
+    @Test
+    public void testProjectBindingNeverCalled() throws Exception {
+        final TranslatedModel model = model("unbindable");
+        model.edit("RCH.mod", "public service called ();", "public service called (); pragma direct_calls ();");
+        model.translateProject("RCHP.prj");
+        Assert.assertNotEquals(model.getLog(), 0, model.getExitCode());
+        Assert.assertTrue(model.getLog(),
+                          model.getLog()
+                               .contains("RCHP.prj:8:13: Error: RCH::TERM~>called is called directly by its domain, " +
+                                         "as it has pragma direct_calls, so cannot be bound by a project"));
+    }
+
+}
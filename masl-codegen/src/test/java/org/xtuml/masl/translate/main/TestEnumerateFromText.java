@@ -0,0 +1,169 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the switch on length and character generated for the fromText of an
+ * enumerate whose names share lengths and leading characters, both as
+ * generated and by compiling it on its own and converting every name and a
+ * set of near misses. The compiled check is skipped when there is no C++
+ * compiler.
+ */
+public class TestEnumerateFromText {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    // Rust and Rose, and Bone and Blue, share both length and first character
+    private static final String[] NAMES = {"Red", "Rust", "Rose", "Bone", "Blue", "Black"};
+
+    private static final String[] NEAR_MISSES = {"", "R", "Re", "red", "Ros", "Rosy", "Roses", "Bonk", "Blac", "Blacks", "Xone", "Blue "};
+
+    private static String source;
+
+    @BeforeClass
+    public static void translate() throws Exception {
+        source = new TranslatedModel(tmp.newFolder("WH")).copy("WH")
+                                                         .edit("WH.mod",
+                                                               "  public type Priority is enum (Low, Normal, High, Urgent);\n",
+                                                               "  public type Priority is enum (Low, Normal, High, Urgent);\n" +
+                                                               "  public type Finish is enum (" + String.join(", ", NAMES) + ");\n")
+                                                         .translate("WH.mod")
+                                                         .assertSucceeded()
+                                                         .getFile("__WH_types.cc");
+    }
+
+    private static String extract(final String start, final String end) {
+        final int begin = source.indexOf(start);
+        Assert.assertTrue("No " + start, begin >= 0);
+        return source.substring(begin, source.indexOf(end, begin) + end.length());
+    }
+
+    private static String fromText() {
+        return extract("  maslt_Finish::Index maslt_Finish::fromText ( ::std::string_view text )", "\n  }\n");
+    }
+
+    private static String textConstructor() {
+        return extract("  maslt_Finish::maslt_Finish ( ::std::string_view text )", "\n  }\n");
+    }
+
+    private static boolean haveCompiler() {
+        try {
+            return new ProcessBuilder("g++", "--version").start().waitFor() == 0;
+        } catch (final IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testSwitchesOnLengthThenCharacter() {
+        final String code = fromText();
+        Assert.assertTrue(code.contains("switch ( text.size() )"));
+        Assert.assertTrue(code.contains("switch ( text[1] )"));
+        Assert.assertFalse(code.contains("std::map"));
+        // Each candidate is confirmed against its name in the text array
+        for (final String name : NAMES) {
+            Assert.assertTrue(code.contains("if ( text == ::std::string_view( textLookup[index_masle_" +
+                                            name +
+                                            "], " +
+                                            name.length() +
+                                            " ) ) return index_masle_" +
+                                            name +
+                                            ";"));
+        }
+        Assert.assertTrue(code.contains("throw ::SWA::ProgramError( \"Enumerate out of RangeExpression\" );"));
+    }
+
+    @Test
+    public void testConstructorTakesStringView() {
+        // Neither characters nor a string need copying into a new string
+        Assert.assertTrue(textConstructor().contains(": index(fromText( text ))"));
+        Assert.assertFalse(source.contains("maslt_Finish::maslt_Finish ( const ::std::string& text )"));
+    }
+
+    @Test
+    public void testConvertsNamesAndRejectsNearMisses() throws Exception {
+        Assume.assumeTrue("No C++ compiler", haveCompiler());
+
+        final List<String> texts = new ArrayList<>(List.of(NAMES));
+        texts.addAll(List.of(NEAR_MISSES));
+
+        final StringBuilder program = new StringBuilder();
+        program.append("#include <iostream>\n#include <stdexcept>\n#include <string>\n#include <string_view>\n");
+        program.append("namespace SWA {\n");
+        program.append("  struct ProgramError : std::runtime_error { using std::runtime_error::runtime_error; };\n");
+        program.append("}\n");
+        program.append("struct maslt_Finish {\n");
+        program.append("  enum Index { index_masle_").append(String.join(", index_masle_", NAMES)).append(" };\n");
+        program.append("  static const char* const textLookup[];\n");
+        program.append("  static Index fromText ( ::std::string_view text );\n");
+        program.append("  explicit maslt_Finish ( ::std::string_view text );\n");
+        program.append("  Index index;\n");
+        program.append("};\n");
+        program.append(extract("  const char* const maslt_Finish::textLookup[]", "};\n"));
+        program.append(fromText());
+        program.append(textConstructor());
+        program.append("int main() {\n");
+        program.append("  const char* const texts[] = {");
+        for (final String text : texts) {
+            program.append(" \"").append(text).append("\",");
+        }
+        program.append(" };\n");
+        program.append("  for ( const char* text : texts ) {\n");
+        program.append("    try {\n");
+        program.append("      const maslt_Finish fromChars( text );\n");
+        program.append("      const maslt_Finish fromString{ std::string( text ) };\n");
+        program.append("      if ( fromChars.index != fromString.index ) return 1;\n");
+        program.append("      std::cout << fromChars.index << '\\n';\n");
+        program.append("    }\n");
+        program.append("    catch ( const SWA::ProgramError& ) { std::cout << \"error\\n\"; }\n");
+        program.append("  }\n");
+        program.append("}\n");
+
+        final File cc = tmp.newFile("fromText.cc");
+        Files.writeString(cc.toPath(), program);
+        final File exe = new File(tmp.getRoot(), "fromText");
+        final Process
+                compile =
+                new ProcessBuilder("g++",
+                                   "-std=c++20",
+                                   "-o",
+                                   exe.getPath(),
+                                   cc.getPath()).redirectErrorStream(true).start();
+        final String errors = new String(compile.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(errors, 0, compile.waitFor());
+
+        final Process run = new ProcessBuilder(exe.getPath()).start();
+        final String[] results = new String(run.getInputStream().readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(0, run.waitFor());
+
+        for (int i = 0; i < texts.size(); ++i) {
+            Assert.assertEquals("fromText(\"" + texts.get(i) + "\")",
+                                i < NAMES.length ? String.valueOf(i) : "error",
+                                results[i]);
+        }
+    }
+
+}
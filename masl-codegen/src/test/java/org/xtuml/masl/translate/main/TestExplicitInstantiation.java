@@ -0,0 +1,139 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that the explicit_instantiation pragma declares the templates used by
+ * each object extern in its headers and instantiates each of them once, in a
+ * per-object _instantiations file, and that without it nothing is generated.
+ */
+public class TestExplicitInstantiation {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final Pattern EXTERN_TEMPLATE = Pattern.compile("^extern template class (.*);$", Pattern.MULTILINE);
+
+    private static final Pattern TEMPLATE = Pattern.compile("^template class (.*);$", Pattern.MULTILINE);
+
+    private TranslatedModel translate(final String name, final String pragma) throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name)).copy("WH");
+        if (pragma != null) {
+            model.edit("WH.mod", "end domain;", "end domain;\npragma explicit_instantiation ( " + pragma + " );");
+        }
+        return model.translate("WH.mod").assertSucceeded();
+    }
+
+    private static List<String> matches(final Pattern pattern, final String code) {
+        final List<String> result = new ArrayList<>();
+        final Matcher matcher = pattern.matcher(code);
+        while (matcher.find()) {
+            result.add(matcher.group(1));
+        }
+        return result;
+    }
+
+    @Test
+    public void testObjectInstantiations() throws Exception {
+        final TranslatedModel model = translate("object", "true");
+
+        Assert.assertEquals(List.of("SWA::ObjectPtr<masld_WH::maslo_SITE>",
+                                    "SWA::Set<SWA::ObjectPtr<masld_WH::maslo_SITE> >"),
+                            matches(EXTERN_TEMPLATE, model.getFile("__WH__SITE.hh")));
+        final String instantiations = model.getFile("__WH__SITE_instantiations.cc");
+        Assert.assertEquals(List.of("SWA::ObjectPtr<masld_WH::maslo_SITE>",
+                                    "SWA::Set<SWA::ObjectPtr<masld_WH::maslo_SITE> >"),
+                            matches(TEMPLATE, instantiations));
+        Assert.assertTrue(instantiations, instantiations.contains("#include \"__WH__SITE.hh\"\n"));
+        Assert.assertTrue(model.getFile("CMakeLists.txt").contains("  src/__WH__SITE_instantiations.cc\n"));
+    }
+
+    @Test
+    public void testTransientInstantiations() throws Exception {
+        final TranslatedModel model = translate("transient", "true");
+
+        Assert.assertEquals(List.of("transient::ToManyRelationship<transient::masld_WH::maslo_RACK>"),
+                            matches(EXTERN_TEMPLATE, model.getFile("Transient__WH__SITE.hh")));
+        Assert.assertEquals(List.of("transient::TransientPopulation<masld_WH::maslo_SITE,masld_WH::maslo_SITEPopulation>",
+                                    "boost::unordered_map<boost::tuple<int32_t>,SWA::ObjectPtr<masld_WH::maslo_SITE> >"),
+                            matches(EXTERN_TEMPLATE, model.getFile("Transient__WH__SITEPopulation.hh")));
+        Assert.assertEquals(List.of("transient::TransientPopulation<masld_WH::maslo_SITE,masld_WH::maslo_SITEPopulation>",
+                                    "boost::unordered_map<boost::tuple<int32_t>,SWA::ObjectPtr<masld_WH::maslo_SITE> >",
+                                    "transient::ToManyRelationship<transient::masld_WH::maslo_RACK>"),
+                            matches(TEMPLATE, model.getFile("Transient__WH__SITE_instantiations.cc")));
+        Assert.assertTrue(model.getFile("CMakeLists.txt").contains("  src/Transient__WH__SITE_instantiations.cc\n"));
+    }
+
+    @Test
+    public void testEachExternInstantiatedOnce() throws Exception {
+        final TranslatedModel model = translate("once", "true");
+
+        // Find the file instantiating each specialisation
+        final Map<String, Path> instantiatedIn = new HashMap<>();
+        for (final Path file : model.getFiles().values()) {
+            if (file.getFileName().toString().endsWith("_instantiations.cc")) {
+                for (final String specialisation : matches(TEMPLATE, Files.readString(file))) {
+                    Assert.assertNull(specialisation + " instantiated twice",
+                                      instantiatedIn.put(specialisation, file));
+                }
+            }
+        }
+        Assert.assertFalse(instantiatedIn.isEmpty());
+
+        // Every extern declaration is instantiated, by a file that sees the
+        // declaration first
+        int externs = 0;
+        for (final Path file : model.getFiles().values()) {
+            for (final String specialisation : matches(EXTERN_TEMPLATE, Files.readString(file))) {
+                final Path instantiation = instantiatedIn.get(specialisation);
+                Assert.assertNotNull(specialisation + " never instantiated", instantiation);
+                final String include = "#include \"" + file.getFileName() + "\"\n";
+                Assert.assertTrue(instantiation + " does not include " + file,
+                                  Files.readString(instantiation).contains(include));
+                ++externs;
+            }
+        }
+        Assert.assertTrue(externs >= instantiatedIn.size());
+    }
+
+    @Test
+    public void testNothingGeneratedWhenOff() throws Exception {
+        final TranslatedModel none = translate("none", null);
+        final TranslatedModel off = translate("off", "false");
+
+        Assert.assertEquals(none.getFiles().keySet(), off.getFiles().keySet());
+        for (final Map.Entry<String, Path> file : none.getFiles().entrySet()) {
+            Assert.assertFalse(file.getKey(), file.getKey().endsWith("_instantiations.cc"));
+            final String code = Files.readString(file.getValue());
+            final String offCode = Files.readString(off.getFiles().get(file.getKey()));
+            Assert.assertFalse(file.getKey(), code.contains("extern template"));
+            // The build files name the model directory
+            Assert.assertEquals("Generated file " + file.getKey() + " differs",
+                                code.replace(none.getModelDir().getPath(), "model"),
+                                offCode.replace(off.getModelDir().getPath(), "model"));
+        }
+    }
+
+}
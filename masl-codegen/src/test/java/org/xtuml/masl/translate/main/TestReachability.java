@@ -0,0 +1,247 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.antlr.Masl;
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodel.domain.Domain;
+import org.xtuml.masl.metamodel.object.ObjectDeclaration;
+import org.xtuml.masl.metamodel.project.Project;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Checks each of the ways in which Reachability reaches code, using the RCH
+ * test model, where every service called from_something is only reached in
+ * the way it is named for. The model is parsed once, with its project, as a
+ * domain can only be parsed once in a JVM, and is then analysed both as a
+ * domain built on its own and as part of the project.
+ */
+public class TestReachability {
+
+    @ClassRule
+    public static TemporaryFolder classTmp = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static Project project;
+    private static Domain domain;
+    private static Reachability forDomain;
+    private static Reachability forProject;
+
+    @BeforeClass
+    public static void parse() throws Exception {
+        final TranslatedModel model = new TranslatedModel(classTmp.getRoot()).copy("RCH");
+        final Masl masl = new Masl(List.of(model.getModelDir().getPath()));
+        project = masl.parseProject(new File(model.getModelDir(), "RCHP.prj"));
+        masl.parseActions(project);
+        Assert.assertEquals(0, masl.errorCount());
+
+        domain = project.getDomains().get(0).getDomain();
+        forDomain = Reachability.forDomain(domain);
+        forProject = Reachability.forProject(project);
+    }
+
+    private static ASTNode service(final String name) {
+        return domain.getServices().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static ASTNode terminatorService(final String name) {
+        return domain.getTerminators()
+                     .get(0)
+                     .getServices()
+                     .stream()
+                     .filter(s -> s.getName().equals(name))
+                     .findFirst()
+                     .orElseThrow();
+    }
+
+    private static ObjectDeclaration object(final String name) {
+        return domain.getObjects().stream().filter(o -> o.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static ASTNode objectService(final String object, final String name) {
+        return object(object).getServices().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static ASTNode state(final String object, final String name) {
+        return object(object).getStates().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static ASTNode event(final String object, final String name) {
+        return object(object).getEvents().stream().filter(e -> e.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static void assertReachable(final ASTNode element) {
+        Assert.assertTrue(element + " not reached as a domain", forDomain.isReachable(element));
+        Assert.assertTrue(element + " not reached in the project", forProject.isReachable(element));
+    }
+
+    private static void assertUnreachable(final ASTNode element) {
+        Assert.assertFalse(element + " reached as a domain", forDomain.isReachable(element));
+        Assert.assertFalse(element + " reached in the project", forProject.isReachable(element));
+    }
+
+    @Test
+    public void testScenariosAndExternalsAreRoots() {
+        assertReachable(service("scen"));
+        assertReachable(service("ext"));
+    }
+
+    @Test
+    public void testArchitecturePragmasAreRoots() {
+        assertReachable(service("on_startup"));
+        assertReachable(service("on_signal"));
+    }
+
+    @Test
+    public void testPublicServicesOnlyRootsAsDomain() {
+        Assert.assertTrue(forDomain.isReachable(service("pub")));
+        Assert.assertTrue(forDomain.isReachable(service("from_pub")));
+        Assert.assertFalse(forProject.isReachable(service("pub")));
+        Assert.assertFalse(forProject.isReachable(service("from_pub")));
+    }
+
+    @Test
+    public void testEntryPointService() {
+        assertReachable(service("entry"));
+    }
+
+    @Test
+    public void testEntryPointObjectKeepsContents() {
+        assertReachable(object("KEPT"));
+        assertReachable(objectService("KEPT", "tidy"));
+        assertReachable(service("from_kept"));
+    }
+
+    @Test
+    public void testEntryPointState() {
+        assertReachable(state("OBJ", "S1"));
+        assertReachable(service("from_entry_state"));
+    }
+
+    @Test
+    public void testEntryPointEventReachesDestination() {
+        assertReachable(event("OBJ", "poke"));
+        assertReachable(state("OBJ", "S4"));
+    }
+
+    @Test
+    public void testInvocationsAndCreates() {
+        assertReachable(service("from_scen"));
+        assertReachable(object("OBJ"));
+    }
+
+    @Test
+    public void testGeneratedEventReachesDestination() {
+        assertReachable(event("OBJ", "go"));
+        assertReachable(state("OBJ", "S2"));
+        assertReachable(service("from_state"));
+    }
+
+    @Test
+    public void testEventNeverGenerated() {
+        assertUnreachable(event("OBJ", "never"));
+        assertUnreachable(state("OBJ", "S3"));
+        assertUnreachable(service("from_never"));
+    }
+
+    @Test
+    public void testPolymorphicEventKeepsSubtypeState() {
+        assertReachable(event("SUPER", "poly"));
+        assertReachable(state("SUB", "Polled"));
+        assertReachable(service("from_poly"));
+        assertUnreachable(state("SUB", "Waiting"));
+    }
+
+    @Test
+    public void testDeferredServiceReachesSubtypeService() {
+        assertReachable(objectService("SUPER", "act"));
+        assertReachable(objectService("SUB", "act"));
+        assertReachable(service("from_deferred"));
+    }
+
+    @Test
+    public void testTerminatorReachesDomainCode() {
+        assertReachable(terminatorService("called"));
+        assertReachable(service("from_term"));
+        assertUnreachable(terminatorService("uncalled"));
+    }
+
+    @Test
+    public void testTerminatorReachesProjectBinding() {
+        // Public, so only a root as a domain, and in the project only called by
+        // the code bound to TERM~>called
+        Assert.assertTrue(forProject.isReachable(service("from_binding")));
+    }
+
+    @Test
+    public void testUncalledCodeUnreachable() {
+        assertUnreachable(service("dead"));
+        assertUnreachable(service("from_dead"));
+        assertUnreachable(object("UNUSED"));
+        assertUnreachable(objectService("UNUSED", "tidy"));
+    }
+
+    @Test
+    public void testReport() {
+        final StringWriter report = new StringWriter();
+        forDomain.writeReport(report);
+        Assert.assertEquals(String.join(System.lineSeparator(),
+                                        "Dead code report for RCH",
+                                        "",
+                                        "Unreachable services (5)",
+                                        "    RCH::from_never",
+                                        "    RCH::dead",
+                                        "    RCH::from_dead",
+                                        "    RCH::TERM~>uncalled",
+                                        "    RCH::UNUSED.tidy",
+                                        "",
+                                        "Unreachable states (2)",
+                                        "    RCH::OBJ.S3",
+                                        "    RCH::SUB.Waiting",
+                                        "",
+                                        "Events never generated (1)",
+                                        "    RCH::OBJ.never",
+                                        "",
+                                        "Objects never created (3)",
+                                        "    RCH::SUPER",
+                                        "    RCH::SUB",
+                                        "    RCH::UNUSED",
+                                        ""), report.toString());
+    }
+
+    @Test
+    public void testUnreachableCodeReplaced() throws Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.getRoot()).copy("RCH");
+        model.edit("RCH.mod", "end domain;", "end domain;\npragma dead_code_elimination ();");
+        model.translate("RCH.mod").assertSucceeded();
+
+        Assert.assertTrue(model.getFile("RCH_dead_code.txt").contains("    RCH::from_dead\n"));
+        Assert.assertTrue(model.getFile("__RCH__from_dead.cc")
+                               .contains("throw ::SWA::ProgramError( \"RCH::from_dead removed as unreachable\" );"));
+        Assert.assertTrue(model.getFile("__RCH__OBJ__S3.cc")
+                               .contains("throw ::SWA::ProgramError( \"RCH::OBJ.S3 removed as unreachable\" );"));
+        // Reached only through the polymorphic event, so must be kept
+        Assert.assertFalse(model.getFile("__RCH__SUB__Polled.cc").contains("removed as unreachable"));
+        Assert.assertFalse(model.getFile("__RCH__from_poly.cc").contains("removed as unreachable"));
+    }
+
+}
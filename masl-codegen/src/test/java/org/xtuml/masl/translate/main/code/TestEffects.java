@@ -0,0 +1,218 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import static org.xtuml.masl.metamodelImpl.SampleDomain.integer;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.r1;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.r2;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.refA;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.refB;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleA;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleAdef;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleB;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleBdef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xtuml.masl.cppgen.Literal;
+import org.xtuml.masl.metamodelImpl.code.AssignmentStatement;
+import org.xtuml.masl.metamodelImpl.code.DeleteStatement;
+import org.xtuml.masl.metamodelImpl.code.LinkUnlinkStatement;
+import org.xtuml.masl.metamodelImpl.code.ServiceInvocation;
+import org.xtuml.masl.metamodelImpl.code.Statement;
+import org.xtuml.masl.metamodelImpl.code.VariableDefinition;
+import org.xtuml.masl.metamodelImpl.common.PragmaList;
+import org.xtuml.masl.metamodelImpl.common.Visibility;
+import org.xtuml.masl.metamodelImpl.domain.Domain;
+import org.xtuml.masl.metamodelImpl.domain.DomainService;
+import org.xtuml.masl.metamodelImpl.expression.CreateExpression;
+import org.xtuml.masl.metamodelImpl.expression.DotExpression;
+import org.xtuml.masl.metamodelImpl.expression.Expression;
+import org.xtuml.masl.metamodelImpl.expression.IntegerLiteral;
+import org.xtuml.masl.metamodelImpl.expression.NavigationExpression;
+import org.xtuml.masl.metamodelImpl.expression.VariableNameExpression;
+import org.xtuml.masl.metamodelImpl.relationship.RelationshipDeclaration;
+import org.xtuml.masl.metamodelImpl.relationship.RelationshipSpecification;
+import org.xtuml.masl.translate.main.Scope;
+import org.xtuml.masl.unittest.ErrorLog;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks which code invalidates a previously evaluated navigation or attribute
+ * read, and that repeats are only reused while nothing invalidates them.
+ */
+public class TestEffects extends TestCase {
+
+    private static final VariableDefinition
+            intDef =
+            VariableDefinition.create("varInt", integer, false, null, new PragmaList());
+
+    private static Expression navigateR1() {
+        return navigate(singleA, r1);
+    }
+
+    private static Expression navigate(final Expression lhs, final RelationshipDeclaration.Reference relRef) {
+        return NavigationExpression.create(null,
+                                           lhs,
+                                           RelationshipSpecification.createReference(lhs,
+                                                                                     relRef,
+                                                                                     "to left of",
+                                                                                     refB,
+                                                                                     false,
+                                                                                     false),
+                                           null);
+    }
+
+    private static Expression readA() {
+        return DotExpression.create(null, singleA, "non_id");
+    }
+
+    private static Statement link(final RelationshipDeclaration.Reference relRef) {
+        return LinkUnlinkStatement.create(null,
+                                          LinkUnlinkStatement.LINK,
+                                          singleA,
+                                          RelationshipSpecification.createReference(singleA,
+                                                                                    relRef,
+                                                                                    "to left of",
+                                                                                    refB,
+                                                                                    false,
+                                                                                    false),
+                                          singleB,
+                                          null);
+    }
+
+    private static Statement assignInt(final Expression value) {
+        return AssignmentStatement.create(null, new VariableNameExpression(null, intDef), value);
+    }
+
+    private static Statement invoke() {
+        final Domain domain = new Domain(null, "TestEffects");
+        DomainService.create(null,
+                             domain,
+                             "service",
+                             Visibility.PUBLIC,
+                             new ArrayList<>(),
+                             null,
+                             new ArrayList<>(),
+                             new PragmaList());
+        final Domain.ServiceOverload overload = (Domain.ServiceOverload) domain.getNameLookup().find("service");
+        return ServiceInvocation.create(null, overload.getReference(null), new ArrayList<>());
+    }
+
+    private static boolean invalidates(final Statement statement, final Expression expression) {
+        ErrorLog.getInstance().reset();
+        assertNotNull(statement);
+        assertNotNull(expression);
+        return Effects.of(statement).invalidates(expression);
+    }
+
+    public void testLinkInvalidatesNavigation() {
+        assertTrue(invalidates(link(r1), navigateR1()));
+    }
+
+    public void testLinkOtherRelationshipKeepsNavigation() {
+        assertFalse(invalidates(link(r2), navigateR1()));
+    }
+
+    public void testLinkInvalidatesReferentialAttributes() {
+        assertTrue(invalidates(link(r2), DotExpression.create(null, singleB, "a_id")));
+    }
+
+    public void testDeleteInvalidatesNavigation() {
+        assertTrue(invalidates(DeleteStatement.create(null, singleB), navigateR1()));
+    }
+
+    public void testCreateInvalidatesNavigation() {
+        ErrorLog.getInstance().reset();
+        final Expression create = CreateExpression.create(null, refB, new ArrayList<>());
+        assertTrue(invalidates(AssignmentStatement.create(null, singleB, create), navigateR1()));
+    }
+
+    public void testAttributeWriteInvalidatesRead() {
+        assertTrue(invalidates(AssignmentStatement.create(null, readA(), new IntegerLiteral(1L)), readA()));
+    }
+
+    public void testAttributeWriteKeepsNavigation() {
+        assertFalse(invalidates(AssignmentStatement.create(null, readA(), new IntegerLiteral(1L)), navigateR1()));
+    }
+
+    public void testAttributeWriteOtherObjectKeepsRead() {
+        assertFalse(invalidates(AssignmentStatement.create(null,
+                                                           DotExpression.create(null, singleB, "non_id"),
+                                                           new IntegerLiteral(1L)), readA()));
+    }
+
+    public void testVariableWriteInvalidatesNavigationFromIt() {
+        assertTrue(invalidates(AssignmentStatement.create(null, singleA, singleA), navigateR1()));
+    }
+
+    public void testVariableWriteKeepsUnrelated() {
+        assertFalse(invalidates(assignInt(new IntegerLiteral(1L)), navigateR1()));
+        assertFalse(invalidates(assignInt(new IntegerLiteral(1L)), readA()));
+    }
+
+    public void testInvocationInvalidatesEverything() {
+        assertTrue(invalidates(invoke(), navigateR1()));
+        assertTrue(invalidates(invoke(), readA()));
+    }
+
+    private static List<CommonSubexpressions.Common> getCommon(final Statement... statements) {
+        ErrorLog.getInstance().reset();
+        final Scope scope = new Scope();
+        scope.addVariable(singleAdef, new Literal("a"));
+        scope.addVariable(singleBdef, new Literal("b"));
+        scope.addVariable(intDef, new Literal("i"));
+        final CommonSubexpressions common = new CommonSubexpressions(scope, List.of(statements));
+        final List<CommonSubexpressions.Common> result = new ArrayList<>();
+        for (int i = 0; i < statements.length; ++i) {
+            result.addAll(common.getCommonBefore(i));
+        }
+        return result;
+    }
+
+    public void testRepeatedReadReused() {
+        final List<CommonSubexpressions.Common> common = getCommon(assignInt(readA()), assignInt(readA()));
+        assertEquals(1, common.size());
+        assertEquals(2, common.get(0).occurrences().size());
+    }
+
+    public void testRepeatedReadNotReusedOverWrite() {
+        assertEquals(Collections.emptyList(),
+                     getCommon(assignInt(readA()),
+                               AssignmentStatement.create(null, readA(), new IntegerLiteral(2L)),
+                               assignInt(readA())));
+    }
+
+    public void testRepeatedReadNotReusedOverInvocation() {
+        assertEquals(Collections.emptyList(), getCommon(assignInt(readA()), invoke(), assignInt(readA())));
+    }
+
+    public void testLongestNavigationReused() {
+        final List<CommonSubexpressions.Common>
+                common =
+                getCommon(AssignmentStatement.create(null, singleB, navigateR1()),
+                          AssignmentStatement.create(null, singleB, navigateR1()));
+        assertEquals(1, common.size());
+        assertTrue(common.get(0).expression() instanceof NavigationExpression);
+    }
+
+    public void testRepeatAfterUnrelatedLinkReused() {
+        final List<CommonSubexpressions.Common>
+                common =
+                getCommon(AssignmentStatement.create(null, singleB, navigateR1()),
+                          link(r2),
+                          AssignmentStatement.create(null, singleB, navigateR1()));
+        assertEquals(1, common.size());
+    }
+
+}
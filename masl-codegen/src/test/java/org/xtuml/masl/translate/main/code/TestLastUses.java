@@ -0,0 +1,206 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xtuml.masl.metamodelImpl.code.AssignmentStatement;
+import org.xtuml.masl.metamodelImpl.code.CodeBlock;
+import org.xtuml.masl.metamodelImpl.code.ExceptionHandler;
+import org.xtuml.masl.metamodelImpl.code.ForStatement;
+import org.xtuml.masl.metamodelImpl.code.LoopSpec;
+import org.xtuml.masl.metamodelImpl.code.Statement;
+import org.xtuml.masl.metamodelImpl.code.VariableDefinition;
+import org.xtuml.masl.metamodelImpl.code.WhileStatement;
+import org.xtuml.masl.metamodelImpl.common.PragmaList;
+import org.xtuml.masl.metamodelImpl.error.SemanticError;
+import org.xtuml.masl.metamodelImpl.expression.BinaryExpression;
+import org.xtuml.masl.metamodelImpl.expression.BooleanLiteral;
+import org.xtuml.masl.metamodelImpl.expression.Expression;
+import org.xtuml.masl.metamodelImpl.expression.StringLiteral;
+import org.xtuml.masl.metamodelImpl.expression.VariableNameExpression;
+import org.xtuml.masl.metamodelImpl.type.SequenceType;
+import org.xtuml.masl.metamodelImpl.type.StringType;
+import org.xtuml.masl.unittest.ErrorLog;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that a variable is only moved from where nothing can read it again,
+ * including round a loop or from an exception handler.
+ */
+public class TestLastUses extends TestCase {
+
+    private static final StringType string = StringType.create(null, false);
+
+    private final VariableDefinition s = VariableDefinition.create("s", string, false, null, new PragmaList());
+    private final VariableDefinition t = VariableDefinition.create("t", string, false, null, new PragmaList());
+    private final VariableDefinition
+            seq =
+            VariableDefinition.create("seq", SequenceType.create(null, string, null, false), false, null, new PragmaList());
+    private final VariableDefinition
+            seq2 =
+            VariableDefinition.create("seq2", SequenceType.create(null, string, null, false), false, null, new PragmaList());
+
+    @Override
+    protected void setUp() {
+        ErrorLog.getInstance().reset();
+    }
+
+    private static Expression read(final VariableDefinition variable) {
+        return new VariableNameExpression(null, variable);
+    }
+
+    private static AssignmentStatement assign(final VariableDefinition target, final Expression value) {
+        final AssignmentStatement result = AssignmentStatement.create(null, read(target), value);
+        assertNotNull(result);
+        return result;
+    }
+
+    private static Expression concatenate(final Expression lhs, final Expression rhs) {
+        return BinaryExpression.create(lhs,
+                                       new BinaryExpression.OperatorRef(null,
+                                                                        BinaryExpression.ImplOperator.CONCATENATE),
+                                       rhs);
+    }
+
+    private static Expression literal() {
+        return StringLiteral.create(null, "\"x\"");
+    }
+
+    private CodeBlock block(final Statement... statements) {
+        final CodeBlock result = new CodeBlock(null, true);
+        result.addVariableDefinition(s);
+        result.addVariableDefinition(t);
+        result.addVariableDefinition(seq);
+        result.addVariableDefinition(seq2);
+        for (final Statement statement : statements) {
+            result.addStatement(statement);
+        }
+        return result;
+    }
+
+    private static CodeBlock nested(final List<Statement> statements, final Statement... handlerCode) throws
+                                                                                                     SemanticError {
+        final CodeBlock result = new CodeBlock(null, false);
+        statements.forEach(result::addStatement);
+        final ExceptionHandler handler = new ExceptionHandler(null, null, null);
+        for (final Statement code : handlerCode) {
+            handler.addStatement(code);
+        }
+        result.addExceptionHandler(handler);
+        return result;
+    }
+
+    private static WhileStatement loop(final Statement... statements) {
+        return WhileStatement.create(null, new BooleanLiteral(null, true), new ArrayList<>(List.of(statements)));
+    }
+
+    private static boolean isMoved(final CodeBlock action, final AssignmentStatement assignment) {
+        return !new LastUses(action).getLastUses(assignment).isEmpty();
+    }
+
+    public void testLastReadMoved() {
+        final AssignmentStatement copy = assign(t, read(s));
+        assertTrue(isMoved(block(copy), copy));
+    }
+
+    public void testReadAgainNotMoved() {
+        final AssignmentStatement first = assign(t, read(s));
+        final AssignmentStatement second = assign(seq, concatenate(read(seq), read(s)));
+        final CodeBlock action = block(first, second);
+        assertFalse(isMoved(action, first));
+        assertTrue(isMoved(action, second));
+    }
+
+    public void testOverwrittenBeforeReadMoved() {
+        final AssignmentStatement copy = assign(t, read(s));
+        final CodeBlock action = block(copy, assign(s, literal()), assign(seq, concatenate(read(seq), read(s))));
+        assertTrue(isMoved(action, copy));
+    }
+
+    public void testReadElsewhereInAssignmentNotMoved() {
+        final AssignmentStatement append = assign(seq, concatenate(read(seq), read(s)));
+        final List<org.xtuml.masl.metamodel.expression.VariableNameExpression>
+                lastUses =
+                new LastUses(block(append)).getLastUses(append);
+        assertEquals(1, lastUses.size());
+        assertSame(s, lastUses.get(0).getVariable());
+
+        final AssignmentStatement twice = assign(seq2, concatenate(read(seq), read(seq)));
+        assertFalse(isMoved(block(twice), twice));
+    }
+
+    public void testNewCollectionMovesLhs() {
+        final AssignmentStatement append = assign(seq2, concatenate(read(seq), read(s)));
+        assertEquals(2, new LastUses(block(append)).getLastUses(append).size());
+    }
+
+    public void testLoopVariableNotMoved() {
+        final ForStatement forStatement = ForStatement.create(null, LoopSpec.create("x", false, read(seq)));
+        assertNotNull(forStatement);
+        final AssignmentStatement copy =
+                assign(t, new VariableNameExpression(null, forStatement.getLoopSpec().getLoopVariableDef()));
+        forStatement.addStatement(copy);
+        assertFalse(isMoved(block(forStatement), copy));
+    }
+
+    public void testLoopCollectionNotMoved() {
+        final ForStatement forStatement = ForStatement.create(null, LoopSpec.create("x", false, read(seq)));
+        assertNotNull(forStatement);
+        final AssignmentStatement copy = assign(seq2, read(seq));
+        forStatement.addStatement(copy);
+        forStatement.addStatement(assign(seq, concatenate(read(seq2), literal())));
+        assertFalse(isMoved(block(forStatement), copy));
+    }
+
+    public void testReadOnNextIterationNotMoved() {
+        final AssignmentStatement copy = assign(t, read(s));
+        assertFalse(isMoved(block(loop(copy)), copy));
+    }
+
+    public void testReadAfterLoopNotMoved() {
+        final AssignmentStatement copy = assign(t, read(s));
+        final CodeBlock action = block(loop(assign(s, literal()), copy), assign(seq, concatenate(read(seq), read(s))));
+        assertFalse(isMoved(action, copy));
+    }
+
+    public void testOverwrittenEachIterationMoved() {
+        final AssignmentStatement copy = assign(t, read(s));
+        assertTrue(isMoved(block(loop(assign(s, literal()), copy)), copy));
+    }
+
+    public void testReadByHandlerNotMoved() throws SemanticError {
+        final AssignmentStatement copy = assign(t, read(s));
+        final AssignmentStatement handled = assign(seq, concatenate(read(seq), read(s)));
+        final CodeBlock action = block(nested(List.of(copy), handled));
+        assertFalse(isMoved(action, copy));
+        assertTrue(isMoved(action, handled));
+    }
+
+    public void testOverwriteSkippedByExceptionNotMoved() throws SemanticError {
+        final AssignmentStatement copy = assign(t, read(s));
+        final CodeBlock
+                action =
+                block(nested(List.of(copy, assign(s, literal()))), assign(seq, concatenate(read(seq), read(s))));
+        assertFalse(isMoved(action, copy));
+    }
+
+    public void testOverwrittenByHandlerMoved() throws SemanticError {
+        final AssignmentStatement copy = assign(t, read(s));
+        final CodeBlock
+                action =
+                block(nested(List.of(copy, assign(s, literal())), assign(s, literal())),
+                      assign(seq, concatenate(read(seq), read(s))));
+        assertTrue(isMoved(action, copy));
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.code;
+
+import static org.xtuml.masl.metamodelImpl.SampleDomain.collA;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.collAdef;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.integer;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.objB;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.r1;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.r2;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.refB;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.refC;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleA;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleAdef;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleB;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleBdef;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleC;
+import static org.xtuml.masl.metamodelImpl.SampleDomain.singleCdef;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xtuml.masl.cppgen.Literal;
+import org.xtuml.masl.metamodel.ASTNode;
+import org.xtuml.masl.metamodelImpl.code.AssignmentStatement;
+import org.xtuml.masl.metamodelImpl.code.DeleteStatement;
+import org.xtuml.masl.metamodelImpl.code.LinkUnlinkStatement;
+import org.xtuml.masl.metamodelImpl.code.VariableDefinition;
+import org.xtuml.masl.metamodelImpl.common.PragmaList;
+import org.xtuml.masl.metamodelImpl.expression.BinaryExpression;
+import org.xtuml.masl.metamodelImpl.expression.CreateExpression;
+import org.xtuml.masl.metamodelImpl.expression.Expression;
+import org.xtuml.masl.metamodelImpl.expression.FindAttributeNameExpression;
+import org.xtuml.masl.metamodelImpl.expression.FindExpression;
+import org.xtuml.masl.metamodelImpl.expression.IntegerLiteral;
+import org.xtuml.masl.metamodelImpl.expression.NavigationExpression;
+import org.xtuml.masl.metamodelImpl.expression.VariableNameExpression;
+import org.xtuml.masl.metamodelImpl.relationship.RelationshipDeclaration;
+import org.xtuml.masl.metamodelImpl.relationship.RelationshipSpecification;
+import org.xtuml.masl.translate.main.Scope;
+import org.xtuml.masl.unittest.ErrorLog;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks which finds and navigations in a loop are found to give the same
+ * result on every iteration, and so can be hoisted out of the loop, and which
+ * changes made by the loop stop them being hoisted. The finds and navigations
+ * are given as the loop condition, as for a while loop.
+ */
+public class TestLoopInvariants extends TestCase {
+
+    private static final VariableDefinition
+            intDef =
+            VariableDefinition.create("varInt", integer, false, null, new PragmaList());
+
+    /**
+     * Stands in for a loop variable, which is not in scope outside the loop
+     */
+    private static final VariableDefinition
+            loopIntDef =
+            VariableDefinition.create("loopInt", integer, false, null, new PragmaList());
+
+    private static Expression navigateR1() {
+        return NavigationExpression.create(null,
+                                           collA,
+                                           RelationshipSpecification.createReference(collA,
+                                                                                     r1,
+                                                                                     "to left of",
+                                                                                     refB,
+                                                                                     false,
+                                                                                     false),
+                                           null);
+    }
+
+    private static Expression findB(final VariableDefinition value) {
+        final Expression
+                condition =
+                BinaryExpression.create(FindAttributeNameExpression.create(objB, "non_id"),
+                                        new BinaryExpression.OperatorRef(null, BinaryExpression.ImplOperator.EQUAL),
+                                        new VariableNameExpression(null, value));
+        return FindExpression.create(null, FindExpression.ImplType.FIND, refB, condition);
+    }
+
+    private static ASTNode linkUnlink(final LinkUnlinkStatement.Type type,
+                                      final RelationshipDeclaration.Reference relRef) {
+        return LinkUnlinkStatement.create(null,
+                                          type,
+                                          singleA,
+                                          RelationshipSpecification.createReference(singleA,
+                                                                                    relRef,
+                                                                                    "to left of",
+                                                                                    refB,
+                                                                                    false,
+                                                                                    false),
+                                          singleB,
+                                          null);
+    }
+
+    /**
+     * Finds the invariants of a loop evaluating an expression and then the rest
+     * of its body on each iteration.
+     */
+    private static List<org.xtuml.masl.metamodel.expression.Expression> getInvariants(final Expression expression,
+                                                                                      final ASTNode... rest) {
+        ErrorLog.getInstance().reset();
+        assertNotNull(expression);
+        final List<ASTNode> loopBody = new ArrayList<>();
+        loopBody.add(expression);
+        for (final ASTNode node : rest) {
+            assertNotNull(node);
+            loopBody.add(node);
+        }
+        final Scope scope = new Scope();
+        scope.addVariable(singleAdef, new Literal("a"));
+        scope.addVariable(singleBdef, new Literal("b"));
+        scope.addVariable(singleCdef, new Literal("c"));
+        scope.addVariable(collAdef, new Literal("as"));
+        scope.addVariable(intDef, new Literal("i"));
+        return new LoopInvariants(scope, loopBody).getInvariants();
+    }
+
+    private static void assertHoisted(final Expression expression, final ASTNode... rest) {
+        assertEquals(List.of(expression), getInvariants(expression, rest));
+    }
+
+    private static void assertNotHoisted(final Expression expression, final ASTNode... rest) {
+        assertEquals(List.of(), getInvariants(expression, rest));
+    }
+
+    public void testFindHoisted() {
+        assertHoisted(findB(intDef));
+    }
+
+    public void testNavigationHoisted() {
+        assertHoisted(navigateR1());
+    }
+
+    public void testNavigationFromInstanceNotHoisted() {
+        // Navigating from a null instance raises, even if the loop never runs
+        assertNotHoisted(NavigationExpression.create(null,
+                                                     singleA,
+                                                     RelationshipSpecification.createReference(singleA,
+                                                                                               r1,
+                                                                                               "to left of",
+                                                                                               refB,
+                                                                                               false,
+                                                                                               false),
+                                                     null));
+    }
+
+    public void testLoopVariableBlocksFind() {
+        assertNotHoisted(findB(loopIntDef));
+    }
+
+    public void testArgumentAssignmentBlocksFind() {
+        assertNotHoisted(findB(intDef),
+                         AssignmentStatement.create(null,
+                                                    new VariableNameExpression(null, intDef),
+                                                    new IntegerLiteral(1L)));
+    }
+
+    public void testSourceAssignmentBlocksNavigation() {
+        assertNotHoisted(navigateR1(), AssignmentStatement.create(null, collA, collA));
+    }
+
+    public void testUnrelatedAssignmentKeepsFind() {
+        assertHoisted(findB(intDef), AssignmentStatement.create(null, singleA, singleA));
+    }
+
+    public void testCreateBlocksFind() {
+        ErrorLog.getInstance().reset();
+        final Expression create = CreateExpression.create(null, refB, new ArrayList<>());
+        assertNotHoisted(findB(intDef), AssignmentStatement.create(null, singleB, create));
+    }
+
+    public void testCreateOtherObjectKeepsFind() {
+        ErrorLog.getInstance().reset();
+        final Expression create = CreateExpression.create(null, refC, new ArrayList<>());
+        assertHoisted(findB(intDef), AssignmentStatement.create(null, singleC, create));
+    }
+
+    public void testDeleteBlocksFind() {
+        assertNotHoisted(findB(intDef), DeleteStatement.create(null, singleB));
+    }
+
+    public void testDeleteBlocksNavigation() {
+        assertNotHoisted(navigateR1(), DeleteStatement.create(null, singleB));
+    }
+
+    public void testLinkBlocksNavigation() {
+        assertNotHoisted(navigateR1(), linkUnlink(LinkUnlinkStatement.LINK, r1));
+    }
+
+    public void testUnlinkBlocksNavigation() {
+        assertNotHoisted(navigateR1(), linkUnlink(LinkUnlinkStatement.UNLINK, r1));
+    }
+
+    public void testLinkOtherRelationshipKeepsNavigation() {
+        assertHoisted(navigateR1(), linkUnlink(LinkUnlinkStatement.LINK, r2));
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.expression;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+/**
+ * Checks that 'length of a find or navigation counts without building the
+ * result, through the population count functions, count_related and count_if,
+ * and that comparing it with zero stops at the first match.
+ */
+public class TestCountFinds {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static TranslatedModel model;
+
+    private static final String PREDICATE = "[&]( const ::SWA::ObjectPtr<maslo_ITEM>& instance ) { return instance.deref().findPredicate_OPmasl_quantity_maslGTp1CP( 1ll ); }";
+
+    @BeforeClass
+    public static void translate() throws Exception {
+        model = new TranslatedModel(tmp.newFolder("WH")).copy("WH")
+                                                        .edit("WH.mod",
+                                                              "  public service urgent_count () return integer;\n",
+                                                              """
+                                                                        public service urgent_count () return integer;
+                                                                        private service count_finds ( rack: in instance of RACK ) return integer;
+                                                                        private service none_stocked () return boolean;
+                                                                      """)
+                                                        .write("count_finds.svc", """
+                                                                private service WH::count_finds ( rack: in instance of RACK ) return integer is
+                                                                  items : set of instance of ITEM;
+                                                                begin
+                                                                  items := find ITEM ( owner_id = 3 );
+                                                                  return (find ITEM ( quantity > 5 ))'length + (find ITEM ())'length +
+                                                                         (rack->R2.SLOT)'length + (find items ( quantity > 1 ))'length;
+                                                                end service;
+                                                                """)
+                                                        .write("none_stocked.svc", """
+                                                                private service WH::none_stocked () return boolean is
+                                                                  items : set of instance of ITEM;
+                                                                begin
+                                                                  items := find ITEM ( owner_id = 3 );
+                                                                  return (find ITEM ( quantity > 0 ))'length = 0 and
+                                                                         0 /= (find items ( quantity > 1 ))'length and items'length > 0;
+                                                                end service;
+                                                                """)
+                                                        .translate("WH.mod")
+                                                        .assertSucceeded();
+    }
+
+    @Test
+    public void testLengthCountsWithoutBuilding() throws Exception {
+        final String code = model.getFile("__WH__count_finds.cc");
+        Assert.assertTrue(code.contains("return maslo_ITEM::count_OPmasl_quantity_maslGTp1CP( 5ll )" +
+                                        " + maslo_ITEM::getPopulationSize()" +
+                                        " + ::SWA::count_related( maslp_rack, [&]( const maslo_RACK* source ) { return source->count_R2_is_divided_into_SLOT(); } )" +
+                                        " + maslv_items.count_if( " + PREDICATE + " );"));
+    }
+
+    @Test
+    public void testPopulationCountFunctions() throws Exception {
+        // The default counts the find, and the transient population counts in
+        // place
+        Assert.assertTrue(model.getFile("__WH__ITEMPopulation.cc")
+                               .contains("::std::size_t maslo_ITEMPopulation::count_OPmasl_quantity_maslGTp1CP ( int32_t p1 ) const\n" +
+                                         "  {\n" +
+                                         "    return find_OPmasl_quantity_maslGTp1CP( p1 ).size();\n" +
+                                         "  }"));
+        Assert.assertTrue(model.getFile("Transient__WH__ITEMPopulation.cc")
+                               .contains("::std::size_t maslo_ITEMPopulation::count_OPmasl_quantity_maslGTp1CP ( int32_t p1 ) const\n" +
+                                         "    {\n" +
+                                         "      return ::std::count_if( begin(), end(), [&]( const ::SWA::ObjectPtr< ::masld_WH::maslo_ITEM>& instance ) { return instance.deref().findPredicate_OPmasl_quantity_maslGTp1CP( p1 ); } );\n" +
+                                         "    }"));
+    }
+
+    @Test
+    public void testComparisonWithZeroChecksEmptiness() throws Exception {
+        final String code = model.getFile("__WH__none_stocked.cc");
+        Assert.assertTrue(code.contains("return maslo_ITEM::findOne_OPmasl_quantity_maslGTp1CP( 0ll ) == ::SWA::Null" +
+                                        " && maslv_items.any_of( " + PREDICATE + " )" +
+                                        " && !maslv_items.empty();"));
+        Assert.assertFalse(code.contains("size()"));
+    }
+
+}
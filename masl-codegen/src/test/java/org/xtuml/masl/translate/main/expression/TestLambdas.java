@@ -0,0 +1,140 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.expression;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+/**
+ * Checks the lambdas generated for find predicates, navigators and orderings:
+ * that arguments which are variables, parameters or constants are captured by
+ * reference, that any other argument is evaluated once into an init-capture,
+ * and that finds with more arguments than boost::bind could take are passed
+ * them directly.
+ */
+public class TestLambdas {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static TranslatedModel model;
+
+    private static final String SERVICES = """
+              private service in_set ( items: in set of instance of ITEM, low: in integer ) return set of instance of ITEM;
+              private service none_of ( a: in integer, b: in integer, c: in integer, d: in integer, e: in integer, f: in integer, g: in integer, h: in integer, i: in integer, j: in integer ) return set of instance of ITEM;
+              private service rack_slots ( rack: in instance of RACK, number: in integer ) return set of instance of SLOT;
+              private service by_quantity ( items: in set of instance of ITEM ) return sequence of instance of ITEM;
+              private service by_name ( summaries: in Item_Summaries ) return Item_Summaries;
+            """;
+
+    /**
+     * The name the ten comparisons of none_of give the find
+     */
+    private static final String NONE_OF = "OPOPOPOPOPOPOPOPOPOPmasl_quantity_maslNEp1CP" +
+                                          "ANDOPmasl_quantity_maslNEp2CPCPANDOPmasl_quantity_maslNEp3CPCP" +
+                                          "ANDOPmasl_quantity_maslNEp4CPCPANDOPmasl_quantity_maslNEp5CPCP" +
+                                          "ANDOPmasl_quantity_maslNEp6CPCPANDOPmasl_quantity_maslNEp7CPCP" +
+                                          "ANDOPmasl_quantity_maslNEp8CPCPANDOPmasl_quantity_maslNEp9CPCP" +
+                                          "ANDOPmasl_quantity_maslNEp10CPCP";
+
+    @BeforeClass
+    public static void translate() throws Exception {
+        model = new TranslatedModel(tmp.newFolder("WH")).copy("WH")
+                                                        .edit("WH.mod",
+                                                              "  public service urgent_count () return integer;\n",
+                                                              "  public service urgent_count () return integer;\n" +
+                                                              SERVICES)
+                                                        .write("in_set.svc", """
+                                                                private service WH::in_set ( items: in set of instance of ITEM, low: in integer ) return set of instance of ITEM is
+                                                                begin
+                                                                  return find items ( quantity > low and quantity < low * 2 and quantity /= 0 );
+                                                                end service;
+                                                                """)
+                                                        .write("none_of.svc", """
+                                                                private service WH::none_of ( a: in integer, b: in integer, c: in integer, d: in integer, e: in integer, f: in integer, g: in integer, h: in integer, i: in integer, j: in integer ) return set of instance of ITEM is
+                                                                begin
+                                                                  return find ITEM ( quantity /= a and quantity /= b and quantity /= c and quantity /= d and quantity /= e and quantity /= f and quantity /= g and quantity /= h and quantity /= i and quantity /= j );
+                                                                end service;
+                                                                """)
+                                                        .write("rack_slots.svc", """
+                                                                private service WH::rack_slots ( rack: in instance of RACK, number: in integer ) return set of instance of SLOT is
+                                                                begin
+                                                                  return rack -> R2.SLOT ( slot = number or slot = number + 1 );
+                                                                end service;
+                                                                """)
+                                                        .write("by_quantity.svc", """
+                                                                private service WH::by_quantity ( items: in set of instance of ITEM ) return sequence of instance of ITEM is
+                                                                begin
+                                                                  return items ordered_by ( quantity, name );
+                                                                end service;
+                                                                """)
+                                                        .write("by_name.svc", """
+                                                                private service WH::by_name ( summaries: in Item_Summaries ) return Item_Summaries is
+                                                                begin
+                                                                  return summaries reverse_ordered_by ( name, quantity );
+                                                                end service;
+                                                                """)
+                                                        .translate("WH.mod")
+                                                        .assertSucceeded();
+    }
+
+    @Test
+    public void testFindPredicateCapturesComputedArgumentByValue() throws Exception {
+        // The parameter and literal are used as they are, the product is
+        // evaluated once when the lambda is created
+        Assert.assertTrue(model.getFile("__WH__in_set.cc")
+                               .contains("return maslp_items.find( [&, arg1 = maslp_low * 2ll]( const ::SWA::ObjectPtr<maslo_ITEM>& instance ) { return instance.deref().findPredicate_OPOPOPmasl_quantity_maslGTp1CPANDOPmasl_quantity_maslLTp2CPCPANDOPmasl_quantity_maslNEp3CPCP( maslp_low, arg1, 0ll ); } );"));
+    }
+
+    @Test
+    public void testFindPredicateTakesManyArguments() throws Exception {
+        Assert.assertTrue(model.getFile("__WH__none_of.cc")
+                               .contains("return maslo_ITEM::find_" +
+                                         NONE_OF +
+                                         "( maslp_a, maslp_b, maslp_c, maslp_d, maslp_e, maslp_f, maslp_g, maslp_h, maslp_i, maslp_j );"));
+        final String population = model.getFile("Transient__WH__ITEMPopulation.cc");
+        final int start = population.indexOf("maslo_ITEMPopulation::find_" + NONE_OF);
+        final String find = population.substring(start, population.indexOf("\n    }\n", start));
+        Assert.assertTrue(find,
+                          find.contains(
+                                  "::SWA::copy_if( begin(), end(), result.inserter(), [&]( const ::SWA::ObjectPtr< ::masld_WH::maslo_ITEM>& instance ) { return instance.deref().findPredicate_" +
+                                  NONE_OF +
+                                  "( p1, p2, p3, p4, p5, p6, p7, p8, p9, p10 ); } );"));
+        // No longer packed into a tuple to get past the bind parameter limit
+        Assert.assertFalse(find, find.contains("make_tuple"));
+    }
+
+    @Test
+    public void testNavigatorCapturesComputedArgumentByValue() throws Exception {
+        Assert.assertTrue(model.getFile("__WH__rack_slots.cc")
+                               .contains("return ::SWA::navigate_many<maslo_SLOT>( maslp_rack, [&, arg1 = maslp_number + 1ll]( const maslo_RACK* source ) { return source->navigate_R2_is_divided_into_SLOT_OPOPmasl_slot_maslEQp1CPOROPmasl_slot_maslEQp2CPCP( maslp_number, arg1 ); } );"));
+        Assert.assertTrue(model.getFile("__WH__RACK.cc")
+                               .contains("return navigate_R2_is_divided_into_SLOT().find( [&]( const ::SWA::ObjectPtr<maslo_SLOT>& instance ) { return instance.deref().findPredicate_OPOPmasl_slot_maslEQp1CPOROPmasl_slot_maslEQp2CPCP( p1, p2 ); } );"));
+        Assert.assertTrue(model.getFile("Transient__WH__RACK.cc")
+                               .contains("return get_R2_is_divided_into_SLOT().navigate( [&]( const ::masld_WH::maslo_SLOT& related ) { return related.findPredicate_OPOPmasl_slot_maslEQp1CPOROPmasl_slot_maslEQp2CPCP( p1, p2 ); } );"));
+    }
+
+    @Test
+    public void testInstanceOrdering() throws Exception {
+        Assert.assertTrue(model.getFile("__WH__by_quantity.cc")
+                               .contains("return maslp_items.ordered_by( [&]( const ::SWA::ObjectPtr<maslo_ITEM>& lhs, const ::SWA::ObjectPtr<maslo_ITEM>& rhs ) { return lhs.deref().orderByPredicate_masla_quantitymasla_name( rhs.deref() ); } );"));
+    }
+
+    @Test
+    public void testStructureOrdering() throws Exception {
+        Assert.assertTrue(model.getFile("__WH__by_name.cc")
+                               .contains("return maslp_summaries.reverse_ordered_by( [&]( const maslt_Item_Summary& lhs, const maslt_Item_Summary& rhs ) { return lhs.get_masla_name() < rhs.get_masla_name() || !(rhs.get_masla_name() < lhs.get_masla_name()) && lhs.get_masla_quantity() < rhs.get_masla_quantity(); } );"));
+    }
+
+}
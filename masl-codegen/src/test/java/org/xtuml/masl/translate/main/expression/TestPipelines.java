@@ -0,0 +1,277 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.expression;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Checks that chains of navigations and finds are fused into the stages of
+ * swa/pipeline.hh, with the consumer matching how the result is used, and
+ * that a single navigation is left alone. The stages themselves are run over
+ * a diamond of relationships, using minimal stand-ins for the instance and set
+ * types, which is skipped when there is no C++ compiler.
+ */
+public class TestPipelines {
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static TranslatedModel model;
+
+    private static final String SERVICES = """
+              private service first_free ( site: in instance of SITE ) return instance of SLOT;
+              private service any_item ( rack: in instance of RACK ) return instance of ITEM;
+              private service site_items ( site: in instance of SITE ) return set of instance of ITEM;
+              private service racks ( site: in instance of SITE ) return set of instance of RACK;
+            """;
+
+    @BeforeClass
+    public static void translate() throws Exception {
+        model = new TranslatedModel(tmp.newFolder("WH")).copy("WH")
+                                                        .edit("WH.mod",
+                                                              "  public service urgent_count () return integer;\n",
+                                                              "  public service urgent_count () return integer;\n" +
+                                                              SERVICES)
+                                                        .write("first_free.svc", """
+                                                                private service WH::first_free ( site: in instance of SITE ) return instance of SLOT is
+                                                                begin
+                                                                  return find_one (site->R1.RACK->R2.SLOT) ( free = true );
+                                                                end service;
+                                                                """)
+                                                        .write("any_item.svc", """
+                                                                private service WH::any_item ( rack: in instance of RACK ) return instance of ITEM is
+                                                                begin
+                                                                  return (rack->R2.SLOT->R3.ITEM)'any;
+                                                                end service;
+                                                                """)
+                                                        .write("site_items.svc", """
+                                                                private service WH::site_items ( site: in instance of SITE ) return set of instance of ITEM is
+                                                                begin
+                                                                  return site->R1.RACK->R2.SLOT->R3.ITEM;
+                                                                end service;
+                                                                """)
+                                                        .write("racks.svc", """
+                                                                private service WH::racks ( site: in instance of SITE ) return set of instance of RACK is
+                                                                begin
+                                                                  return site->R1.RACK;
+                                                                end service;
+                                                                """)
+                                                        .translate("WH.mod")
+                                                        .assertSucceeded();
+    }
+
+    private static String navigate(final String from, final String relationship) {
+        return "::SWA::pipeline::navigate( [&]( const maslo_" + from + "* source ) { return source->navigate_" +
+               relationship + "(); } )";
+    }
+
+    @Test
+    public void testFindOneStopsAtFirstMatch() throws Exception {
+        final String code = model.getFile("__WH__first_free.cc");
+        Assert.assertTrue(code.contains("#include \"swa/pipeline.hh\""));
+        Assert.assertTrue(code.contains("return ::SWA::pipeline::first<maslo_SLOT>( maslp_site, " +
+                                        navigate("SITE", "R1_contains_RACK") +
+                                        ", " +
+                                        navigate("RACK", "R2_is_divided_into_SLOT") +
+                                        ", ::SWA::pipeline::filter( [&]( const ::SWA::ObjectPtr<maslo_SLOT>& instance ) { return instance.deref().findPredicate_OPmasl_free_maslEQp1CP( true ); } ) );"));
+    }
+
+    @Test
+    public void testAnyStopsAtFirstInstance() throws Exception {
+        Assert.assertTrue(model.getFile("__WH__any_item.cc")
+                               .contains("return ::SWA::pipeline::first<maslo_ITEM>( maslp_rack, " +
+                                         navigate("RACK", "R2_is_divided_into_SLOT") +
+                                         ", " +
+                                         navigate("SLOT", "R3_stores_ITEM") +
+                                         " );"));
+    }
+
+    @Test
+    public void testChainCollectsOnlyFinalSet() throws Exception {
+        Assert.assertTrue(model.getFile("__WH__site_items.cc")
+                               .contains("return ::SWA::pipeline::collect<maslo_ITEM>( maslp_site, " +
+                                         navigate("SITE", "R1_contains_RACK") +
+                                         ", " +
+                                         navigate("RACK", "R2_is_divided_into_SLOT") +
+                                         ", " +
+                                         navigate("SLOT", "R3_stores_ITEM") +
+                                         " );"));
+    }
+
+    @Test
+    public void testSingleNavigationNotFused() throws Exception {
+        final String code = model.getFile("__WH__racks.cc");
+        Assert.assertTrue(code.contains("navigate_R1_contains_RACK()"));
+        Assert.assertFalse(code.contains("pipeline"));
+    }
+
+    private static final File PIPELINE = new File("../architecture/swa/include/swa/pipeline.hh");
+
+    private static boolean haveCompiler() {
+        try {
+            return new ProcessBuilder("g++", "--version").start().waitFor() == 0;
+        } catch (final IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    // Just enough of the architecture's types for pipeline.hh, which only
+    // needs to test, compare, dereference and collect instances
+    private static final String OBJECT_PTR = """
+            #pragma once
+            namespace SWA {
+                template <class T>
+                class ObjectPtr {
+                  public:
+                    ObjectPtr() : ptr(nullptr) {}
+                    explicit ObjectPtr(T *ptr) : ptr(ptr) {}
+                    T *get() const { return ptr; }
+                    T &deref() const { return *ptr; }
+                    explicit operator bool() const { return ptr != nullptr; }
+                    bool operator==(const ObjectPtr &rhs) const = default;
+                  private:
+                    T *ptr;
+                };
+            }
+            """;
+
+    private static final String PROGRAM_ERROR = """
+            #pragma once
+            #include <stdexcept>
+            namespace SWA {
+                struct ProgramError : std::runtime_error {
+                    using std::runtime_error::runtime_error;
+                };
+            }
+            """;
+
+    private static final String SET = """
+            #pragma once
+            #include <vector>
+            namespace SWA {
+                template <class T>
+                class Set {
+                  public:
+                    Set &operator+=(const T &value) { values.push_back(value); return *this; }
+                    void forceUnique() { ++uniqued; }
+                    auto begin() const { return values.begin(); }
+                    auto end() const { return values.end(); }
+                    std::size_t size() const { return values.size(); }
+                    std::vector<T> values;
+                    int uniqued = 0;
+                };
+            }
+            """;
+
+    @Test
+    public void testDiamondNavigatedOnce() throws Exception {
+        Assume.assumeTrue("No C++ compiler", haveCompiler());
+
+        final File include = tmp.newFolder("diamond", "swa");
+        Files.copy(PIPELINE.toPath(), new File(include, "pipeline.hh").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.writeString(new File(include, "ObjectPtr.hh").toPath(), OBJECT_PTR);
+        Files.writeString(new File(include, "ProgramError.hh").toPath(), PROGRAM_ERROR);
+        Files.writeString(new File(include, "Set.hh").toPath(), SET);
+
+        // Both TOPs lead to the same MIDDLE, which leads to both BOTTOMs
+        final String program = """
+                #include "swa/pipeline.hh"
+                #include <iostream>
+
+                struct BOTTOM {
+                    int id;
+                };
+
+                struct MIDDLE {
+                    std::vector<BOTTOM *> bottoms;
+                    mutable int navigated = 0;
+                    SWA::Set<SWA::ObjectPtr<BOTTOM>> navigate_R3() const {
+                        ++navigated;
+                        SWA::Set<SWA::ObjectPtr<BOTTOM>> result;
+                        for (BOTTOM *bottom : bottoms) {
+                            result += SWA::ObjectPtr<BOTTOM>(bottom);
+                        }
+                        return result;
+                    }
+                };
+
+                struct TOP {
+                    MIDDLE *middle;
+                    SWA::ObjectPtr<MIDDLE> navigate_R2() const {
+                        return SWA::ObjectPtr<MIDDLE>(middle);
+                    }
+                };
+
+                int main() {
+                    BOTTOM bottom1{1};
+                    BOTTOM bottom2{2};
+                    MIDDLE middle{{&bottom1, &bottom2}};
+                    TOP top1{&middle};
+                    TOP top2{&middle};
+                    SWA::Set<SWA::ObjectPtr<TOP>> tops;
+                    tops += SWA::ObjectPtr<TOP>(&top1);
+                    tops += SWA::ObjectPtr<TOP>(&top2);
+
+                    auto toMiddle = SWA::pipeline::navigate([&](const TOP *source) { return source->navigate_R2(); });
+                    auto toBottom = SWA::pipeline::navigate([&](const MIDDLE *source) { return source->navigate_R3(); });
+
+                    auto all = SWA::pipeline::collect<BOTTOM>(tops, toMiddle, toBottom);
+                    std::cout << "collect " << all.size() << " navigated " << middle.navigated << std::endl;
+
+                    middle.navigated = 0;
+                    auto second = SWA::pipeline::first<BOTTOM>(
+                        tops, toMiddle, toBottom,
+                        SWA::pipeline::filter([&](const SWA::ObjectPtr<BOTTOM> &instance) { return instance.deref().id == 2; }));
+                    std::cout << "first " << second.deref().id << " navigated " << middle.navigated << std::endl;
+
+                    middle.navigated = 0;
+                    auto only = SWA::pipeline::only<BOTTOM>(
+                        tops, toMiddle, toBottom,
+                        SWA::pipeline::filter([&](const SWA::ObjectPtr<BOTTOM> &instance) { return instance.deref().id == 1; }));
+                    std::cout << "only " << only.deref().id << " navigated " << middle.navigated << std::endl;
+                }
+                """;
+
+        final File cc = new File(include.getParentFile(), "diamond.cc");
+        Files.writeString(cc.toPath(), program);
+        final File exe = new File(include.getParentFile(), "diamond");
+        final Process compile = new ProcessBuilder("g++",
+                                                   "-std=c++20",
+                                                   "-Wall",
+                                                   "-Werror",
+                                                   "-I",
+                                                   include.getParent(),
+                                                   "-o",
+                                                   exe.getPath(),
+                                                   cc.getPath()).redirectErrorStream(true).start();
+        final String errors = new String(compile.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(errors, 0, compile.waitFor());
+
+        final Process run = new ProcessBuilder(exe.getPath()).redirectErrorStream(true).start();
+        final String output = new String(run.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(output, 0, run.waitFor());
+        // The middle instance is reached twice but only navigated from once,
+        // and each bottom instance is consumed once
+        Assert.assertEquals("collect 2 navigated 1\nfirst 2 navigated 1\nonly 1 navigated 1\n", output);
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.object;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that generated events are created through the pooling allocator of
+ * swa/EventPool.hh, and that the allocator reuses released blocks and copes
+ * with events released after a thread's free list has gone. The allocator
+ * check is skipped when there is no C++ compiler.
+ */
+public class TestEventPool {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final File INCLUDE = new File("../architecture/swa/include");
+
+    private static boolean haveCompiler() {
+        try {
+            return new ProcessBuilder("g++", "--version").start().waitFor() == 0;
+        } catch (final IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static ProcessBuilder compileCommand(final File cc, final File exe, final String... options) {
+        final List<String> command = new ArrayList<>(List.of("g++", "-std=c++20", "-Wall", "-Werror", "-pthread"));
+        command.addAll(List.of(options));
+        command.addAll(List.of("-I", INCLUDE.getPath(), "-o", exe.getPath(), cc.getPath()));
+        return new ProcessBuilder(command);
+    }
+
+    private static boolean compileWithSanitizer(final File cc, final File exe) throws IOException,
+                                                                                  InterruptedException {
+        return compileCommand(cc, exe, "-fsanitize=address").redirectErrorStream(true)
+                                                            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                                                            .start()
+                                                            .waitFor() == 0;
+    }
+
+    @Test
+    public void testEventsAllocatedFromPool() throws Exception {
+        final String code = new TranslatedModel(tmp.newFolder("WH")).copy("WH")
+                                                                     .translate("WH.mod")
+                                                                     .assertSucceeded()
+                                                                     .getFile("__WH__ITEM.cc");
+        Assert.assertTrue(code.contains("#include \"swa/EventPool.hh\""));
+        Assert.assertTrue(code.contains(
+                "::std::shared_ptr< ::SWA::Event> event = ::std::allocate_shared<Event_maslo_ITEM_maslev_low_stock>( ::SWA::EventPoolAllocator<Event_maslo_ITEM_maslev_low_stock>(), maslp_amount );"));
+        Assert.assertTrue(code.contains(
+                "::std::shared_ptr< ::SWA::Event> event = ::std::allocate_shared<Event_maslo_ITEM_maslev_restocked>( ::SWA::EventPoolAllocator<Event_maslo_ITEM_maslev_restocked>() );"));
+        Assert.assertFalse(code.contains("make_shared"));
+    }
+
+    @Test
+    public void testAllocatorReusesBlocksAndSurvivesTeardown() throws Exception {
+        Assume.assumeTrue("No C++ compiler", haveCompiler());
+
+        final String program = """
+                #include "swa/EventPool.hh"
+                #include <cstdint>
+                #include <iostream>
+                #include <memory>
+                #include <thread>
+
+                struct Event {
+                    Event(int64_t value) : value(value) {}
+                    int64_t value;
+                };
+
+                std::shared_ptr<Event> create(int64_t value) {
+                    return std::allocate_shared<Event>(SWA::EventPoolAllocator<Event>(), value);
+                }
+
+                // Released during static destruction, after the main thread's
+                // free list has been destroyed
+                std::shared_ptr<Event> heldByStatic;
+
+                struct Holder {
+                    std::shared_ptr<Event> event;
+                };
+
+                int main() {
+                    const Event *first = create(1).get();
+                    const Event *second = create(2).get();
+                    std::cout << "reused " << (first == second) << std::endl;
+
+                    // Released on another thread's free list
+                    std::shared_ptr<Event> crossed;
+                    std::thread([&crossed] { crossed = create(3); }).join();
+                    crossed.reset();
+
+                    // Released while the thread's thread_locals are destroyed,
+                    // the holder having been constructed before the free list
+                    std::thread([] {
+                        static thread_local Holder holder;
+                        holder.event = create(4);
+                    }).join();
+
+                    heldByStatic = create(5);
+                    std::cout << "done" << std::endl;
+                }
+                """;
+
+        final File cc = tmp.newFile("pool.cc");
+        Files.writeString(cc.toPath(), program);
+        final File exe = new File(tmp.getRoot(), "pool");
+        // Built with the address sanitizer where available, so that a block
+        // lost on a destroyed free list is reported as a leak
+        if (!compileWithSanitizer(cc, exe)) {
+            final Process compile = compileCommand(cc, exe).redirectErrorStream(true).start();
+            final String errors = new String(compile.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            Assert.assertEquals(errors, 0, compile.waitFor());
+        }
+
+        final Process run = new ProcessBuilder(exe.getPath()).redirectErrorStream(true).start();
+        final String output = new String(run.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(output, 0, run.waitFor());
+        Assert.assertEquals("reused 1\ndone\n", output);
+    }
+
+}
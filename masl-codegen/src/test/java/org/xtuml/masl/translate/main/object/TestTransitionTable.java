@@ -0,0 +1,140 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.main.object;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks when events are dispatched through a transition table rather than a
+ * switch, and that the table rejects a state it has no entry for in the same
+ * way as the switch.
+ */
+public class TestTransitionTable {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final Pattern SWITCH_THROW = Pattern.compile("default: (throw [^\n]*;)");
+    private static final Pattern TABLE_THROW = Pattern.compile("\\|\\| !transitions\\[state\\] \\) (throw [^\n]*;)");
+
+    /**
+     * @return the code of the process function for an event, up to the next
+     * function
+     */
+    private static String processFunction(final String source, final String object, final String event) {
+        final String start = "void maslo_" + object + "::process_maslo_" + object + "_maslev_" + event + " (";
+        final int begin = source.indexOf(start);
+        Assert.assertTrue("No " + start, begin >= 0);
+        final int end = source.indexOf("\n  }\n", begin);
+        return source.substring(begin, end);
+    }
+
+    private static String group(final Pattern pattern, final String code) {
+        final Matcher matcher = pattern.matcher(code);
+        Assert.assertTrue(pattern + " not found in\n" + code, matcher.find());
+        return matcher.group(1);
+    }
+
+    /**
+     * Writes a domain SM with an object for each number of states given, named
+     * OBJ followed by the number of states, each state moving to the next on
+     * the event next.
+     */
+    private TranslatedModel stateMachines(final String name, final String pragmas, final int... sizes) throws
+                                                                                                      Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name));
+        final StringBuilder mod = new StringBuilder("domain SM is\n");
+        for (final int size : sizes) {
+            mod.append("  object OBJ").append(size).append(";").append(pragmas).append("\n");
+        }
+        for (final int size : sizes) {
+            final String object = "OBJ" + size;
+            mod.append("  object ").append(object).append(" is\n");
+            mod.append("    id : preferred integer;\n");
+            for (int i = 1; i <= size; ++i) {
+                mod.append("    state S").append(i).append(" ();\n");
+                model.write(object + "_S" + i + ".al",
+                            "state SM::" + object + ".S" + i + " () is\nbegin\n  null;\nend state;\n");
+            }
+            mod.append("    event next ();\n");
+            mod.append("    transition is\n");
+            mod.append("      Non_Existent ( next => Cannot_Happen );\n");
+            for (int i = 1; i <= size; ++i) {
+                mod.append("      S").append(i).append(" ( next => S").append(i % size + 1).append(" );\n");
+            }
+            mod.append("    end transition;\n");
+            mod.append("  end object;\n");
+        }
+        mod.append("end domain;\n");
+        return model.write("SM.mod", mod.toString()).translate("SM.mod").assertSucceeded();
+    }
+
+    @Test
+    public void testPragmaSelectsTableWithRangeCheck() throws Exception {
+        final String switched = new TranslatedModel(tmp.newFolder("switch")).copy("WH")
+                                                                            .translate("WH.mod")
+                                                                            .assertSucceeded()
+                                                                            .getFile("__WH__ITEM.cc");
+        final String table = new TranslatedModel(tmp.newFolder("table")).copy("WH")
+                                                                        .edit("WH.mod",
+                                                                              "  object ITEM;",
+                                                                              "  object ITEM; pragma transition_table ();")
+                                                                        .translate("WH.mod")
+                                                                        .assertSucceeded()
+                                                                        .getFile("__WH__ITEM.cc");
+
+        for (final String event : new String[]{"low_stock", "restocked"}) {
+            final String switchCode = processFunction(switched, "ITEM", event);
+            final String tableCode = processFunction(table, "ITEM", event);
+
+            Assert.assertTrue(switchCode.contains("switch ( getCurrentState() )"));
+            Assert.assertFalse(tableCode.contains("switch"));
+            Assert.assertTrue(tableCode.contains("transitions[] = {"));
+            Assert.assertTrue(tableCode.contains("const ::std::size_t state = getCurrentState();"));
+            Assert.assertTrue(tableCode.contains("if ( state >= 2 || !transitions[state] ) throw"));
+            Assert.assertTrue(tableCode.contains("transitions[state]( *this"));
+            Assert.assertEquals(group(SWITCH_THROW, switchCode), group(TABLE_THROW, tableCode));
+        }
+    }
+
+    @Test
+    public void testThreshold() throws Exception {
+        final int threshold = StateMachineTranslator.TRANSITION_TABLE_THRESHOLD;
+        final TranslatedModel model = stateMachines("threshold", "", threshold - 1, threshold);
+
+        final String below = processFunction(model.getFile("__SM__OBJ" + (threshold - 1) + ".cc"),
+                                             "OBJ" + (threshold - 1),
+                                             "next");
+        Assert.assertTrue(below.contains("switch ( getCurrentState() )"));
+        Assert.assertFalse(below.contains("transitions[]"));
+
+        final String at = processFunction(model.getFile("__SM__OBJ" + threshold + ".cc"), "OBJ" + threshold, "next");
+        Assert.assertFalse(at.contains("switch"));
+        Assert.assertTrue(at.contains("if ( state >= " + threshold + " || !transitions[state] ) throw"));
+    }
+
+    @Test
+    public void testPragmaFalseKeepsSwitch() throws Exception {
+        final int threshold = StateMachineTranslator.TRANSITION_TABLE_THRESHOLD;
+        final TranslatedModel model = stateMachines("false", " pragma transition_table ( false );", threshold);
+
+        final String code = processFunction(model.getFile("__SM__OBJ" + threshold + ".cc"), "OBJ" + threshold, "next");
+        Assert.assertTrue(code.contains("switch ( getCurrentState() )"));
+        Assert.assertFalse(code.contains("transitions[]"));
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ ----------------------------------------------------------------------------
+ (c) 2005-2023 - CROWN OWNED COPYRIGHT. All rights reserved.
+ The copyright of this Software is vested in the Crown
+ and the Software is the property of the Crown.
+ ----------------------------------------------------------------------------
+ SPDX-License-Identifier: Apache-2.0
+ ----------------------------------------------------------------------------
+ */
+package org.xtuml.masl.translate.perflint;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xtuml.masl.translate.TranslatedModel;
+
+/**
+ * Checks the position and estimated cost of each warning PerformanceLint
+ * reports, that a navigation only repeats another where both must give the
+ * same result, and that the pragmas tuning the checks are obeyed.
+ */
+public class TestPerformanceLint {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String LINT = """
+            public service WH::lint ( site_id: in integer ) is
+              site  : instance of SITE;
+              slot  : instance of SLOT;
+              slots : sequence of instance of SLOT;
+              items : sequence of instance of ITEM;
+            begin
+              site := find_one SITE ( site_id = site_id );
+              slot := find_one SLOT ( site_id = site_id and slot = 1 );
+              slots := site -> R1.RACK -> R2.SLOT;
+              slots := site -> R1.RACK -> R2.SLOT;
+              for i in 1 .. 3 loop
+                items := find ITEM ( owner_id = i );
+                items := items ordered_by ( quantity );
+              end loop;
+            end service;
+            """;
+
+    private static final String LINT_SCOPES = """
+            public service WH::lint_scopes ( site_id: in integer, flag: in boolean ) is
+              site  : instance of SITE;
+              slots : sequence of instance of SLOT;
+            begin
+              site := find_one SITE ( site_id = site_id );
+              if flag then
+                slots := site -> R1.RACK -> R2.SLOT;
+                slots := site -> R1.RACK -> R2.SLOT;
+              else
+                slots := site -> R1.RACK -> R2.SLOT;
+              end if;
+              slots := site -> R1.RACK -> R2.SLOT;
+              site := find_one SITE ( site_id = site_id + 1 );
+              slots := site -> R1.RACK -> R2.SLOT;
+              for i in 1 .. 3 loop
+                slots := site -> R1.RACK -> R2.SLOT;
+              end loop;
+            end service;
+            """;
+
+    private static final String NEAR_IDENTIFIER =
+            "lint.svc:8:10: Warning: find_one on 'SLOT' searches the whole population, but would be an identifier " +
+            "lookup if 'rack' were also matched [estimated cost O(n) in WH::lint]";
+    private static final String REPEATED_NAVIGATION =
+            "lint.svc:10:27: Warning: navigation 'site -> R1.contains.RACK -> R2.is_divided_into.SLOT' repeats the " +
+            "navigation at line 9; consider holding the result in a variable [estimated cost O(n^2) in WH::lint]";
+    private static final String UNINDEXED_FIND =
+            "lint.svc:12:13: Warning: find on 'ITEM' in a loop does not match an identifier, so searches the whole " +
+            "population [estimated cost O(n^2) in WH::lint]";
+    private static final String ORDERING =
+            "lint.svc:13:19: Warning: ordered_by on 'ITEM' in a loop sorts the set on every iteration [estimated cost " +
+            "O(n^2 log n) in WH::lint]";
+
+    private TranslatedModel lint(final String name, final String domainPragma, final String lintPragma) throws
+                                                                                                        Exception {
+        final TranslatedModel model = new TranslatedModel(tmp.newFolder(name)).copy("WH");
+        model.edit("WH.mod",
+                   "  public service urgent_count () return integer;",
+                   "  public service urgent_count () return integer;\n" +
+                   "  public service lint ( site_id: in integer );" +
+                   (lintPragma == null ? "" : " pragma " + lintPragma + ";") +
+                   "\n  public service lint_scopes ( site_id: in integer, flag: in boolean );");
+        if (domainPragma != null) {
+            model.edit("WH.mod", "end domain;", "end domain;\npragma " + domainPragma + ";");
+        }
+        return model.write("lint.svc", LINT)
+                    .write("lint_scopes.svc", LINT_SCOPES)
+                    .translate("WH.mod", "-onlytranslator", "PerformanceLint")
+                    .assertSucceeded();
+    }
+
+    private static void assertReported(final TranslatedModel model, final String warning) {
+        Assert.assertTrue(model.getLog(), model.getLog().contains(warning));
+    }
+
+    private static void assertNotReported(final TranslatedModel model, final String warning) {
+        Assert.assertFalse(model.getLog(), model.getLog().contains(warning));
+    }
+
+    @Test
+    public void testUnindexedFindInLoop() throws Exception {
+        final TranslatedModel model = lint("find", null, null);
+        assertReported(model, UNINDEXED_FIND);
+        // Found by identifier, so not reported
+        assertNotReported(model, "lint.svc:7:");
+    }
+
+    @Test
+    public void testNearIdentifierFind() throws Exception {
+        assertReported(lint("near", null, null), NEAR_IDENTIFIER);
+    }
+
+    @Test
+    public void testRepeatedNavigation() throws Exception {
+        final TranslatedModel model = lint("navigation", null, null);
+        assertReported(model, REPEATED_NAVIGATION);
+        assertNotReported(model, "lint.svc:9:");
+    }
+
+    @Test
+    public void testOrderingInLoop() throws Exception {
+        assertReported(lint("ordering", null, null), ORDERING);
+    }
+
+    @Test
+    public void testNavigationOnlyRepeatsWithSameSource() throws Exception {
+        final TranslatedModel model = lint("scopes", null, null);
+        // Repeated within the same branch
+        assertReported(model,
+                       "lint_scopes.svc:8:29: Warning: navigation 'site -> R1.contains.RACK -> R2.is_divided_into.SLOT' " +
+                       "repeats the navigation at line 7");
+        // Not repeats of the navigations in the other branch, after the if,
+        // after site is assigned again, or in the loop
+        Assert.assertEquals(model.getLog(), 1, model.getLog().split("lint_scopes\\.svc:", -1).length - 1);
+    }
+
+    @Test
+    public void testMinimumCost() throws Exception {
+        final TranslatedModel model = lint("cost", "perf_lint_min_cost ( quadratic )", null);
+        assertNotReported(model, NEAR_IDENTIFIER);
+        assertReported(model, REPEATED_NAVIGATION);
+        assertReported(model, UNINDEXED_FIND);
+        assertReported(model, ORDERING);
+    }
+
+    @Test
+    public void testDisableOnDomain() throws Exception {
+        final TranslatedModel
+                model =
+                lint("domain", "perf_lint_disable ( repeated_navigation, ordering_in_loop )", null);
+        assertReported(model, NEAR_IDENTIFIER);
+        assertNotReported(model, REPEATED_NAVIGATION);
+        assertReported(model, UNINDEXED_FIND);
+        assertNotReported(model, ORDERING);
+        assertNotReported(model, "lint_scopes.svc:");
+    }
+
+    @Test
+    public void testDisableOnService() throws Exception {
+        final TranslatedModel model = lint("service", null, "perf_lint_disable ()");
+        assertNotReported(model, "lint.svc:");
+        assertReported(model, "lint_scopes.svc:8:29: Warning: navigation");
+    }
+
+    @Test
+    public void testUnknownPragmaValues() throws Exception {
+        final TranslatedModel
+                model =
+                lint("unknown", "perf_lint_min_cost ( huge )", "perf_lint_disable ( unindexed_find )");
+        assertReported(model,
+                       "WH.mod:8:0: Warning: unknown value 'huge' for pragma perf_lint_min_cost, expected one of constant, " +
+                       "linear, linearithmic, quadratic, cubic");
+        assertReported(model,
+                       "WH.mod:31:9: Warning: unknown value 'unindexed_find' for pragma perf_lint_disable, expected one " +
+                       "of unindexed_find_in_loop, near_identifier_find, repeated_navigation, ordering_in_loop");
+        // The default minimum cost is kept, and the known checks still run
+        assertReported(model, NEAR_IDENTIFIER);
+        assertReported(model, UNINDEXED_FIND);
+    }
+
+}
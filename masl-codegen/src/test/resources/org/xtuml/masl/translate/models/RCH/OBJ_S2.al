@@ -0,0 +1,8 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state RCH::OBJ.S2 () is
+begin
+  from_state ();
+end state;
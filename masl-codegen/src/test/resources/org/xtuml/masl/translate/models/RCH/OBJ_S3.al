@@ -0,0 +1,8 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state RCH::OBJ.S3 () is
+begin
+  from_never ();
+end state;
@@ -0,0 +1,8 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state RCH::OBJ.S4 () is
+begin
+  null;
+end state;
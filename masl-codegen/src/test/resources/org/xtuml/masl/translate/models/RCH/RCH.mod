@@ -0,0 +1,86 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+//! Reachability test domain, reaching code in each of the ways that
+//! Reachability follows, alongside code that nothing reaches.
+domain RCH is
+  object OBJ;
+  object SUPER;
+  object SUB;
+  object KEPT; pragma entry_point ();
+  object UNUSED;
+
+  terminator TERM is
+    public service called ();
+    public service uncalled ();
+  end terminator;
+
+  public service pub ();
+  public service from_binding ();
+  private service scen (); pragma scenario (1);
+  private service ext (); pragma external (1);
+  private service entry (); pragma entry_point ();
+  private service on_startup (); pragma startup ();
+  private service on_signal (); pragma signal_handler (SIGINT);
+  private service from_scen ();
+  private service from_pub ();
+  private service from_term ();
+  private service from_deferred ();
+  private service from_state ();
+  private service from_entry_state ();
+  private service from_poly ();
+  private service from_never ();
+  private service from_kept ();
+  private service dead ();
+  private service from_dead ();
+
+  relationship R1 is SUPER is_a (SUB);
+
+  object OBJ is
+    id : preferred integer;
+    state S1 (); pragma entry_point ();
+    state S2 ();
+    state S3 ();
+    state S4 ();
+    event go ();
+    event never ();
+    event poke (); pragma entry_point ();
+    transition is
+      Non_Existent ( go => Cannot_Happen, never => Cannot_Happen, poke => Cannot_Happen );
+      S1 ( go => S2, never => S3, poke => S4 );
+      S2 ( go => Ignore, never => S3, poke => Ignore );
+      S3 ( go => Ignore, never => Ignore, poke => Ignore );
+      S4 ( go => Ignore, never => Ignore, poke => Ignore );
+    end transition;
+  end object;
+
+  object SUPER is
+    id : preferred integer;
+    private instance deferred (R1) service act ();
+    event poly ();
+  end object;
+
+  object SUB is
+    id : preferred referential (R1.id) integer;
+    private instance service act ();
+    state Waiting ();
+    state Polled ();
+    transition is
+      Non_Existent ( SUPER.poly => Cannot_Happen );
+      Waiting ( SUPER.poly => Polled );
+      Polled ( SUPER.poly => Ignore );
+    end transition;
+  end object;
+
+  object KEPT is
+    id : preferred integer;
+    private service tidy ();
+  end object;
+
+  object UNUSED is
+    id : preferred integer;
+    private service tidy ();
+  end object;
+
+end domain;
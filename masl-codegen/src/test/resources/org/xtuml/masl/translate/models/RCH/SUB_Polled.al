@@ -0,0 +1,8 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state RCH::SUB.Polled () is
+begin
+  from_poly ();
+end state;
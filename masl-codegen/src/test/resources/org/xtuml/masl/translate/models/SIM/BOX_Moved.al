@@ -0,0 +1,11 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state SIM::BOX.Moved ( shelf: in integer ) is
+begin
+  console << "moved " << this.box_id << " to " << shelf << endl;
+  if shelf = 2 then
+    generate BOX.settle () to this;
+  end if;
+end state;
@@ -0,0 +1,8 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state SIM::BOX.Settled () is
+begin
+  console << "settled " << this.box_id << endl;
+end state;
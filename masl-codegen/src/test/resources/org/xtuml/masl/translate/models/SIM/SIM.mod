@@ -0,0 +1,47 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+//! Small domain used by the simulation tests, with a scenario printing the
+//! results of finds, navigations, links, orderings and events, and a
+//! scenario showing the order in which queued events are delivered.
+domain SIM is
+  object SHELF;
+  object BOX;
+
+  terminator LOG is
+    public service note ( message: in string );
+  end terminator;
+
+  private service stock (); pragma scenario ( 1 );
+  private service queue (); pragma scenario ( 2 );
+
+  relationship R1 is BOX conditionally is_held_on one SHELF,
+                     SHELF conditionally holds many BOX;
+
+  object SHELF is
+    shelf_id : preferred integer;
+    name     : string;
+  end object;
+
+  object BOX is
+    box_id   : preferred integer;
+    shelf_id : referential ( R1.is_held_on.SHELF.shelf_id ) integer;
+    weight   : integer;
+
+    state Waiting ();
+    state Moved ( shelf: in integer );
+    state Settled ();
+
+    event move ( shelf: in integer );
+    event settle ();
+
+    transition is
+      Non_Existent ( move => Cannot_Happen, settle => Cannot_Happen );
+      Waiting      ( move => Moved,         settle => Cannot_Happen );
+      Moved        ( move => Moved,         settle => Settled );
+      Settled      ( move => Moved,         settle => Ignore );
+    end transition;
+  end object;
+
+end domain;
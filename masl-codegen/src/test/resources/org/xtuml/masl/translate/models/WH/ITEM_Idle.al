@@ -0,0 +1,8 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state WH::ITEM.Idle () is
+begin
+  null;
+end state;
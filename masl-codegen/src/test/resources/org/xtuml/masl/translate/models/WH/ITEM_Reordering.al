@@ -0,0 +1,10 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+state WH::ITEM.Reordering ( amount: in integer ) is
+begin
+  this.reorder ( amount );
+  this.quantity := this.quantity + amount;
+  generate ITEM.restocked () to this;
+end state;
@@ -0,0 +1,99 @@
+//
+// UK Crown Copyright (c) 2016. All rights reserved.
+//
+
+//! Small warehouse domain used by the translator tests. It exercises
+//! composite identifiers, finds, navigations, state machines, events
+//! and services so that generated output can be checked end to end.
+domain WH is
+  object SITE;
+  object RACK;
+  object SLOT;
+  object ITEM;
+  object ORDER;
+
+  public type Priority is enum (Low, Normal, High, Urgent);
+
+  public type Item_Summary is structure
+    name     : string;
+    quantity : integer;
+  end structure;
+
+  public type Item_Summaries is sequence of Item_Summary;
+
+  terminator LOG is
+    public service info ( message: in string );
+  end terminator;
+
+  public service restock ( site_id: in integer, threshold: in integer );
+  public service summarise ( site_id: in integer ) return Item_Summaries;
+  public service urgent_count () return integer;
+  private service populate (); pragma scenario ( 1 );
+  private service poke ( item_id: in integer ); pragma external ( 1 );
+
+  relationship R1 is RACK unconditionally is_located_at one SITE,
+                     SITE conditionally contains many RACK;
+
+  relationship R2 is SLOT unconditionally is_part_of one RACK,
+                     RACK conditionally is_divided_into many SLOT;
+
+  relationship R3 is ITEM conditionally is_stored_in one SLOT,
+                     SLOT conditionally stores many ITEM;
+
+  relationship R4 is ORDER unconditionally requests one ITEM,
+                     ITEM conditionally is_requested_by many ORDER;
+
+  object SITE is
+    site_id : preferred integer;
+    name    : string;
+  end object;
+
+  object RACK is
+    site_id : preferred referential ( R1.is_located_at.SITE.site_id ) integer;
+    rack    : preferred integer;
+  end object;
+
+  object SLOT is
+    site_id : preferred referential ( R2.is_part_of.RACK.site_id ) integer;
+    rack    : preferred referential ( R2.is_part_of.RACK.rack ) integer;
+    slot    : preferred integer;
+    free    : boolean;
+  end object;
+
+  object ITEM is
+    item_id  : preferred unique integer;
+    site_id  : referential ( R3.is_stored_in.SLOT.site_id ) integer;
+    rack     : referential ( R3.is_stored_in.SLOT.rack ) integer;
+    slot     : referential ( R3.is_stored_in.SLOT.slot ) integer;
+    name     : string;
+    quantity : integer;
+    status   : Priority;
+    owner_id : integer;
+    received : timestamp;
+
+    public instance service reorder ( amount: in integer );
+
+    state Idle ();
+    state Reordering ( amount: in integer );
+
+    event low_stock ( amount: in integer );
+    event restocked ();
+
+    transition is
+      Non_Existent ( low_stock => Cannot_Happen,
+                     restocked => Cannot_Happen );
+      Idle         ( low_stock => Reordering,
+                     restocked => Ignore );
+      Reordering   ( low_stock => Ignore,
+                     restocked => Idle );
+    end transition;
+  end object;
+
+  object ORDER is
+    order_id : preferred unique integer;
+    item_id  : referential ( R4.requests.ITEM.item_id ) integer;
+    priority : Priority;
+    amount   : integer;
+  end object;
+
+end domain;